@@ -3,6 +3,7 @@ package org.bxwbb;
 import com.formdev.flatlaf.FlatDarculaLaf;
 import org.bxwbb.MiniWindow.StartPage;
 import org.bxwbb.Util.FileUtil;
+import org.bxwbb.Util.Resource.ResourceReloadService;
 import org.bxwbb.Util.Task.ScheduledTaskManager;
 import org.bxwbb.WorkEventer.WorkController;
 import org.slf4j.Logger;
@@ -25,6 +26,7 @@ public class Main {
 
     public static void setup() {
         FileUtil.setLang("zh_cn");
+        ResourceReloadService.getInstance().start();
     }
 
     public static void pageInit() {
@@ -65,6 +67,7 @@ public class Main {
             @Override
             public void windowClosing(WindowEvent e) {
                 log.info("正在关闭程序...");
+                ResourceReloadService.getInstance().stop();
                 log.info("关闭文件输入输出线程池...");
                 FileUtil.shutdown();
                 log.info("关闭文件输入输出线程池...完成");
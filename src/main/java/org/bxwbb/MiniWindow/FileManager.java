@@ -1,25 +1,47 @@
 package org.bxwbb.MiniWindow;
 
+import com.formdev.flatlaf.FlatClientProperties;
 import org.bxwbb.Main;
 import org.bxwbb.Setting;
 import org.bxwbb.Swing.CreateFile;
 import org.bxwbb.Swing.CreateFolder;
 import org.bxwbb.Swing.RenameFile;
+import org.bxwbb.UI.ImageToolTip;
 import org.bxwbb.UI.IndicatorStatus;
 import org.bxwbb.UI.MissionTip;
 import org.bxwbb.UI.RoundLabel;
 import org.bxwbb.Util.ClipboardUtil;
 import org.bxwbb.Util.DragDrop.FileTransferHandler;
+import org.bxwbb.Util.FileSystem.CopyEngine;
+import org.bxwbb.Util.FileSystem.DirectoryLister;
+import org.bxwbb.Util.FileSystem.DirectoryPrefetcher;
+import org.bxwbb.Util.FileSystem.MoveResult;
+import org.bxwbb.Util.FileTree.ExpansionStateStore;
+import org.bxwbb.Util.FileTree.ExpansionTrie;
+import org.bxwbb.Util.FileTree.FileAttributes;
+import org.bxwbb.Util.FileTree.FileNode;
+import org.bxwbb.Util.FileTree.FileTreeModel;
+import org.bxwbb.Util.FileTree.FileTreeSearch;
+import org.bxwbb.Util.FileTree.FileTreeView;
+import org.bxwbb.Util.FileTree.RefreshQueue;
+import org.bxwbb.Util.FileTree.SharedFileTree;
+import org.bxwbb.Util.FileTree.SubtreeLoader;
+import org.bxwbb.Util.FileTreeSorter;
 import org.bxwbb.Util.FileUtil;
 import org.bxwbb.Util.JTreeExpandCollapseUtil;
 import org.bxwbb.Util.PathInfoFormatter;
+import org.bxwbb.Util.Resource.IconCache;
+import org.bxwbb.Util.Resource.ThumbnailCache;
 import org.bxwbb.Util.Task.ControllableThreadTask;
+import org.bxwbb.Util.Task.EdtBatcher;
+import org.bxwbb.WorkEventer.CopyWork;
 import org.bxwbb.WorkEventer.Work;
-import org.bxwbb.WorkEventer.WorkControllableThreadTask;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
 import javax.swing.event.TreeExpansionEvent;
 import javax.swing.event.TreeExpansionListener;
 import javax.swing.tree.*;
@@ -28,23 +50,30 @@ import java.awt.datatransfer.UnsupportedFlavorException;
 import java.awt.event.ActionEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.awt.event.MouseMotionAdapter;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.FileOwnerAttributeView;
 import java.text.SimpleDateFormat;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class FileManager extends MiniWindow {
 
     private static final Logger log = LoggerFactory.getLogger(FileManager.class);
     private final AtomicBoolean isLoading = new AtomicBoolean(false);
-    private final AtomicInteger loadingCount = new AtomicInteger(0);
     private static final int MIN_FILE_COUNT = 10000;
+    // 打开/展开文件夹后最多预取的子文件夹数
+    private static final int MAX_PREFETCH_CHILDREN = 16;
+    // 展开状态变化后延迟保存（毫秒），连续的展开/折叠只写一次
+    private static final int EXPANSION_SAVE_DELAY = 1000;
+    // 图片文件悬停预览的尺寸
+    private static final int PREVIEW_SIZE = 256;
 
     private File rootFile;
 
@@ -52,16 +81,26 @@ public class FileManager extends MiniWindow {
         super(FileManager.class);
     }
 
-    private String cutPath;
-    private DefaultMutableTreeNode cutNode;
     private boolean isCut = false;
+    // 文件树的排序规则，切换根目录时保留
+    private FileTreeSorter sorter = FileTreeSorter.defaultSorter();
+    // 当前根目录的共用文件树（模型与文件夹监听），同一根目录的窗口共用
+    private SharedFileTree sharedTree;
+    private FileTreeView fileTree;
+    // 按名称过滤文件树（输入即过滤），切换根目录时保留输入的内容
+    private final JTextField filterField = new JTextField(16);
+    private FileTreeSearch treeSearch;
+    // 当前文件树的展开状态，按根目录持久化
+    private ExpansionTrie expansionState;
+    private File expansionRoot;
+    private final javax.swing.Timer expansionSaveTimer = new javax.swing.Timer(EXPANSION_SAVE_DELAY, e -> saveExpansionState());
 
     FileManager self = this;
 
     @Override
     public void init() {
-        Image image = new ImageIcon(Objects.requireNonNull(getClass().getResource("/SpigotCT/icon/FileManager/SelectFolder.png"))).getImage();
-        JButton selectFolderButton = new JButton(new ImageIcon(image.getScaledInstance(20, 20, Image.SCALE_SMOOTH)));
+        expansionSaveTimer.setRepeats(false);
+        JButton selectFolderButton = new JButton(IconCache.getClasspathIcon("/SpigotCT/icon/FileManager/SelectFolder.png", 20, 20));
 
         // TODO: 文件的拖拽功能
 
@@ -80,10 +119,64 @@ public class FileManager extends MiniWindow {
                     centerPanel.revalidate();
                     centerPanel.repaint();
 
-                    DefaultMutableTreeNode rootNode = new DefaultMutableTreeNode(new FileData(rootFile));
-                    DefaultTreeModel newTreeModel = new DefaultTreeModel(rootNode);
+                    if (treeSearch != null) treeSearch.cancel();
+                    if (sharedTree != null) sharedTree.release(fileTree);
+                    SharedFileTree newSharedTree = SharedFileTree.acquire(rootFile, sorter);
+                    FileTreeModel newTreeModel = newSharedTree.getModel();
+                    FileNode rootNode = newTreeModel.getRoot();
+                    // 其他窗口已打开同一根目录时沿用它的排序规则
+                    if (newTreeModel.getOrder() instanceof FileTreeSorter sharedSorter) sorter = sharedSorter;
+
+                    FileTreeView newFileTree = new FileTreeView(newTreeModel) {
+                        // 悬停的图片文件和它的预览
+                        private FileNode previewNode;
+                        private Icon preview;
+                        // 预览生成后重新检查提示（文字变化时提示框会重新显示）
+                        private final Runnable previewReady = this::refreshPreview;
+                        private MouseEvent lastEvent;
 
-                    JTree newFileTree = new JTree(newTreeModel);
+                        @Override
+                        public String getToolTipText(MouseEvent event) {
+                            lastEvent = event;
+                            TreePath path = getPathForLocation(event.getX(), event.getY());
+                            FileNode node = path == null ? null : (FileNode) path.getLastPathComponent();
+                            FileAttributes attributes = node == null ? null : node.getAttributes();
+                            if (attributes == null || attributes.directory() || !ThumbnailCache.isSupported(node.getName())) {
+                                previewNode = null;
+                                preview = null;
+                                return null;
+                            }
+                            previewNode = node;
+                            preview = ThumbnailCache.getInstance().get(node.getFile(), attributes.size(), attributes.modifiedTime(), PREVIEW_SIZE, previewReady);
+                            if (preview == null) {
+                                return node.getName() + " - " + FileUtil.getLang("miniWindow.fileManager.previewLoading");
+                            }
+                            return node.getName();
+                        }
+
+                        @Override
+                        public JToolTip createToolTip() {
+                            ImageToolTip tip = new ImageToolTip();
+                            tip.setComponent(this);
+                            tip.setImage(preview);
+                            return tip;
+                        }
+
+                        private void refreshPreview() {
+                            // 鼠标已离开时不再触发提示
+                            if (previewNode == null || lastEvent == null || getMousePosition() == null) return;
+                            ToolTipManager.sharedInstance().mouseMoved(lastEvent);
+                        }
+                    };
+                    ToolTipManager.sharedInstance().registerComponent(newFileTree);
+                    newSharedTree.attach(newFileTree);
+                    sharedTree = newSharedTree;
+                    fileTree = newFileTree;
+                    treeSearch = new FileTreeSearch(newSharedTree);
+                    saveExpansionState();
+                    ExpansionTrie newExpansionState = ExpansionStateStore.getInstance().load(rootFile);
+                    expansionState = newExpansionState;
+                    expansionRoot = rootFile;
                     newFileTree.setRootVisible(true);
                     newFileTree.setShowsRootHandles(true);
                     newFileTree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
@@ -101,18 +194,40 @@ public class FileManager extends MiniWindow {
 
 
                     newFileTree.getSelectionModel().addTreeSelectionListener(treeSelectionEvent -> openFiles(newFileTree, newTreeModel));
+                    newFileTree.addMouseMotionListener(new MouseMotionAdapter() {
+                        private FileNode hovered;
+
+                        @Override
+                        public void mouseMoved(MouseEvent e) {
+                            // 悬停的未展开文件夹很可能马上被打开，预先列出
+                            TreePath path = newFileTree.getPathForLocation(e.getX(), e.getY());
+                            FileNode node = path == null ? null : (FileNode) path.getLastPathComponent();
+                            if (node == null || node.equals(hovered)) return;
+                            hovered = node;
+                            if (node.isDirectory() && !newFileTree.isExpanded(path)) {
+                                DirectoryPrefetcher.getInstance().hint(node.getFile().toPath());
+                            }
+                        }
+                    });
                     newFileTree.addTreeExpansionListener(new TreeExpansionListener() {
                         @Override
                         public void treeExpanded(TreeExpansionEvent event) {
+                            watchExpanded(newSharedTree, newFileTree, event.getPath(), newExpansionState);
                             SwingUtilities.invokeLater(() -> {
                                 TreePath expandedPath = event.getPath();
-                                DefaultMutableTreeNode expandedNode = (DefaultMutableTreeNode) expandedPath.getLastPathComponent();
-                                continuouslyUnfolded(expandedNode, newTreeModel, newFileTree);
+                                FileNode expandedNode = (FileNode) expandedPath.getLastPathComponent();
+                                continuouslyUnfolded(expandedNode, newTreeModel, newFileTree, newExpansionState);
                             });
                         }
 
                         @Override
                         public void treeCollapsed(TreeExpansionEvent event) {
+                            FileNode collapsedNode = (FileNode) event.getPath().getLastPathComponent();
+                            if (collapsedNode.getUserObject() instanceof FileData(File folder, var attributes)) {
+                                newSharedTree.unwatchTree(newFileTree, folder.toPath());
+                            }
+                            newExpansionState.collapse(collapsedNode);
+                            expansionSaveTimer.restart();
                         }
                     });
                     newFileTree.addMouseListener(new MouseAdapter() {
@@ -123,9 +238,9 @@ public class FileManager extends MiniWindow {
                                 if (row != -1) {
                                     newFileTree.setSelectionRow(row);
                                     TreePath selectedPath = newFileTree.getSelectionPath();
-                                    DefaultMutableTreeNode selectedNode = null;
+                                    FileNode selectedNode = null;
                                     if (selectedPath != null) {
-                                        selectedNode = (DefaultMutableTreeNode) selectedPath.getLastPathComponent();
+                                        selectedNode = (FileNode) selectedPath.getLastPathComponent();
                                     }
 
                                     if (selectedNode != null) {
@@ -139,7 +254,12 @@ public class FileManager extends MiniWindow {
 
                     });
 
-                    newFileTree.setCellRenderer(new FileTreeRenderer());
+                    FileTreeRenderer renderer = new FileTreeRenderer();
+                    newFileTree.setCellRenderer(renderer);
+                    // 固定行高 + largeModel：JTree只为展开的节点保存状态，不再为每一行创建对象
+                    int rowHeight = renderer.getTreeCellRendererComponent(newFileTree, rootNode, false, false, false, 0, false).getPreferredSize().height;
+                    newFileTree.setRowHeight(Math.max(newFileTree.getRowHeight(), rowHeight));
+                    newFileTree.setLargeModel(true);
 
                     JScrollPane newScrollPane = new JScrollPane(newFileTree);
                     newScrollPane.setVerticalScrollBarPolicy(JScrollPane.VERTICAL_SCROLLBAR_AS_NEEDED);
@@ -149,6 +269,9 @@ public class FileManager extends MiniWindow {
 
                     refreshTreeAsync(rootNode, newTreeModel, newFileTree, () -> {
                         newFileTree.expandPath(new TreePath(rootNode.getPath()));
+                        // 根节点创建时已展开，不会触发展开事件
+                        restoreExpanded(rootNode, newFileTree, newExpansionState);
+                        filterTree();
                         centerPanel.revalidate();
                         centerPanel.repaint();
                     });
@@ -177,13 +300,44 @@ public class FileManager extends MiniWindow {
         JLabel initLabel = new JLabel(FileUtil.getLang("miniWindow.fileManager.pleaseSelectFile"));
         getCenterPanel().add(initLabel, BorderLayout.CENTER);
         getTopPanel().add(selectFolderButton);
+
+        filterField.putClientProperty(FlatClientProperties.PLACEHOLDER_TEXT, FileUtil.getLang("miniWindow.fileManager.filter"));
+        filterField.putClientProperty(FlatClientProperties.TEXT_FIELD_SHOW_CLEAR_BUTTON, true);
+        filterField.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                filterTree();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                filterTree();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                filterTree();
+            }
+        });
+        getTopPanel().add(filterField);
     }
 
-    private void continuouslyUnfolded(DefaultMutableTreeNode expandedNode, DefaultTreeModel newTreeModel, JTree newFileTree) {
+    /**
+     * 按过滤框的内容过滤当前文件树，每次输入使上一次的查询作废
+     */
+    private void filterTree() {
+        if (treeSearch == null || fileTree == null) return;
+        FileTreeView tree = fileTree;
+        treeSearch.search(filterField.getText(), tree::setFilter);
+    }
+
+    private void continuouslyUnfolded(FileNode expandedNode, FileTreeModel newTreeModel, JTree newFileTree, ExpansionTrie expansion) {
         refreshTreeAsync(expandedNode, newTreeModel, newFileTree, () -> {
+            restoreExpanded(expandedNode, newFileTree, expansion);
+            prefetchChildren(expandedNode, newTreeModel, newFileTree);
             if (expandedNode.getChildCount() == 1) {
                 SwingUtilities.invokeLater(() -> {
-                    newFileTree.expandPath(new TreePath(((DefaultMutableTreeNode) expandedNode.getChildAt(0)).getPath()));
+                    newFileTree.expandPath(expandedNode.getChildAt(0).getTreePath());
                     getCenterPanel().revalidate();
                     getCenterPanel().repaint();
                 });
@@ -191,15 +345,71 @@ public class FileManager extends MiniWindow {
         });
     }
 
+    /**
+     * 文件夹加载后展开上次记录为展开的子文件夹，子文件夹展开后加载时再恢复下一层
+     */
+    private void restoreExpanded(FileNode dir, JTree tree, ExpansionTrie expansion) {
+        if (!dir.isValid() || !tree.isExpanded(dir.getTreePath())) return;
+        for (FileNode child : expansion.expandedChildren(dir)) {
+            tree.expandPath(child.getTreePath());
+        }
+    }
+
+    private void saveExpansionState() {
+        expansionSaveTimer.stop();
+        if (expansionState != null && expansionRoot != null) {
+            ExpansionStateStore.getInstance().save(expansionRoot, expansionState);
+        }
+    }
+
     @Override
     public void delete() {
+        saveExpansionState();
+        if (treeSearch != null) {
+            treeSearch.cancel();
+            treeSearch = null;
+        }
+        if (sharedTree != null) {
+            sharedTree.release(fileTree);
+            sharedTree = null;
+            fileTree = null;
+        }
+    }
+
+    /**
+     * 监听并记录展开的文件夹，以及随它重新显示出来的、之前已展开的子文件夹
+     */
+    private void watchExpanded(SharedFileTree shared, JTree tree, TreePath path, ExpansionTrie expansion) {
+        List<TreePath> paths = new ArrayList<>();
+        paths.add(path);
+        Enumeration<TreePath> descendants = tree.getExpandedDescendants(path);
+        if (descendants != null) paths.addAll(Collections.list(descendants));
+        for (TreePath expanded : paths) {
+            FileNode node = (FileNode) expanded.getLastPathComponent();
+            expansion.expand(node);
+            if (node.getUserObject() instanceof FileData(File folder, var attributes)) {
+                shared.watch(tree, folder.toPath());
+            }
+        }
+        expansionSaveTimer.restart();
+    }
+
+    /**
+     * 文件夹正在被监听时变化会自动同步，否则手动刷新
+     */
+    public void refreshIfUnwatched(FileNode node, FileTreeModel currentModel, JTree tree) {
+        if (node != null && node.getUserObject() instanceof FileData(File folder, var attributes)
+                && sharedTree != null && sharedTree.isWatching(folder.toPath())) {
+            return;
+        }
+        refreshTreeAsync(node, currentModel, tree);
     }
 
-    private void createPopMenu(JPopupMenu popupMenu, DefaultMutableTreeNode selectedNode, DefaultTreeModel currentModel, JTree tree) {
-        if (selectedNode.getUserObject() instanceof FileData(File file)) {
+    private void createPopMenu(JPopupMenu popupMenu, FileNode selectedNode, FileTreeModel currentModel, JTree tree) {
+        if (selectedNode.getUserObject() instanceof FileData(File file, var attributes)) {
             JMenu createNew = new JMenu(FileUtil.getLang("miniWindow.fileManager.popMenu.create"));
             JMenuItem createFile = new JMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.create.file"),
-                    FileUtil.getImageIconToPath(Objects.requireNonNull(FileUtil.loadFile(FileUtil.DEFAULT_FILE_ICON)).getPath()));
+                    IconCache.getResourceIcon(FileUtil.getFileTypeRegistry().getDefaultFileIcon(), 20, 20));
             createFile.addActionListener(e -> {
                 File pFile;
                 if (file.isDirectory()) {
@@ -217,12 +427,12 @@ public class FileManager extends MiniWindow {
                 if (file.isDirectory()) {
                     refreshTreeAsync(selectedNode, currentModel, tree, () -> SwingUtilities.invokeLater(() -> tree.expandPath(new TreePath(selectedNode.getPath()))));
                 } else {
-                    refreshTreeAsync((DefaultMutableTreeNode) selectedNode.getParent(), currentModel, tree, () -> SwingUtilities.invokeLater(() -> tree.expandPath(new TreePath(((DefaultMutableTreeNode) selectedNode.getParent()).getPath()))));
+                    refreshTreeAsync(selectedNode.getParent(), currentModel, tree, () -> SwingUtilities.invokeLater(() -> tree.expandPath(new TreePath(selectedNode.getParent().getPath()))));
                 }
             });
             createNew.add(createFile);
             JMenuItem createFolder = new JMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.create.folder"),
-                    FileUtil.getImageIconToPath(Objects.requireNonNull(FileUtil.loadFile(FileUtil.DEFAULT_FOLDER_ICON[1])).getPath()));
+                    IconCache.getResourceIcon(FileUtil.getFileTypeRegistry().getDefaultFolderIcon(false), 20, 20));
             createFolder.addActionListener(event -> {
                 File pFile;
                 if (file.isDirectory()) {
@@ -238,9 +448,9 @@ public class FileManager extends MiniWindow {
                 dialog.setLocationRelativeTo(null);
                 dialog.setVisible(true);
                 if (file.isDirectory()) {
-                    refreshTreeAsync(selectedNode, currentModel, tree);
+                    refreshIfUnwatched(selectedNode, currentModel, tree);
                 } else {
-                    refreshTreeAsync((DefaultMutableTreeNode) selectedNode.getParent(), currentModel, tree);
+                    refreshIfUnwatched(selectedNode.getParent(), currentModel, tree);
                 }
             });
             createNew.add(createFolder);
@@ -267,29 +477,30 @@ public class FileManager extends MiniWindow {
                 try {
                     ClipboardUtil.ClipboardContent content = ClipboardUtil.getClipboardContent();
                     if (content.isFileList()) {
-                        for (File file1 : content.getFileList()) {
-                            {
-                                try {
-                                    if (!FileUtil.copyFileOrDir(file1.getAbsolutePath(), file.getAbsolutePath())) {
-                                        log.error("复制时出现错误 - {} >> {}", file1.getPath(), file1);
-                                    }
-                                } catch (IllegalArgumentException | IOException ex) {
-                                    log.error("禁止将文件夹复制到自身的子目录中");
-                                }
-                            }
+                        File targetDir = file.isDirectory() ? file : file.getParentFile();
+                        FileNode targetNode = file.isDirectory() ? selectedNode : selectedNode.getParent();
+                        boolean cut = isCut;
+                        isCut = false;
+                        List<Path> sources = content.getFileList().stream().map(File::toPath).toList();
+                        CopyWork copyWork;
+                        try {
+                            copyWork = new CopyWork(cut ? CopyEngine.forMove(sources, targetDir.toPath()) : new CopyEngine(sources, targetDir.toPath()));
+                        } catch (IllegalArgumentException ex) {
+                            log.error("粘贴文件失败 -> ", ex);
+                            return;
                         }
-                        if (isCut) {
-                            if (!FileUtil.moveToRecycleBin(cutPath)) {
-                                log.error("在剪切文件时删除原路径文件失败 - {}", cutPath);
+                        Main.getWorkController().addWork(copyWork);
+                        Main.getWorkController().showInfo();
+                        copyWork.start(error -> {
+                            if (error != null) {
+                                log.error("粘贴时出现错误 - {} -> ", targetDir.getPath(), error);
                             }
-                            isCut = false;
-                            if (file.isDirectory()) {
-                                refreshTreeAsync(selectedNode, currentModel, tree);
+                            if (cut) {
+                                applyMoveResults(copyWork.getEngine().getMoveResults(), currentModel, tree);
                             } else {
-                                refreshTreeAsync((DefaultMutableTreeNode) selectedNode.getParent(), currentModel, tree);
+                                refreshIfUnwatched(targetNode, currentModel, tree);
                             }
-                            refreshTreeAsync(cutNode, currentModel, tree);
-                        }
+                        });
                     }
                 } catch (UnsupportedFlavorException | IOException ex) {
                     log.error("获取剪贴板内容失败 -> ", ex);
@@ -302,8 +513,6 @@ public class FileManager extends MiniWindow {
                     log.error("剪切文件失败 - {}", file.getPath());
                 }
                 isCut = true;
-                cutPath = file.getAbsolutePath();
-                cutNode = selectedNode;
             });
             popupMenu.add(cutFile);
             JMenuItem copyFile = new JMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.copyFile"));
@@ -367,14 +576,13 @@ public class FileManager extends MiniWindow {
             }
             JMenuItem deleteFile = new JMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.delete"));
             deleteFile.addActionListener(e -> {
-                try {
-                    if (!FileUtil.deleteWithConfirm(file.getPath(), null)) {
+                if (!file.exists() || !FileUtil.confirmDelete(file, null)) return;
+                FileUtil.moveToRecycleBinAsync(List.of(file.toPath()), failed -> {
+                    if (!failed.isEmpty()) {
                         log.error("删除文件时发生错误 - {}", file.getPath());
                     }
-                    refreshTreeAsync((DefaultMutableTreeNode) selectedNode.getParent(), currentModel, tree);
-                } catch (IOException ex) {
-                    log.error("删除文件时发生错误 - {} -> ", file.getPath(), ex);
-                }
+                    refreshIfUnwatched(selectedNode.getParent(), currentModel, tree);
+                });
             });
             popupMenu.add(deleteFile);
             JMenuItem renameFile = new JMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.renameFile"));
@@ -383,247 +591,177 @@ public class FileManager extends MiniWindow {
                 dialog.setSize(600, 200);
                 dialog.setLocationRelativeTo(null);
                 dialog.setVisible(true);
-                if (file.isDirectory()) {
+                if (dialog.getMoveResult() != null) {
+                    applyMoveResults(List.of(dialog.getMoveResult()), currentModel, tree);
+                } else if (file.isDirectory()) {
                     refreshTreeAsync(selectedNode, currentModel, tree);
                 } else {
-                    refreshTreeAsync((DefaultMutableTreeNode) selectedNode.getParent(), currentModel, tree);
+                    refreshTreeAsync(selectedNode.getParent(), currentModel, tree);
                 }
             });
             popupMenu.add(renameFile);
             popupMenu.addSeparator();
-            if (file.isDirectory()) {
+            if (attributes.directory()) {
                 JMenuItem refresh = new JMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.refresh"));
-                refresh.addActionListener(e -> refreshTreeAsync(selectedNode, currentModel, tree));
+                refresh.addActionListener(e -> {
+                    DirectoryLister.getInstance().invalidate(file.toPath());
+                    refreshTreeAsync(selectedNode, currentModel, tree);
+                });
                 popupMenu.add(refresh);
             }
+            popupMenu.add(createSortMenu(currentModel));
+            if (tree instanceof FileTreeView view) {
+                // 被忽略规则排除的条目（.git、构建输出等）只在本窗口显示/隐藏
+                JCheckBoxMenuItem showIgnored = new JCheckBoxMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.showIgnored"), view.isShowIgnored());
+                showIgnored.addActionListener(e -> view.setShowIgnored(showIgnored.isSelected()));
+                popupMenu.add(showIgnored);
+            }
             JMenuItem expand = new JMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.expand"));
-            expand.addActionListener(e -> {
-                Work worker = new Work(FileUtil.getLang("miniWindow.fileManager.loadAll.workerName", "?", "正在统计"));
-                worker.setStatus(IndicatorStatus.WAITING_OTHER);
-                Main.getWorkController().addWork(worker);
-                Main.getWorkController().showInfo();
-                String taskID = FileUtil.countAllFilesAsync(file, (count) -> {
-                    worker.setMaxValue(count);
-                    worker.setValue(0);
-                    worker.setStatus(IndicatorStatus.RUNNING);
-                    worker.setName(FileUtil.getLang("miniWindow.fileManager.loadAll.workerName", "?", String.valueOf(count)));
-                    if (count > MIN_FILE_COUNT) {
-                        int ret = JOptionPane.showConfirmDialog(
-                                null,
-                                FileUtil.getLang("miniWindow.fileManager.loadAll.question", String.valueOf(count)),
-                                FileUtil.getLang("tip.question"),
-                                JOptionPane.YES_NO_OPTION,
-                                JOptionPane.QUESTION_MESSAGE
-                        );
-                        if (ret != JOptionPane.YES_OPTION) {
-                            Main.getWorkController().removeWork(worker);
-                            return;
-                        }
-                    }
-                    loadAllChildNodes(selectedNode, worker, currentModel, () -> {
-                        worker.setName(FileUtil.getLang("miniWindow.fileManager.popMenu.expanding"));
-                        worker.getMissionTip().setWaiting(true);
-                        worker.setStatus(IndicatorStatus.WAITING_OTHER);
-                        JTreeExpandCollapseUtil.expandAllChildNodesAsync(tree, selectedNode);
-                        Main.getWorkController().removeWork(worker);
-                        loadingCount.set(0);
-                    });
-                });
-                worker.setOperationCallback(new MissionTip.OperationCallback() {
-                    @Override
-                    public boolean onPause() {
-                        return FileUtil.FILE_IO_EXECUTOR.pauseTask(taskID);
-                    }
-
-                    @Override
-                    public boolean onResume() {
-                        return FileUtil.FILE_IO_EXECUTOR.resumeTask(taskID);
-                    }
-
-                    @Override
-                    public boolean onStop() {
-                        boolean cancel = FileUtil.FILE_IO_EXECUTOR.cancelTask(taskID);
-                        if (cancel) Main.getWorkController().removeWork(worker);
-                        return cancel;
-                    }
-                });
-            });
-            expand.setEnabled(loadingCount.get() <= 0);
+            expand.addActionListener(e -> loadAllChildNodes(selectedNode, tree));
+            expand.setEnabled(!isLoading.get() && selectedNode.isDirectory());
             popupMenu.add(expand);
         }
     }
 
-    private void openFiles(JTree currentTree, DefaultTreeModel currentModel) {
-        DefaultMutableTreeNode selectedNode = (DefaultMutableTreeNode) currentTree.getLastSelectedPathComponent();
-        if (selectedNode == null || selectedNode.isRoot() || !isNotLoad(selectedNode)) return;
-
-        Object nodeObj = selectedNode.getUserObject();
-        if (nodeObj instanceof FileData(File file) && file.isDirectory()) {
-            refreshTreeAsync(selectedNode, currentModel, currentTree);
+    private JMenu createSortMenu(FileTreeModel currentModel) {
+        JMenu sortMenu = new JMenu(FileUtil.getLang("miniWindow.fileManager.popMenu.sort"));
+        ButtonGroup group = new ButtonGroup();
+        // 模型可能被其他窗口重新排序，以模型当前的规则为准
+        FileTreeSorter current = currentModel.getOrder() instanceof FileTreeSorter modelSorter ? modelSorter : sorter;
+        for (FileTreeSorter.SortType sortType : FileTreeSorter.SortType.values()) {
+            JRadioButtonMenuItem item = new JRadioButtonMenuItem(
+                    FileUtil.getLang("miniWindow.fileManager.popMenu.sort." + sortType.name().toLowerCase()),
+                    current.sortType() == sortType
+            );
+            item.addActionListener(e -> applySorter(current.withSortType(sortType), currentModel));
+            group.add(item);
+            sortMenu.add(item);
         }
+        sortMenu.addSeparator();
+        JCheckBoxMenuItem folderFirst = new JCheckBoxMenuItem(FileUtil.getLang("miniWindow.fileManager.popMenu.sort.folderFirst"), current.folderFirst());
+        folderFirst.addActionListener(e -> applySorter(current.withFolderFirst(folderFirst.isSelected()), currentModel));
+        sortMenu.add(folderFirst);
+        return sortMenu;
     }
 
-    private boolean isNotLoad(DefaultMutableTreeNode node) {
-        if (node.getChildCount() == 0) return true;
-        if (node.getChildCount() == 1) {
-            DefaultMutableTreeNode child = (DefaultMutableTreeNode) node.getChildAt(0);
-            return child.getUserObject() == null;
-        } else {
-            return false;
-        }
+    /**
+     * 切换排序规则：共用的模型就地重排已加载的文件夹，之后恢复每个窗口的展开状态
+     */
+    private void applySorter(FileTreeSorter newSorter, FileTreeModel currentModel) {
+        sorter = newSorter;
+        if (sharedTree != null && sharedTree.getModel() == currentModel) sharedTree.setOrder(newSorter);
     }
 
-    public void refreshTreeAsync(DefaultMutableTreeNode node, DefaultTreeModel currentModel, JTree tree) {
-        refreshTreeAsync(node, currentModel, tree, null);
-    }
-
-    public void refreshTreeAsync(DefaultMutableTreeNode node, DefaultTreeModel currentModel, JTree tree, Runnable callBackFunction) {
-        WorkControllableThreadTask refreshWork = new WorkControllableThreadTask(
-                FileUtil.getLang("miniWindow.fileManager.popMenu.workerName"),
-                "",
-                FileUtil.FILE_IO_EXECUTOR
-        );
-        ControllableThreadTask<Void> refreshTask = new ControllableThreadTask<>() {
-            @Override
-            protected Void doWork() throws InterruptedException {
-                Thread.sleep(1);
-                refreshTree(node, tree, currentModel);
-                SwingUtilities.invokeLater(() -> {
-                    currentModel.nodeChanged(node);
-                    if (callBackFunction != null) callBackFunction.run();
-                });
-                Main.getWorkController().removeWork(refreshWork);
-                return null;
-            }
-        };
-        String taskID = FileUtil.FILE_IO_EXECUTOR.submit(refreshTask);
-        refreshWork.setTaskID(taskID);
-        Main.getWorkController().addWork(refreshWork);
-    }
-
-    private void refreshTree(DefaultMutableTreeNode node, JTree tree, DefaultTreeModel currentModel) {
-        if (!(node.getUserObject() instanceof FileData(File folder))) {
+    private void openFiles(JTree currentTree, FileTreeModel currentModel) {
+        FileNode selectedNode = (FileNode) currentTree.getLastSelectedPathComponent();
+        if (selectedNode == null || selectedNode.isRoot()) return;
+        if (!isNotLoad(selectedNode)) {
+            prefetchChildren(selectedNode, currentModel, currentTree);
             return;
         }
-        if (!folder.isDirectory()) {
-            return;
+
+        Object nodeObj = selectedNode.getUserObject();
+        if (nodeObj instanceof FileData(File file, FileAttributes attributes) && attributes.directory()) {
+            refreshTreeAsync(selectedNode, currentModel, currentTree,
+                    () -> prefetchChildren(selectedNode, currentModel, currentTree));
         }
+    }
 
-        File[] filesArray = folder.listFiles();
-        List<File> folderFiles = filesArray == null ? new ArrayList<>() : new ArrayList<>(List.of(filesArray));
-        if (folderFiles.isEmpty()) {
-            SwingUtilities.invokeLater(() -> {
-                Enumeration<TreeNode> childNodesEnum = node.children();
-                List<DefaultMutableTreeNode> removeNodes = new ArrayList<>();
-                while (childNodesEnum.hasMoreElements()) {
-                    DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) childNodesEnum.nextElement();
-                    removeNodes.add(childNode);
-                }
-                for (DefaultMutableTreeNode removeNode : removeNodes) {
-                    currentModel.removeNodeFromParent(removeNode);
-                }
-                currentModel.insertNodeInto(new DefaultMutableTreeNode(FileUtil.getLang("miniWindow.fileManager.emptyFolders")), node, 0);
-            });
-            return;
+    /**
+     * 预取文件夹下可见的未展开子文件夹（按显示顺序，最多 MAX_PREFETCH_CHILDREN 个）
+     */
+    private void prefetchChildren(FileNode dir, FileTreeModel currentModel, JTree tree) {
+        if (!dir.isValid() || !currentModel.isLoaded(dir)) return;
+        boolean showIgnored = tree instanceof FileTreeView view && view.isShowIgnored();
+        List<Path> dirs = new ArrayList<>();
+        for (int i = 0, n = currentModel.getLoadedChildCount(dir); i < n && dirs.size() < MAX_PREFETCH_CHILDREN; i++) {
+            FileNode child = dir.getChildAt(i);
+            if (!child.isDirectory() || tree.isExpanded(child.getTreePath())) continue;
+            if (!showIgnored && currentModel.isIgnored(child)) continue;
+            dirs.add(child.getFile().toPath());
         }
+        DirectoryPrefetcher.getInstance().hint(dirs);
+    }
 
-        Set<File> fileSet = new HashSet<>(folderFiles);
-        List<DefaultMutableTreeNode> removeNodes = new ArrayList<>();
-        Enumeration<TreeNode> childNodesEnum = node.children();
-        while (childNodesEnum.hasMoreElements()) {
-            TreeNode childNode = childNodesEnum.nextElement();
-            if (!(childNode instanceof DefaultMutableTreeNode childMutableNode)) {
-                continue;
-            }
-            if ((childMutableNode.getUserObject() instanceof FileData(File nodeFile))) {
-                if (fileSet.contains(nodeFile)) {
-                    folderFiles.remove(nodeFile);
-                    if (nodeFile.isDirectory() && isNodeVisibleInViewport(tree, childMutableNode)) {
-                        refreshTree(childMutableNode, tree, currentModel);
-                    }
+    private boolean isNotLoad(FileNode node) {
+        return !node.getModel().isLoaded(node);
+    }
+
+    /**
+     * 根据移动结果更新文件树（需在EDT中调用）
+     * 重命名的节点直接从原父节点摘下并插入目标父节点，不需要重新列出文件夹；复制后删除的刷新两侧父节点
+     */
+    public void applyMoveResults(List<MoveResult> results, FileTreeModel currentModel, JTree tree) {
+        Set<FileNode> refreshNodes = new LinkedHashSet<>();
+        for (MoveResult result : results) {
+            FileNode sourceNode = currentModel.findNode(result.source());
+            FileNode targetParent = currentModel.findNode(result.target().getParent());
+            if (sourceNode != null && sourceNode.isRoot()) {
+                rootFile = result.target().toFile();
+                if (sharedTree != null && sharedTree.getModel() == currentModel) {
+                    sharedTree.setRootFile(rootFile);
                 } else {
-                    removeNodes.add(childMutableNode);
+                    currentModel.setRootFile(rootFile);
                 }
-            } else {
-                removeNodes.add(childMutableNode);
+                expansionRoot = rootFile;
+                refreshNodes.add(sourceNode);
+                continue;
             }
-        }
-
-        SwingUtilities.invokeLater(() -> {
-            for (DefaultMutableTreeNode removeNode : removeNodes) {
-                try {
-                    currentModel.removeNodeFromParent(removeNode);
-                } catch (Exception ignored) {
-                }
+            if (result.method() == MoveResult.Method.COPY) {
+                if (sourceNode != null) refreshNodes.add(sourceNode.getParent());
+                if (targetParent != null) refreshNodes.add(targetParent);
+                continue;
             }
-
-            List<File> files = new ArrayList<>();
-            List<File> folders = new ArrayList<>();
-            folderFiles.sort((o1, o2) -> sort(o1.getName(), o2.getName()));
-            for (File folderFile : folderFiles) {
-                if (folderFile.isDirectory()) {
-                    folders.add(folderFile);
-                } else if (folderFile.isFile()) {
-                    files.add(folderFile);
-                }
+            if (sourceNode != null) {
+                currentModel.remove(sourceNode);
             }
-            folderFiles.clear();
-            folderFiles.addAll(folders);
-            folderFiles.addAll(files);
-            if (node.getChildCount() == 0) {
-                for (File folderFile : folderFiles) {
-                    currentModel.insertNodeInto(new DefaultMutableTreeNode(new FileData(folderFile)), node, node.getChildCount());
-                }
-                return;
+            // 目标文件夹未加载时展开会重新列出，无需插入
+            if (targetParent != null && !isNotLoad(targetParent)) {
+                currentModel.insertSorted(targetParent, new FileTreeModel.Entry(result.target().getFileName().toString(), result.directory()));
             }
+        }
+        for (FileNode node : refreshNodes) {
+            refreshIfUnwatched(node, currentModel, tree);
+        }
+    }
 
-            int index = -1, maxIndex;
-            for (File folderFile : folderFiles) {
-                maxIndex = node.getChildCount() - 1;
-                while (true) {
-                    index++;
-                    if (index > maxIndex) {
-                        currentModel.insertNodeInto(new DefaultMutableTreeNode(new FileData(folderFile)), node, index);
-                        break;
-                    }
-                    if (((DefaultMutableTreeNode) node.getChildAt(index)).getUserObject() instanceof FileData(
-                            File cf
-                    )) {
-                        if (folderFile.isDirectory() && cf.isFile()) {
-                            currentModel.insertNodeInto(new DefaultMutableTreeNode(new FileData(folderFile)), node, index);
-                            break;
-                        }
-                        if (folderFile.isFile() && cf.isDirectory()) continue;
-                        if (sort(folderFile.getName(), cf.getName()) < 0) {
-                            currentModel.insertNodeInto(new DefaultMutableTreeNode(new FileData(folderFile)), node, index);
-                            break;
-                        }
-                    }
-                }
-            }
-        });
+    public void refreshTreeAsync(FileNode node, FileTreeModel currentModel, JTree tree) {
+        refreshTreeAsync(node, currentModel, tree, null);
     }
 
-    private int sort(String a, String b) {
-        if (a.equals(b)) return 0;
-        int minLength = Math.min(a.length(), b.length());
-        for (int i = 0; i < minLength; i++) {
-            char ca = a.charAt(i), cb = b.charAt(i);
-            if (ca + ('A' - 'a') == cb) return -1;
-            if (('a' <= ca && ca <= 'z') || ('A' <= ca && ca <= 'Z')) {
-                ca = Character.toLowerCase(ca);
-            }
-            if (('a' <= cb && cb <= 'z') || ('A' <= cb && cb <= 'Z')) {
-                cb = Character.toLowerCase(cb);
+    /**
+     * 在后台刷新文件夹（以及视口内可见的子文件夹），需在EDT中调用
+     * 经共用文件树的 {@link RefreshQueue} 与同一文件夹的其他刷新合并
+     */
+    public void refreshTreeAsync(FileNode node, FileTreeModel currentModel, JTree tree, Runnable callBackFunction) {
+        // 已切换根目录的旧文件树不再刷新
+        if (node == null || sharedTree == null || sharedTree.getModel() != currentModel) return;
+        List<FileNode> targets = new ArrayList<>();
+        collectRefreshTargets(node, tree, targets);
+        if (targets.isEmpty()) {
+            if (callBackFunction != null) callBackFunction.run();
+            return;
+        }
+        sharedTree.getRefreshQueue().refresh(node, targets, callBackFunction);
+    }
+
+    /**
+     * 收集需要刷新的文件夹：节点本身，以及已加载的子节点中在视口内可见的文件夹（递归）
+     */
+    private void collectRefreshTargets(FileNode node, JTree tree, List<FileNode> targets) {
+        if (node == null || !node.isDirectory() || !node.isValid()) return;
+        targets.add(node);
+        FileTreeModel model = node.getModel();
+        int count = model.getLoadedChildCount(node);
+        for (int i = 0; i < count; i++) {
+            FileNode child = node.getChildAt(i);
+            if (child.isDirectory() && isNodeVisibleInViewport(tree, child)) {
+                collectRefreshTargets(child, tree, targets);
             }
-            int r = Integer.compare(ca, cb);
-            if (r == 0) continue;
-            return r;
         }
-        return Integer.compare(a.length(), b.length());
     }
 
-    public static boolean isNodeVisibleInViewport(JTree tree, DefaultMutableTreeNode node) {
+    public static boolean isNodeVisibleInViewport(JTree tree, FileNode node) {
         if (node == null || tree == null) {
             return false;
         }
@@ -648,110 +786,120 @@ public class FileManager extends MiniWindow {
         }
     }
 
-    private void loadAllChildNodes(DefaultMutableTreeNode targetNode, DefaultTreeModel currentModel, Runnable callback) {
-        if (targetNode == null || currentModel == null) {
-            if (callback != null) callback.run();
-            return;
-        }
-        if (!isLoading.compareAndSet(false, true)) {
-            log.warn("文件加载中，请勿重复触发全量加载");
-            if (callback != null) callback.run();
-            return;
-        }
-
-        Object userData = targetNode.getUserObject();
-        if (!(userData instanceof FileData(File file)) || !file.isDirectory()) {
-            isLoading.set(false);
+    /**
+     * 全量加载并展开文件夹：边列出边挂载，不预先统计文件数
+     * 已发现的条目超过 MIN_FILE_COUNT 时暂停并询问是否继续
+     */
+    private void loadAllChildNodes(FileNode targetNode, JTree tree) {
+        if (!targetNode.isDirectory() || !targetNode.getFile().isDirectory()) {
             JOptionPane.showMessageDialog(null,
                     FileUtil.getLang("miniWindow.fileManager.loadAll.notFolder"),
                     FileUtil.getLang("tip.warning"),
                     JOptionPane.WARNING_MESSAGE,
                     self.getIcon()
             );
-            if (callback != null) callback.run();
+            return;
+        }
+        if (!isLoading.compareAndSet(false, true)) {
+            log.warn("文件加载中，请勿重复触发全量加载");
             return;
         }
 
-        ControllableThreadTask<Void> task = new ControllableThreadTask<>() {
+        Work worker = new Work(FileUtil.getLang("miniWindow.fileManager.loadAll.workerName", "0", "0"));
+        worker.setStatus(IndicatorStatus.RUNNING);
+        String[] taskID = new String[1];
+        AtomicBoolean asked = new AtomicBoolean(false);
+        AtomicReference<ControllableThreadTask<Void>> task = new AtomicReference<>();
+        // 不显示被忽略的条目时也不进入被忽略的文件夹
+        boolean skipIgnored = !(tree instanceof FileTreeView view && view.isShowIgnored());
+        SubtreeLoader loader = new SubtreeLoader(targetNode, new SubtreeLoader.Listener() {
             @Override
-            protected Void doWork() {
-                try {
-                    recursiveLoadAllNodes(targetNode, currentModel, file);
-
-                    SwingUtilities.invokeLater(() -> {
-                        currentModel.reload(targetNode);
-                        log.info("全量加载完成：{}", file.getPath());
-                        if (callback != null) callback.run();
-                    });
-                } catch (Exception e) {
-                    log.error("全量加载文件节点失败", e);
-                    SwingUtilities.invokeLater(() -> {
-                        JOptionPane.showMessageDialog(null,
-                                FileUtil.getLang("miniWindow.fileManager.loadAll.failed", file.getPath(), e.getMessage()),
-                                FileUtil.getLang("tip.error"),
-                                JOptionPane.ERROR_MESSAGE,
-                                self.getIcon()
-                        );
-                        if (callback != null) callback.run();
-                    });
-                } finally {
-                    isLoading.set(false);
+            public void onProgress(long attached, long listed) {
+                worker.setMaxValue((int) Math.min(Integer.MAX_VALUE, listed));
+                worker.setValue((int) Math.min(Integer.MAX_VALUE, attached));
+                worker.setName(FileUtil.getLang("miniWindow.fileManager.loadAll.workerName", String.valueOf(attached), String.valueOf(listed)));
+                if (listed > MIN_FILE_COUNT && asked.compareAndSet(false, true)) {
+                    FileUtil.FILE_IO_EXECUTOR.pauseTask(taskID[0]);
+                    // 对话框单独排队显示，避免在批量更新中阻塞其他界面更新
+                    SwingUtilities.invokeLater(() -> askContinue(taskID[0], listed));
                 }
-                return null;
             }
-        };
-
-        FileUtil.FILE_IO_EXECUTOR.submit(task);
-    }
-
-    private void recursiveLoadAllNodes(DefaultMutableTreeNode parentNode, DefaultTreeModel model, File parentFile) throws Exception {
-        SwingUtilities.invokeLater(parentNode::removeAllChildren);
-
-        List<File> directFiles = FileUtil.listFilesOnce(parentFile);
-        if (directFiles == null || directFiles.isEmpty()) {
-            SwingUtilities.invokeLater(() -> {
-                parentNode.add(new DefaultMutableTreeNode(FileUtil.getLang("miniWindow.fileManager.emptyFolders")));
-                model.reload(parentNode);
-            });
-            return;
-        }
-
-        for (File childFile : directFiles) {
-            DefaultMutableTreeNode childNode = new DefaultMutableTreeNode(new FileData(childFile));
 
-            if (childFile.isDirectory()) {
-                recursiveLoadAllNodes(childNode, model, childFile);
+            private void askContinue(String taskId, long listed) {
+                int ret = JOptionPane.showConfirmDialog(
+                        null,
+                        FileUtil.getLang("miniWindow.fileManager.loadAll.question", String.valueOf(listed)),
+                        FileUtil.getLang("tip.question"),
+                        JOptionPane.YES_NO_OPTION,
+                        JOptionPane.QUESTION_MESSAGE
+                );
+                if (ret == JOptionPane.YES_OPTION) {
+                    FileUtil.FILE_IO_EXECUTOR.resumeTask(taskId);
+                } else {
+                    FileUtil.FILE_IO_EXECUTOR.cancelTask(taskId);
+                }
             }
 
-            SwingUtilities.invokeLater(() -> {
-                parentNode.add(childNode);
-                model.nodeChanged(parentNode);
-            });
+            @Override
+            public void onFinished(List<FileNode> directories, boolean cancelled) {
+                isLoading.set(false);
+                if (!cancelled && targetNode.isValid()) {
+                    worker.setName(FileUtil.getLang("miniWindow.fileManager.popMenu.expanding"));
+                    JTreeExpandCollapseUtil.expandPaths(tree, targetNode.getTreePath(), directories.stream().map(FileNode::getTreePath).toList());
+                }
+                Main.getWorkController().removeWork(worker);
+            }
+        }, () -> task.get().isTaskPaused(), skipIgnored);
+        task.set(new ControllableThreadTask<>() {
+            @Override
+            protected Void doWork() {
+                loader.run();
+                return null;
+            }
+        });
+        worker.setOperationCallback(new MissionTip.OperationCallback() {
+            @Override
+            public boolean onPause() {
+                return FileUtil.FILE_IO_EXECUTOR.pauseTask(taskID[0]);
+            }
 
-            loadingCount.set(loadingCount.get() + 1);
-            Thread.sleep(1);
-        }
-    }
+            @Override
+            public boolean onResume() {
+                return FileUtil.FILE_IO_EXECUTOR.resumeTask(taskID[0]);
+            }
 
-    private void loadAllChildNodes(DefaultMutableTreeNode targetNode, Work worker, DefaultTreeModel currentModel, Runnable callback) {
-        loadingCount.set(0);
-        worker.setWorkUpdateCallBack(() -> {
-            worker.setValue(loadingCount.get());
-            worker.setName(FileUtil.getLang("miniWindow.fileManager.loadAll.workerName", loadingCount.toString(), String.valueOf(worker.getMaxValue())));
+            @Override
+            public boolean onStop() {
+                return FileUtil.FILE_IO_EXECUTOR.cancelTask(taskID[0]);
+            }
         });
-        loadAllChildNodes(targetNode, currentModel, callback);
+        Main.getWorkController().addWork(worker);
+        Main.getWorkController().showInfo();
+        taskID[0] = FileUtil.FILE_IO_EXECUTOR.submit(task.get());
     }
 
     private static class FileTreeRenderer extends RoundLabel implements TreeCellRenderer {
+        // 缩略图生成后重绘文件树（复用同一个对象，多个缩略图的通知合并为一次重绘）
+        private Runnable repaint;
+
         @Override
         public Component getTreeCellRendererComponent(JTree tree, Object value, boolean selected, boolean expanded, boolean leaf, int row, boolean hasFocus) {
-            DefaultMutableTreeNode node = (DefaultMutableTreeNode) value;
+            FileNode node = (FileNode) value;
             this.setBackground(Setting.BACKGROUND_COLOR);
             this.setOpaque(selected);
 
-            if (node.getUserObject() instanceof FileData(File file)) {
-                this.setText(file.getName());
-                this.setIcon(new ImageIcon(FileUtil.getFileIcon(file, 18, 18, row == 0, expanded)));
+            // 只读取列出时的属性快照，绘制时不访问文件系统
+            FileAttributes attributes = node.getAttributes();
+            if (attributes != null) {
+                this.setText(node.getName());
+                Icon thumbnail = null;
+                if (!attributes.directory() && ThumbnailCache.isSupported(node.getName())) {
+                    if (repaint == null) repaint = tree::repaint;
+                    // 缩略图在后台生成，生成前显示类型图标
+                    thumbnail = ThumbnailCache.getInstance().get(node.getFile(), attributes.size(), attributes.modifiedTime(), 18, repaint);
+                }
+                this.setIcon(thumbnail != null ? thumbnail
+                        : FileUtil.getFileIcon(node.getName(), attributes.directory(), attributes.empty(), 18, 18, row == 0, expanded));
             } else if (node.getUserObject() instanceof String text) {
                 this.setText(text);
                 this.setIcon(null);
@@ -775,7 +923,13 @@ public class FileManager extends MiniWindow {
         }
     }
 
-    public record FileData(File file) {
+    /**
+     * 文件树节点数据
+     *
+     * @param file       文件
+     * @param attributes 最近一次列出/刷新时的属性快照
+     */
+    public record FileData(File file, FileAttributes attributes) {
     }
 
 }
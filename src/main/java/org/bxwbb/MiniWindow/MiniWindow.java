@@ -1,6 +1,7 @@
 package org.bxwbb.MiniWindow;
 
 import org.bxwbb.Setting;
+import org.bxwbb.Util.Resource.IconCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -9,7 +10,6 @@ import javax.swing.event.PopupMenuEvent;
 import javax.swing.event.PopupMenuListener;
 import java.awt.*;
 import java.lang.reflect.InvocationTargetException;
-import java.util.Objects;
 
 public abstract class MiniWindow extends ResizablePanel {
 
@@ -57,9 +57,7 @@ public abstract class MiniWindow extends ResizablePanel {
         this.add(getTopPanel(), BorderLayout.NORTH);
         this.add(getCenterPanel(), BorderLayout.CENTER);
         JComboBox<IconItem> comboBox = new JComboBox<>();
-        ImageIcon icon = new ImageIcon(Objects.requireNonNull(getClass().getResource(ICON_PATH)));
-        icon = new ImageIcon(icon.getImage().getScaledInstance(20, 20, Image.SCALE_SMOOTH));
-        comboBox.addItem(new IconItem(icon, NAME));
+        comboBox.addItem(new IconItem(getIcon(), NAME));
         comboBox.setRenderer((list, item, index, isSelected, cellHasFocus) -> {
             // 创建JLabel作为渲染组件（显示图标+文字）
             JLabel label = new JLabel();
@@ -90,8 +88,7 @@ public abstract class MiniWindow extends ResizablePanel {
                 boolean flag = true;
                 for (String s : MiniWindowEnum.getWindowInfoMap().keySet()) {
                     miniWindowInfo = MiniWindowEnum.getWindowInfo(s);
-                    icon = new ImageIcon(Objects.requireNonNull(getClass().getResource(miniWindowInfo.path())));
-                    icon = new ImageIcon(icon.getImage().getScaledInstance(20, 20, Image.SCALE_SMOOTH));
+                    icon = IconCache.getClasspathIcon(miniWindowInfo.path(), 20, 20);
                     comboBox.addItem(new IconItem(icon, s));
                     if (s.equals(NAME)) flag = false;
                     if (flag) index++;
@@ -259,6 +256,14 @@ public abstract class MiniWindow extends ResizablePanel {
 
     public abstract void delete();
 
+    /**
+     * 语言/图标定义文件重新加载后在EDT中调用，默认重绘整个窗口
+     */
+    public void onResourcesReloaded() {
+        revalidate();
+        repaint();
+    }
+
     public JPanel getTopPanel() {
         return topPanel;
     }
@@ -291,8 +296,7 @@ public abstract class MiniWindow extends ResizablePanel {
     }
 
     public ImageIcon getIcon() {
-        ImageIcon icon = new ImageIcon(Objects.requireNonNull(getClass().getResource(ICON_PATH)));
-        return new ImageIcon(icon.getImage().getScaledInstance(20, 20, Image.SCALE_SMOOTH));
+        return IconCache.getClasspathIcon(ICON_PATH, 20, 20);
     }
 
     public record IconItem(ImageIcon imageIcon, String text) {
@@ -4,6 +4,8 @@ import org.bxwbb.UI.ArrowedTipWindow;
 import org.bxwbb.UI.JLabelComboBox;
 import org.bxwbb.Util.FileSuffixAdaptiveTool;
 import org.bxwbb.Util.FileUtil;
+import org.bxwbb.Util.Resource.FileTypeRegistry;
+import org.bxwbb.Util.Resource.IconCache;
 import org.bxwbb.Util.Task.ScheduledTaskManager;
 
 import javax.swing.*;
@@ -27,6 +29,7 @@ public class CreateFile extends JDialog {
     private JButton selectionButton;
     private JLabel pathLabel;
 
+    private FileTypeRegistry fileTypeRegistry;
     private List<FileUtil.FileTypeInfo> fileTypeInfoList;
     private final String taskID;
 
@@ -46,16 +49,9 @@ public class CreateFile extends JDialog {
         initFileTypeComboBox();
 
         taskID = ScheduledTaskManager.getInstance().startFixedDelayTask(300, () -> {
-            String text = fileNameField.getText();
-            int index = 1;
-            for (FileUtil.FileTypeInfo fileTypeInfo : fileTypeInfoList) {
-                if (text.matches(fileTypeInfo.matches())) {
-                    if (fileTypeComboBox.getSelectedIndex() != index) fileTypeComboBox.setSelectedIndex(index);
-                    return;
-                }
-                index++;
-            }
-            fileTypeComboBox.setSelectedIndex(0);
+            FileTypeRegistry.FileType fileType = fileTypeRegistry.match(fileNameField.getText());
+            int index = fileType == null ? 0 : fileType.index() + 1;
+            if (fileTypeComboBox.getSelectedIndex() != index) fileTypeComboBox.setSelectedIndex(index);
         });
 
         createButton.addActionListener(e -> onOK());
@@ -114,13 +110,14 @@ public class CreateFile extends JDialog {
         fileTypeComboBox.removeAllItems();
         JLabel label = new JLabel();
         label.setText(FileUtil.getLang("popWindow.createrFile.name.default"));
-        label.setIcon(FileUtil.getImageIconToPath(Objects.requireNonNull(FileUtil.loadFile(FileUtil.DEFAULT_FILE_ICON)).getPath()));
+        label.setIcon(IconCache.getResourceIcon(FileUtil.getFileTypeRegistry().getDefaultFileIcon(), 20, 20));
         fileTypeComboBox.addItem(label);
-        fileTypeInfoList = FileUtil.getFileTypeInfoList();
+        fileTypeRegistry = FileUtil.getFileTypeRegistry();
+        fileTypeInfoList = fileTypeRegistry.getFileTypeInfoList();
         for (FileUtil.FileTypeInfo fileTypeInfo : fileTypeInfoList) {
             label = new JLabel();
             label.setText(fileTypeInfo.name());
-            label.setIcon(FileUtil.getImageIconToPath(Objects.requireNonNull(FileUtil.loadFile(fileTypeInfo.icon())).getPath()));
+            label.setIcon(IconCache.getResourceIcon(fileTypeInfo.icon(), 20, 20));
             fileTypeComboBox.addItem(label);
         }
     }
@@ -3,7 +3,10 @@ package org.bxwbb.Swing;
 import org.bxwbb.UI.ArrowedTipWindow;
 import org.bxwbb.UI.JLabelComboBox;
 import org.bxwbb.Util.FileSuffixAdaptiveTool;
+import org.bxwbb.Util.FileSystem.MoveResult;
 import org.bxwbb.Util.FileUtil;
+import org.bxwbb.Util.Resource.FileTypeRegistry;
+import org.bxwbb.Util.Resource.IconCache;
 import org.bxwbb.Util.Task.ScheduledTaskManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -26,9 +29,11 @@ public class RenameFile extends JDialog {
     private JLabel newNameLabel;
     private JLabel oldName;
 
+    private FileTypeRegistry fileTypeRegistry;
     private List<FileUtil.FileTypeInfo> fileTypeInfoList;
     private final String taskID;
     private final Path oldPath;
+    private MoveResult moveResult;
 
     public RenameFile(Path oldPath) {
         setContentPane(contentPane);
@@ -47,16 +52,9 @@ public class RenameFile extends JDialog {
         initFileTypeComboBox();
 
         taskID = ScheduledTaskManager.getInstance().startFixedDelayTask(300, () -> {
-            String text = newNameTextField.getText();
-            int index = 1;
-            for (FileUtil.FileTypeInfo fileTypeInfo : fileTypeInfoList) {
-                if (text.matches(fileTypeInfo.matches())) {
-                    if (fileTypeComboBox.getSelectedIndex() != index) fileTypeComboBox.setSelectedIndex(index);
-                    return;
-                }
-                index++;
-            }
-            fileTypeComboBox.setSelectedIndex(0);
+            FileTypeRegistry.FileType fileType = fileTypeRegistry.match(newNameTextField.getText());
+            int index = fileType == null ? 0 : fileType.index() + 1;
+            if (fileTypeComboBox.getSelectedIndex() != index) fileTypeComboBox.setSelectedIndex(index);
         });
 
         buttonOK.addActionListener(e -> onOK());
@@ -110,13 +108,14 @@ public class RenameFile extends JDialog {
         fileTypeComboBox.removeAllItems();
         JLabel label = new JLabel();
         label.setText(FileUtil.getLang("popWindow.createrFile.name.default"));
-        label.setIcon(FileUtil.getImageIconToPath(Objects.requireNonNull(FileUtil.loadFile(FileUtil.DEFAULT_FILE_ICON)).getPath()));
+        label.setIcon(IconCache.getResourceIcon(FileUtil.getFileTypeRegistry().getDefaultFileIcon(), 20, 20));
         fileTypeComboBox.addItem(label);
-        fileTypeInfoList = FileUtil.getFileTypeInfoList();
+        fileTypeRegistry = FileUtil.getFileTypeRegistry();
+        fileTypeInfoList = fileTypeRegistry.getFileTypeInfoList();
         for (FileUtil.FileTypeInfo fileTypeInfo : fileTypeInfoList) {
             label = new JLabel();
             label.setText(fileTypeInfo.name());
-            label.setIcon(FileUtil.getImageIconToPath(Objects.requireNonNull(FileUtil.loadFile(fileTypeInfo.icon())).getPath()));
+            label.setIcon(IconCache.getResourceIcon(fileTypeInfo.icon(), 20, 20));
             fileTypeComboBox.addItem(label);
         }
     }
@@ -130,7 +129,8 @@ public class RenameFile extends JDialog {
         boolean ret = createFile();
         if (ret) {
             Path newPath = Path.of(oldPath.getParent().toString(), newNameTextField.getText());
-            if (!FileUtil.renameFile(newPath, oldPath)) {
+            moveResult = FileUtil.renameFile(newPath, oldPath);
+            if (moveResult == null) {
                 log.error("重命名文件时出现错误");
             }
             ScheduledTaskManager.getInstance().stopTask(taskID);
@@ -138,6 +138,13 @@ public class RenameFile extends JDialog {
         }
     }
 
+    /**
+     * 重命名结果，取消或失败时为null
+     */
+    public MoveResult getMoveResult() {
+        return moveResult;
+    }
+
     private void onCancel() {
         // 必要时在此处添加您的代码
         ScheduledTaskManager.getInstance().stopTask(taskID);
@@ -0,0 +1,45 @@
+package org.bxwbb.UI;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * 带图片的提示框（ImageToolTip）
+ * 文字显示在上方，图片居中显示在文字下方；没有图片时与普通提示框相同
+ */
+public class ImageToolTip extends JToolTip {
+    // 文字与图片的间距（像素）
+    private static final int IMAGE_GAP = 4;
+
+    private Icon image;
+
+    public void setImage(Icon image) {
+        if (this.image == image) return;
+        this.image = image;
+        revalidate();
+        repaint();
+    }
+
+    public Icon getImage() {
+        return image;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        Dimension size = super.getPreferredSize();
+        if (image == null) return size;
+        Insets insets = getInsets();
+        int width = Math.max(size.width, image.getIconWidth() + insets.left + insets.right);
+        return new Dimension(width, size.height + IMAGE_GAP + image.getIconHeight());
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        if (image == null) return;
+        Insets insets = getInsets();
+        int x = (getWidth() - image.getIconWidth()) / 2;
+        int y = getHeight() - insets.bottom - image.getIconHeight();
+        image.paintIcon(this, g, x, y);
+    }
+}
@@ -1,17 +1,21 @@
 package org.bxwbb.Util.DragDrop;
 
+import org.bxwbb.Main;
 import org.bxwbb.MiniWindow.FileManager;
+import org.bxwbb.Util.FileSystem.CopyEngine;
+import org.bxwbb.Util.FileTree.FileNode;
+import org.bxwbb.Util.FileTree.FileTreeModel;
 import org.bxwbb.Util.FileUtil;
+import org.bxwbb.WorkEventer.CopyWork;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
-import javax.swing.tree.DefaultMutableTreeNode;
-import javax.swing.tree.DefaultTreeModel;
 import javax.swing.tree.TreePath;
 import java.awt.datatransfer.DataFlavor;
 import java.awt.datatransfer.Transferable;
 import java.io.File;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicBoolean;
@@ -20,6 +24,8 @@ public class FileTransferHandler extends TransferHandler {
 
     private static final Logger log = LoggerFactory.getLogger(FileTransferHandler.class);
     private final AtomicBoolean isRefresh = new AtomicBoolean(false);
+    // 拖放目标就是本文件树，由importData负责更新节点
+    private final AtomicBoolean droppedHere = new AtomicBoolean(false);
 
     @Override
     public boolean canImport(TransferSupport support) {
@@ -28,13 +34,14 @@ public class FileTransferHandler extends TransferHandler {
 
     @Override
     protected Transferable createTransferable(JComponent c) {
+        droppedHere.set(false);
         JTree tree = (JTree) c;
         TreePath[] paths = tree.getSelectionPaths();
         if (paths != null) {
             List<File> fileList = new ArrayList<>();
             for (TreePath path : paths) {
-                DefaultMutableTreeNode node = (DefaultMutableTreeNode) path.getLastPathComponent();
-                if (node.getUserObject() instanceof FileManager.FileData(var nodeFile)) {
+                FileNode node = (FileNode) path.getLastPathComponent();
+                if (node.getUserObject() instanceof FileManager.FileData(var nodeFile, var attributes)) {
                     fileList.add(nodeFile);
                 }
             }
@@ -50,11 +57,12 @@ public class FileTransferHandler extends TransferHandler {
     @Override
     protected void exportDone(JComponent source, Transferable data, int action) {
         super.exportDone(source, data, action);
+        if (droppedHere.getAndSet(false)) return;
 
         if (!isRefresh.get()) {
             JTree tree = (JTree) source;
             FileManager fileManager = (FileManager) tree.getParent().getParent().getParent().getParent();
-            fileManager.refreshTreeAsync((DefaultMutableTreeNode) tree.getModel().getRoot(), (DefaultTreeModel) tree.getModel(), tree, () -> isRefresh.set(false));
+            fileManager.refreshTreeAsync((FileNode) tree.getModel().getRoot(), (FileTreeModel) tree.getModel(), tree, () -> isRefresh.set(false));
             isRefresh.set(true);
         }
     }
@@ -73,26 +81,27 @@ public class FileTransferHandler extends TransferHandler {
                 JTree tree = (JTree) support.getComponent();
                 TreePath treePath = tree.getPathForLocation(support.getDropLocation().getDropPoint().x, support.getDropLocation().getDropPoint().y);
                 if (treePath != null) {
-                    DefaultMutableTreeNode node = (DefaultMutableTreeNode) treePath.getLastPathComponent();
+                    FileNode node = (FileNode) treePath.getLastPathComponent();
                     List<File> fileList = (List<File>) support.getTransferable().getTransferData(DataFlavor.javaFileListFlavor);
-                    if (node.getUserObject() instanceof FileManager.FileData(File nodeFile)) {
-                        if (nodeFile.isDirectory()) {
-                            for (File file : fileList) {
-                                FileUtil.copyFileOrDir(file.getAbsolutePath(), nodeFile.getAbsolutePath());
-                                if (support.getDropAction() == MOVE) {
-                                    FileUtil.moveToRecycleBin(file.getPath());
-                                }
-                            }
-                        } else {
-                            for (File file : fileList) {
-                                FileUtil.copyFileOrDir(file.getAbsolutePath(), nodeFile.getParentFile().getAbsolutePath());
-                            }
-                        }
-                        if (isRefresh.get()) {
+                    if (node.getUserObject() instanceof FileManager.FileData(File nodeFile, var attributes)) {
+                        File targetDir = attributes.directory() ? nodeFile : nodeFile.getParentFile();
+                        boolean move = attributes.directory() && support.getDropAction() == MOVE;
+                        droppedHere.set(true);
+                        List<Path> sources = fileList.stream().map(File::toPath).toList();
+                        CopyWork copyWork = new CopyWork(move ? CopyEngine.forMove(sources, targetDir.toPath()) : new CopyEngine(sources, targetDir.toPath()));
+                        Main.getWorkController().addWork(copyWork);
+                        Main.getWorkController().showInfo();
+                        copyWork.start(error -> {
                             FileManager fileManager = (FileManager) tree.getParent().getParent().getParent().getParent();
-                            fileManager.refreshTreeAsync((DefaultMutableTreeNode) tree.getModel().getRoot(), (DefaultTreeModel) tree.getModel(), tree, () -> isRefresh.set(false));
-                            isRefresh.set(true);
-                        }
+                            FileTreeModel model = (FileTreeModel) tree.getModel();
+                            if (move) {
+                                // 同一磁盘内的移动直接挪动节点，不重新列出文件夹
+                                fileManager.applyMoveResults(copyWork.getEngine().getMoveResults(), model, tree);
+                                return;
+                            }
+                            // 复制在后台完成，目标文件夹未被监听时结束后再刷新一次
+                            fileManager.refreshIfUnwatched(nodeFile.isDirectory() ? node : node.getParent(), model, tree);
+                        });
                         return true;
                     }
                 }
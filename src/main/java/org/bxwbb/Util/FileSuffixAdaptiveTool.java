@@ -11,6 +11,9 @@ import java.util.regex.PatternSyntaxException;
  */
 public final class FileSuffixAdaptiveTool {
 
+    // 后缀正则的格式（.*\\.xxx）
+    private static final Pattern SUFFIX_REGEX_PATTERN = Pattern.compile("^\\\\?\\.\\*\\\\?\\.(.+)$");
+
     private FileSuffixAdaptiveTool() {
         throw new AssertionError("工具类禁止实例化");
     }
@@ -42,10 +45,14 @@ public final class FileSuffixAdaptiveTool {
 
     /**
      * 从正则中提取目标后缀（如 .*\\.java → .java）
+     * 已注册的文件类型直接使用注册表中预先解析好的后缀
      */
     private static String extractTargetSuffix(String regex) {
-        Pattern pattern = Pattern.compile("^\\\\?\\.\\*\\\\?\\.(.+)$");
-        Matcher matcher = pattern.matcher(regex);
+        String suffix = FileUtil.getFileTypeRegistry().getSuffix(regex);
+        if (suffix != null) {
+            return suffix;
+        }
+        Matcher matcher = SUFFIX_REGEX_PATTERN.matcher(regex);
         if (matcher.matches()) {
             return "." + matcher.group(1);
         }
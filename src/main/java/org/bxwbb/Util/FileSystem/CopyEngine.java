@@ -0,0 +1,529 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.bxwbb.Util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.nio.file.attribute.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 复制引擎：调用线程遍历源文件夹并按顺序创建文件夹，文件复制交给有界的工作线程并行执行
+ * 1. 文件内容通过 FileChannel.transferTo 传输（系统支持时不经过用户态缓冲区）
+ * 2. 任务队列有界，遍历速度超过复制速度时遍历线程等待，内存占用与文件数量无关
+ * 3. 支持暂停/恢复/取消，分块传输，大文件复制过程中也能及时响应
+ * 4. 通过 {@link #getMetrics()} 获取进度与吞吐量
+ * 复制规则与 FileUtil.copyFileOrDir 相同：文件夹A复制到B时结果为 B/A，文件复制到已存在的文件夹时放入该文件夹
+ * 通过 {@link #forMove} 创建时为移动模式：同一磁盘内的源直接重命名，其余复制完成并校验后删除原文件，结果见 {@link #getMoveResults()}
+ * 复制模式可通过 {@link #setIgnoreRules} 跳过源文件夹中被忽略的条目（被忽略的文件夹整个不进入）
+ */
+public final class CopyEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(CopyEngine.class);
+    // 默认工作线程数
+    public static final int DEFAULT_WORKERS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    // 单次传输的最大字节数（决定暂停/取消的响应粒度）
+    private static final long CHUNK_SIZE = 32L << 20;
+    // 传输连续没有进展的最大次数，超过后按失败处理
+    private static final int MAX_STALLS = 8;
+    // 没有进展时的等待时间（毫秒，按次数递增）
+    private static final long STALL_BACKOFF_MILLIS = 10;
+    // 待复制队列容量
+    private static final int QUEUE_CAPACITY = 256;
+    private static final AtomicInteger THREAD_ID = new AtomicInteger(0);
+    private static final ExecutorService WORKER_POOL = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "CopyEngine-Worker-" + THREAD_ID.incrementAndGet());
+        thread.setDaemon(true);
+        thread.setUncaughtExceptionHandler((t, e) -> log.error("复制线程异常", e));
+        return thread;
+    });
+    // 队列结束标记
+    private static final CopyItem POISON = new CopyItem(null, null, null);
+
+    private final List<Path> sources;
+    private final Path dest;
+    private final int workers;
+    private final BlockingQueue<CopyItem> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final LongAdder filesDone = new LongAdder();
+    private final LongAdder filesTotal = new LongAdder();
+    private final LongAdder bytesDone = new LongAdder();
+    private final LongAdder bytesTotal = new LongAdder();
+    private final List<IOException> errors = Collections.synchronizedList(new ArrayList<>());
+    private final boolean move;
+    private final List<MoveResult> moveResults = Collections.synchronizedList(new ArrayList<>());
+    private final Object pauseLock = new Object();
+    private IgnoreRules ignoreRules = IgnoreRules.NONE;
+
+    private volatile boolean scanning = true;
+    private volatile boolean paused = false;
+    private volatile boolean cancelled = false;
+    private volatile long startNanos = 0;
+    private volatile long endNanos = 0;
+
+    /**
+     * @param sources 源文件/文件夹
+     * @param dest    目标文件夹（只有一个源文件时也可以是目标文件路径）
+     * @param workers 工作线程数
+     */
+    public CopyEngine(List<Path> sources, Path dest, int workers) {
+        this(sources, dest, workers, false);
+    }
+
+    public CopyEngine(List<Path> sources, Path dest) {
+        this(sources, dest, DEFAULT_WORKERS);
+    }
+
+    public CopyEngine(Path source, Path dest) {
+        this(List.of(source), dest, DEFAULT_WORKERS);
+    }
+
+    private CopyEngine(List<Path> sources, Path dest, int workers, boolean move) {
+        if (sources == null || sources.isEmpty()) throw new IllegalArgumentException("源路径不能为空！");
+        if (dest == null) throw new IllegalArgumentException("目标路径不能为空！");
+        if (workers <= 0) throw new IllegalArgumentException("工作线程数必须大于0");
+        this.sources = sources.stream().map(p -> p.toAbsolutePath().normalize()).toList();
+        this.dest = dest.toAbsolutePath().normalize();
+        this.workers = workers;
+        this.move = move;
+    }
+
+    /**
+     * 创建移动模式的引擎
+     *
+     * @param sources 源文件/文件夹
+     * @param dest    目标文件夹（只有一个源文件时也可以是目标文件路径）
+     */
+    public static CopyEngine forMove(List<Path> sources, Path dest) {
+        return new CopyEngine(sources, dest, DEFAULT_WORKERS, true);
+    }
+
+    /**
+     * 设置忽略规则（需在 {@link #run()} 之前调用），源本身总是复制
+     * 移动模式不支持：被忽略的条目会随原文件夹一起删除
+     */
+    public void setIgnoreRules(IgnoreRules rules) {
+        if (move && rules != null && !rules.isEmpty()) throw new IllegalStateException("移动模式不能跳过被忽略的条目");
+        this.ignoreRules = rules == null ? IgnoreRules.NONE : rules;
+    }
+
+    /**
+     * 执行复制（阻塞调用线程直到全部完成、被取消或调用线程被中断）
+     *
+     * @return 最终的进度快照
+     * @throws IllegalArgumentException 源路径不存在/把文件夹复制到自身子目录时抛出
+     * @throws IOException              有文件复制失败时抛出（其余文件仍会继续复制，失败原因附在suppressed中）
+     */
+    public CopyMetrics run() throws IOException {
+        for (Path source : sources) {
+            if (!Files.exists(source, LinkOption.NOFOLLOW_LINKS)) {
+                throw new IllegalArgumentException("源文件/文件夹不存在：" + source);
+            }
+            if (Files.isDirectory(source) && dest.startsWith(source)) {
+                throw new IllegalArgumentException("禁止将文件夹复制到自身的子目录中（会导致无限递归）：" +
+                        "源=" + source + "，目标=" + dest);
+            }
+        }
+        startNanos = System.nanoTime();
+        List<Path> copySources = move ? renameSameStore() : sources;
+        List<Future<?>> consumers = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            consumers.add(WORKER_POOL.submit(this::consume));
+        }
+        try {
+            for (Path source : copySources) {
+                if (cancelled) break;
+                produce(source);
+            }
+        } catch (InterruptedException e) {
+            cancel();
+            Thread.currentThread().interrupt();
+        } finally {
+            scanning = false;
+            finish(consumers);
+            endNanos = System.nanoTime();
+        }
+        if (move && !cancelled) {
+            for (Path source : copySources) {
+                try {
+                    moveResults.add(FileMover.completeCopy(source, targetOf(source)));
+                } catch (IOException e) {
+                    log.error("移动失败，已保留原文件 - {} -> ", source, e);
+                    errors.add(e);
+                }
+            }
+        }
+        CopyMetrics metrics = getMetrics();
+        log.info("{}{} - 复制了{}个文件，{}，{}/s，{} 个文件/s", move ? "移动" : "复制", cancelled ? "已取消" : "完成", metrics.filesDone(),
+                FileUtil.formatFileSize(metrics.bytesDone()), FileUtil.formatFileSize((long) metrics.bytesPerSecond()),
+                String.format("%.1f", metrics.filesPerSecond()));
+        if (!errors.isEmpty()) {
+            IOException exception = new IOException("有" + errors.size() + "个文件复制失败，第一个错误：" + errors.get(0).getMessage());
+            synchronized (errors) {
+                errors.forEach(exception::addSuppressed);
+            }
+            throw exception;
+        }
+        return metrics;
+    }
+
+    public void pause() {
+        paused = true;
+    }
+
+    public void resume() {
+        synchronized (pauseLock) {
+            paused = false;
+            pauseLock.notifyAll();
+        }
+    }
+
+    public void cancel() {
+        synchronized (pauseLock) {
+            cancelled = true;
+            pauseLock.notifyAll();
+        }
+    }
+
+    public boolean isPaused() {
+        return paused;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isMove() {
+        return move;
+    }
+
+    /**
+     * 移动模式下已完成的移动（按完成顺序），复制模式下为空
+     */
+    public List<MoveResult> getMoveResults() {
+        synchronized (moveResults) {
+            return List.copyOf(moveResults);
+        }
+    }
+
+    /**
+     * 获取当前进度与吞吐量（可在任意线程调用）
+     */
+    public CopyMetrics getMetrics() {
+        long start = startNanos;
+        long end = endNanos;
+        long elapsed = start == 0 ? 0 : (end == 0 ? System.nanoTime() : end) - start;
+        return new CopyMetrics(filesDone.sum(), filesTotal.sum(), bytesDone.sum(), bytesTotal.sum(), elapsed, scanning);
+    }
+
+    /**
+     * 移动模式：同一磁盘内的源直接重命名，返回仍需复制的源
+     */
+    private List<Path> renameSameStore() {
+        List<Path> remaining = new ArrayList<>();
+        for (Path source : sources) {
+            Path target = targetOf(source);
+            if (target.equals(source)) {
+                log.warn("源与目标相同，跳过 - {}", source);
+                continue;
+            }
+            MoveResult result;
+            try {
+                result = FileMover.tryRename(source, target);
+            } catch (IOException e) {
+                log.error("重命名失败 - {} >> {} -> ", source, target, e);
+                errors.add(e);
+                continue;
+            }
+            if (result != null) {
+                moveResults.add(result);
+            } else {
+                remaining.add(source);
+            }
+        }
+        return remaining;
+    }
+
+    /**
+     * 源路径对应的目标路径：文件夹或目标是已存在的文件夹时为 dest/源名称，否则为 dest
+     */
+    private Path targetOf(Path source) {
+        if (Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS) || Files.isDirectory(dest)) {
+            return dest.resolve(source.getFileName().toString());
+        }
+        return dest;
+    }
+
+    /**
+     * 遍历一个源路径：创建文件夹，文件放入待复制队列
+     */
+    private void produce(Path source) throws InterruptedException {
+        BasicFileAttributes sourceAttrs;
+        try {
+            sourceAttrs = Files.readAttributes(source, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+        } catch (IOException e) {
+            errors.add(e);
+            return;
+        }
+        if (!sourceAttrs.isDirectory()) {
+            Path target = targetOf(source);
+            if (target.equals(source)) {
+                log.warn("源与目标相同，跳过 - {}", source);
+                return;
+            }
+            try {
+                Path parent = target.getParent();
+                if (parent != null) Files.createDirectories(parent);
+            } catch (IOException e) {
+                errors.add(e);
+                return;
+            }
+            enqueue(new CopyItem(source, target, sourceAttrs));
+            return;
+        }
+
+        Path targetRoot = dest.resolve(source.getFileName().toString());
+        if (targetRoot.equals(source)) {
+            log.warn("源与目标相同，跳过 - {}", source);
+            return;
+        }
+        InterruptedException[] interrupted = new InterruptedException[1];
+        try {
+            Files.walkFileTree(source, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                    if (!awaitResume()) return FileVisitResult.TERMINATE;
+                    // 跳过目标文件夹（防循环）
+                    if (dir.equals(targetRoot)) return FileVisitResult.SKIP_SUBTREE;
+                    if (!dir.equals(source) && isIgnored(dir, true)) return FileVisitResult.SKIP_SUBTREE;
+                    Files.createDirectories(targetRoot.resolve(source.relativize(dir).toString()));
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (isIgnored(file, attrs.isDirectory())) return FileVisitResult.CONTINUE;
+                    try {
+                        enqueue(new CopyItem(file, targetRoot.resolve(source.relativize(file).toString()), attrs));
+                    } catch (InterruptedException e) {
+                        interrupted[0] = e;
+                        return FileVisitResult.TERMINATE;
+                    }
+                    return cancelled ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    log.warn("跳过无法访问的文件：{}，原因：{}", file, exc.getMessage());
+                    errors.add(exc);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.error("遍历源文件夹失败 - {} -> ", source, e);
+            errors.add(e);
+        }
+        if (interrupted[0] != null) throw interrupted[0];
+    }
+
+    /**
+     * 条目本身是否被忽略（被忽略的文件夹已整个跳过，不再检查祖先，源本身被忽略时其内容照常复制）
+     */
+    private boolean isIgnored(Path path, boolean directory) {
+        Path parent = path.getParent();
+        if (ignoreRules.isEmpty() || parent == null) return false;
+        return ignoreRules.isIgnored(ignoreRules.relativize(parent), path.getFileName().toString(), directory);
+    }
+
+    private void enqueue(CopyItem item) throws InterruptedException {
+        filesTotal.increment();
+        bytesTotal.add(item.attrs().size());
+        queue.put(item);
+    }
+
+    /**
+     * 通知工作线程结束并等待全部退出
+     */
+    private void finish(List<Future<?>> consumers) {
+        boolean interrupted = false;
+        for (int i = 0; i < consumers.size(); i++) {
+            while (true) {
+                try {
+                    queue.put(POISON);
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancel();
+                }
+            }
+        }
+        for (Future<?> consumer : consumers) {
+            while (true) {
+                try {
+                    consumer.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    cancel();
+                } catch (ExecutionException e) {
+                    log.error("复制线程异常退出 -> ", e.getCause());
+                    break;
+                }
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+    }
+
+    private void consume() {
+        while (true) {
+            CopyItem item;
+            try {
+                item = queue.take();
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (item == POISON) return;
+            if (cancelled) continue;
+            try {
+                if (copyFile(item)) filesDone.increment();
+            } catch (IOException e) {
+                log.error("复制文件失败 - {} >> {} -> ", item.source(), item.target(), e);
+                errors.add(e);
+            }
+        }
+    }
+
+    /**
+     * 复制单个文件并保留修改时间（POSIX系统下同时保留权限）
+     * 大文件传输中源文件被截断或连续多次没有进展时按失败处理，删除已复制的部分
+     *
+     * @return false=复制过程中被取消
+     */
+    private boolean copyFile(CopyItem item) throws IOException {
+        if (item.attrs().isSymbolicLink()) {
+            Files.copy(item.source(), item.target(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.COPY_ATTRIBUTES, LinkOption.NOFOLLOW_LINKS);
+            return true;
+        }
+        if (item.attrs().size() <= CHUNK_SIZE) {
+            // 小文件一次系统调用复制完成（同时复制修改时间和权限），省去分块循环和单独设置属性的开销
+            if (!awaitResume()) return false;
+            Files.copy(item.source(), item.target(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+            bytesDone.add(item.attrs().size());
+            return true;
+        }
+        boolean completed = false;
+        try (FileChannel in = FileChannel.open(item.source(), StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(item.target(), StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0;
+            int stalls = 0;
+            while (position < size) {
+                if (!awaitResume()) break;
+                long transferred = in.transferTo(position, Math.min(CHUNK_SIZE, size - position), out);
+                if (transferred <= 0) {
+                    if (in.size() <= position) {
+                        throw new IOException("源文件在复制过程中被截断（已复制" + position + "/" + size + "字节）：" + item.source());
+                    }
+                    if (++stalls > MAX_STALLS) {
+                        throw new IOException("复制连续" + MAX_STALLS + "次没有进展（已复制" + position + "/" + size + "字节）：" + item.source());
+                    }
+                    backoff(stalls);
+                    continue;
+                }
+                stalls = 0;
+                position += transferred;
+                bytesDone.add(transferred);
+            }
+            completed = !cancelled;
+        } finally {
+            if (!completed) {
+                // 取消或失败时删除复制了一半的文件
+                Files.deleteIfExists(item.target());
+            }
+        }
+        if (!completed) return false;
+        copyMetadata(item.source(), item.target());
+        return true;
+    }
+
+    /**
+     * 传输没有进展时等待一段时间再重试（逐次加长）
+     */
+    private static void backoff(int stalls) throws IOException {
+        try {
+            Thread.sleep(STALL_BACKOFF_MILLIS * stalls);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("复制被中断");
+        }
+    }
+
+    /**
+     * 复制文件属性（与 COPY_ATTRIBUTES 相同：时间戳，POSIX系统下的权限，Windows下的只读/隐藏等属性）
+     * 遍历得到的只是 BasicFileAttributes，这里按文件系统支持的视图重新读取
+     */
+    private static void copyMetadata(Path source, Path target) throws IOException {
+        PosixFileAttributeView posix = Files.getFileAttributeView(source, PosixFileAttributeView.class);
+        if (posix != null) {
+            PosixFileAttributes attrs = posix.readAttributes();
+            PosixFileAttributeView targetView = Files.getFileAttributeView(target, PosixFileAttributeView.class);
+            if (targetView != null) targetView.setPermissions(attrs.permissions());
+            Files.getFileAttributeView(target, BasicFileAttributeView.class)
+                    .setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), null);
+            return;
+        }
+        DosFileAttributeView dos = Files.getFileAttributeView(source, DosFileAttributeView.class);
+        if (dos != null) {
+            DosFileAttributes attrs = dos.readAttributes();
+            DosFileAttributeView targetView = Files.getFileAttributeView(target, DosFileAttributeView.class);
+            if (targetView != null) {
+                targetView.setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), attrs.creationTime());
+                targetView.setArchive(attrs.isArchive());
+                targetView.setHidden(attrs.isHidden());
+                targetView.setSystem(attrs.isSystem());
+                // 只读属性最后设置，否则之后的修改会失败
+                targetView.setReadOnly(attrs.isReadOnly());
+                return;
+            }
+        }
+        BasicFileAttributes attrs = Files.readAttributes(source, BasicFileAttributes.class);
+        Files.getFileAttributeView(target, BasicFileAttributeView.class)
+                .setTimes(attrs.lastModifiedTime(), attrs.lastAccessTime(), null);
+    }
+
+    /**
+     * 暂停时阻塞当前线程
+     *
+     * @return false=已取消
+     */
+    private boolean awaitResume() {
+        if (!paused) return !cancelled;
+        synchronized (pauseLock) {
+            while (paused && !cancelled) {
+                try {
+                    pauseLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelled = true;
+                }
+            }
+        }
+        return !cancelled;
+    }
+
+    /**
+     * 待复制的文件
+     */
+    private record CopyItem(Path source, Path target, BasicFileAttributes attrs) {
+    }
+}
@@ -0,0 +1,38 @@
+package org.bxwbb.Util.FileSystem;
+
+/**
+ * 复制进度与吞吐量快照
+ *
+ * @param filesDone    已复制的文件数
+ * @param filesTotal   已发现的文件数（扫描结束前会继续增长）
+ * @param bytesDone    已复制的字节数
+ * @param bytesTotal   已发现的字节数（扫描结束前会继续增长）
+ * @param elapsedNanos 已用时间（纳秒）
+ * @param scanning     是否仍在扫描源文件夹
+ */
+public record CopyMetrics(long filesDone, long filesTotal, long bytesDone, long bytesTotal, long elapsedNanos,
+                          boolean scanning) {
+
+    /**
+     * 平均复制速度（字节/秒）
+     */
+    public double bytesPerSecond() {
+        return elapsedNanos <= 0 ? 0 : bytesDone * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * 平均复制速度（文件/秒）
+     */
+    public double filesPerSecond() {
+        return elapsedNanos <= 0 ? 0 : filesDone * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * 按字节计算的进度（0~1，扫描结束前为估计值）
+     */
+    public double progress() {
+        if (bytesTotal > 0) return Math.min(1.0, bytesDone / (double) bytesTotal);
+        if (filesTotal > 0) return Math.min(1.0, filesDone / (double) filesTotal);
+        return scanning ? 0 : 1.0;
+    }
+}
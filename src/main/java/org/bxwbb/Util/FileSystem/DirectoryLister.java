@@ -0,0 +1,342 @@
+package org.bxwbb.Util.FileSystem;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.DosFileAttributes;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件夹列出服务（全局共用，线程安全）
+ * 1. 用 Files.newDirectoryStream 列出，每个条目只读取一次属性（符号链接再读取一次目标的属性）
+ * 2. 结果是不可变的 {@link DirectoryListing}，带文件夹修改时间作为版本戳
+ * 3. 最近的结果保存在一个小的LRU缓存中：版本戳未变且未超过有效期时，渲染、排序、统计、菜单等连续的使用方直接复用
+ * 文件夹的修改时间不反映子文件内容（大小、修改时间）的变化，所以缓存只在短时间内有效；
+ * 监听到变化或手动刷新时调用 {@link #invalidate(Path)}
+ * 4. {@link #prefetch} 预先列出的结果单独保存（按总大小限制，有效期较长），不挤占常用缓存，
+ * 之后第一次 {@link #list} 时版本戳未变即直接使用；{@link #isBusy()} 供预取让路给用户触发的列出
+ */
+public final class DirectoryLister {
+
+    private static volatile DirectoryLister INSTANCE;
+
+    // 缓存的文件夹数量
+    private static final int CACHE_CAPACITY = 64;
+    // 缓存的有效期（毫秒）
+    private static final long MAX_AGE = 2000;
+    // 预取结果占用的内存上限（字节）
+    private static final long PREFETCH_BUDGET = 8L << 20;
+    // 预取结果的有效期（毫秒），预取的多是还没有监听的文件夹，子文件属性的变化最多延迟这么久
+    private static final long PREFETCH_MAX_AGE = 15_000;
+    // 非预取的列出结束后仍视为忙的时间（纳秒）
+    private static final long BUSY_GRACE_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+    // Windows下隐藏属性需要读取DOS属性（与基本属性是同一次系统调用），其他系统按名称判断
+    private static final boolean DOS_ATTRIBUTES = File.separatorChar == '\\';
+
+    private final Map<Path, DirectoryListing> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, DirectoryListing> eldest) {
+            return size() > CACHE_CAPACITY;
+        }
+    };
+    private final long maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(MAX_AGE);
+    // 预取的结果（按访问顺序，超出内存上限时丢弃最久未用的），用自身同步
+    private final Map<Path, DirectoryListing> prefetched = new LinkedHashMap<>(16, 0.75f, true);
+    private long prefetchedBytes = 0;
+    private final long prefetchMaxAgeNanos = TimeUnit.MILLISECONDS.toNanos(PREFETCH_MAX_AGE);
+    // 正在进行的非预取列出数，以及最近一次结束的时间（连续遍历时两次列出之间也算忙）
+    private final AtomicInteger foreground = new AtomicInteger(0);
+    private volatile long foregroundEndNanos = 0;
+
+    // 统计
+    private final AtomicLong hits = new AtomicLong(0);
+    private final AtomicLong misses = new AtomicLong(0);
+    private final AtomicLong prefetchHits = new AtomicLong(0);
+    private final AtomicLong prefetches = new AtomicLong(0);
+
+    private DirectoryLister() {
+    }
+
+    /**
+     * 获取单例实例（双重检查锁，线程安全）
+     */
+    public static DirectoryLister getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DirectoryLister.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DirectoryLister();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 列出文件夹，缓存有效时直接返回缓存（只读取一次文件夹自身的属性）
+     *
+     * @throws IOException 文件夹不存在、不是文件夹或无法读取
+     */
+    public DirectoryListing list(Path dir) throws IOException {
+        Path key = dir.toAbsolutePath().normalize();
+        // 先取版本戳再列出：列出期间发生的变化会让下次的版本戳不一致
+        long version = version(key);
+        DirectoryListing cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && cached.version() == version && isFresh(cached)) {
+            hits.incrementAndGet();
+            return cached;
+        }
+        DirectoryListing listing = takePrefetched(key, version);
+        if (listing != null) {
+            prefetchHits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            listing = readForeground(key, version);
+        }
+        synchronized (cache) {
+            cache.put(key, listing);
+        }
+        return listing;
+    }
+
+    /**
+     * 预先列出文件夹（在低优先级的后台线程中调用），已有有效的结果时不重复列出
+     * 结果单独保存，不影响常用缓存
+     *
+     * @return 列出结果（可能是已有的缓存）
+     * @throws IOException 文件夹不存在、不是文件夹或无法读取
+     */
+    public DirectoryListing prefetch(Path dir) throws IOException {
+        Path key = dir.toAbsolutePath().normalize();
+        long version = version(key);
+        DirectoryListing existing;
+        synchronized (cache) {
+            existing = cache.get(key);
+        }
+        if (existing != null && existing.version() == version && isFresh(existing)) return existing;
+        synchronized (prefetched) {
+            existing = prefetched.get(key);
+        }
+        if (existing != null && existing.version() == version && isPrefetchFresh(existing)) return existing;
+        prefetches.incrementAndGet();
+        DirectoryListing listing = read(key, version);
+        synchronized (prefetched) {
+            DirectoryListing old = prefetched.put(key, listing);
+            if (old != null) prefetchedBytes -= old.memoryBytes();
+            prefetchedBytes += listing.memoryBytes();
+            Iterator<DirectoryListing> eldest = prefetched.values().iterator();
+            while (prefetchedBytes > PREFETCH_BUDGET && eldest.hasNext()) {
+                prefetchedBytes -= eldest.next().memoryBytes();
+                eldest.remove();
+            }
+        }
+        return listing;
+    }
+
+    /**
+     * 是否有非预取的列出正在进行或刚刚结束（预取线程据此让路）
+     */
+    public boolean isBusy() {
+        return foreground.get() > 0 || System.nanoTime() - foregroundEndNanos < BUSY_GRACE_NANOS;
+    }
+
+    /**
+     * 列出文件夹，不读取也不写入缓存（用于全量遍历，避免冲掉缓存中的常用文件夹）
+     *
+     * @throws IOException 文件夹不存在、不是文件夹或无法读取
+     */
+    public DirectoryListing scan(Path dir) throws IOException {
+        Path key = dir.toAbsolutePath().normalize();
+        return readForeground(key, version(key));
+    }
+
+    /**
+     * 文件夹是否为空：缓存有效时直接判断，否则只读取第一个条目
+     *
+     * @throws IOException 文件夹不存在、不是文件夹或无法读取
+     */
+    public boolean isEmpty(Path dir) throws IOException {
+        Path key = dir.toAbsolutePath().normalize();
+        DirectoryListing cached;
+        synchronized (cache) {
+            cached = cache.get(key);
+        }
+        if (cached != null && isFresh(cached)) {
+            hits.incrementAndGet();
+            return cached.isEmpty();
+        }
+        synchronized (prefetched) {
+            cached = prefetched.get(key);
+        }
+        if (cached != null && isPrefetchFresh(cached)) {
+            prefetchHits.incrementAndGet();
+            return cached.isEmpty();
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(key)) {
+            return !stream.iterator().hasNext();
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+    }
+
+    /**
+     * 丢弃文件夹的缓存（文件夹或其中的文件发生变化时调用）
+     */
+    public void invalidate(Path dir) {
+        Path key = dir.toAbsolutePath().normalize();
+        synchronized (cache) {
+            cache.remove(key);
+        }
+        synchronized (prefetched) {
+            DirectoryListing old = prefetched.remove(key);
+            if (old != null) prefetchedBytes -= old.memoryBytes();
+        }
+    }
+
+    public void invalidateAll() {
+        synchronized (cache) {
+            cache.clear();
+        }
+        synchronized (prefetched) {
+            prefetched.clear();
+            prefetchedBytes = 0;
+        }
+    }
+
+    public long getHitCount() {
+        return hits.get();
+    }
+
+    public long getMissCount() {
+        return misses.get();
+    }
+
+    /**
+     * 直接使用预取结果的次数
+     */
+    public long getPrefetchHitCount() {
+        return prefetchHits.get();
+    }
+
+    /**
+     * 预取时实际列出的次数
+     */
+    public long getPrefetchCount() {
+        return prefetches.get();
+    }
+
+    /**
+     * 预取结果占用的内存（字节，估算）
+     */
+    public long getPrefetchedBytes() {
+        synchronized (prefetched) {
+            return prefetchedBytes;
+        }
+    }
+
+    private boolean isFresh(DirectoryListing listing) {
+        return System.nanoTime() - listing.listedAt() < maxAgeNanos;
+    }
+
+    private boolean isPrefetchFresh(DirectoryListing listing) {
+        return System.nanoTime() - listing.listedAt() < prefetchMaxAgeNanos;
+    }
+
+    /**
+     * 取出预取结果（只用一次，之后进入常用缓存），版本戳不一致或过期时丢弃
+     */
+    private DirectoryListing takePrefetched(Path key, long version) {
+        DirectoryListing listing;
+        synchronized (prefetched) {
+            listing = prefetched.remove(key);
+            if (listing == null) return null;
+            prefetchedBytes -= listing.memoryBytes();
+        }
+        return listing.version() == version && isPrefetchFresh(listing) ? listing : null;
+    }
+
+    private DirectoryListing readForeground(Path dir, long version) throws IOException {
+        foreground.incrementAndGet();
+        try {
+            return read(dir, version);
+        } finally {
+            foregroundEndNanos = System.nanoTime();
+            foreground.decrementAndGet();
+        }
+    }
+
+    private static long version(Path dir) throws IOException {
+        BasicFileAttributes attrs = Files.readAttributes(dir, BasicFileAttributes.class);
+        if (!attrs.isDirectory()) throw new NotDirectoryException(dir.toString());
+        return attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+    }
+
+    private static DirectoryListing read(Path dir, long version) throws IOException {
+        long listedAt = System.nanoTime();
+        int capacity = 16;
+        String[] names = new String[capacity];
+        byte[] flags = new byte[capacity];
+        long[] sizes = new long[capacity];
+        long[] modifiedTimes = new long[capacity];
+        int[] fileKeys = new int[capacity];
+        int count = 0;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+            for (Path entry : stream) {
+                BasicFileAttributes attrs;
+                byte flag = 0;
+                try {
+                    attrs = readAttributes(entry, LinkOption.NOFOLLOW_LINKS);
+                    if (attrs.isSymbolicLink()) {
+                        flag |= DirectoryListing.LINK;
+                        attrs = readAttributes(entry);
+                    }
+                } catch (IOException | SecurityException e) {
+                    // 失效的链接、列出过程中被删除或无权限
+                    continue;
+                }
+                if (attrs.isDirectory()) {
+                    flag |= DirectoryListing.DIRECTORY;
+                } else if (!attrs.isRegularFile()) {
+                    continue;
+                }
+                String name = entry.getFileName().toString();
+                if (attrs instanceof DosFileAttributes dos ? dos.isHidden() : name.startsWith(".")) {
+                    flag |= DirectoryListing.HIDDEN;
+                }
+                if (count == capacity) {
+                    capacity *= 2;
+                    names = Arrays.copyOf(names, capacity);
+                    flags = Arrays.copyOf(flags, capacity);
+                    sizes = Arrays.copyOf(sizes, capacity);
+                    modifiedTimes = Arrays.copyOf(modifiedTimes, capacity);
+                    fileKeys = Arrays.copyOf(fileKeys, capacity);
+                }
+                names[count] = name;
+                flags[count] = flag;
+                sizes[count] = attrs.isDirectory() ? 0 : attrs.size();
+                modifiedTimes[count] = attrs.lastModifiedTime().toMillis();
+                fileKeys[count] = attrs.fileKey() == null ? 0 : attrs.fileKey().hashCode();
+                count++;
+            }
+        } catch (DirectoryIteratorException e) {
+            throw e.getCause();
+        }
+        return new DirectoryListing(dir, version, listedAt, Arrays.copyOf(names, count), Arrays.copyOf(flags, count),
+                Arrays.copyOf(sizes, count), Arrays.copyOf(modifiedTimes, count), Arrays.copyOf(fileKeys, count));
+    }
+
+    private static BasicFileAttributes readAttributes(Path path, LinkOption... options) throws IOException {
+        return DOS_ATTRIBUTES
+                ? Files.readAttributes(path, DosFileAttributes.class, options)
+                : Files.readAttributes(path, BasicFileAttributes.class, options);
+    }
+}
@@ -0,0 +1,115 @@
+package org.bxwbb.Util.FileSystem;
+
+import java.nio.file.Path;
+
+/**
+ * 文件夹某一时刻的列出结果（不可变，列式存储，按文件系统返回的顺序）
+ * 只包含普通文件和文件夹，符号链接按指向的目标记录，失效的链接被忽略
+ * 由 {@link DirectoryLister} 创建
+ */
+public final class DirectoryListing {
+
+    static final byte DIRECTORY = 1;
+    static final byte HIDDEN = 1 << 1;
+    static final byte LINK = 1 << 2;
+
+    private final Path directory;
+    private final long version;
+    private final long listedAt;
+    private final String[] names;
+    private final byte[] flags;
+    private final long[] sizes;
+    private final long[] modifiedTimes;
+    private final int[] fileKeys;
+
+    DirectoryListing(Path directory, long version, long listedAt, String[] names, byte[] flags, long[] sizes,
+                     long[] modifiedTimes, int[] fileKeys) {
+        this.directory = directory;
+        this.version = version;
+        this.listedAt = listedAt;
+        this.names = names;
+        this.flags = flags;
+        this.sizes = sizes;
+        this.modifiedTimes = modifiedTimes;
+        this.fileKeys = fileKeys;
+    }
+
+    public Path directory() {
+        return directory;
+    }
+
+    /**
+     * 版本戳：列出前文件夹的最后修改时间（纳秒），增删/重命名子项后会变化
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * 列出的时间（System.nanoTime）
+     */
+    public long listedAt() {
+        return listedAt;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    public boolean isEmpty() {
+        return names.length == 0;
+    }
+
+    public String name(int index) {
+        return names[index];
+    }
+
+    public Path path(int index) {
+        return directory.resolve(names[index]);
+    }
+
+    public boolean isDirectory(int index) {
+        return (flags[index] & DIRECTORY) != 0;
+    }
+
+    public boolean isHidden(int index) {
+        return (flags[index] & HIDDEN) != 0;
+    }
+
+    /**
+     * 是否为符号链接（其余属性为链接目标的属性）
+     */
+    public boolean isSymbolicLink(int index) {
+        return (flags[index] & LINK) != 0;
+    }
+
+    /**
+     * 文件大小（字节，文件夹为0）
+     */
+    public long fileSize(int index) {
+        return sizes[index];
+    }
+
+    /**
+     * 最后修改时间（毫秒）
+     */
+    public long modifiedTime(int index) {
+        return modifiedTimes[index];
+    }
+
+    /**
+     * 文件标识的哈希（0为未知）
+     */
+    public int fileKey(int index) {
+        return fileKeys[index];
+    }
+
+    /**
+     * 占用的堆内存（字节，估算）
+     */
+    public long memoryBytes() {
+        long bytes = 64 + names.length * (8L + 1 + 8 + 8 + 4);
+        for (String name : names) bytes += 40 + name.length() * 2L;
+        return bytes;
+    }
+}
@@ -0,0 +1,139 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 文件夹预取：在用户打开之前预先列出可能马上要打开的文件夹（全局共用，线程安全）
+ * 1. 调用方给出提示（鼠标悬停的文件夹、选中文件夹的子文件夹等），最新的提示最先处理，等待的提示超过上限时丢弃最旧的
+ * 2. 单个低优先级的守护线程执行，有用户触发的列出正在进行时（{@link DirectoryLister#isBusy()}）先让路
+ * 3. 列出的文件夹只有一个子文件夹时沿着这条链继续预取（展开时会自动展开唯一的子文件夹）
+ * 结果保存在 {@link DirectoryLister} 的预取区中，受其内存上限约束
+ */
+public final class DirectoryPrefetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectoryPrefetcher.class);
+    private static volatile DirectoryPrefetcher INSTANCE;
+
+    // 等待处理的提示上限
+    private static final int MAX_PENDING = 64;
+    // 单子文件夹链最多向下预取的层数
+    private static final int MAX_CHAIN = 8;
+    // 让路时的检查间隔（毫秒）
+    private static final long YIELD_INTERVAL = 20;
+
+    private final DirectoryLister lister = DirectoryLister.getInstance();
+    // 等待处理的提示（队首最新），用自身同步
+    private final Deque<Request> pending = new ArrayDeque<>();
+    private final Set<Path> pendingDirs = new HashSet<>();
+
+    // 统计
+    private final AtomicLong hinted = new AtomicLong(0);
+
+    private DirectoryPrefetcher() {
+        Thread worker = new Thread(this::work, "DirectoryPrefetcher");
+        worker.setDaemon(true);
+        worker.setPriority(Thread.MIN_PRIORITY);
+        worker.start();
+    }
+
+    /**
+     * 获取单例实例（双重检查锁，线程安全）
+     */
+    public static DirectoryPrefetcher getInstance() {
+        if (INSTANCE == null) {
+            synchronized (DirectoryPrefetcher.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new DirectoryPrefetcher();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 提示文件夹可能马上会被打开
+     */
+    public void hint(Path dir) {
+        hint(List.of(dir));
+    }
+
+    /**
+     * 提示一组文件夹可能马上会被打开（排在前面的先处理），之前等待中的提示排到它们之后
+     */
+    public void hint(List<Path> dirs) {
+        if (dirs.isEmpty()) return;
+        synchronized (pending) {
+            for (int i = dirs.size() - 1; i >= 0; i--) {
+                push(new Request(dirs.get(i).toAbsolutePath().normalize(), 0));
+            }
+            hinted.addAndGet(dirs.size());
+            pending.notifyAll();
+        }
+    }
+
+    /**
+     * 收到的提示数（实际列出的次数见 {@link DirectoryLister#getPrefetchCount()}）
+     */
+    public long getHintCount() {
+        return hinted.get();
+    }
+
+    /**
+     * 放到队首，已在等待的先移除，超过上限时丢弃队尾（最旧的）
+     */
+    private void push(Request request) {
+        if (!pendingDirs.add(request.dir)) pending.removeIf(other -> other.dir.equals(request.dir));
+        pending.addFirst(request);
+        while (pending.size() > MAX_PENDING) {
+            pendingDirs.remove(pending.removeLast().dir);
+        }
+    }
+
+    private void work() {
+        while (true) {
+            Request request;
+            try {
+                synchronized (pending) {
+                    while (pending.isEmpty()) pending.wait();
+                }
+                while (lister.isBusy()) Thread.sleep(YIELD_INTERVAL);
+                synchronized (pending) {
+                    // 让路期间可能有更新的提示
+                    request = pending.pollFirst();
+                    if (request == null) continue;
+                    pendingDirs.remove(request.dir);
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            prefetch(request);
+        }
+    }
+
+    private void prefetch(Request request) {
+        DirectoryListing listing;
+        try {
+            listing = lister.prefetch(request.dir);
+        } catch (IOException | SecurityException e) {
+            log.debug("预取文件夹失败 - {} -> {}", request.dir, e.getMessage());
+            return;
+        }
+        if (request.chain < MAX_CHAIN && listing.size() == 1 && listing.isDirectory(0) && !listing.isSymbolicLink(0)) {
+            synchronized (pending) {
+                push(new Request(listing.path(0), request.chain + 1));
+            }
+        }
+    }
+
+    /**
+     * @param chain 在单子文件夹链中的层数（直接提示的为0）
+     */
+    private record Request(Path dir, int chain) {
+    }
+}
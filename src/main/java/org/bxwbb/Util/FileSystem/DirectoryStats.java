@@ -0,0 +1,32 @@
+package org.bxwbb.Util.FileSystem;
+
+import java.nio.file.Path;
+
+/**
+ * 文件夹统计结果
+ *
+ * @param files       文件数量（包含所有层级）
+ * @param directories 文件夹数量（包含所有层级，不含统计的根文件夹）
+ * @param bytes       文件总大小（字节）
+ * @param deepestPath 层级最深的文件（夹），空文件夹时为根文件夹本身
+ * @param depth       deepestPath 相对根文件夹的层级（根文件夹的直接子项为1）
+ * @param cancelled   统计是否被取消（取消时其余字段为已统计的部分结果）
+ */
+public record DirectoryStats(long files, long directories, long bytes, Path deepestPath, int depth,
+                             boolean cancelled) {
+
+    /**
+     * 合并两个子树的统计结果
+     */
+    DirectoryStats merge(DirectoryStats other) {
+        boolean otherDeeper = other.depth > depth;
+        return new DirectoryStats(
+                files + other.files,
+                directories + other.directories,
+                bytes + other.bytes,
+                otherDeeper ? other.deepestPath : deepestPath,
+                otherDeeper ? other.depth : depth,
+                cancelled || other.cancelled
+        );
+    }
+}
@@ -0,0 +1,217 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 并行文件夹统计：按子文件夹拆分为 fork/join 任务，多核同时遍历
+ * 1. 一次遍历同时得到文件数、文件夹数、总大小和最深路径
+ * 2. 每个目录项只读取一次属性（Windows下目录流自带属性，不额外产生系统调用）
+ * 3. 跟随符号链接，按 fileKey（不支持时按真实路径）记录已访问的文件夹，链接成环时不会重复遍历
+ * 4. 调用线程定时回报部分结果；调用线程被中断（ControllableThreadPool取消任务）时停止遍历并返回部分结果
+ * 5. 可按 {@link IgnoreRules} 跳过被忽略的条目，被忽略的文件夹在拆分任务前跳过，不进入
+ */
+public final class DirectoryStatsWalker {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectoryStatsWalker.class);
+    // 回报进度的间隔（毫秒）
+    private static final long PROGRESS_INTERVAL = 200;
+    // 暂停时的检查间隔（毫秒）
+    private static final long PAUSE_CHECK_INTERVAL = 50;
+    private static final AtomicInteger THREAD_ID = new AtomicInteger(0);
+    // 全部统计共用的线程池（守护线程）
+    private static final ForkJoinPool POOL = new ForkJoinPool(
+            Math.max(2, Runtime.getRuntime().availableProcessors()),
+            pool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                thread.setName("DirectoryStats-Worker-" + THREAD_ID.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            (t, e) -> log.error("文件夹统计线程异常", e),
+            false
+    );
+
+    private final LongAdder files = new LongAdder();
+    private final LongAdder directories = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    // 已访问的文件夹（fileKey或真实路径）
+    private final Set<Object> visited = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+    private final BooleanSupplier paused;
+    private final IgnoreRules rules;
+
+    private DirectoryStatsWalker(BooleanSupplier paused, IgnoreRules rules) {
+        this.paused = paused == null ? () -> false : paused;
+        this.rules = rules == null ? IgnoreRules.NONE : rules;
+    }
+
+    /**
+     * 统计文件夹（阻塞调用线程直到完成或被中断）
+     *
+     * @param root     要统计的文件夹
+     * @param listener 进度回调，在调用线程中执行（可为null）
+     * @param paused   是否处于暂停状态（可为null）
+     * @return 统计结果，被中断时 cancelled 为true
+     */
+    public static DirectoryStats walk(Path root, ProgressListener listener, BooleanSupplier paused) {
+        return walk(root, listener, paused, null);
+    }
+
+    /**
+     * 统计文件夹，跳过被忽略的条目（阻塞调用线程直到完成或被中断）
+     *
+     * @param rules 忽略规则（可为null），根文件夹不在规则的基准文件夹下时不跳过任何条目
+     */
+    public static DirectoryStats walk(Path root, ProgressListener listener, BooleanSupplier paused, IgnoreRules rules) {
+        DirectoryStatsWalker walker = new DirectoryStatsWalker(paused, rules);
+        try {
+            BasicFileAttributes attrs = Files.readAttributes(root, BasicFileAttributes.class);
+            walker.visited.add(directoryKey(root, attrs));
+        } catch (IOException e) {
+            log.warn("读取文件夹属性失败 - {}", root);
+        }
+        ForkJoinTask<DirectoryStats> future = POOL.submit(walker.new DirectoryTask(root, walker.rules.relativize(root), 0));
+        while (true) {
+            try {
+                return future.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                if (listener != null) {
+                    listener.onProgress(walker.files.sum(), walker.directories.sum(), walker.bytes.sum());
+                }
+            } catch (InterruptedException e) {
+                walker.cancelled.set(true);
+                log.info("文件夹统计已取消 - {}", root);
+                DirectoryStats partial = future.join();
+                Thread.currentThread().interrupt();
+                return new DirectoryStats(partial.files(), partial.directories(), partial.bytes(),
+                        partial.deepestPath(), partial.depth(), true);
+            } catch (ExecutionException e) {
+                log.error("文件夹统计失败 - {} -> ", root, e.getCause());
+                return new DirectoryStats(walker.files.sum(), walker.directories.sum(), walker.bytes.sum(), root, 0, true);
+            }
+        }
+    }
+
+    private static Object directoryKey(Path dir, BasicFileAttributes attrs) throws IOException {
+        Object key = attrs.fileKey();
+        return key != null ? key : dir.toRealPath();
+    }
+
+    private boolean awaitResume() {
+        while (paused.getAsBoolean() && !cancelled.get()) {
+            try {
+                Thread.sleep(PAUSE_CHECK_INTERVAL);
+            } catch (InterruptedException e) {
+                cancelled.set(true);
+                Thread.currentThread().interrupt();
+            }
+        }
+        return !cancelled.get();
+    }
+
+    /**
+     * 单个文件夹的统计任务：统计直接子项，子文件夹拆分为新任务
+     */
+    private final class DirectoryTask extends RecursiveTask<DirectoryStats> {
+
+        private final Path dir;
+        // 相对于忽略规则基准文件夹的路径，不在其下时为null
+        private final String relative;
+        private final int depth;
+
+        private DirectoryTask(Path dir, String relative, int depth) {
+            this.dir = dir;
+            this.relative = relative;
+            this.depth = depth;
+        }
+
+        @Override
+        protected DirectoryStats compute() {
+            if (!awaitResume()) {
+                return new DirectoryStats(0, 0, 0, dir, depth, true);
+            }
+            long fileCount = 0;
+            long dirCount = 0;
+            long size = 0;
+            Path deepest = dir;
+            int deepestDepth = depth;
+            List<DirectoryTask> subtasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path entry : stream) {
+                    if (cancelled.get()) break;
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(entry, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                        if (attrs.isSymbolicLink()) {
+                            attrs = Files.readAttributes(entry, BasicFileAttributes.class);
+                        }
+                        if (rules.isIgnored(relative, entry.getFileName().toString(), attrs.isDirectory())) continue;
+                        if (attrs.isDirectory() && !visited.add(directoryKey(entry, attrs))) {
+                            log.debug("文件夹已统计过（符号链接成环或重复指向），跳过 - {}", entry);
+                            continue;
+                        }
+                    } catch (IOException | SecurityException e) {
+                        // 失效的链接、遍历过程中被删除或无权限
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        dirCount++;
+                        subtasks.add(new DirectoryTask(entry, IgnoreRules.child(relative, entry.getFileName().toString()), depth + 1));
+                    } else if (attrs.isRegularFile()) {
+                        fileCount++;
+                        size += attrs.size();
+                    } else {
+                        continue;
+                    }
+                    if (deepestDepth <= depth) {
+                        deepest = entry;
+                        deepestDepth = depth + 1;
+                    }
+                }
+            } catch (IOException | SecurityException e) {
+                log.warn("无法访问目录 {}（权限不足/文件被占用）", dir);
+            }
+            files.add(fileCount);
+            directories.add(dirCount);
+            bytes.add(size);
+
+            DirectoryStats result = new DirectoryStats(fileCount, dirCount, size, deepest, deepestDepth, cancelled.get());
+            if (!subtasks.isEmpty()) {
+                invokeAll(subtasks);
+                for (DirectoryTask subtask : subtasks) {
+                    result = result.merge(subtask.join());
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * 统计进度回调
+     */
+    @FunctionalInterface
+    public interface ProgressListener {
+        /**
+         * @param files       已统计的文件数
+         * @param directories 已统计的文件夹数
+         * @param bytes       已统计的总大小（字节）
+         */
+        void onProgress(long files, long directories, long bytes);
+    }
+}
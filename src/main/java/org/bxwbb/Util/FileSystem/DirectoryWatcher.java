@@ -0,0 +1,250 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 文件夹监听：只监听调用方登记的文件夹（不递归），文件夹内有新建/删除/修改（例如服务器追加日志）时通知
+ * 1. 同一文件夹的一串事件在防抖时间内合并为一次通知，持续变化时最多延迟 MAX_DELAY 通知一次
+ * 2. 文件系统不支持监听时改为定时比较文件夹的指纹（子条目的名称、大小和修改时间）
+ * 3. 只有一个守护线程，空闲时阻塞在 WatchService 上
+ */
+public final class DirectoryWatcher implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectoryWatcher.class);
+    // 防抖时间（毫秒）
+    private static final long DEBOUNCE = 200;
+    // 持续变化时两次通知的最大间隔（毫秒）
+    private static final long MAX_DELAY = 1000;
+    // 轮询指纹的间隔（毫秒）
+    private static final long POLL_INTERVAL = 2000;
+    private static final AtomicInteger THREAD_ID = new AtomicInteger(0);
+
+    private final Listener listener;
+    private final WatchService watchService;
+    private final Map<Path, WatchKey> keys = new ConcurrentHashMap<>();
+    // 不支持监听、改为轮询的文件夹及其上次的指纹
+    private final Map<Path, Long> polled = new ConcurrentHashMap<>();
+    // 等待通知的文件夹 -> {首次事件时间, 最近事件时间}（只在监听线程中访问）
+    private final Map<Path, long[]> pending = new LinkedHashMap<>();
+    private final Thread thread;
+    private volatile boolean closed = false;
+    private long lastPoll = 0;
+
+    /**
+     * @param listener 变化通知，在监听线程中执行
+     */
+    public DirectoryWatcher(Listener listener) {
+        this.listener = listener;
+        WatchService service = null;
+        try {
+            service = FileSystems.getDefault().newWatchService();
+        } catch (IOException | UnsupportedOperationException e) {
+            log.warn("无法创建文件监听服务，全部改为轮询 -> {}", e.getMessage());
+        }
+        this.watchService = service;
+        this.thread = new Thread(this::run, "DirectoryWatcher-" + THREAD_ID.incrementAndGet());
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * 开始监听文件夹（已在监听时忽略）
+     */
+    public void watch(Path dir) {
+        if (closed) return;
+        Path path = dir.toAbsolutePath().normalize();
+        if (keys.containsKey(path) || polled.containsKey(path)) return;
+        if (watchService != null) {
+            try {
+                keys.put(path, path.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY));
+                return;
+            } catch (IOException | UnsupportedOperationException e) {
+                log.debug("文件夹不支持监听，改为轮询 - {}（{}）", path, e.getMessage());
+            }
+        }
+        try {
+            polled.put(path, fingerprint(path));
+        } catch (IOException e) {
+            log.warn("无法列出文件夹，不监听 - {}", path);
+        }
+    }
+
+    /**
+     * 停止监听文件夹
+     */
+    public void unwatch(Path dir) {
+        Path path = dir.toAbsolutePath().normalize();
+        WatchKey key = keys.remove(path);
+        if (key != null) key.cancel();
+        polled.remove(path);
+    }
+
+    /**
+     * 停止监听文件夹及其所有子文件夹
+     */
+    public void unwatchTree(Path dir) {
+        Path path = dir.toAbsolutePath().normalize();
+        for (Path watched : new ArrayList<>(keys.keySet())) {
+            if (watched.startsWith(path)) unwatch(watched);
+        }
+        polled.keySet().removeIf(watched -> watched.startsWith(path));
+    }
+
+    public boolean isWatching(Path dir) {
+        Path path = dir.toAbsolutePath().normalize();
+        return keys.containsKey(path) || polled.containsKey(path);
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        keys.clear();
+        polled.clear();
+        if (watchService != null) {
+            try {
+                watchService.close();
+            } catch (IOException e) {
+                log.warn("关闭文件监听服务失败 -> {}", e.getMessage());
+            }
+        }
+        thread.interrupt();
+    }
+
+    private void run() {
+        while (!closed) {
+            try {
+                WatchKey key = next(waitTime());
+                if (key != null) {
+                    collect(key);
+                }
+                long now = System.currentTimeMillis();
+                if (now - lastPoll >= POLL_INTERVAL) {
+                    lastPoll = now;
+                    pollFingerprints(now);
+                }
+                fireDue(now);
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                break;
+            } catch (Exception e) {
+                log.error("文件监听线程异常 -> ", e);
+            }
+        }
+    }
+
+    private WatchKey next(long timeout) throws InterruptedException {
+        if (watchService == null) {
+            Thread.sleep(timeout);
+            return null;
+        }
+        return watchService.poll(timeout, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 距下一次需要处理（通知或轮询）的时间
+     */
+    private long waitTime() {
+        long now = System.currentTimeMillis();
+        long wait = POLL_INTERVAL - (now - lastPoll);
+        for (long[] times : pending.values()) {
+            wait = Math.min(wait, dueTime(times) - now);
+        }
+        return Math.max(1, wait);
+    }
+
+    private static long dueTime(long[] times) {
+        return Math.min(times[1] + DEBOUNCE, times[0] + MAX_DELAY);
+    }
+
+    private void collect(WatchKey key) {
+        Path dir = (Path) key.watchable();
+        long now = System.currentTimeMillis();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失，所有文件夹都需要重新比较
+                keys.keySet().forEach(watched -> mark(watched, now));
+            }
+        }
+        mark(dir, now);
+        if (!key.reset()) {
+            // 文件夹已被删除或无法访问，父文件夹会收到删除事件
+            keys.remove(dir, key);
+            pending.remove(dir);
+        }
+    }
+
+    private void pollFingerprints(long now) {
+        for (Map.Entry<Path, Long> entry : polled.entrySet()) {
+            try {
+                long fingerprint = fingerprint(entry.getKey());
+                if (fingerprint != entry.getValue()) {
+                    entry.setValue(fingerprint);
+                    mark(entry.getKey(), now);
+                }
+            } catch (IOException e) {
+                polled.remove(entry.getKey());
+            }
+        }
+    }
+
+    /**
+     * 文件夹的指纹：与条目顺序无关，子条目新建、删除或内容被改写（大小/修改时间变化）时改变
+     * 文件夹自身的修改时间只在新建/删除时变化，不能发现追加写入
+     */
+    private static long fingerprint(Path dir) throws IOException {
+        DirectoryListing listing = DirectoryLister.getInstance().scan(dir);
+        long fingerprint = listing.size();
+        for (int i = 0; i < listing.size(); i++) {
+            long hash = listing.name(i).hashCode();
+            hash = hash * 31 + listing.fileSize(i);
+            hash = hash * 31 + listing.modifiedTime(i);
+            hash *= 0x9E3779B97F4A7C15L;
+            fingerprint += hash ^ (hash >>> 32);
+        }
+        return fingerprint;
+    }
+
+    private void mark(Path dir, long now) {
+        long[] times = pending.get(dir);
+        if (times == null) {
+            pending.put(dir, new long[]{now, now});
+        } else {
+            times[1] = now;
+        }
+    }
+
+    private void fireDue(long now) {
+        Iterator<Map.Entry<Path, long[]>> iterator = pending.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Path, long[]> entry = iterator.next();
+            if (dueTime(entry.getValue()) > now) continue;
+            iterator.remove();
+            if (!isWatching(entry.getKey())) continue;
+            try {
+                listener.onDirectoryChanged(entry.getKey());
+            } catch (Exception e) {
+                log.error("处理文件夹变化时出现错误 - {} -> ", entry.getKey(), e);
+            }
+        }
+    }
+
+    /**
+     * 文件夹变化通知
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param dir 发生变化的文件夹（绝对路径）
+         */
+        void onDirectoryChanged(Path dir);
+    }
+}
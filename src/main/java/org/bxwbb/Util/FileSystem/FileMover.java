@@ -0,0 +1,145 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+
+/**
+ * 文件移动：同一磁盘（FileStore）内直接原子重命名，耗时与文件大小无关；
+ * 跨磁盘时交给 {@link CopyEngine} 复制，逐个文件校验大小后再删除原文件
+ */
+public final class FileMover {
+
+    private static final Logger log = LoggerFactory.getLogger(FileMover.class);
+
+    private FileMover() {
+    }
+
+    /**
+     * 移动单个文件（夹），阻塞直到完成
+     *
+     * @param source 源文件（夹）
+     * @param target 目标路径（不是目标文件夹）
+     * @return 移动结果
+     * @throws IOException 移动、复制或校验失败时抛出（失败时不会删除原文件）
+     */
+    public static MoveResult move(Path source, Path target) throws IOException {
+        source = source.toAbsolutePath().normalize();
+        target = target.toAbsolutePath().normalize();
+        MoveResult result = tryRename(source, target);
+        if (result != null) return result;
+
+        boolean directory = Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
+        if (directory && !source.getFileName().equals(target.getFileName())) {
+            // CopyEngine 复制文件夹时总是保留原名称
+            throw new IOException("不支持跨磁盘移动并重命名文件夹：" + source + " >> " + target);
+        }
+        CopyEngine engine = CopyEngine.forMove(List.of(source), directory ? target.getParent() : target);
+        engine.run();
+        List<MoveResult> results = engine.getMoveResults();
+        if (results.isEmpty()) {
+            throw new IOException("移动未完成：" + source + " >> " + target);
+        }
+        return results.get(0);
+    }
+
+    /**
+     * 源与目标所在文件夹是否在同一个文件存储（磁盘/分区）上
+     */
+    public static boolean isSameFileStore(Path source, Path targetDir) {
+        try {
+            Path sourceParent = source.toAbsolutePath().getParent();
+            if (sourceParent == null || targetDir == null) return false;
+            return Files.getFileStore(sourceParent).equals(Files.getFileStore(targetDir));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 尝试在同一磁盘内原子重命名
+     *
+     * @return 移动结果，跨磁盘或目标是非空文件夹（需要合并）时返回null，由调用方改为复制
+     * @throws IOException 源文件不存在、无权限等重命名和复制都无法完成的错误
+     */
+    public static MoveResult tryRename(Path source, Path target) throws IOException {
+        if (!isSameFileStore(source, target.getParent())) return null;
+        boolean directory = Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException | DirectoryNotEmptyException | FileAlreadyExistsException e) {
+            log.debug("无法直接重命名，改为复制 - {} >> {}（{}）", source, target, e.getClass().getSimpleName());
+            return null;
+        }
+        log.debug("已重命名 - {} >> {}", source, target);
+        return new MoveResult(source, target, directory, MoveResult.Method.RENAME);
+    }
+
+    /**
+     * 校验复制结果后删除原文件（夹）
+     *
+     * @throws IOException 目标缺少文件或大小不一致时抛出，此时原文件保持不变
+     */
+    static MoveResult completeCopy(Path source, Path target) throws IOException {
+        boolean directory = Files.isDirectory(source, LinkOption.NOFOLLOW_LINKS);
+        verifyCopy(source, target);
+        deleteTree(source);
+        return new MoveResult(source, target, directory, MoveResult.Method.COPY);
+    }
+
+    /**
+     * 逐个比对源与目标：文件夹和链接必须存在，普通文件大小必须一致
+     */
+    private static void verifyCopy(Path source, Path target) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Path copied = target.resolve(source.relativize(dir).toString());
+                if (!Files.isDirectory(copied, LinkOption.NOFOLLOW_LINKS)) {
+                    throw new IOException("校验失败，目标文件夹不存在：" + copied);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path copied = source.equals(file) ? target : target.resolve(source.relativize(file).toString());
+                BasicFileAttributes copiedAttrs;
+                try {
+                    copiedAttrs = Files.readAttributes(copied, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+                } catch (NoSuchFileException e) {
+                    throw new IOException("校验失败，目标文件不存在：" + copied);
+                }
+                if (attrs.isRegularFile() && copiedAttrs.size() != attrs.size()) {
+                    throw new IOException("校验失败，文件大小不一致：" + file + "（" + attrs.size() + "）>> " +
+                            copied + "（" + copiedAttrs.size() + "）");
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 递归删除（不跟随符号链接）
+     */
+    private static void deleteTree(Path path) throws IOException {
+        Files.walkFileTree(path, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                if (exc != null) throw exc;
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+}
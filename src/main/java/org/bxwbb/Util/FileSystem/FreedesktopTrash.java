@@ -0,0 +1,254 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Linux回收站，按 freedesktop.org Trash 规范实现
+ * 1. 与家目录回收站（$XDG_DATA_HOME/Trash）在同一磁盘时放入家目录回收站，否则放入所在挂载点的 .Trash/$uid 或 .Trash-$uid
+ * 2. 先以独占方式创建 info/名称.trashinfo 占用名称，再把文件重命名到 files/名称，不会复制文件
+ * 3. 重命名失败时删除已写入的 .trashinfo，原文件保持不变
+ */
+public final class FreedesktopTrash {
+
+    private static final Logger log = LoggerFactory.getLogger(FreedesktopTrash.class);
+    private static final DateTimeFormatter DELETION_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+    // 同名文件最多尝试的编号
+    private static final int MAX_NAME_ATTEMPTS = 10000;
+    private static final int STICKY_BIT = 01000;
+    private static volatile FreedesktopTrash instance;
+
+    private final Path homeTrash;
+    // 无法确定时为null（只能使用家目录回收站）
+    private final String uid;
+
+    /**
+     * @param dataHome 对应 $XDG_DATA_HOME 的文件夹，回收站为其中的 Trash 文件夹
+     * @param uid      当前用户的数字uid，用于挂载点回收站的文件夹名，无法确定时为null（其他磁盘上的文件不能移入回收站）
+     */
+    public FreedesktopTrash(Path dataHome, String uid) {
+        this.homeTrash = dataHome.toAbsolutePath().normalize().resolve("Trash");
+        this.uid = uid;
+    }
+
+    /**
+     * 当前用户的回收站（$XDG_DATA_HOME 未设置或不是绝对路径时使用 ~/.local/share）
+     */
+    public static FreedesktopTrash getInstance() {
+        if (instance == null) {
+            synchronized (FreedesktopTrash.class) {
+                if (instance == null) {
+                    instance = new FreedesktopTrash(dataHome(System.getenv(), System.getProperty("user.home")), currentUid());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * 按规范确定 $XDG_DATA_HOME：环境变量未设置、为空或不是绝对路径时使用 家目录/.local/share
+     *
+     * @param env      环境变量
+     * @param userHome 家目录
+     */
+    static Path dataHome(Map<String, String> env, String userHome) {
+        String xdgDataHome = env.get("XDG_DATA_HOME");
+        if (xdgDataHome != null && !xdgDataHome.isBlank() && Paths.get(xdgDataHome).isAbsolute()) {
+            return Paths.get(xdgDataHome);
+        }
+        return Paths.get(userHome, ".local", "share");
+    }
+
+    /**
+     * 把文件（夹）移入回收站
+     *
+     * @return 文件在回收站中的位置
+     * @throws IOException 找不到可用的回收站或无法重命名时抛出（原文件保持不变）
+     */
+    public Path trash(Path path) throws IOException {
+        Path source = path.toAbsolutePath().normalize();
+        if (!Files.exists(source, LinkOption.NOFOLLOW_LINKS)) {
+            throw new NoSuchFileException(source.toString());
+        }
+        Path parent = source.getParent();
+        if (parent == null) {
+            throw new IOException("不能把根目录移入回收站：" + source);
+        }
+        FileStore sourceStore = Files.getFileStore(parent);
+
+        Path trashDir;
+        Path topDir = null;
+        ensureTrashDir(homeTrash);
+        if (sourceStore.equals(Files.getFileStore(homeTrash))) {
+            trashDir = homeTrash;
+        } else {
+            topDir = findTopDir(parent, sourceStore);
+            trashDir = findTopDirTrash(topDir);
+        }
+        String infoPath = topDir == null ? source.toString() : topDir.relativize(source).toString();
+        return moveInto(source, trashDir, infoPath);
+    }
+
+    /**
+     * 批量移入回收站，单个失败不影响其他文件
+     *
+     * @return 失败的路径
+     */
+    public List<Path> trashAll(Collection<Path> paths) {
+        List<Path> failed = new ArrayList<>();
+        for (Path path : paths) {
+            try {
+                Path trashed = trash(path);
+                log.info("已移入回收站 - {} >> {}", path, trashed);
+            } catch (IOException | SecurityException e) {
+                log.error("移入回收站失败 - {} -> ", path, e);
+                failed.add(path);
+            }
+        }
+        return failed;
+    }
+
+    public Path getHomeTrash() {
+        return homeTrash;
+    }
+
+    private Path moveInto(Path source, Path trashDir, String infoPath) throws IOException {
+        Path filesDir = trashDir.resolve("files");
+        Path infoDir = trashDir.resolve("info");
+        String content = "[Trash Info]\n" +
+                "Path=" + encodePath(infoPath) + "\n" +
+                "DeletionDate=" + LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).format(DELETION_DATE_FORMAT) + "\n";
+        String baseName = source.getFileName().toString();
+        for (int i = 1; i <= MAX_NAME_ATTEMPTS; i++) {
+            String name = i == 1 ? baseName : baseName + "." + i;
+            Path infoFile = infoDir.resolve(name + ".trashinfo");
+            Path trashed = filesDir.resolve(name);
+            try {
+                // 独占创建 .trashinfo 即占用了这个名称（规范要求先写信息文件）
+                Files.write(infoFile, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                continue;
+            }
+            if (Files.exists(trashed, LinkOption.NOFOLLOW_LINKS)) {
+                // 残留的文件没有对应的信息文件，换一个名称
+                Files.deleteIfExists(infoFile);
+                continue;
+            }
+            try {
+                Files.move(source, trashed, StandardCopyOption.ATOMIC_MOVE);
+                return trashed;
+            } catch (IOException e) {
+                Files.deleteIfExists(infoFile);
+                throw e;
+            }
+        }
+        throw new IOException("回收站中同名文件过多：" + baseName);
+    }
+
+    /**
+     * 向上查找与文件处于同一文件存储的最顶层文件夹（挂载点）
+     */
+    private static Path findTopDir(Path dir, FileStore store) throws IOException {
+        Path topDir = dir;
+        Path parent = dir.getParent();
+        while (parent != null && store.equals(Files.getFileStore(parent))) {
+            topDir = parent;
+            parent = parent.getParent();
+        }
+        return topDir;
+    }
+
+    /**
+     * 挂载点回收站：优先使用管理员创建的 $topdir/.Trash/$uid（.Trash 必须是设置了粘滞位的真实文件夹），否则使用 $topdir/.Trash-$uid
+     */
+    Path findTopDirTrash(Path topDir) throws IOException {
+        if (uid == null) {
+            // 规范只定义了按数字uid命名的回收站，猜测的名称其他程序找不到
+            throw new IOException("无法确定当前用户的uid，不能使用挂载点回收站：" + topDir);
+        }
+        Path adminTrash = topDir.resolve(".Trash");
+        if (Files.isDirectory(adminTrash, LinkOption.NOFOLLOW_LINKS) && hasStickyBit(adminTrash)) {
+            Path userTrash = adminTrash.resolve(uid);
+            try {
+                ensureTrashDir(userTrash);
+                return userTrash;
+            } catch (IOException e) {
+                log.warn("无法使用 {}，改用 .Trash-{} -> {}", userTrash, uid, e.getMessage());
+            }
+        }
+        Path userTrash = topDir.resolve(".Trash-" + uid);
+        ensureTrashDir(userTrash);
+        return userTrash;
+    }
+
+    private static boolean hasStickyBit(Path dir) {
+        try {
+            return ((Integer) Files.getAttribute(dir, "unix:mode", LinkOption.NOFOLLOW_LINKS) & STICKY_BIT) != 0;
+        } catch (IOException | UnsupportedOperationException | IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * 创建回收站及其 files、info 子文件夹（权限700），回收站不能是符号链接
+     */
+    private static void ensureTrashDir(Path trashDir) throws IOException {
+        if (Files.isSymbolicLink(trashDir)) {
+            throw new IOException("回收站文件夹不能是符号链接：" + trashDir);
+        }
+        for (Path dir : new Path[]{trashDir, trashDir.resolve("files"), trashDir.resolve("info")}) {
+            if (Files.isDirectory(dir, LinkOption.NOFOLLOW_LINKS)) continue;
+            try {
+                Files.createDirectories(dir, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } catch (UnsupportedOperationException e) {
+                Files.createDirectories(dir);
+            }
+        }
+    }
+
+    /**
+     * 按规范对路径进行URL编码（保留 / 和不需要转义的字符）
+     */
+    static String encodePath(String path) {
+        StringBuilder builder = new StringBuilder(path.length());
+        for (byte b : path.getBytes(StandardCharsets.UTF_8)) {
+            int c = b & 0xFF;
+            if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '/' || c == '-' || c == '_' || c == '.' || c == '~') {
+                builder.append((char) c);
+            } else {
+                builder.append('%').append(Character.toUpperCase(Character.forDigit(c >> 4, 16)))
+                        .append(Character.toUpperCase(Character.forDigit(c & 0xF, 16)));
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 当前用户的数字uid，无法确定时返回null
+     */
+    private static String currentUid() {
+        try {
+            return String.valueOf(new com.sun.security.auth.module.UnixSystem().getUid());
+        } catch (Throwable e) {
+            try {
+                return String.valueOf(Files.getAttribute(Paths.get(System.getProperty("user.home")), "unix:uid"));
+            } catch (IOException | RuntimeException ex) {
+                log.warn("获取当前用户uid失败，其他磁盘上的文件不能移入回收站 -> {}", ex.getMessage());
+                return null;
+            }
+        }
+    }
+}
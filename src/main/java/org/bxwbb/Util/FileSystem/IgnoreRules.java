@@ -0,0 +1,486 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 忽略规则：.gitignore 语法的规则编译后的匹配器（不可变，可在任意线程中使用）
+ * 1. 支持注释、! 取反、结尾 / 只匹配文件夹、开头或中间的 / 相对基准文件夹匹配、*、?、[...]、** 和 \ 转义，后面的规则优先
+ * 2. 不含 / 的规则只比较名称：纯文字的按名称放入哈希表，含通配符的逐个比较
+ * 3. 含 / 的规则按开头的纯文字段放入前缀树，只有路径走到对应节点时才比较剩余的通配段
+ * 4. 文件夹被忽略时其下的全部条目都被忽略（与 git 相同，取反规则不能恢复），遍历时应在进入前跳过整个文件夹
+ * 通过 {@link #load(File)} 读取默认规则、根目录的 .gitignore、.git/info/exclude 和项目规则文件
+ * 不支持子文件夹中的 .gitignore
+ */
+public final class IgnoreRules {
+
+    private static final Logger log = LoggerFactory.getLogger(IgnoreRules.class);
+    // 默认忽略的版本库与构建输出文件夹（可在项目规则文件中用 ! 恢复）
+    public static final List<String> DEFAULT_EXCLUDES = List.of(
+            ".git/", ".svn/", ".hg/", ".gradle/", "node_modules/", "target/", "build/"
+    );
+    // 项目规则文件名（位于根目录，优先于 .gitignore）
+    public static final String PROJECT_FILE = ".spigotctignore";
+    // 不忽略任何条目
+    public static final IgnoreRules NONE = new IgnoreRules(null, List.of());
+    private static final boolean IGNORE_CASE = File.separatorChar == '\\';
+
+    private final Path base;
+    private final Rule[] rules;
+    // 读取的规则文件 -> 读取时的修改时间（不存在为0）
+    private final Map<Path, Long> sources = new LinkedHashMap<>();
+    // 纯文字的名称规则：名称 -> 规则（按先后顺序）
+    private final Map<String, List<Rule>> literalNames = new HashMap<>();
+    // 含通配符的名称规则
+    private final List<Rule> globNames = new ArrayList<>();
+    // 含 / 的规则
+    private final TrieNode anchored = new TrieNode();
+    private boolean hasAnchored = false;
+    // 最近拆分的父路径（遍历时同一文件夹的条目连续检查）
+    private volatile SplitPath lastParent = new SplitPath("", new String[0]);
+
+    private IgnoreRules(Path base, List<Rule> rules) {
+        this.base = base == null ? null : base.toAbsolutePath().normalize();
+        this.rules = rules.toArray(new Rule[0]);
+        for (Rule rule : this.rules) {
+            if (rule.nameOnly) {
+                Glob glob = rule.segments[0];
+                if (glob.literal != null) {
+                    literalNames.computeIfAbsent(foldCase(glob.literal), k -> new ArrayList<>()).add(rule);
+                } else {
+                    globNames.add(rule);
+                }
+                continue;
+            }
+            TrieNode node = anchored;
+            int depth = 0;
+            while (depth < rule.segments.length - 1 && rule.segments[depth].literal != null) {
+                node = node.children.computeIfAbsent(foldCase(rule.segments[depth].literal), k -> new TrieNode());
+                depth++;
+            }
+            rule.trieDepth = depth;
+            node.rules.add(rule);
+            hasAnchored = true;
+        }
+    }
+
+    /**
+     * 编译规则
+     *
+     * @param base  规则所在的基准文件夹（含 / 的规则相对于它）
+     * @param lines .gitignore 格式的规则行
+     */
+    public static IgnoreRules parse(Path base, List<String> lines) {
+        List<Rule> rules = new ArrayList<>();
+        for (String line : lines) {
+            Rule rule = Rule.parse(line, rules.size());
+            if (rule != null) rules.add(rule);
+        }
+        return new IgnoreRules(base, rules);
+    }
+
+    /**
+     * 读取根目录的规则：默认规则 + .git/info/exclude + .gitignore + 项目规则文件（后面的优先），无法读取的文件跳过
+     */
+    public static IgnoreRules load(File rootDir) {
+        Path root = rootDir.toPath();
+        List<String> lines = new ArrayList<>(DEFAULT_EXCLUDES);
+        Map<Path, Long> sources = new LinkedHashMap<>();
+        readLines(root.resolve(".git").resolve("info").resolve("exclude"), lines, sources);
+        readLines(root.resolve(".gitignore"), lines, sources);
+        readLines(root.resolve(PROJECT_FILE), lines, sources);
+        IgnoreRules rules = parse(root, lines);
+        rules.sources.putAll(sources);
+        return rules;
+    }
+
+    /**
+     * 由 {@link #load} 读取的规则文件在之后被修改、创建或删除
+     */
+    public boolean isStale() {
+        for (Map.Entry<Path, Long> entry : sources.entrySet()) {
+            if (entry.getKey().toFile().lastModified() != entry.getValue()) return true;
+        }
+        return false;
+    }
+
+    private static void readLines(Path file, List<String> lines, Map<Path, Long> sources) {
+        sources.put(file, file.toFile().lastModified());
+        try {
+            lines.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+        } catch (NoSuchFileException e) {
+            // 没有规则文件
+        } catch (IOException e) {
+            log.warn("读取忽略规则失败 - {} -> {}", file, e.getMessage());
+        }
+    }
+
+    public Path getBase() {
+        return base;
+    }
+
+    public boolean isEmpty() {
+        return rules.length == 0;
+    }
+
+    /**
+     * 路径相对于基准文件夹的形式（以 / 分隔，基准文件夹本身为空字符串），不在基准文件夹下时返回null
+     */
+    public String relativize(Path path) {
+        if (base == null) return null;
+        Path absolute = path.toAbsolutePath().normalize();
+        if (!absolute.startsWith(base)) return null;
+        StringBuilder builder = new StringBuilder();
+        for (Path name : base.relativize(absolute)) {
+            if (name.toString().isEmpty()) continue;
+            if (!builder.isEmpty()) builder.append('/');
+            builder.append(name);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 路径是否被忽略（包括祖先文件夹被忽略），不在基准文件夹下的路径不忽略
+     *
+     * @param directory 路径是否为文件夹（只匹配文件夹的规则需要）
+     */
+    public boolean isIgnored(Path path, boolean directory) {
+        if (rules.length == 0) return false;
+        String relative = relativize(path);
+        if (relative == null || relative.isEmpty()) return false;
+        String[] segments = relative.split("/");
+        for (int i = 1; i <= segments.length; i++) {
+            boolean last = i == segments.length;
+            if (matches(segments, i, last ? directory : true)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 文件夹中的条目是否被忽略（不检查祖先文件夹，遍历时由调用方在进入前跳过被忽略的文件夹）
+     *
+     * @param parent    条目所在文件夹的相对路径（{@link #relativize} 的结果），为null时不忽略
+     * @param name      条目名称
+     * @param directory 条目是否为文件夹
+     */
+    public boolean isIgnored(String parent, String name, boolean directory) {
+        if (rules.length == 0 || parent == null) return false;
+        String[] segments;
+        if (!hasAnchored || parent.isEmpty()) {
+            // 只有名称规则时不需要拆分父路径
+            segments = new String[]{name};
+        } else {
+            SplitPath split = lastParent;
+            if (!split.path.equals(parent)) {
+                String[] parentSegments = parent.split("/");
+                // 多留一格放条目名称
+                split = new SplitPath(parent, Arrays.copyOf(parentSegments, parentSegments.length + 1));
+                lastParent = split;
+            }
+            segments = split.segments.clone();
+            segments[segments.length - 1] = name;
+        }
+        return matches(segments, segments.length, directory);
+    }
+
+    private record SplitPath(String path, String[] segments) {
+    }
+
+    /**
+     * 子条目的相对路径
+     */
+    public static String child(String parent, String name) {
+        if (parent == null) return null;
+        return parent.isEmpty() ? name : parent + '/' + name;
+    }
+
+    /**
+     * segments 的前 length 段组成的路径是否被忽略：最后一条匹配的规则决定结果
+     */
+    private boolean matches(String[] segments, int length, boolean directory) {
+        String name = segments[length - 1];
+        int best = -1;
+        List<Rule> literal = literalNames.get(foldCase(name));
+        if (literal != null) {
+            for (Rule rule : literal) {
+                if (rule.index > best && (directory || !rule.directoryOnly)) best = rule.index;
+            }
+        }
+        for (Rule rule : globNames) {
+            if (rule.index > best && (directory || !rule.directoryOnly) && rule.segments[0].matches(name)) best = rule.index;
+        }
+        if (hasAnchored) {
+            TrieNode node = anchored;
+            for (int depth = 0; node != null; depth++) {
+                for (Rule rule : node.rules) {
+                    if (rule.index > best && (directory || !rule.directoryOnly)
+                            && matchSegments(rule.segments, rule.trieDepth, segments, depth, length)) {
+                        best = rule.index;
+                    }
+                }
+                if (depth >= length - 1) break;
+                node = node.children.get(foldCase(segments[depth]));
+            }
+        }
+        return best >= 0 && !rules[best].negated;
+    }
+
+    /**
+     * 规则从第 pi 段起是否与路径从第 si 段起（到 length 为止）完整匹配
+     */
+    private static boolean matchSegments(Glob[] pattern, int pi, String[] path, int si, int length) {
+        while (pi < pattern.length) {
+            Glob glob = pattern[pi];
+            if (glob.doubleStar) {
+                // 结尾的 ** 匹配文件夹下的全部条目（不含文件夹本身）
+                if (pi == pattern.length - 1) return si < length;
+                for (int k = si; k < length; k++) {
+                    if (matchSegments(pattern, pi + 1, path, k, length)) return true;
+                }
+                return false;
+            }
+            if (si >= length || !glob.matches(path[si])) return false;
+            pi++;
+            si++;
+        }
+        return si == length;
+    }
+
+    private static String foldCase(String name) {
+        return IGNORE_CASE ? name.toLowerCase(Locale.ROOT) : name;
+    }
+
+    private static final class TrieNode {
+        private final Map<String, TrieNode> children = new HashMap<>();
+        private final List<Rule> rules = new ArrayList<>();
+    }
+
+    private static final class Rule {
+        private final int index;
+        private final boolean negated;
+        private final boolean directoryOnly;
+        // 只比较名称（规则中没有 /）
+        private final boolean nameOnly;
+        private final Glob[] segments;
+        // 前缀树中纯文字段的数量
+        private int trieDepth;
+
+        private Rule(int index, boolean negated, boolean directoryOnly, boolean nameOnly, Glob[] segments) {
+            this.index = index;
+            this.negated = negated;
+            this.directoryOnly = directoryOnly;
+            this.nameOnly = nameOnly;
+            this.segments = segments;
+        }
+
+        /**
+         * 解析一行规则，空行和注释返回null
+         */
+        private static Rule parse(String line, int index) {
+            String text = trimTrailingSpaces(line);
+            if (text.isEmpty() || text.startsWith("#")) return null;
+            boolean negated = false;
+            if (text.startsWith("!")) {
+                negated = true;
+                text = text.substring(1);
+            } else if (text.startsWith("\\!") || text.startsWith("\\#")) {
+                text = text.substring(1);
+            }
+            boolean directoryOnly = false;
+            while (text.endsWith("/")) {
+                directoryOnly = true;
+                text = text.substring(0, text.length() - 1);
+            }
+            if (text.isEmpty()) return null;
+            boolean anchored = text.indexOf('/') >= 0;
+            if (text.startsWith("/")) text = text.substring(1);
+            List<Glob> segments = new ArrayList<>();
+            for (String part : text.split("/+")) {
+                if (part.isEmpty()) continue;
+                // 连续的 ** 只保留一个
+                if (part.equals("**") && !segments.isEmpty() && segments.getLast().doubleStar) continue;
+                segments.add(Glob.compile(part));
+            }
+            if (segments.isEmpty()) return null;
+            // **/name 与 name 相同
+            if (segments.size() == 2 && segments.getFirst().doubleStar && !segments.getLast().doubleStar) {
+                segments.removeFirst();
+                anchored = false;
+            }
+            boolean nameOnly = !anchored && segments.size() == 1 && !segments.getFirst().doubleStar;
+            return new Rule(index, negated, directoryOnly, nameOnly, segments.toArray(new Glob[0]));
+        }
+
+        private static String trimTrailingSpaces(String line) {
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ' && !(end > 1 && line.charAt(end - 2) == '\\')) end--;
+            return line.substring(0, end);
+        }
+    }
+
+    /**
+     * 单个路径段的通配模式：纯文字段直接比较，否则编译为记号序列按 * 回溯匹配
+     */
+    private static final class Glob {
+        private static final Glob DOUBLE_STAR = new Glob(null, null, true);
+        // 记号：字符、? 或 *（字符类单独存放）
+        private static final int ANY = -1;
+        private static final int STAR = -2;
+        private static final int CLASS = -3;
+
+        // 纯文字段（已去掉转义），否则为null
+        private final String literal;
+        private final int[] tokens;
+        private final boolean doubleStar;
+        private final List<CharClass> classes = new ArrayList<>();
+
+        private Glob(String literal, int[] tokens, boolean doubleStar) {
+            this.literal = literal;
+            this.tokens = tokens;
+            this.doubleStar = doubleStar;
+        }
+
+        private static Glob compile(String part) {
+            if (part.equals("**")) return DOUBLE_STAR;
+            int[] tokens = new int[part.length()];
+            int count = 0;
+            boolean wildcard = false;
+            List<CharClass> classes = new ArrayList<>();
+            for (int i = 0; i < part.length(); i++) {
+                char c = part.charAt(i);
+                if (c == '\\' && i + 1 < part.length()) {
+                    tokens[count++] = part.charAt(++i);
+                } else if (c == '?') {
+                    tokens[count++] = ANY;
+                    wildcard = true;
+                } else if (c == '*') {
+                    // 连续的 * 与单个相同（段内的 ** 不跨越 /）
+                    if (count == 0 || tokens[count - 1] != STAR) tokens[count++] = STAR;
+                    wildcard = true;
+                } else if (c == '[') {
+                    int end = CharClass.findEnd(part, i);
+                    if (end < 0) {
+                        tokens[count++] = c;
+                        continue;
+                    }
+                    classes.add(CharClass.parse(part, i + 1, end));
+                    tokens[count++] = CLASS - (classes.size() - 1);
+                    wildcard = true;
+                    i = end;
+                } else {
+                    tokens[count++] = c;
+                }
+            }
+            if (!wildcard) {
+                StringBuilder builder = new StringBuilder(count);
+                for (int i = 0; i < count; i++) builder.append((char) tokens[i]);
+                return new Glob(builder.toString(), null, false);
+            }
+            Glob glob = new Glob(null, Arrays.copyOf(tokens, count), false);
+            glob.classes.addAll(classes);
+            return glob;
+        }
+
+        private boolean matches(String name) {
+            if (literal != null) return IGNORE_CASE ? literal.equalsIgnoreCase(name) : literal.equals(name);
+            // 单个 * 的回溯：失败时让上一个 * 多吞一个字符
+            int t = 0;
+            int n = 0;
+            int starToken = -1;
+            int starName = 0;
+            while (n < name.length()) {
+                if (t < tokens.length && tokens[t] == STAR) {
+                    starToken = t++;
+                    starName = n;
+                } else if (t < tokens.length && matchesChar(tokens[t], name.charAt(n))) {
+                    t++;
+                    n++;
+                } else if (starToken >= 0) {
+                    t = starToken + 1;
+                    n = ++starName;
+                } else {
+                    return false;
+                }
+            }
+            while (t < tokens.length && tokens[t] == STAR) t++;
+            return t == tokens.length;
+        }
+
+        private boolean matchesChar(int token, char c) {
+            if (token == ANY) return true;
+            if (token <= CLASS) return classes.get(CLASS - token).matches(c);
+            if (token == c) return true;
+            return IGNORE_CASE && Character.toLowerCase((char) token) == Character.toLowerCase(c);
+        }
+    }
+
+    /**
+     * 字符类 [...]：支持 ! 或 ^ 取反和 a-z 范围
+     */
+    private record CharClass(boolean negated, String singles, char[] ranges) {
+
+        /**
+         * 字符类的结束位置（]），没有时返回-1
+         */
+        private static int findEnd(String part, int start) {
+            int i = start + 1;
+            if (i < part.length() && (part.charAt(i) == '!' || part.charAt(i) == '^')) i++;
+            // 开头的 ] 是普通字符
+            if (i < part.length() && part.charAt(i) == ']') i++;
+            for (; i < part.length(); i++) {
+                if (part.charAt(i) == '\\') {
+                    i++;
+                } else if (part.charAt(i) == ']') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private static CharClass parse(String part, int start, int end) {
+            boolean negated = false;
+            int i = start;
+            if (part.charAt(i) == '!' || part.charAt(i) == '^') {
+                negated = true;
+                i++;
+            }
+            StringBuilder singles = new StringBuilder();
+            StringBuilder ranges = new StringBuilder();
+            while (i < end) {
+                char c = part.charAt(i);
+                if (c == '\\' && i + 1 < end) c = part.charAt(++i);
+                if (i + 2 < end && part.charAt(i + 1) == '-') {
+                    char to = part.charAt(i + 2);
+                    ranges.append(c).append(to);
+                    i += 3;
+                } else {
+                    singles.append(c);
+                    i++;
+                }
+            }
+            return new CharClass(negated, singles.toString(), ranges.toString().toCharArray());
+        }
+
+        private boolean matches(char c) {
+            boolean contained = contains(c)
+                    || IGNORE_CASE && (contains(Character.toLowerCase(c)) || contains(Character.toUpperCase(c)));
+            return contained != negated;
+        }
+
+        private boolean contains(char c) {
+            if (singles.indexOf(c) >= 0) return true;
+            for (int i = 0; i + 1 < ranges.length; i += 2) {
+                if (c >= ranges[i] && c <= ranges[i + 1]) return true;
+            }
+            return false;
+        }
+    }
+}
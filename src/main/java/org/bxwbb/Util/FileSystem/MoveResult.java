@@ -0,0 +1,21 @@
+package org.bxwbb.Util.FileSystem;
+
+import java.nio.file.Path;
+
+/**
+ * 单个文件（夹）的移动结果
+ *
+ * @param source    原路径
+ * @param target    移动后的路径
+ * @param directory 是否为文件夹
+ * @param method    实际采用的移动方式
+ */
+public record MoveResult(Path source, Path target, boolean directory, Method method) {
+
+    public enum Method {
+        // 同一磁盘内原子重命名，只修改目录项，与文件大小无关
+        RENAME,
+        // 跨磁盘复制、校验后删除原文件
+        COPY
+    }
+}
@@ -0,0 +1,120 @@
+package org.bxwbb.Util.FileTree;
+
+import java.util.Arrays;
+
+/**
+ * 文件名的自然排序键，在列出文件时计算一次，比较时不再分配对象
+ * 1. 字母统一转为小写
+ * 2. 连续的数字去掉前导零后编码为 标记'0' + 位数 + 数字，逐字符比较即得到数值大小顺序（file2 < file10）
+ * 3. 排序键相同时（大小写或前导零不同）按原名称决定先后，小写字母在前
+ * 扩展名为最后一个'.'之后的部分（以'.'开头的名称没有扩展名）
+ */
+public final class CollationKey implements Comparable<CollationKey> {
+
+    private static final char DIGIT_MARK = '0';
+    // 位数存为一个字符，偏移到私有区
+    private static final char LENGTH_BASE = '\uE000';
+
+    private final char[] key;
+    private final int extensionStart;
+    private final String name;
+
+    CollationKey(char[] key, int extensionStart, String name) {
+        this.key = key;
+        this.extensionStart = extensionStart;
+        this.name = name;
+    }
+
+    public static CollationKey of(String name) {
+        char[] key = new char[name.length() + 2];
+        int length = 0;
+        int extensionStart = -1;
+        int i = 0;
+        while (i < name.length()) {
+            char c = name.charAt(i);
+            if (c >= '0' && c <= '9') {
+                int start = i;
+                while (i < name.length() && name.charAt(i) >= '0' && name.charAt(i) <= '9') i++;
+                int digits = start;
+                while (digits < i - 1 && name.charAt(digits) == '0') digits++;
+                int count = i - digits;
+                if (length + count + 2 > key.length) key = Arrays.copyOf(key, key.length + count + 2);
+                key[length++] = DIGIT_MARK;
+                key[length++] = (char) (LENGTH_BASE + Math.min(count, 0x1000));
+                name.getChars(digits, i, key, length);
+                length += count;
+                continue;
+            }
+            if (c == '.' && i > 0) extensionStart = length + 1;
+            if (length == key.length) key = Arrays.copyOf(key, key.length * 2);
+            key[length++] = Character.toLowerCase(c);
+            i++;
+        }
+        return new CollationKey(Arrays.copyOf(key, length), extensionStart < 0 ? length : extensionStart, name);
+    }
+
+    /**
+     * 按自然顺序比较名称
+     */
+    @Override
+    public int compareTo(CollationKey other) {
+        int r = Arrays.compare(key, other.key);
+        return r != 0 ? r : tieBreak(name, other.name);
+    }
+
+    /**
+     * 按扩展名比较，扩展名相同时按名称比较（没有扩展名的排在前面）
+     */
+    public int compareExtension(CollationKey other) {
+        int r = Arrays.compare(key, extensionStart, key.length, other.key, other.extensionStart, other.key.length);
+        return r != 0 ? r : compareTo(other);
+    }
+
+    public boolean hasExtension() {
+        return extensionStart < key.length;
+    }
+
+    /**
+     * 排序键占用的字符数
+     */
+    public int length() {
+        return key.length;
+    }
+
+    char[] chars() {
+        return key;
+    }
+
+    int extensionStart() {
+        return extensionStart;
+    }
+
+    private static int tieBreak(String a, String b) {
+        int minLength = Math.min(a.length(), b.length());
+        for (int i = 0; i < minLength; i++) {
+            char ca = a.charAt(i), cb = b.charAt(i);
+            if (ca == cb) continue;
+            if (Character.toLowerCase(ca) == Character.toLowerCase(cb)) {
+                return Character.isLowerCase(ca) ? -1 : 1;
+            }
+            return Character.compare(ca, cb);
+        }
+        return Integer.compare(a.length(), b.length());
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        return o instanceof CollationKey other && name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return name.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
@@ -0,0 +1,76 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.Util.FileSystem.DirectoryLister;
+import org.bxwbb.Util.FileSystem.DirectoryListing;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * 文件夹某一时刻的内容快照：按显示顺序排好的不可变条目列表
+ * 在后台线程中列出，再交给 {@link FileTreeModel#applySnapshot} 在EDT中与现有子节点比较
+ *
+ * @param folder  文件夹
+ * @param entries 条目（已按 order 排序）
+ * @param order   排序时使用的规则（列出后排序规则可能已更换，应用时据此判断是否需要重新排序）
+ */
+public record DirectorySnapshot(File folder, List<FileTreeModel.Entry> entries, Comparator<FileTreeModel.Entry> order) {
+
+    private static final Logger log = LoggerFactory.getLogger(DirectorySnapshot.class);
+
+    public DirectorySnapshot {
+        entries = List.copyOf(entries);
+    }
+
+    /**
+     * 列出文件夹内容（经过 {@link DirectoryLister} 的缓存），并探测子文件夹是否为空
+     * 文件树渲染只使用这里取得的属性
+     * 无法读取时（权限变化、网络或移动磁盘暂时不可用等）返回null，调用方应保留现有子节点，不能当作空文件夹应用
+     *
+     * @param order 排序规则，需与文件树模型一致
+     * @return 快照，无法读取时返回null
+     */
+    public static DirectorySnapshot list(File folder, Comparator<FileTreeModel.Entry> order) {
+        DirectoryLister lister = DirectoryLister.getInstance();
+        DirectoryListing listing;
+        try {
+            listing = lister.list(folder.toPath());
+        } catch (IOException | SecurityException e) {
+            log.warn("列出文件夹失败，保留现有内容 - {} -> {}", folder.getPath(), e.toString());
+            return null;
+        }
+        return of(folder, listing, order, lister);
+    }
+
+    /**
+     * @param prober 用于探测子文件夹是否为空，为null时不探测
+     */
+    static DirectorySnapshot of(File folder, DirectoryListing listing, Comparator<FileTreeModel.Entry> order,
+                                DirectoryLister prober) {
+        List<FileTreeModel.Entry> entries = new ArrayList<>(listing.size());
+        for (int i = 0; i < listing.size(); i++) {
+            boolean directory = listing.isDirectory(i);
+            boolean empty = directory && prober != null && isEmptyFolder(prober, listing, i);
+            entries.add(new FileTreeModel.Entry(listing.name(i), directory, listing.fileSize(i), listing.modifiedTime(i),
+                    listing.isHidden(i), empty, listing.fileKey(i)));
+        }
+        entries.sort(order);
+        return new DirectorySnapshot(folder, entries, order);
+    }
+
+    /**
+     * 无法读取的文件夹不视为空（与 FileUtil.isEmptyFolder 一致）
+     */
+    private static boolean isEmptyFolder(DirectoryLister prober, DirectoryListing listing, int index) {
+        try {
+            return prober.isEmpty(listing.path(index));
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package org.bxwbb.Util.FileTree;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 按项目根目录持久化文件树的展开状态（用户目录下 .SpigotCT/expansion/根目录路径的哈希.json）
+ * 序列化在调用线程（EDT）中完成，写文件在单独的后台线程中依次执行，先写临时文件再替换
+ */
+public final class ExpansionStateStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpansionStateStore.class);
+    private static volatile ExpansionStateStore INSTANCE;
+
+    private final Path directory = Path.of(System.getProperty("user.home"), ".SpigotCT", "expansion");
+    private final JsonFactory factory = new JsonFactory();
+    // 单线程保证同一文件的写入按提交顺序进行
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ExpansionState-Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ExpansionStateStore() {
+    }
+
+    /**
+     * 获取单例实例（双重检查锁，线程安全）
+     */
+    public static ExpansionStateStore getInstance() {
+        if (INSTANCE == null) {
+            synchronized (ExpansionStateStore.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ExpansionStateStore();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 读取根目录的展开状态，没有记录或读取失败时返回空的状态
+     */
+    public ExpansionTrie load(File rootDir) {
+        File file = fileOf(rootDir).toFile();
+        if (!file.isFile()) return new ExpansionTrie();
+        try {
+            ExpansionTrie trie = ExpansionTrie.read(file, factory);
+            log.info("展开状态加载完成 - {}，共{}个文件夹", rootDir.getPath(), trie.size());
+            return trie;
+        } catch (IOException e) {
+            log.warn("展开状态读取失败，已忽略 - {} -> ", file.getPath(), e);
+            return new ExpansionTrie();
+        }
+    }
+
+    /**
+     * 保存根目录的展开状态（需在EDT中调用）
+     */
+    public void save(File rootDir, ExpansionTrie trie) {
+        Path file = fileOf(rootDir);
+        byte[] json;
+        try {
+            json = trie.toJson(factory);
+        } catch (IOException e) {
+            log.error("展开状态序列化失败 - {} -> ", rootDir.getPath(), e);
+            return;
+        }
+        writer.execute(() -> {
+            try {
+                Files.createDirectories(directory);
+                Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+                Files.write(temp, json);
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("展开状态保存失败 - {} -> ", file, e);
+            }
+        });
+    }
+
+    private Path fileOf(File rootDir) {
+        String key = rootDir.getAbsoluteFile().toPath().normalize().toString();
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash, 0, 16) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            return directory.resolve(Integer.toHexString(key.hashCode()) + ".json");
+        }
+    }
+}
@@ -0,0 +1,204 @@
+package org.bxwbb.Util.FileTree;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * 文件树的展开状态：按相对根目录的名称路径组织的前缀树，只保存当前展开的文件夹（根节点本身不记录）
+ * 1. 与节点对象、TreePath无关，文件树重建或程序重启后仍然有效
+ * 2. 恢复时只在文件夹加载后取出它下面记录的子文件夹，折叠的部分既不遍历也不重新列出
+ * 3. 恢复时发现已不存在的文件夹会顺便删除
+ * 持久化格式为嵌套的JSON对象：{"名称": {子文件夹...}}
+ * 只能在EDT中使用
+ */
+public final class ExpansionTrie {
+
+    private final Node root = new Node();
+    private int size = 0;
+
+    /**
+     * 记录展开的文件夹（连同祖先）
+     */
+    public void expand(FileNode dir) {
+        if (!isEntry(dir) || dir.isRoot()) return;
+        Node node = root;
+        for (String name : namesOf(dir)) {
+            Node child = node.child(name);
+            if (child == null) {
+                child = node.add(name);
+                size++;
+            }
+            node = child;
+        }
+    }
+
+    /**
+     * 文件夹被折叠：它和它下面记录的全部文件夹一起删除（JTree 中它们已不可见）
+     */
+    public void collapse(FileNode dir) {
+        if (!isEntry(dir)) return;
+        if (dir.isRoot()) {
+            clear();
+            return;
+        }
+        List<String> names = namesOf(dir);
+        Node parent = find(names.subList(0, names.size() - 1));
+        if (parent == null) return;
+        Node removed = parent.remove(names.get(names.size() - 1));
+        if (removed != null) size -= removed.count();
+    }
+
+    /**
+     * 文件夹下记录为展开的子文件夹（文件夹需已加载），已不存在的顺便删除
+     */
+    public List<FileNode> expandedChildren(FileNode dir) {
+        FileTreeModel model = dir.getModel();
+        if (!model.isLoaded(dir)) return List.of();
+        Node node = dir.isRoot() ? root : find(namesOf(dir));
+        if (node == null || node.children == null) return List.of();
+        FileTreeStore store = model.store();
+        List<FileNode> children = new ArrayList<>(node.children.size());
+        Iterator<Map.Entry<String, Node>> iterator = node.children.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<String, Node> entry = iterator.next();
+            int id = store.findChild(dir.id(), entry.getKey());
+            if (id == FileTreeStore.NONE || !store.isDirectory(id)) {
+                size -= entry.getValue().count();
+                iterator.remove();
+            } else {
+                children.add(model.entry(id));
+            }
+        }
+        if (node.children.isEmpty()) node.children = null;
+        return children;
+    }
+
+    public void clear() {
+        root.children = null;
+        size = 0;
+    }
+
+    /**
+     * 记录的文件夹数量
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 序列化为JSON（调用方在EDT中取得快照后可在后台写入）
+     */
+    public byte[] toJson(JsonFactory factory) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = factory.createGenerator(out)) {
+            write(generator, root);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * 读取 {@link #toJson} 写出的文件
+     *
+     * @throws IOException 读取/解析失败时抛出
+     */
+    public static ExpansionTrie read(File file, JsonFactory factory) throws IOException {
+        ExpansionTrie trie = new ExpansionTrie();
+        try (JsonParser parser = factory.createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("展开状态文件的根节点不是对象 - " + file.getPath());
+            }
+            trie.size = read(parser, trie.root);
+        }
+        return trie;
+    }
+
+    private static void write(JsonGenerator generator, Node node) throws IOException {
+        generator.writeStartObject();
+        if (node.children != null) {
+            for (Map.Entry<String, Node> entry : node.children.entrySet()) {
+                generator.writeFieldName(entry.getKey());
+                write(generator, entry.getValue());
+            }
+        }
+        generator.writeEndObject();
+    }
+
+    /**
+     * @return 读取的节点数
+     */
+    private static int read(JsonParser parser, Node node) throws IOException {
+        int count = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.currentName();
+            if (parser.nextToken() == JsonToken.START_OBJECT) {
+                count += 1 + read(parser, node.add(name));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return count;
+    }
+
+    private Node find(List<String> names) {
+        Node node = root;
+        for (String name : names) {
+            node = node.child(name);
+            if (node == null) return null;
+        }
+        return node;
+    }
+
+    private static boolean isEntry(FileNode node) {
+        return node != null && node.kind() == FileNode.Kind.ENTRY && node.isValid();
+    }
+
+    /**
+     * 从根节点（不含）到节点的名称
+     */
+    private static List<String> namesOf(FileNode node) {
+        ArrayDeque<String> names = new ArrayDeque<>();
+        for (FileNode n = node; !n.isRoot(); n = n.getParent()) {
+            names.addFirst(n.getName());
+        }
+        return new ArrayList<>(names);
+    }
+
+    private static final class Node {
+        // 展开的子文件夹，没有时为null
+        private Map<String, Node> children;
+
+        private Node child(String name) {
+            return children == null ? null : children.get(name);
+        }
+
+        private Node add(String name) {
+            if (children == null) children = new HashMap<>(4);
+            return children.computeIfAbsent(name, k -> new Node());
+        }
+
+        private Node remove(String name) {
+            if (children == null) return null;
+            Node removed = children.remove(name);
+            if (children.isEmpty()) children = null;
+            return removed;
+        }
+
+        /**
+         * 自身及全部后代的数量
+         */
+        private int count() {
+            int count = 1;
+            if (children != null) {
+                for (Node child : children.values()) count += child.count();
+            }
+            return count;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.bxwbb.Util.FileTree;
+
+/**
+ * 条目在最近一次列出/刷新时的属性快照，渲染等EDT中的操作只读取它，不访问文件系统
+ *
+ * @param directory    是否为文件夹
+ * @param size         文件大小（字节，文件夹为0）
+ * @param modifiedTime 最后修改时间（毫秒）
+ * @param hidden       是否为隐藏文件
+ * @param empty        是否为空文件夹（已加载时按子节点，否则按列出时的探测结果）
+ */
+public record FileAttributes(boolean directory, long size, long modifiedTime, boolean hidden, boolean empty) {
+}
@@ -0,0 +1,224 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.Util.FileSystem.DirectoryLister;
+import org.bxwbb.Util.FileSystem.DirectoryListing;
+import org.bxwbb.Util.FileSystem.IgnoreRules;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 根目录下条目名称的索引（不可变，列式存储），用于按名称过滤文件树
+ * 每个条目只保存名称和父条目下标，第0个条目是根目录本身
+ * 1. {@link #ofLoaded} 在EDT中取出文件树已加载的部分（只复制ID，名称在后台解码），输入后立即可用（由 {@link SharedFileTree#loadedNameIndex} 缓存）
+ * 2. {@link #scan} 在后台遍历整个根目录（包括未加载的文件夹），不进入符号链接指向的文件夹
+ * 被忽略规则排除的条目不收录，被忽略的文件夹不进入
+ * 创建后可在任意线程中查询
+ */
+public final class FileNameIndex {
+
+    // 遍历时最多收录的条目数，超过后停止（过大的目录树只能部分过滤）
+    private static final int MAX_ENTRIES = 500_000;
+
+    private final String[] names;
+    private final int[] parents;
+    private final boolean complete;
+
+    private FileNameIndex(String[] names, int[] parents, boolean complete) {
+        this.names = names;
+        this.parents = parents;
+        this.complete = complete;
+    }
+
+    /**
+     * 文件树已加载的条目（需在EDT中调用）：只复制名称ID和父条目下标，名称在 {@link Loaded#index()} 中解码
+     */
+    public static Loaded ofLoaded(FileTreeModel model) {
+        FileTreeStore store = model.store();
+        int capacity = store.size() + 1;
+        int[] nameIds = new int[capacity];
+        int[] parents = new int[capacity];
+        int[] stackIds = new int[16];
+        int[] stackIndices = new int[16];
+        nameIds[0] = -1;
+        parents[0] = -1;
+        int count = 1;
+        stackIds[0] = FileTreeStore.ROOT;
+        stackIndices[0] = 0;
+        int top = 1;
+        while (top > 0) {
+            int dir = stackIds[--top];
+            int index = stackIndices[top];
+            if (!store.isLoaded(dir)) continue;
+            for (int i = 0, n = store.childCount(dir); i < n; i++) {
+                int child = store.child(dir, i);
+                if (store.isIgnored(child)) continue;
+                int childIndex = count++;
+                nameIds[childIndex] = store.nameId(child);
+                parents[childIndex] = index;
+                if (!store.isDirectory(child)) continue;
+                if (top == stackIds.length) {
+                    stackIds = Arrays.copyOf(stackIds, top * 2);
+                    stackIndices = Arrays.copyOf(stackIndices, top * 2);
+                }
+                stackIds[top] = child;
+                stackIndices[top] = childIndex;
+                top++;
+            }
+        }
+        return new Loaded(nameIds, parents, count, store.names());
+    }
+
+    /**
+     * 遍历根目录建立完整索引（在后台线程中调用），无法读取的文件夹跳过
+     *
+     * @param rules     忽略规则（相对于根目录，可为null）
+     * @param cancelled 是否已取消，取消时返回null
+     */
+    public static FileNameIndex scan(File rootDir, IgnoreRules rules, BooleanSupplier cancelled) {
+        DirectoryLister lister = DirectoryLister.getInstance();
+        Builder builder = new Builder(1024);
+        List<File> folders = new ArrayList<>();
+        List<Integer> folderIndices = new ArrayList<>();
+        // 文件夹相对于根目录的路径，与 folders 对应
+        List<String> relatives = new ArrayList<>();
+        if (rules == null) rules = IgnoreRules.NONE;
+        folders.add(rootDir);
+        folderIndices.add(builder.add("", -1));
+        relatives.add("");
+        boolean complete = true;
+        // 广度优先：folders 同时作为队列
+        for (int head = 0; head < folders.size(); head++) {
+            if (cancelled.getAsBoolean()) return null;
+            if (builder.count >= MAX_ENTRIES) {
+                complete = false;
+                break;
+            }
+            DirectoryListing listing;
+            try {
+                listing = lister.scan(folders.get(head).toPath());
+            } catch (IOException e) {
+                continue;
+            }
+            int parent = folderIndices.get(head);
+            String relative = relatives.get(head);
+            for (int i = 0; i < listing.size(); i++) {
+                String name = listing.name(i);
+                if (rules.isIgnored(relative, name, listing.isDirectory(i))) continue;
+                int index = builder.add(name, parent);
+                if (listing.isDirectory(i) && !listing.isSymbolicLink(i)) {
+                    folders.add(new File(folders.get(head), name));
+                    folderIndices.add(index);
+                    relatives.add(IgnoreRules.child(relative, name));
+                }
+            }
+        }
+        return builder.build(complete);
+    }
+
+    /**
+     * 名称包含查询文本（不区分大小写）的条目，按索引顺序（父文件夹先于子条目）
+     *
+     * @param limit     最多返回的数量
+     * @param cancelled 是否已取消，取消时返回null
+     * @return 每个条目从根目录（不含）开始的名称路径
+     */
+    public List<String[]> match(String query, int limit, BooleanSupplier cancelled) {
+        List<String[]> matches = new ArrayList<>();
+        for (int i = 1; i < names.length && matches.size() < limit; i++) {
+            if ((i & 0xFFF) == 0 && cancelled.getAsBoolean()) return null;
+            if (containsIgnoreCase(names[i], query)) matches.add(pathOf(i));
+        }
+        return matches;
+    }
+
+    /**
+     * 条目数（不含根目录）
+     */
+    public int size() {
+        return names.length - 1;
+    }
+
+    /**
+     * 是否收录了根目录下的全部条目
+     */
+    public boolean isComplete() {
+        return complete;
+    }
+
+    private String[] pathOf(int index) {
+        int depth = 0;
+        for (int i = index; i > 0; i = parents[i]) depth++;
+        String[] path = new String[depth];
+        for (int i = index; i > 0; i = parents[i]) path[--depth] = names[i];
+        return path;
+    }
+
+    static boolean containsIgnoreCase(String name, String query) {
+        int max = name.length() - query.length();
+        for (int i = 0; i <= max; i++) {
+            if (name.regionMatches(true, i, query, 0, query.length())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 文件树已加载条目的原始快照：名称ID、父条目下标和名称池的只读视图
+     * 创建后可在任意线程中使用，第一次取索引时解码名称，之后复用
+     */
+    public static final class Loaded {
+        private final int[] nameIds;
+        private final int[] parents;
+        private final int count;
+        private final NamePool.Snapshot names;
+        private FileNameIndex index;
+
+        private Loaded(int[] nameIds, int[] parents, int count, NamePool.Snapshot names) {
+            this.nameIds = nameIds;
+            this.parents = parents;
+            this.count = count;
+            this.names = names;
+        }
+
+        public synchronized FileNameIndex index() {
+            if (index == null) {
+                String[] decoded = new String[count];
+                decoded[0] = "";
+                for (int i = 1; i < count; i++) decoded[i] = names.get(nameIds[i]);
+                index = new FileNameIndex(decoded, Arrays.copyOf(parents, count), false);
+            }
+            return index;
+        }
+    }
+
+    private static final class Builder {
+        private String[] names;
+        private int[] parents;
+        private int count = 0;
+
+        private Builder(int capacity) {
+            capacity = Math.max(16, capacity + 1);
+            names = new String[capacity];
+            parents = new int[capacity];
+        }
+
+        private int add(String name, int parent) {
+            if (count == names.length) {
+                int capacity = count * 2;
+                names = Arrays.copyOf(names, capacity);
+                parents = Arrays.copyOf(parents, capacity);
+            }
+            names[count] = name;
+            parents[count] = parent;
+            return count++;
+        }
+
+        private FileNameIndex build(boolean complete) {
+            return new FileNameIndex(Arrays.copyOf(names, count), Arrays.copyOf(parents, count), complete);
+        }
+    }
+}
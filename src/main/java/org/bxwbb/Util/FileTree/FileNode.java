@@ -0,0 +1,185 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.MiniWindow.FileManager;
+import org.bxwbb.Util.FileUtil;
+
+import javax.swing.tree.TreeNode;
+import javax.swing.tree.TreePath;
+import java.io.File;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Objects;
+
+/**
+ * 文件树节点外观：只保存条目ID，数据都在 {@link FileTreeModel} 的列式存储中，需要时才创建 File 对象
+ * 同一条目的外观对象相等（用于TreePath和展开状态），条目被删除后旧外观失效
+ * 文件夹未加载时只有一个“加载中”子节点，加载后为空时只有一个“空文件夹”子节点
+ */
+public final class FileNode implements TreeNode {
+
+    enum Kind {
+        ENTRY,
+        // 未加载文件夹的占位子节点
+        LOADING,
+        // 空文件夹的提示子节点
+        EMPTY
+    }
+
+    private final FileTreeModel model;
+    private final int id;
+    private final int generation;
+    private final Kind kind;
+
+    FileNode(FileTreeModel model, int id, int generation, Kind kind) {
+        this.model = model;
+        this.id = id;
+        this.generation = generation;
+        this.kind = kind;
+    }
+
+    /**
+     * 节点数据：文件/文件夹为 FileData，空文件夹提示为文字，加载中为null
+     */
+    public Object getUserObject() {
+        return switch (kind) {
+            case ENTRY -> isValid() ? new FileManager.FileData(getFile(), model.getAttributes(this)) : null;
+            case EMPTY -> FileUtil.getLang("miniWindow.fileManager.emptyFolders");
+            case LOADING -> null;
+        };
+    }
+
+    /**
+     * 节点对应的文件，占位节点返回null
+     */
+    public File getFile() {
+        return kind == Kind.ENTRY ? model.store().file(id) : null;
+    }
+
+    /**
+     * 属性快照（不访问文件系统），占位节点返回null
+     */
+    public FileAttributes getAttributes() {
+        return model.getAttributes(this);
+    }
+
+    public String getName() {
+        return kind == Kind.ENTRY ? model.store().name(id) : String.valueOf(getUserObject());
+    }
+
+    public boolean isDirectory() {
+        return kind == Kind.ENTRY && model.store().isDirectory(id);
+    }
+
+    public boolean isPlaceholder() {
+        return kind != Kind.ENTRY;
+    }
+
+    public boolean isRoot() {
+        return kind == Kind.ENTRY && id == FileTreeStore.ROOT;
+    }
+
+    /**
+     * 条目是否仍在树中
+     */
+    public boolean isValid() {
+        return model.store().generation(id) == generation;
+    }
+
+    public FileTreeModel getModel() {
+        return model;
+    }
+
+    /**
+     * 从根节点到本节点的路径
+     */
+    public TreeNode[] getPath() {
+        int depth = model.store().depth(id) + (kind == Kind.ENTRY ? 1 : 2);
+        TreeNode[] path = new TreeNode[depth];
+        TreeNode node = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            path[i] = node;
+            node = node.getParent();
+        }
+        return path;
+    }
+
+    public TreePath getTreePath() {
+        return new TreePath(getPath());
+    }
+
+    int id() {
+        return id;
+    }
+
+    Kind kind() {
+        return kind;
+    }
+
+    @Override
+    public FileNode getChildAt(int childIndex) {
+        return model.getChild(this, childIndex);
+    }
+
+    @Override
+    public int getChildCount() {
+        return model.getChildCount(this);
+    }
+
+    @Override
+    public FileNode getParent() {
+        if (kind != Kind.ENTRY) return model.entry(id);
+        int parent = model.store().parent(id);
+        return parent == FileTreeStore.NONE ? null : model.entry(parent);
+    }
+
+    @Override
+    public int getIndex(TreeNode node) {
+        return model.getIndexOfChild(this, node);
+    }
+
+    @Override
+    public boolean getAllowsChildren() {
+        return isDirectory();
+    }
+
+    @Override
+    public boolean isLeaf() {
+        return !isDirectory();
+    }
+
+    @Override
+    public Enumeration<? extends TreeNode> children() {
+        int count = getChildCount();
+        if (count == 0) return Collections.emptyEnumeration();
+        return new Enumeration<>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return index < count;
+            }
+
+            @Override
+            public FileNode nextElement() {
+                return getChildAt(index++);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof FileNode other)) return false;
+        return id == other.id && generation == other.generation && kind == other.kind && model == other.model;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, generation, kind);
+    }
+
+    @Override
+    public String toString() {
+        return getName();
+    }
+}
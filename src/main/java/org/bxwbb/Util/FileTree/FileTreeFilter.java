@@ -0,0 +1,83 @@
+package org.bxwbb.Util.FileTree;
+
+import javax.swing.tree.TreePath;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 文件树的过滤结果：只显示匹配的条目及其祖先，匹配的文件夹下的内容不过滤
+ * 按条目ID记录（带 generation），条目被删除、ID被复用后自动失效
+ * 由 {@link FileTreeView#setFilter} 交给布局缓存使用，不修改共用的模型
+ * 只能在EDT中使用
+ */
+public final class FileTreeFilter {
+
+    private final FileTreeModel model;
+    private final FileTreeStore store;
+    // generation + 1，0 为不匹配
+    private final int[] matched;
+    // 匹配条目的祖先：generation + 1，0 为不是
+    private final int[] ancestors;
+    private final List<TreePath> ancestorPaths = new ArrayList<>();
+    private int matchCount = 0;
+
+    private FileTreeFilter(FileTreeModel model) {
+        this.model = model;
+        this.store = model.store();
+        this.matched = new int[store.idLimit()];
+        this.ancestors = new int[store.idLimit()];
+    }
+
+    /**
+     * @param matches 匹配的条目（需属于同一模型）
+     */
+    public static FileTreeFilter of(FileTreeModel model, Collection<FileNode> matches) {
+        FileTreeFilter filter = new FileTreeFilter(model);
+        for (FileNode node : matches) {
+            if (node.kind() != FileNode.Kind.ENTRY || !node.isValid() || node.isRoot()) continue;
+            int id = node.id();
+            if (filter.isMatch(id)) continue;
+            filter.matched[id] = filter.store.generation(id) + 1;
+            filter.matchCount++;
+            for (int p = filter.store.parent(id); p != FileTreeStore.NONE && !filter.isAncestor(p); p = filter.store.parent(p)) {
+                filter.ancestors[p] = filter.store.generation(p) + 1;
+                filter.ancestorPaths.add(model.entry(p).getTreePath());
+            }
+        }
+        return filter;
+    }
+
+    public FileTreeModel getModel() {
+        return model;
+    }
+
+    /**
+     * 匹配的条目数
+     */
+    public int getMatchCount() {
+        return matchCount;
+    }
+
+    /**
+     * 需要展开的文件夹（全部匹配条目的祖先）
+     */
+    public List<TreePath> getAncestorPaths() {
+        return ancestorPaths;
+    }
+
+    boolean isMatch(int id) {
+        return id < matched.length && matched[id] == store.generation(id) + 1;
+    }
+
+    boolean isAncestor(int id) {
+        return id < ancestors.length && ancestors[id] == store.generation(id) + 1;
+    }
+
+    /**
+     * 条目是否显示（父文件夹已匹配时由调用方直接显示）
+     */
+    boolean isVisible(int id) {
+        return isMatch(id) || isAncestor(id);
+    }
+}
@@ -0,0 +1,373 @@
+package org.bxwbb.Util.FileTree;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.tree.AbstractLayoutCache;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Enumeration;
+import java.util.NoSuchElementException;
+
+/**
+ * 文件树的布局缓存（固定行高），代替 FixedHeightLayoutCache
+ * 1. 展开状态是按条目ID索引的数组，记录展开时的 generation，条目被删除、ID被复用后自动失效
+ * 2. 展开/折叠/模型变化只标记失效，下次查询时一次深度优先遍历重建全部可见行（行 -> 条目、条目 -> 行都是数组）
+ * 因此一次展开多少个节点都只重建一次，不会像 FixedHeightLayoutCache 那样为每个节点调整其后所有行
+ * 折叠时同时清除后代的展开状态，重新展开时由 TreeUI 按 JTree 记录的状态恢复
+ * 设置了 {@link FileTreeFilter} 时重建只保留匹配的条目、它们的祖先以及匹配的文件夹下的内容
+ * 只能在EDT中使用
+ */
+final class FileTreeLayoutCache extends AbstractLayoutCache {
+
+    private static final int[] EMPTY = new int[0];
+
+    private FileTreeModel model;
+    private FileTreeStore store;
+    // 展开状态：generation + 1，0 为未展开
+    private int[] expanded = EMPTY;
+    private FileTreeFilter filter;
+    // 是否显示被忽略规则排除的条目
+    private boolean showIgnored;
+    private boolean dirty = true;
+
+    // 可见行
+    private int rowCount = 0;
+    // 行中的条目ID，占位节点记为 ~父文件夹ID
+    private int[] rowIds = EMPTY;
+    private int[] rowDepths = EMPTY;
+    // 行对应的子树结束行（不含）
+    private int[] rowEnds = EMPTY;
+    // 条目所在行，用 rowIds 校验是否仍有效
+    private int[] rowOfId = EMPTY;
+    private final Rectangle boundsBuffer = new Rectangle();
+
+    @Override
+    public void setModel(TreeModel newModel) {
+        super.setModel(newModel);
+        model = (FileTreeModel) newModel;
+        store = model == null ? null : model.store();
+        expanded = EMPTY;
+        if (store != null) setExpanded(FileTreeStore.ROOT, true);
+        dirty = true;
+    }
+
+    /**
+     * 设置过滤结果，为null时显示全部条目
+     */
+    void setFilter(FileTreeFilter filter) {
+        this.filter = filter;
+        dirty = true;
+    }
+
+    void setShowIgnored(boolean showIgnored) {
+        this.showIgnored = showIgnored;
+        dirty = true;
+    }
+
+    @Override
+    public void setRootVisible(boolean rootVisible) {
+        super.setRootVisible(rootVisible);
+        dirty = true;
+    }
+
+    @Override
+    public int getRowCount() {
+        validate();
+        return rowCount;
+    }
+
+    @Override
+    public TreePath getPathForRow(int row) {
+        validate();
+        if (row < 0 || row >= rowCount) return null;
+        return pathOfRow(row);
+    }
+
+    @Override
+    public int getRowForPath(TreePath path) {
+        if (path == null || model == null) return -1;
+        validate();
+        return rowOf((FileNode) path.getLastPathComponent());
+    }
+
+    @Override
+    public Rectangle getBounds(TreePath path, Rectangle placeIn) {
+        int row = getRowForPath(path);
+        if (row < 0) return null;
+        Rectangle bounds = getNodeDimensions(path.getLastPathComponent(), row, rowDepths[row], isExpandedRow(row), boundsBuffer);
+        if (bounds == null) return null;
+        if (placeIn == null) placeIn = new Rectangle();
+        placeIn.x = bounds.x;
+        placeIn.width = bounds.width;
+        placeIn.height = getRowHeight();
+        placeIn.y = row * placeIn.height;
+        return placeIn;
+    }
+
+    @Override
+    public TreePath getPathClosestTo(int x, int y) {
+        validate();
+        if (rowCount == 0) return null;
+        int row = Math.max(0, Math.min(rowCount - 1, y / Math.max(1, getRowHeight())));
+        return pathOfRow(row);
+    }
+
+    @Override
+    public Enumeration<TreePath> getVisiblePathsFrom(TreePath path) {
+        int start = getRowForPath(path);
+        if (start < 0) return null;
+        return new Enumeration<>() {
+            private int row = start;
+            private TreePath current;
+
+            @Override
+            public boolean hasMoreElements() {
+                return row < rowCount;
+            }
+
+            @Override
+            public TreePath nextElement() {
+                if (row >= rowCount) throw new NoSuchElementException();
+                current = current == null ? pathOfRow(row) : nextPath(current, row);
+                row++;
+                return current;
+            }
+        };
+    }
+
+    @Override
+    public int getVisibleChildCount(TreePath path) {
+        int row = getRowForPath(path);
+        return row < 0 ? 0 : rowEnds[row] - row - 1;
+    }
+
+    @Override
+    public boolean getExpandedState(TreePath path) {
+        int row = getRowForPath(path);
+        return row >= 0 && isExpandedRow(row);
+    }
+
+    @Override
+    public boolean isExpanded(TreePath path) {
+        if (path == null || model == null) return false;
+        FileNode node = (FileNode) path.getLastPathComponent();
+        return node.kind() == FileNode.Kind.ENTRY && node.isValid() && isExpanded(node.id());
+    }
+
+    /**
+     * 展开时同时展开全部祖先；折叠时清除后代的展开状态
+     */
+    @Override
+    public void setExpandedState(TreePath path, boolean isExpanded) {
+        if (path == null || model == null) return;
+        FileNode node = (FileNode) path.getLastPathComponent();
+        if (!node.isValid()) return;
+        int id = node.id();
+        if (node.kind() != FileNode.Kind.ENTRY || !store.isDirectory(id)) {
+            // 叶子节点：展开到它可见为止
+            if (!isExpanded) return;
+            if (node.kind() == FileNode.Kind.ENTRY) id = store.parent(id);
+        }
+        if (isExpanded) {
+            for (int p = id; p != FileTreeStore.NONE; p = store.parent(p)) setExpanded(p, true);
+        } else {
+            for (int p = store.parent(id); p != FileTreeStore.NONE; p = store.parent(p)) setExpanded(p, true);
+            collapse(id);
+        }
+        dirty = true;
+    }
+
+    @Override
+    public void invalidatePathBounds(TreePath path) {
+        // 只缓存行，不缓存节点尺寸
+    }
+
+    @Override
+    public void invalidateSizes() {
+        // 只缓存行，不缓存节点尺寸
+    }
+
+    @Override
+    public void treeNodesChanged(TreeModelEvent e) {
+        // 节点内容变化不影响行
+    }
+
+    @Override
+    public void treeNodesInserted(TreeModelEvent e) {
+        dirty = true;
+    }
+
+    @Override
+    public void treeNodesRemoved(TreeModelEvent e) {
+        // 被删除条目的展开状态随 generation 失效
+        dirty = true;
+    }
+
+    /**
+     * 结构变化的节点保持原状态，后代全部折叠（之后 TreeUI 按 JTree 记录的状态重新展开）
+     */
+    @Override
+    public void treeStructureChanged(TreeModelEvent e) {
+        TreePath path = e == null ? null : e.getTreePath();
+        FileNode node = path == null ? null : (FileNode) path.getLastPathComponent();
+        if (node == null || node.isRoot()) {
+            expanded = EMPTY;
+            setExpanded(FileTreeStore.ROOT, true);
+        } else if (node.kind() == FileNode.Kind.ENTRY && node.isValid()) {
+            boolean wasExpanded = isExpanded(node.id());
+            collapse(node.id());
+            if (wasExpanded) setExpanded(node.id(), true);
+        }
+        dirty = true;
+    }
+
+    private boolean isExpanded(int id) {
+        return id < expanded.length && expanded[id] == store.generation(id) + 1;
+    }
+
+    private void setExpanded(int id, boolean value) {
+        if (value) {
+            if (id >= expanded.length) {
+                expanded = Arrays.copyOf(expanded, Math.max(store.idLimit(), expanded.length * 2));
+            }
+            expanded[id] = store.generation(id) + 1;
+        } else if (id < expanded.length) {
+            expanded[id] = 0;
+        }
+    }
+
+    /**
+     * 折叠文件夹并清除后代的展开状态
+     */
+    private void collapse(int dir) {
+        if (!isExpanded(dir)) return;
+        setExpanded(dir, false);
+        if (!store.isLoaded(dir)) return;
+        for (int i = 0, n = store.childCount(dir); i < n; i++) {
+            int child = store.child(dir, i);
+            if (store.isDirectory(child)) collapse(child);
+        }
+    }
+
+    private boolean isExpandedRow(int row) {
+        int id = rowIds[row];
+        return id >= 0 && isExpanded(id);
+    }
+
+    private int rowOf(FileNode node) {
+        if (!node.isValid()) return -1;
+        int id = node.id();
+        if (node.kind() != FileNode.Kind.ENTRY) {
+            // 占位节点是文件夹的唯一子节点，紧跟在文件夹之后（根节点隐藏时在第0行）
+            int row;
+            if (id == FileTreeStore.ROOT && !isRootVisible()) {
+                row = 0;
+            } else {
+                int parentRow = rowOfEntry(id);
+                if (parentRow < 0) return -1;
+                row = parentRow + 1;
+            }
+            return row < rowCount && rowIds[row] == ~id ? row : -1;
+        }
+        return rowOfEntry(id);
+    }
+
+    private int rowOfEntry(int id) {
+        if (id >= rowOfId.length) return -1;
+        int row = rowOfId[id];
+        return row >= 0 && row < rowCount && rowIds[row] == id ? row : -1;
+    }
+
+    private FileNode nodeOfRow(int row) {
+        int id = rowIds[row];
+        return id >= 0 ? model.entry(id) : model.getChild(model.entry(~id), 0);
+    }
+
+    private TreePath pathOfRow(int row) {
+        FileNode node = nodeOfRow(row);
+        return node.getTreePath();
+    }
+
+    /**
+     * 由上一行的路径得到下一行的路径，不再从根节点拼接
+     */
+    private TreePath nextPath(TreePath previous, int row) {
+        TreePath parent = previous;
+        int parentCount = rowDepths[row];
+        while (parent.getPathCount() > parentCount) parent = parent.getParentPath();
+        return parent.pathByAddingChild(nodeOfRow(row));
+    }
+
+    private void validate() {
+        if (!dirty) return;
+        dirty = false;
+        rowCount = 0;
+        if (model == null) return;
+        int limit = store.idLimit();
+        if (rowOfId.length < limit) rowOfId = new int[Math.max(limit, rowOfId.length * 2)];
+        // 显式栈：文件夹ID、下一个子节点下标、所在行、子节点是否不过滤
+        int[] stackDirs = new int[16];
+        int[] stackNext = new int[16];
+        int[] stackRows = new int[16];
+        boolean[] stackOpen = new boolean[16];
+        if (isRootVisible()) addRow(FileTreeStore.ROOT, 0);
+        if (!isExpanded(FileTreeStore.ROOT)) return;
+        stackRows[0] = isRootVisible() ? 0 : -1;
+        stackDirs[0] = FileTreeStore.ROOT;
+        stackNext[0] = 0;
+        stackOpen[0] = filter == null;
+        int top = 1;
+        while (top > 0) {
+            int dir = stackDirs[top - 1];
+            // 栈中第 top 层文件夹的子节点深度为 top（根节点深度为0）
+            int depth = top;
+            int next = stackNext[top - 1];
+            int count = store.isLoaded(dir) ? store.childCount(dir) : 0;
+            if (count == 0) {
+                // 加载中/空文件夹占一行
+                if (next == 0) addRow(~dir, depth);
+            }
+            if (next >= count) {
+                int ownRow = stackRows[--top];
+                if (ownRow >= 0) rowEnds[ownRow] = rowCount;
+                continue;
+            }
+            stackNext[top - 1] = next + 1;
+            int child = store.child(dir, next);
+            if (!showIgnored && store.isIgnored(child)) continue;
+            boolean open = stackOpen[top - 1];
+            if (!open && !filter.isVisible(child)) continue;
+            int row = rowCount;
+            addRow(child, depth);
+            if (store.isDirectory(child) && isExpanded(child)) {
+                if (top == stackDirs.length) {
+                    stackDirs = Arrays.copyOf(stackDirs, top * 2);
+                    stackNext = Arrays.copyOf(stackNext, top * 2);
+                    stackRows = Arrays.copyOf(stackRows, top * 2);
+                    stackOpen = Arrays.copyOf(stackOpen, top * 2);
+                }
+                stackDirs[top] = child;
+                stackNext[top] = 0;
+                stackRows[top] = row;
+                stackOpen[top] = open || filter.isMatch(child);
+                top++;
+            }
+        }
+    }
+
+    private void addRow(int id, int depth) {
+        if (rowCount == rowIds.length) {
+            int capacity = Math.max(64, rowCount * 2);
+            rowIds = Arrays.copyOf(rowIds, capacity);
+            rowDepths = Arrays.copyOf(rowDepths, capacity);
+            rowEnds = Arrays.copyOf(rowEnds, capacity);
+        }
+        int row = rowCount++;
+        rowIds[row] = id;
+        rowDepths[row] = depth;
+        // 文件夹行在出栈时更新
+        rowEnds[row] = row + 1;
+        if (id >= 0) rowOfId[id] = row;
+    }
+}
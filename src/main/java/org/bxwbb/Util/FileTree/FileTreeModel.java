@@ -0,0 +1,557 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.Util.FileSystem.IgnoreRules;
+import org.bxwbb.Util.FileUtil;
+
+import javax.swing.event.EventListenerList;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+
+/**
+ * 基于列式存储的文件树模型，节点是按需创建的 {@link FileNode} 外观
+ * 每个条目只占几个基本类型数组中的一格，JTree 配合 setLargeModel(true) 和固定行高时也不会为每一行创建对象
+ * 所有读写都应在EDT中进行
+ */
+public final class FileTreeModel implements TreeModel {
+
+    private final FileTreeStore store;
+    private final FileNode root;
+    // 后台线程列出文件时也会读取，用volatile保证可见
+    private volatile Comparator<Entry> order;
+    private final EventListenerList listenerList = new EventListenerList();
+    private IgnoreRules ignoreRules = IgnoreRules.NONE;
+    // 最近一次计算相对路径的文件夹（同一文件夹的子条目共用）
+    private int relativeDir = FileTreeStore.NONE;
+    private int relativeGeneration;
+    private String relativePath;
+
+    /**
+     * @param order 子节点的显示顺序，快照比较和插入都依赖它
+     */
+    public FileTreeModel(File rootDir, Comparator<Entry> order) {
+        this.store = new FileTreeStore(rootDir);
+        this.root = entry(FileTreeStore.ROOT);
+        this.order = order;
+    }
+
+    @Override
+    public FileNode getRoot() {
+        return root;
+    }
+
+    @Override
+    public FileNode getChild(Object parent, int index) {
+        FileNode node = (FileNode) parent;
+        if (node.kind() != FileNode.Kind.ENTRY || !node.isDirectory()) {
+            throw new ArrayIndexOutOfBoundsException("节点没有子节点：" + node);
+        }
+        int id = node.id();
+        if (!store.isLoaded(id)) return placeholder(id, FileNode.Kind.LOADING, index);
+        if (store.childCount(id) == 0) return placeholder(id, FileNode.Kind.EMPTY, index);
+        return entry(store.child(id, index));
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        FileNode node = (FileNode) parent;
+        if (node.kind() != FileNode.Kind.ENTRY || !node.isValid() || !node.isDirectory()) return 0;
+        return Math.max(1, store.childCount(node.id()));
+    }
+
+    @Override
+    public boolean isLeaf(Object node) {
+        return ((FileNode) node).isLeaf();
+    }
+
+    @Override
+    public void valueForPathChanged(TreePath path, Object newValue) {
+        // 文件树不支持直接编辑节点
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (!(parent instanceof FileNode parentNode) || !(child instanceof FileNode childNode)) return -1;
+        if (childNode.kind() != FileNode.Kind.ENTRY) {
+            return childNode.id() == parentNode.id() && parentNode.kind() == FileNode.Kind.ENTRY ? 0 : -1;
+        }
+        if (!childNode.isValid() || store.parent(childNode.id()) != parentNode.id()) return -1;
+        return store.indexInParent(childNode.id());
+    }
+
+    @Override
+    public void addTreeModelListener(TreeModelListener l) {
+        listenerList.add(TreeModelListener.class, l);
+    }
+
+    @Override
+    public void removeTreeModelListener(TreeModelListener l) {
+        listenerList.remove(TreeModelListener.class, l);
+    }
+
+    /**
+     * 文件夹的子节点是否已加载
+     */
+    public boolean isLoaded(FileNode dir) {
+        return dir.kind() == FileNode.Kind.ENTRY && dir.isValid() && store.isLoaded(dir.id());
+    }
+
+    /**
+     * 按路径查找已加载的节点，路径不在树中或所在文件夹未加载时返回null
+     */
+    public FileNode findNode(Path path) {
+        if (path == null) return null;
+        Path rootPath = Path.of(store.rootPath()).toAbsolutePath().normalize();
+        Path target = path.toAbsolutePath().normalize();
+        if (!target.startsWith(rootPath)) return null;
+        int id = FileTreeStore.ROOT;
+        for (Path name : rootPath.relativize(target)) {
+            if (name.toString().isEmpty()) continue;
+            if (!store.isLoaded(id)) return null;
+            id = store.findChild(id, name.toString());
+            if (id == FileTreeStore.NONE) return null;
+        }
+        return entry(id);
+    }
+
+    /**
+     * 替换文件夹的全部子节点（entries 已按显示顺序排列），原有子节点的展开状态会被丢弃
+     */
+    public void setChildren(FileNode dir, List<Entry> entries) {
+        setChildren(dir, entries, true);
+    }
+
+    /**
+     * @param notify 是否通知结构变化（批量加载多层文件夹时只在最外层通知一次）
+     */
+    public void setChildren(FileNode dir, List<Entry> entries, boolean notify) {
+        int id = dir.id();
+        store.clearChildren(id);
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            store.insertChild(id, i, allocate(id, entry));
+        }
+        if (notify) nodeStructureChanged(dir);
+    }
+
+    /**
+     * 用快照更新文件夹的子节点
+     * 现有子节点按名称与快照中的条目配对（类型和文件标识也相同才算同一个文件）：
+     * 配对的节点保留（ID、已加载的子树和展开状态都不变），只更新属性；没有配对的才删除或新增
+     * 属性变化改变了排序位置（例如按修改时间排序时文件夹中新建了文件）时节点只是移动，通知文件夹结构变化，
+     * 视图保留其下的展开状态；否则删除、新增和属性变化各只通知一次（带全部下标）
+     * 文件夹未加载或全部条目都变化时直接替换；快照列出后排序规则已更换时，先按当前规则重新排序
+     */
+    public void applySnapshot(FileNode dir, DirectorySnapshot snapshot) {
+        if (!dir.isValid() || !dir.isDirectory()) return;
+        List<Entry> entries = snapshot.entries();
+        if (!Objects.equals(snapshot.order(), order)) {
+            entries = new ArrayList<>(entries);
+            entries.sort(order);
+        }
+        int id = dir.id();
+        if (!store.isLoaded(id)) {
+            setChildren(dir, entries);
+            return;
+        }
+
+        int oldCount = store.childCount(id);
+        int newCount = entries.size();
+        int[] oldKids = new int[oldCount];
+        Map<String, Integer> oldIndices = new HashMap<>(oldCount * 2);
+        for (int i = 0; i < oldCount; i++) {
+            oldKids[i] = store.child(id, i);
+            oldIndices.put(store.name(oldKids[i]), i);
+        }
+        // 旧下标 -> 新下标，-1为已删除
+        int[] moves = new int[oldCount];
+        Arrays.fill(moves, -1);
+        int[] newKids = new int[newCount];
+        int[] insertedIndices = new int[newCount];
+        int[] changedIndices = new int[newCount];
+        int kept = 0, inserted = 0, changed = 0;
+        boolean moved = false;
+        int lastKept = -1;
+        for (int j = 0; j < newCount; j++) {
+            Entry next = entries.get(j);
+            Integer i = oldIndices.get(next.name());
+            if (i == null || moves[i] >= 0 || !entryOf(oldKids[i]).isSameFile(next)) {
+                insertedIndices[inserted++] = j;
+                continue;
+            }
+            moves[i] = j;
+            newKids[j] = oldKids[i];
+            if (store.setAttributes(oldKids[i], next.size(), next.modifiedTime(), next.hidden(), next.empty(), next.fileKey())) {
+                changedIndices[changed++] = j;
+            }
+            // 保留的节点之间的先后顺序变化
+            if (i < lastKept) moved = true;
+            lastKept = i;
+            kept++;
+        }
+        int removed = oldCount - kept;
+        if (removed == 0 && inserted == 0 && !moved) {
+            // 只有属性变化：通知重绘
+            fireChanged(dir, newKids, changedIndices, changed);
+            return;
+        }
+        if (kept == 0) {
+            setChildren(dir, entries);
+            return;
+        }
+
+        int[] keptKids = new int[kept];
+        int[] removedIndices = new int[removed];
+        Object[] removedNodes = new Object[removed];
+        for (int i = 0, k = 0, r = 0; i < oldCount; i++) {
+            if (moves[i] >= 0) {
+                keptKids[k++] = oldKids[i];
+            } else {
+                removedIndices[r] = i;
+                removedNodes[r++] = entry(oldKids[i]);
+            }
+        }
+        if (moved) {
+            // TreeModel 没有移动事件：一次替换后通知结构变化，保留的节点ID不变，视图按路径恢复展开状态
+            for (int index : removedIndices) store.free(oldKids[index]);
+            allocateInserted(id, entries, newKids, insertedIndices, inserted);
+            store.setChildren(id, newKids, newCount);
+            nodeStructureChanged(dir);
+            return;
+        }
+        // 每次通知时模型都与已通知的内容一致：先只保留未删除的节点，再加入新节点
+        if (removed > 0) {
+            store.setChildren(id, keptKids, kept);
+            for (int index : removedIndices) store.free(oldKids[index]);
+            fireRemoved(dir, removedIndices, removedNodes);
+        }
+        if (inserted > 0) {
+            insertedIndices = Arrays.copyOf(insertedIndices, inserted);
+            Object[] insertedNodes = allocateInserted(id, entries, newKids, insertedIndices, inserted);
+            store.setChildren(id, newKids, newCount);
+            fireInserted(dir, insertedIndices, insertedNodes);
+        }
+        // 下标是新子节点中的位置，在删除和新增都通知之后才有效
+        fireChanged(dir, newKids, changedIndices, changed);
+    }
+
+    /**
+     * 为快照中新增的条目分配节点，填入 newKids 的对应位置
+     *
+     * @return 新节点
+     */
+    private Object[] allocateInserted(int dir, List<Entry> entries, int[] newKids, int[] insertedIndices, int inserted) {
+        Object[] insertedNodes = new Object[inserted];
+        for (int k = 0; k < inserted; k++) {
+            Entry entry = entries.get(insertedIndices[k]);
+            newKids[insertedIndices[k]] = allocate(dir, entry);
+            insertedNodes[k] = entry(newKids[insertedIndices[k]]);
+        }
+        return insertedNodes;
+    }
+
+    /**
+     * 通知保留下来的节点属性变化
+     *
+     * @param kids    新的子节点ID（按新顺序）
+     * @param indices 变化的节点在 kids 中的下标（前 count 个有效）
+     */
+    private void fireChanged(FileNode dir, int[] kids, int[] indices, int count) {
+        if (count == 0) return;
+        int[] changedIndices = Arrays.copyOf(indices, count);
+        Object[] changedNodes = new Object[count];
+        for (int k = 0; k < count; k++) changedNodes[k] = entry(kids[changedIndices[k]]);
+        fireChanged(dir, changedIndices, changedNodes);
+    }
+
+    /**
+     * 按 order 在已加载的文件夹中插入节点，已有同名节点时先删除
+     *
+     * @return 新节点，文件夹未加载时返回null（展开时会重新列出）
+     */
+    public FileNode insertSorted(FileNode parent, Entry entry) {
+        if (!isLoaded(parent)) return null;
+        int id = parent.id();
+        int existing = store.findChild(id, entry.name());
+        if (existing != FileTreeStore.NONE) remove(entry(existing));
+        int low = 0, high = store.childCount(id);
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            int child = store.child(id, mid);
+            if (order.compare(entryOf(child), entry) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return insert(parent, low, entry);
+    }
+
+    /**
+     * 在已加载的文件夹中插入节点
+     *
+     * @return 新节点，文件夹未加载时返回null（展开时会重新列出）
+     */
+    public FileNode insert(FileNode parent, int index, Entry entry) {
+        int id = parent.id();
+        if (!isLoaded(parent)) return null;
+        if (store.childCount(id) == 0) {
+            fireRemoved(parent, new int[]{0}, new Object[]{placeholder(id, FileNode.Kind.EMPTY, 0)});
+        }
+        int child = allocate(id, entry);
+        store.insertChild(id, index, child);
+        FileNode node = entry(child);
+        fireInserted(parent, new int[]{index}, new Object[]{node});
+        return node;
+    }
+
+    /**
+     * 删除节点及其全部子节点
+     */
+    public void remove(FileNode node) {
+        if (node.kind() != FileNode.Kind.ENTRY || !node.isValid() || node.isRoot()) return;
+        FileNode parent = node.getParent();
+        int index = store.indexInParent(node.id());
+        store.removeChild(parent.id(), index);
+        store.free(node.id());
+        fireRemoved(parent, new int[]{index}, new Object[]{node});
+        if (store.childCount(parent.id()) == 0) {
+            fireInserted(parent, new int[]{0}, new Object[]{placeholder(parent.id(), FileNode.Kind.EMPTY, 0)});
+        }
+    }
+
+    public Comparator<Entry> getOrder() {
+        return order;
+    }
+
+    /**
+     * 更换排序规则并重新排列所有已加载的文件夹
+     * 节点ID不变，调用方可在之后恢复展开状态
+     */
+    public void setOrder(Comparator<Entry> order) {
+        this.order = order;
+        for (int dir : store.loadedDirectories()) {
+            int count = store.childCount(dir);
+            if (count < 2) continue;
+            Entry[] entries = new Entry[count];
+            Integer[] indices = new Integer[count];
+            for (int i = 0; i < count; i++) {
+                entries[i] = entryOf(store.child(dir, i));
+                indices[i] = i;
+            }
+            Arrays.sort(indices, (a, b) -> order.compare(entries[a], entries[b]));
+            int[] kids = new int[count];
+            for (int i = 0; i < count; i++) kids[i] = store.child(dir, indices[i]);
+            store.setChildren(dir, kids, count);
+        }
+        nodeStructureChanged(root);
+    }
+
+    public IgnoreRules getIgnoreRules() {
+        return ignoreRules;
+    }
+
+    /**
+     * 更换忽略规则（规则相对于根文件夹），挂载条目时按它标记被忽略的条目，已加载的条目重新标记
+     * 是否显示被忽略的条目由各视图决定（{@link FileTreeView#setShowIgnored}）
+     */
+    public void setIgnoreRules(IgnoreRules rules) {
+        this.ignoreRules = rules == null ? IgnoreRules.NONE : rules;
+        relativeDir = FileTreeStore.NONE;
+        if (store.size() <= 1) return;
+        // 父文件夹先于子条目标记
+        Deque<Integer> pending = new ArrayDeque<>();
+        pending.push(FileTreeStore.ROOT);
+        while (!pending.isEmpty()) {
+            int dir = pending.pop();
+            if (!store.isLoaded(dir)) continue;
+            for (int i = 0, n = store.childCount(dir); i < n; i++) {
+                int child = store.child(dir, i);
+                store.setIgnored(child, isIgnoredIn(dir, store.name(child), store.isDirectory(child)));
+                if (store.isDirectory(child)) pending.push(child);
+            }
+        }
+        nodeStructureChanged(root);
+    }
+
+    /**
+     * 条目是否被忽略规则排除（包括它所在的文件夹被排除）
+     */
+    public boolean isIgnored(FileNode node) {
+        return node.kind() == FileNode.Kind.ENTRY && node.isValid() && store.isIgnored(node.id());
+    }
+
+    /**
+     * 已加载的真实子节点数量（不含占位节点）
+     */
+    public int getLoadedChildCount(FileNode dir) {
+        return isLoaded(dir) ? store.childCount(dir.id()) : 0;
+    }
+
+    /**
+     * 根文件夹被重命名或移动后更新根路径
+     */
+    public void setRootFile(File rootDir) {
+        store.setRoot(rootDir);
+        nodeChanged(root);
+    }
+
+    public void nodeChanged(FileNode node) {
+        FileNode parent = node.getParent();
+        if (parent == null) {
+            fire(new TreeModelEvent(this, node.getTreePath(), null, null), EventType.CHANGED);
+        } else {
+            fireChanged(parent, new int[]{getIndexOfChild(parent, node)}, new Object[]{node});
+        }
+    }
+
+    public void nodeStructureChanged(FileNode node) {
+        fire(new TreeModelEvent(this, node.getTreePath()), EventType.STRUCTURE);
+    }
+
+    /**
+     * 树中的条目数
+     */
+    public int getEntryCount() {
+        return store.size();
+    }
+
+    /**
+     * 模型占用的堆内存（字节，估算）
+     */
+    public long getMemoryBytes() {
+        return store.memoryBytes();
+    }
+
+    /**
+     * 条目的属性快照（只读取模型，不访问文件系统），占位节点或已删除的节点返回null
+     */
+    public FileAttributes getAttributes(FileNode node) {
+        if (node.kind() != FileNode.Kind.ENTRY || !node.isValid()) return null;
+        int id = node.id();
+        return new FileAttributes(store.isDirectory(id), store.size(id), store.modifiedTime(id),
+                store.isHidden(id), store.isDirectory(id) && store.isEmpty(id));
+    }
+
+    FileTreeStore store() {
+        return store;
+    }
+
+    /**
+     * 条目的排序数据（排序键从驻留池复制，不重新计算）
+     */
+    Entry entryOf(int id) {
+        String name = store.name(id);
+        return new Entry(name, store.isDirectory(id), store.size(id), store.modifiedTime(id),
+                store.isHidden(id), store.isDirectory(id) && store.isEmpty(id), store.fileKey(id), store.key(id, name));
+    }
+
+    private int allocate(int parent, Entry entry) {
+        int id = store.allocate(parent, entry.name(), entry.key(), entry.directory(), entry.size(), entry.modifiedTime(),
+                entry.hidden(), entry.empty(), entry.fileKey());
+        if (isIgnoredIn(parent, entry.name(), entry.directory())) store.setIgnored(id, true);
+        return id;
+    }
+
+    /**
+     * 文件夹中名为 name 的条目是否被忽略：文件夹本身被忽略时其下全部忽略
+     */
+    private boolean isIgnoredIn(int dir, String name, boolean directory) {
+        if (ignoreRules.isEmpty()) return false;
+        if (store.isIgnored(dir)) return true;
+        if (dir != relativeDir || store.generation(dir) != relativeGeneration) {
+            relativeDir = dir;
+            relativeGeneration = store.generation(dir);
+            relativePath = store.relativePath(dir);
+        }
+        return ignoreRules.isIgnored(relativePath, name, directory);
+    }
+
+    FileNode entry(int id) {
+        return new FileNode(this, id, store.generation(id), FileNode.Kind.ENTRY);
+    }
+
+    private FileNode placeholder(int dir, FileNode.Kind kind, int index) {
+        if (index != 0) throw new ArrayIndexOutOfBoundsException(index);
+        return new FileNode(this, dir, store.generation(dir), kind);
+    }
+
+    private void fireInserted(FileNode parent, int[] indices, Object[] nodes) {
+        fire(new TreeModelEvent(this, parent.getTreePath(), indices, nodes), EventType.INSERTED);
+    }
+
+    private void fireRemoved(FileNode parent, int[] indices, Object[] nodes) {
+        fire(new TreeModelEvent(this, parent.getTreePath(), indices, nodes), EventType.REMOVED);
+    }
+
+    private void fireChanged(FileNode parent, int[] indices, Object[] nodes) {
+        fire(new TreeModelEvent(this, parent.getTreePath(), indices, nodes), EventType.CHANGED);
+    }
+
+    private void fire(TreeModelEvent event, EventType type) {
+        Object[] listeners = listenerList.getListenerList();
+        for (int i = listeners.length - 2; i >= 0; i -= 2) {
+            if (listeners[i] != TreeModelListener.class) continue;
+            TreeModelListener listener = (TreeModelListener) listeners[i + 1];
+            switch (type) {
+                case INSERTED -> listener.treeNodesInserted(event);
+                case REMOVED -> listener.treeNodesRemoved(event);
+                case CHANGED -> listener.treeNodesChanged(event);
+                case STRUCTURE -> listener.treeStructureChanged(event);
+            }
+        }
+    }
+
+    private enum EventType {
+        INSERTED,
+        REMOVED,
+        CHANGED,
+        STRUCTURE
+    }
+
+    /**
+     * 插入文件树的条目，排序键在创建时计算一次
+     *
+     * @param name         文件名
+     * @param directory    是否为文件夹
+     * @param size         文件大小（字节，文件夹为0）
+     * @param modifiedTime 最后修改时间（毫秒）
+     * @param hidden       是否为隐藏文件
+     * @param empty        是否为空文件夹（列出时探测，未探测为false）
+     * @param fileKey      文件标识的哈希（0为未知）
+     * @param key          名称的排序键
+     */
+    public record Entry(String name, boolean directory, long size, long modifiedTime,
+                        boolean hidden, boolean empty, int fileKey, CollationKey key) {
+
+        public Entry(String name, boolean directory) {
+            this(name, directory, 0, 0, false, false, 0, CollationKey.of(name));
+        }
+
+        public Entry(String name, boolean directory, long size, long modifiedTime) {
+            this(name, directory, size, modifiedTime, false, false, 0, CollationKey.of(name));
+        }
+
+        public Entry(String name, boolean directory, long size, long modifiedTime, boolean hidden, boolean empty, int fileKey) {
+            this(name, directory, size, modifiedTime, hidden, empty, fileKey, CollationKey.of(name));
+        }
+
+        public static Entry of(File file) {
+            boolean directory = file.isDirectory();
+            return new Entry(file.getName(), directory, directory ? 0 : file.length(), file.lastModified(),
+                    file.isHidden(), directory && FileUtil.isEmptyFolder(file), 0);
+        }
+
+        /**
+         * 是否为同一个文件（比较名称、类型和文件标识，不比较大小和时间），文件标识未知时不比较
+         */
+        public boolean isSameFile(Entry other) {
+            return directory == other.directory && name.equals(other.name)
+                    && (fileKey == 0 || other.fileKey == 0 || fileKey == other.fileKey);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.Util.Task.EdtBatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+/**
+ * 文件树的按名称过滤（输入即过滤）
+ * 1. 匹配在后台线程中进行：先匹配已加载的条目立即显示（EDT中只复制ID，名称在后台解码），再匹配 {@link SharedFileTree} 的完整名称索引
+ * 2. 匹配条目所在的未加载文件夹在后台一次列出，再在EDT中按层挂到模型上
+ * 3. 每次输入使之前的查询作废；结果经同一个键提交给 {@link EdtBatcher}，过时的结果不会执行
+ * 每个视图一个实例，需在EDT中调用
+ */
+public final class FileTreeSearch {
+
+    private static final Logger log = LoggerFactory.getLogger(FileTreeSearch.class);
+    // 最多显示的匹配条目数
+    private static final int MAX_MATCHES = 1000;
+    // 等待名称索引时检查是否已作废的间隔（毫秒）
+    private static final long INDEX_WAIT_INTERVAL = 50;
+    // 全部视图共用的查询线程（守护线程），作废的查询在下一次检查时退出
+    private static final ExecutorService POOL = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "FileTreeSearch");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final SharedFileTree shared;
+    private final EdtBatcher.Key resultKey = new EdtBatcher.Key(this, "result");
+    private final AtomicInteger generation = new AtomicInteger(0);
+
+    public FileTreeSearch(SharedFileTree shared) {
+        this.shared = shared;
+    }
+
+    /**
+     * 开始新的查询并作废之前的查询，文本为空时立即以null回调（清除过滤）
+     *
+     * @param callback 过滤结果（在EDT中执行，已加载部分和完整结果可能各回调一次）
+     */
+    public void search(String text, Consumer<FileTreeFilter> callback) {
+        int current = generation.incrementAndGet();
+        String query = text == null ? "" : text.strip();
+        if (query.isEmpty()) {
+            callback.accept(null);
+            return;
+        }
+        FileTreeModel model = shared.getModel();
+        FileNameIndex.Loaded loaded = shared.loadedNameIndex();
+        Future<FileNameIndex> index = shared.nameIndex();
+        BooleanSupplier cancelled = () -> generation.get() != current;
+        POOL.execute(() -> {
+            List<String[]> matches = loaded.index().match(query, MAX_MATCHES, cancelled);
+            if (matches == null) return;
+            // 已加载的部分没有匹配时保留上一次的结果，等完整结果
+            if (!matches.isEmpty()) post(current, () -> callback.accept(resolve(model, matches, null)));
+            FileNameIndex full = await(index, cancelled);
+            if (full == null) return;
+            List<String[]> allMatches = full.match(query, MAX_MATCHES, cancelled);
+            if (allMatches == null) return;
+            post(current, () -> loadMissing(current, model, allMatches, callback));
+        });
+    }
+
+    /**
+     * 作废正在进行的查询
+     */
+    public void cancel() {
+        generation.incrementAndGet();
+    }
+
+    /**
+     * EDT：找出匹配条目所在的未加载文件夹，在后台列出后挂到模型上，再回调结果
+     */
+    private void loadMissing(int current, FileTreeModel model, List<String[]> matches, Consumer<FileTreeFilter> callback) {
+        FileTreeStore store = model.store();
+        // 需要列出的文件夹（名称路径 -> 文件），父文件夹先于子文件夹
+        Map<List<String>, File> missing = new LinkedHashMap<>();
+        for (String[] path : matches) {
+            int id = FileTreeStore.ROOT;
+            int depth = 0;
+            while (depth < path.length && store.isLoaded(id)) {
+                id = store.findChild(id, path[depth]);
+                if (id == FileTreeStore.NONE) break;
+                depth++;
+            }
+            if (id == FileTreeStore.NONE || depth == path.length) continue;
+            // id 是第一个未加载的祖先，它和它下面直到匹配条目的父文件夹都需要列出
+            File folder = store.file(id);
+            for (int i = depth; i < path.length; i++) {
+                missing.putIfAbsent(List.of(path).subList(0, i), folder);
+                folder = new File(folder, path[i]);
+            }
+        }
+        if (missing.isEmpty()) {
+            callback.accept(resolve(model, matches, null));
+            return;
+        }
+        Comparator<FileTreeModel.Entry> order = model.getOrder();
+        BooleanSupplier cancelled = () -> generation.get() != current;
+        POOL.execute(() -> {
+            Map<List<String>, DirectorySnapshot> snapshots = new LinkedHashMap<>();
+            for (Map.Entry<List<String>, File> entry : missing.entrySet()) {
+                if (cancelled.getAsBoolean()) return;
+                snapshots.put(entry.getKey(), DirectorySnapshot.list(entry.getValue(), order));
+            }
+            post(current, () -> callback.accept(resolve(model, matches, snapshots)));
+        });
+    }
+
+    /**
+     * EDT：把列出的文件夹挂到模型上（只处理仍未加载的），再把匹配的名称路径解析为节点
+     */
+    private static FileTreeFilter resolve(FileTreeModel model, List<String[]> matches,
+                                          Map<List<String>, DirectorySnapshot> snapshots) {
+        FileTreeStore store = model.store();
+        if (snapshots != null) {
+            for (Map.Entry<List<String>, DirectorySnapshot> entry : snapshots.entrySet()) {
+                int id = find(store, entry.getKey());
+                // 列出失败的文件夹保持未加载，其下的匹配条目不显示
+                if (entry.getValue() != null && id != FileTreeStore.NONE && store.isDirectory(id) && !store.isLoaded(id)) {
+                    model.applySnapshot(model.entry(id), entry.getValue());
+                }
+            }
+        }
+        List<FileNode> nodes = new ArrayList<>(matches.size());
+        for (String[] path : matches) {
+            int id = find(store, Arrays.asList(path));
+            if (id != FileTreeStore.NONE) nodes.add(model.entry(id));
+        }
+        return FileTreeFilter.of(model, nodes);
+    }
+
+    private static int find(FileTreeStore store, List<String> path) {
+        int id = FileTreeStore.ROOT;
+        for (String name : path) {
+            if (!store.isLoaded(id)) return FileTreeStore.NONE;
+            id = store.findChild(id, name);
+            if (id == FileTreeStore.NONE) return FileTreeStore.NONE;
+        }
+        return id;
+    }
+
+    private FileNameIndex await(Future<FileNameIndex> index, BooleanSupplier cancelled) {
+        while (!cancelled.getAsBoolean()) {
+            try {
+                return index.get(INDEX_WAIT_INTERVAL, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                // 继续等待
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            } catch (ExecutionException | CancellationException e) {
+                log.warn("文件名索引建立失败，只过滤已加载的条目 -> {}", e.getMessage());
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private void post(int current, Runnable update) {
+        EdtBatcher.getInstance().post(resultKey, () -> {
+            if (generation.get() == current) update.run();
+        });
+    }
+}
@@ -0,0 +1,364 @@
+package org.bxwbb.Util.FileTree;
+
+import java.io.File;
+import java.util.Arrays;
+
+/**
+ * 文件树的列式存储：每个条目只占若干个基本类型数组中的一格
+ * 1. 名称和排序键保存在 {@link NamePool} 中，条目只记录名称ID和父条目ID，完整路径在需要时拼接
+ * 2. 只有已加载的文件夹才有子条目数组
+ * 3. 删除的条目ID放入空闲列表复用，generation 递增使旧的节点外观失效
+ * 只能在EDT中修改
+ */
+final class FileTreeStore {
+
+    static final int ROOT = 0;
+    static final int NONE = -1;
+    private static final byte DIRECTORY = 1;
+    private static final byte LOADED = 1 << 1;
+    private static final byte HIDDEN = 1 << 2;
+    // 列出时文件夹为空（加载后以子条目数为准）
+    private static final byte EMPTY = 1 << 3;
+    private static final byte ATTRIBUTE_FLAGS = HIDDEN | EMPTY;
+    // 被忽略规则排除（由模型在挂载时标记）
+    private static final byte IGNORED = 1 << 4;
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int[] NO_CHILDREN = new int[0];
+
+    private final NamePool names = new NamePool();
+    private String rootPath;
+
+    private int[] parents = new int[INITIAL_CAPACITY];
+    private int[] nameIds = new int[INITIAL_CAPACITY];
+    private int[] generations = new int[INITIAL_CAPACITY];
+    private int[] indexInParent = new int[INITIAL_CAPACITY];
+    private byte[] flags = new byte[INITIAL_CAPACITY];
+    private long[] sizes = new long[INITIAL_CAPACITY];
+    private long[] modifiedTimes = new long[INITIAL_CAPACITY];
+    // 文件标识（BasicFileAttributes.fileKey 的哈希，0为未知），用于发现同名文件被替换
+    private int[] fileKeys = new int[INITIAL_CAPACITY];
+    // 文件夹的子条目ID（按显示顺序），未加载或不是文件夹时为null
+    private int[][] children = new int[INITIAL_CAPACITY][];
+    private int[] childCounts = new int[INITIAL_CAPACITY];
+    private int highWater = 0;
+    private int[] freeIds = new int[16];
+    private int freeCount = 0;
+    private int live = 0;
+
+    FileTreeStore(File rootDir) {
+        this.rootPath = rootDir.getAbsolutePath();
+        allocate(NONE, rootName(rootDir), null, true, 0, 0, false, false, 0);
+    }
+
+    /**
+     * 更换根条目对应的路径，子条目只保存名称，不需要更新
+     */
+    void setRoot(File rootDir) {
+        rootPath = rootDir.getAbsolutePath();
+        nameIds[ROOT] = names.intern(rootName(rootDir));
+    }
+
+    /**
+     * 分配一个未挂到父条目上的新条目
+     *
+     * @param key 名称的排序键，为null时现场计算
+     */
+    int allocate(int parent, String name, CollationKey key, boolean directory, long size, long modifiedTime,
+                 boolean hidden, boolean empty, int fileKey) {
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            if (highWater == parents.length) grow();
+            id = highWater++;
+        }
+        parents[id] = parent;
+        nameIds[id] = names.intern(name, key);
+        flags[id] = attributeFlags(directory ? DIRECTORY : 0, hidden, empty);
+        sizes[id] = size;
+        modifiedTimes[id] = modifiedTime;
+        fileKeys[id] = fileKey;
+        indexInParent[id] = NONE;
+        children[id] = null;
+        childCounts[id] = 0;
+        live++;
+        return id;
+    }
+
+    /**
+     * 释放条目及其全部子条目
+     */
+    void free(int id) {
+        int[] kids = children[id];
+        for (int i = 0; i < childCounts[id]; i++) free(kids[i]);
+        children[id] = null;
+        childCounts[id] = 0;
+        flags[id] = 0;
+        parents[id] = NONE;
+        generations[id]++;
+        live--;
+        if (freeCount == freeIds.length) freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+        freeIds[freeCount++] = id;
+    }
+
+    /**
+     * 把条目插入文件夹的指定位置
+     */
+    void insertChild(int dir, int index, int id) {
+        int count = childCounts[dir];
+        int[] kids = children[dir];
+        if (kids == null || kids == NO_CHILDREN) {
+            kids = new int[Math.max(4, count + 1)];
+        } else if (count == kids.length) {
+            kids = Arrays.copyOf(kids, count + (count >> 1) + 1);
+        }
+        System.arraycopy(kids, index, kids, index + 1, count - index);
+        kids[index] = id;
+        children[dir] = kids;
+        childCounts[dir] = count + 1;
+        parents[id] = dir;
+        for (int i = index; i <= count; i++) indexInParent[kids[i]] = i;
+    }
+
+    /**
+     * 从文件夹中移除指定位置的条目（不释放）
+     */
+    int removeChild(int dir, int index) {
+        int[] kids = children[dir];
+        int count = childCounts[dir];
+        int id = kids[index];
+        System.arraycopy(kids, index + 1, kids, index, count - index - 1);
+        childCounts[dir] = count - 1;
+        for (int i = index; i < count - 1; i++) indexInParent[kids[i]] = i;
+        indexInParent[id] = NONE;
+        return id;
+    }
+
+    /**
+     * 清空文件夹的子条目并标记为已加载
+     */
+    void clearChildren(int dir) {
+        int[] kids = children[dir];
+        for (int i = 0; i < childCounts[dir]; i++) free(kids[i]);
+        children[dir] = NO_CHILDREN;
+        childCounts[dir] = 0;
+        flags[dir] |= LOADED;
+    }
+
+    /**
+     * 整体替换文件夹的子条目数组（不释放原有条目）并标记为已加载
+     */
+    void setChildren(int dir, int[] kids, int count) {
+        children[dir] = count == 0 ? NO_CHILDREN : kids;
+        childCounts[dir] = count;
+        flags[dir] |= LOADED;
+        for (int i = 0; i < count; i++) {
+            parents[kids[i]] = dir;
+            indexInParent[kids[i]] = i;
+        }
+    }
+
+    /**
+     * 在文件夹的已加载子条目中按名称查找（名称不在驻留池中时直接返回NONE）
+     */
+    int findChild(int dir, String name) {
+        int nameId = names.find(name);
+        if (nameId < 0) return NONE;
+        int[] kids = children[dir];
+        for (int i = 0; i < childCounts[dir]; i++) {
+            if (nameIds[kids[i]] == nameId) return kids[i];
+        }
+        return NONE;
+    }
+
+    int child(int dir, int index) {
+        return children[dir][index];
+    }
+
+    int childCount(int dir) {
+        return childCounts[dir];
+    }
+
+    int indexInParent(int id) {
+        return indexInParent[id];
+    }
+
+    int parent(int id) {
+        return parents[id];
+    }
+
+    int generation(int id) {
+        return generations[id];
+    }
+
+    String name(int id) {
+        return names.get(nameIds[id]);
+    }
+
+    /**
+     * 名称在驻留池中的ID，配合 {@link #names()} 在其他线程中解码
+     */
+    int nameId(int id) {
+        return nameIds[id];
+    }
+
+    NamePool.Snapshot names() {
+        return names.snapshot();
+    }
+
+    CollationKey key(int id, String name) {
+        return names.key(nameIds[id], name);
+    }
+
+    long size(int id) {
+        return sizes[id];
+    }
+
+    long modifiedTime(int id) {
+        return modifiedTimes[id];
+    }
+
+    int fileKey(int id) {
+        return fileKeys[id];
+    }
+
+    boolean isHidden(int id) {
+        return (flags[id] & HIDDEN) != 0;
+    }
+
+    /**
+     * 文件夹是否为空：已加载时按子条目数，否则按列出时的结果
+     */
+    boolean isEmpty(int id) {
+        return isLoaded(id) ? childCounts[id] == 0 : (flags[id] & EMPTY) != 0;
+    }
+
+    /**
+     * 更新属性
+     *
+     * @return 是否有变化
+     */
+    boolean setAttributes(int id, long size, long modifiedTime, boolean hidden, boolean empty, int fileKey) {
+        byte newFlags = attributeFlags(flags[id], hidden, empty);
+        if (sizes[id] == size && modifiedTimes[id] == modifiedTime && flags[id] == newFlags && fileKeys[id] == fileKey) {
+            return false;
+        }
+        sizes[id] = size;
+        modifiedTimes[id] = modifiedTime;
+        flags[id] = newFlags;
+        fileKeys[id] = fileKey;
+        return true;
+    }
+
+    boolean isIgnored(int id) {
+        return (flags[id] & IGNORED) != 0;
+    }
+
+    void setIgnored(int id, boolean ignored) {
+        flags[id] = (byte) (ignored ? flags[id] | IGNORED : flags[id] & ~IGNORED);
+    }
+
+    boolean isDirectory(int id) {
+        return (flags[id] & DIRECTORY) != 0;
+    }
+
+    boolean isLoaded(int id) {
+        return (flags[id] & LOADED) != 0;
+    }
+
+    /**
+     * 所有已加载的文件夹ID
+     */
+    int[] loadedDirectories() {
+        int[] ids = new int[live];
+        int count = 0;
+        for (int id = 0; id < highWater; id++) {
+            if (isLoaded(id)) ids[count++] = id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    int depth(int id) {
+        int depth = 0;
+        for (int p = parents[id]; p != NONE; p = parents[p]) depth++;
+        return depth;
+    }
+
+    /**
+     * 拼接条目的完整路径
+     */
+    File file(int id) {
+        if (id == ROOT) return new File(rootPath);
+        int depth = depth(id);
+        int[] chain = new int[depth];
+        for (int i = depth - 1, p = id; i >= 0; i--, p = parents[p]) chain[i] = p;
+        StringBuilder builder = new StringBuilder(rootPath.length() + depth * 16).append(rootPath);
+        for (int p : chain) {
+            if (builder.charAt(builder.length() - 1) != File.separatorChar) builder.append(File.separatorChar);
+            builder.append(names.get(nameIds[p]));
+        }
+        return new File(builder.toString());
+    }
+
+    /**
+     * 条目相对于根条目的路径（以 / 分隔，根条目为空字符串）
+     */
+    String relativePath(int id) {
+        if (id == ROOT) return "";
+        int depth = depth(id);
+        String[] chain = new String[depth];
+        for (int i = depth - 1, p = id; i >= 0; i--, p = parents[p]) chain[i] = names.get(nameIds[p]);
+        return String.join("/", chain);
+    }
+
+    String rootPath() {
+        return rootPath;
+    }
+
+    int size() {
+        return live;
+    }
+
+    /**
+     * 已使用过的最大ID + 1（按ID索引的辅助数组需要的长度）
+     */
+    int idLimit() {
+        return highWater;
+    }
+
+    /**
+     * 占用的堆内存（字节，估算，不含已释放后未复用的空间）
+     */
+    long memoryBytes() {
+        long bytes = (long) parents.length * (4 * 5 + 1 + 4 + 4 + 8 * 2) + names.memoryBytes();
+        for (int i = 0; i < highWater; i++) {
+            if (children[i] != null && children[i] != NO_CHILDREN) bytes += 16 + children[i].length * 4L;
+        }
+        return bytes;
+    }
+
+    private String rootName(File rootDir) {
+        return rootDir.getName().isEmpty() ? rootDir.getAbsolutePath() : rootDir.getName();
+    }
+
+    private static byte attributeFlags(int flags, boolean hidden, boolean empty) {
+        flags &= ~ATTRIBUTE_FLAGS;
+        if (hidden) flags |= HIDDEN;
+        if (empty) flags |= EMPTY;
+        return (byte) flags;
+    }
+
+    private void grow() {
+        int capacity = parents.length * 2;
+        parents = Arrays.copyOf(parents, capacity);
+        nameIds = Arrays.copyOf(nameIds, capacity);
+        generations = Arrays.copyOf(generations, capacity);
+        indexInParent = Arrays.copyOf(indexInParent, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        modifiedTimes = Arrays.copyOf(modifiedTimes, capacity);
+        fileKeys = Arrays.copyOf(fileKeys, capacity);
+        children = Arrays.copyOf(children, capacity);
+        childCounts = Arrays.copyOf(childCounts, capacity);
+    }
+}
@@ -0,0 +1,32 @@
+package org.bxwbb.Util.FileTree;
+
+import com.formdev.flatlaf.ui.FlatTreeUI;
+
+import javax.swing.tree.AbstractLayoutCache;
+
+/**
+ * 文件树的 TreeUI：外观与 FlatLaf 一致，布局缓存换成 {@link FileTreeLayoutCache}
+ */
+final class FileTreeUI extends FlatTreeUI {
+
+    @Override
+    protected AbstractLayoutCache createLayoutCache() {
+        return new FileTreeLayoutCache();
+    }
+
+    /**
+     * 更换过滤结果后重建可见行并更新尺寸
+     */
+    void setFilter(FileTreeFilter filter) {
+        if (treeState instanceof FileTreeLayoutCache cache) cache.setFilter(filter);
+        updateSize();
+    }
+
+    /**
+     * 切换是否显示被忽略的条目后重建可见行并更新尺寸
+     */
+    void setShowIgnored(boolean showIgnored) {
+        if (treeState instanceof FileTreeLayoutCache cache) cache.setShowIgnored(showIgnored);
+        updateSize();
+    }
+}
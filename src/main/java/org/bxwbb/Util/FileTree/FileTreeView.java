@@ -0,0 +1,308 @@
+package org.bxwbb.Util.FileTree;
+
+import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.plaf.TreeUI;
+import javax.swing.tree.ExpandVetoException;
+import javax.swing.tree.TreeModel;
+import javax.swing.tree.TreePath;
+import java.util.*;
+
+/**
+ * 显示 {@link FileTreeModel} 的 JTree，支持批量展开/折叠
+ * 逐个 expandPath 时每个节点都会触发展开事件，TreeUI 每次都要扫描全部已展开路径、调整布局缓存中其后的所有行
+ * 批量操作先不发事件地记录展开状态，再只为起始节点发一次事件，{@link FileTreeLayoutCache} 一次重建全部可见行
+ * 批量期间 TreeWillExpandListener 不会收到通知
+ * 可设置 {@link FileTreeFilter} 只显示匹配的条目，过滤只作用于本视图，共用的模型不变
+ * 被忽略规则排除的条目默认不显示，可按视图切换（{@link #setShowIgnored}）
+ * 文件夹结构变化后，其下仍然有效的节点恢复原来的展开状态（模型移动节点时ID不变）
+ * 只能在EDT中使用
+ */
+public class FileTreeView extends JTree {
+
+    // TreeUI 安装时注册的展开监听器（父类构造期间就会调用 setUI，不能有初始值）
+    private Set<TreeExpansionListener> uiListeners;
+    // 批量期间不发事件
+    private boolean silent;
+    // 当前的过滤结果，以及开始过滤前展开的路径（清除过滤时恢复）
+    private FileTreeFilter filter;
+    private List<TreePath> expandedBeforeFilter;
+    // 是否显示被忽略的条目
+    private boolean showIgnored;
+
+    public FileTreeView(FileTreeModel model) {
+        super(model);
+    }
+
+    @Override
+    public void setModel(TreeModel newModel) {
+        if (!(newModel instanceof FileTreeModel)) {
+            throw new IllegalArgumentException("文件树只能显示 FileTreeModel");
+        }
+        super.setModel(newModel);
+    }
+
+    @Override
+    public FileTreeModel getModel() {
+        return (FileTreeModel) super.getModel();
+    }
+
+    /**
+     * JTree 的模型监听器最先注册、最后收到通知（TreeUI 已处理完），结构变化时 JTree 会丢弃后代的展开状态，
+     * 之后把仍然有效的路径不发事件地展开回来，只通知 TreeUI 同步
+     * 父类构造期间就会调用，不能使用有初始值的字段
+     */
+    @Override
+    protected TreeModelListener createTreeModelListener() {
+        TreeModelListener handler = super.createTreeModelListener();
+        return new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                handler.treeNodesChanged(e);
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                handler.treeNodesInserted(e);
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                handler.treeNodesRemoved(e);
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                TreePath path = e == null ? null : e.getTreePath();
+                List<TreePath> expanded = path == null ? List.of() : expandedPaths(path);
+                handler.treeStructureChanged(e);
+                if (expanded.size() < 2 || !isExpanded(path)) return;
+                List<TreePath> restore = new ArrayList<>(expanded.size());
+                for (TreePath descendant : expanded) {
+                    if (((FileNode) descendant.getLastPathComponent()).isValid()) restore.add(descendant);
+                }
+                setExpanded(path, restore);
+                notifyExpansion(path, true, true);
+            }
+        };
+    }
+
+    @Override
+    public void updateUI() {
+        super.updateUI();
+        setUI(new FileTreeUI());
+        if (getUI() instanceof FileTreeUI ui) {
+            if (filter != null) ui.setFilter(filter);
+            if (showIgnored) ui.setShowIgnored(true);
+        }
+    }
+
+    /**
+     * 过滤显示的条目：一次重建可见行，并一次展开全部匹配条目的祖先
+     * 开始过滤时记录展开状态，传入null清除过滤时恢复
+     * 为过滤展开的祖先只是显示用的，只通知 TreeUI：其他监听器（记录展开状态、监听文件夹）不会收到它们的展开事件
+     */
+    public void setFilter(FileTreeFilter newFilter) {
+        if (newFilter != null && newFilter.getModel() != getModel()) {
+            throw new IllegalArgumentException("过滤结果不属于当前的文件树模型");
+        }
+        if (filter == null && newFilter == null) return;
+        TreePath rootPath = getModel().getRoot().getTreePath();
+        if (filter == null) expandedBeforeFilter = expandedPaths(rootPath);
+        filter = newFilter;
+        if (getUI() instanceof FileTreeUI ui) ui.setFilter(newFilter);
+        if (newFilter != null) {
+            setExpanded(rootPath, newFilter.getAncestorPaths());
+            notifyExpansion(rootPath, true, true);
+            return;
+        }
+        List<TreePath> shown = expandedPaths(rootPath);
+        if (isExpanded(rootPath)) setCollapsed(rootPath, false);
+        setExpanded(rootPath, expandedBeforeFilter);
+        expandedBeforeFilter = null;
+        notifyExpansion(rootPath, false, true);
+        notifyExpansion(rootPath, true, true);
+        // 其他监听器只收到过滤期间手动展开/折叠的事件，只通知它们恢复后不同的最上层文件夹
+        List<TreePath> restored = expandedPaths(rootPath);
+        Set<TreePath> shownSet = new HashSet<>(shown);
+        Set<TreePath> restoredSet = new HashSet<>(restored);
+        for (TreePath path : shown) {
+            if (!restoredSet.contains(path) && restoredSet.contains(path.getParentPath())) notifyExpansion(path, false, false);
+        }
+        for (TreePath path : restored) {
+            if (!shownSet.contains(path) && shownSet.contains(path.getParentPath())) notifyExpansion(path, true, false);
+        }
+    }
+
+    public FileTreeFilter getFilter() {
+        return filter;
+    }
+
+    /**
+     * 是否显示被忽略规则（{@link FileTreeModel#getIgnoreRules()}）排除的条目，只影响本视图
+     */
+    public void setShowIgnored(boolean showIgnored) {
+        if (this.showIgnored == showIgnored) return;
+        this.showIgnored = showIgnored;
+        if (getUI() instanceof FileTreeUI ui) ui.setShowIgnored(showIgnored);
+    }
+
+    public boolean isShowIgnored() {
+        return showIgnored;
+    }
+
+    @Override
+    public void setUI(TreeUI ui) {
+        Set<TreeExpansionListener> before = new HashSet<>(Arrays.asList(getTreeExpansionListeners()));
+        super.setUI(ui);
+        Set<TreeExpansionListener> installed = new HashSet<>(Arrays.asList(getTreeExpansionListeners()));
+        installed.removeAll(before);
+        uiListeners = installed;
+    }
+
+    /**
+     * 批量展开
+     *
+     * @param anchor 起始节点（会一并展开），监听器只收到它的一次展开事件
+     * @param paths  要展开的后代路径（顺序任意）
+     */
+    public void expandPaths(TreePath anchor, Collection<TreePath> paths) {
+        setExpanded(anchor, paths);
+        // TreeUI 收到事件后从 JTree 取得全部已展开的后代，同步到布局缓存
+        fireTreeExpanded(anchor);
+    }
+
+    /**
+     * 批量展开起始节点下的全部已加载文件夹
+     */
+    public void expandSubtree(TreePath anchor) {
+        expandPaths(anchor, loadedFolders(anchor, false));
+    }
+
+    /**
+     * 批量折叠起始节点下的全部已展开节点（包括因祖先折叠而隐藏的）
+     *
+     * @param collapseSelf 是否折叠起始节点本身
+     */
+    public void collapseSubtree(TreePath anchor, boolean collapseSelf) {
+        if (!isExpanded(anchor)) return;
+        List<TreePath> descendants = setCollapsed(anchor, collapseSelf);
+        // 布局缓存折叠起始节点时会清除后代的展开状态，不折叠自身时再展开回来
+        notifyExpansion(anchor, false, true);
+        if (collapseSelf) {
+            notifyExpansion(anchor, false, false);
+            return;
+        }
+        notifyExpansion(anchor, true, true);
+        for (TreePath path : descendants) {
+            if (anchor.equals(path.getParentPath())) notifyExpansion(path, false, false);
+        }
+    }
+
+    @Override
+    public void fireTreeExpanded(TreePath path) {
+        if (!silent) super.fireTreeExpanded(path);
+    }
+
+    @Override
+    public void fireTreeCollapsed(TreePath path) {
+        if (!silent) super.fireTreeCollapsed(path);
+    }
+
+    @Override
+    public void fireTreeWillExpand(TreePath path) throws ExpandVetoException {
+        if (!silent) super.fireTreeWillExpand(path);
+    }
+
+    @Override
+    public void fireTreeWillCollapse(TreePath path) throws ExpandVetoException {
+        if (!silent) super.fireTreeWillCollapse(path);
+    }
+
+    /**
+     * 不发事件地展开起始节点和它下面的路径
+     */
+    private void setExpanded(TreePath anchor, Collection<TreePath> paths) {
+        makeVisible(anchor);
+        silent = true;
+        try {
+            setExpandedState(anchor, true);
+            for (TreePath path : paths) {
+                if (anchor.isDescendant(path)) setExpandedState(path, true);
+            }
+        } finally {
+            silent = false;
+        }
+    }
+
+    /**
+     * 不发事件地折叠起始节点下的全部已展开节点，返回被折叠的后代（深层在前）
+     */
+    private List<TreePath> setCollapsed(TreePath anchor, boolean collapseSelf) {
+        List<TreePath> descendants = loadedFolders(anchor, true);
+        descendants.remove(0);
+        // 先折叠深层节点，否则折叠子节点时会把已折叠的父节点重新展开
+        descendants.sort(Comparator.comparingInt(TreePath::getPathCount).reversed());
+        silent = true;
+        try {
+            for (TreePath path : descendants) {
+                setExpandedState(path, false);
+            }
+            if (collapseSelf) setExpandedState(anchor, false);
+        } finally {
+            silent = false;
+        }
+        return descendants;
+    }
+
+    /**
+     * 起始节点及其下当前展开的路径
+     */
+    private List<TreePath> expandedPaths(TreePath anchor) {
+        Enumeration<TreePath> expanded = getExpandedDescendants(anchor);
+        return expanded == null ? List.of() : Collections.list(expanded);
+    }
+
+    /**
+     * 起始节点（第一个）及其下的已加载文件夹，按先序排列
+     *
+     * @param toggledOnly 只包括展开过的文件夹（未展开过的文件夹下不会有展开过的）
+     */
+    private List<TreePath> loadedFolders(TreePath anchor, boolean toggledOnly) {
+        FileTreeModel model = getModel();
+        List<TreePath> paths = new ArrayList<>();
+        Deque<TreePath> stack = new ArrayDeque<>();
+        stack.push(anchor);
+        while (!stack.isEmpty()) {
+            TreePath path = stack.pop();
+            paths.add(path);
+            FileNode node = (FileNode) path.getLastPathComponent();
+            if (!model.isLoaded(node)) continue;
+            for (int i = model.getChildCount(node) - 1; i >= 0; i--) {
+                FileNode child = model.getChild(node, i);
+                if (!child.isDirectory()) continue;
+                TreePath childPath = path.pathByAddingChild(child);
+                if (!toggledOnly || hasBeenExpanded(childPath)) stack.push(childPath);
+            }
+        }
+        return paths;
+    }
+
+    /**
+     * 只通知 TreeUI 或只通知其他监听器
+     */
+    private void notifyExpansion(TreePath path, boolean expanded, boolean ui) {
+        TreeExpansionEvent event = new TreeExpansionEvent(this, path);
+        for (TreeExpansionListener listener : getTreeExpansionListeners()) {
+            if (uiListeners.contains(listener) != ui) continue;
+            if (expanded) {
+                listener.treeExpanded(event);
+            } else {
+                listener.treeCollapsed(event);
+            }
+        }
+    }
+}
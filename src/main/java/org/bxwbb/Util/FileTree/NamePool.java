@@ -0,0 +1,166 @@
+package org.bxwbb.Util.FileTree;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 文件名驻留池：相同的名称只保存一份UTF-8字节和一份排序键，文件树中只记录名称ID
+ * 名称只增不减，随文件树一起丢弃
+ */
+final class NamePool {
+
+    private static final int INITIAL_BYTES = 1 << 16;
+    private static final int INITIAL_NAMES = 1 << 10;
+
+    private byte[] bytes = new byte[INITIAL_BYTES];
+    private int usedBytes = 0;
+    private int[] offsets = new int[INITIAL_NAMES];
+    private int[] lengths = new int[INITIAL_NAMES];
+    private int[] hashes = new int[INITIAL_NAMES];
+    // 排序键（CollationKey）的字符
+    private char[] keyChars = new char[INITIAL_BYTES];
+    private int usedKeyChars = 0;
+    private int[] keyOffsets = new int[INITIAL_NAMES];
+    private int[] keyLengths = new int[INITIAL_NAMES];
+    private int[] extensionStarts = new int[INITIAL_NAMES];
+    private int count = 0;
+    // 开放寻址哈希表，保存名称ID，-1为空
+    private int[] table = newTable(INITIAL_NAMES * 2);
+
+    /**
+     * 获取名称ID（不存在时加入）
+     */
+    int intern(String name) {
+        return intern(name, null);
+    }
+
+    /**
+     * 获取名称ID（不存在时加入，key 为null时现场计算）
+     */
+    int intern(String name, CollationKey key) {
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(encoded);
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        while (table[slot] != -1) {
+            int id = table[slot];
+            if (hashes[id] == hash && equalsAt(id, encoded)) return id;
+            slot = (slot + 1) & mask;
+        }
+        int id = append(encoded, hash, key == null ? CollationKey.of(name) : key);
+        table[slot] = id;
+        if (count * 2 > table.length) rehash();
+        return id;
+    }
+
+    /**
+     * 查找名称ID（不存在时返回-1，不会加入）
+     */
+    int find(String name) {
+        byte[] encoded = name.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(encoded);
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        while (table[slot] != -1) {
+            int id = table[slot];
+            if (hashes[id] == hash && equalsAt(id, encoded)) return id;
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    String get(int id) {
+        return new String(bytes, offsets[id], lengths[id], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 当前全部名称的只读视图（需在修改名称池的线程中调用），可交给其他线程解码
+     * 名称只追加不修改，之后加入的名称写在视图范围之外或新的数组中，不影响视图
+     */
+    Snapshot snapshot() {
+        return new Snapshot(bytes, offsets, lengths, count);
+    }
+
+    CollationKey key(int id, String name) {
+        int offset = keyOffsets[id];
+        return new CollationKey(Arrays.copyOfRange(keyChars, offset, offset + keyLengths[id]), extensionStarts[id], name);
+    }
+
+    int size() {
+        return count;
+    }
+
+    /**
+     * 占用的堆内存（字节，估算）
+     */
+    long memoryBytes() {
+        return bytes.length + keyChars.length * 2L + (long) offsets.length * 24 + (long) table.length * 4;
+    }
+
+    /**
+     * 名称池某一时刻的只读视图
+     */
+    record Snapshot(byte[] bytes, int[] offsets, int[] lengths, int count) {
+        String get(int id) {
+            if (id < 0 || id >= count) throw new IndexOutOfBoundsException(id);
+            return new String(bytes, offsets[id], lengths[id], StandardCharsets.UTF_8);
+        }
+    }
+
+    private boolean equalsAt(int id, byte[] encoded) {
+        int offset = offsets[id];
+        return lengths[id] == encoded.length
+                && Arrays.equals(bytes, offset, offset + lengths[id], encoded, 0, encoded.length);
+    }
+
+    private int append(byte[] encoded, int hash, CollationKey key) {
+        if (usedBytes + encoded.length > bytes.length) {
+            bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, usedBytes + encoded.length));
+        }
+        char[] chars = key.chars();
+        if (usedKeyChars + chars.length > keyChars.length) {
+            keyChars = Arrays.copyOf(keyChars, Math.max(keyChars.length * 2, usedKeyChars + chars.length));
+        }
+        if (count == offsets.length) {
+            int capacity = count * 2;
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            hashes = Arrays.copyOf(hashes, capacity);
+            keyOffsets = Arrays.copyOf(keyOffsets, capacity);
+            keyLengths = Arrays.copyOf(keyLengths, capacity);
+            extensionStarts = Arrays.copyOf(extensionStarts, capacity);
+        }
+        System.arraycopy(encoded, 0, bytes, usedBytes, encoded.length);
+        offsets[count] = usedBytes;
+        lengths[count] = encoded.length;
+        hashes[count] = hash;
+        usedBytes += encoded.length;
+        System.arraycopy(chars, 0, keyChars, usedKeyChars, chars.length);
+        keyOffsets[count] = usedKeyChars;
+        keyLengths[count] = chars.length;
+        extensionStarts[count] = key.extensionStart();
+        usedKeyChars += chars.length;
+        return count++;
+    }
+
+    private void rehash() {
+        int[] newTable = newTable(table.length * 2);
+        int mask = newTable.length - 1;
+        for (int id = 0; id < count; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (newTable[slot] != -1) slot = (slot + 1) & mask;
+            newTable[slot] = id;
+        }
+        table = newTable;
+    }
+
+    private static int[] newTable(int capacity) {
+        int[] newTable = new int[capacity];
+        Arrays.fill(newTable, -1);
+        return newTable;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -0,0 +1,231 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.Main;
+import org.bxwbb.Util.FileUtil;
+import org.bxwbb.Util.Task.ControllableThreadTask;
+import org.bxwbb.Util.Task.EdtBatcher;
+import org.bxwbb.WorkEventer.WorkControllableThreadTask;
+
+import java.io.File;
+import java.util.*;
+
+/**
+ * 文件夹刷新队列：按文件夹合并重复的刷新请求（每个共用的文件树一个）
+ * 1. 文件夹已有等待执行的刷新时，新的请求并入其中（包括请求的是它下面的子文件夹）
+ * 2. 新请求的文件夹是等待中刷新的父文件夹时，把这些刷新并入新的请求
+ * 3. 文件夹正在刷新时，新的请求等它完成后再执行（之后的请求继续并入），不与它同时列出
+ * 每个执行的刷新在任务列表中只有一项
+ * 只能在EDT中使用（后台线程只列出文件夹）
+ */
+public final class RefreshQueue {
+
+    private final FileTreeModel model;
+    // 未完成的刷新：等待执行、延后执行或正在执行
+    private final List<Batch> batches = new ArrayList<>();
+    // 统计
+    private long requested = 0;
+    private long executed = 0;
+
+    RefreshQueue(FileTreeModel model) {
+        this.model = model;
+    }
+
+    /**
+     * 刷新文件夹
+     *
+     * @param dir      请求刷新的文件夹，刷新后通知它的显示已更新
+     * @param targets  需要列出的文件夹（通常为 dir 和它下面可见的子文件夹）
+     * @param callback 刷新后在EDT中执行（可为null）
+     */
+    public void refresh(FileNode dir, List<FileNode> targets, Runnable callback) {
+        requested++;
+        for (Batch batch : batches) {
+            if (batch.covers(dir) && batch.join(dir, targets, callback)) return;
+        }
+        Batch batch = new Batch();
+        batch.join(dir, targets, callback);
+        // 并入等待中的子文件夹的刷新
+        Iterator<Batch> iterator = batches.iterator();
+        while (iterator.hasNext()) {
+            Batch other = iterator.next();
+            if (other.isWithin(dir) && other.absorbInto(batch)) iterator.remove();
+        }
+        batches.add(batch);
+        if (!isBeingListed(dir)) batch.submit();
+    }
+
+    /**
+     * 请求数与实际执行的刷新数
+     */
+    public long getRequestCount() {
+        return requested;
+    }
+
+    public long getExecutedCount() {
+        return executed;
+    }
+
+    private boolean isBeingListed(FileNode dir) {
+        for (Batch batch : batches) {
+            if (batch.isRunning() && batch.targets.containsKey(dir)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * 刷新完成（或被取消）后在EDT中执行：应用快照、回调，再提交被它延后的刷新
+     */
+    private void finish(Batch batch, List<FileNode> nodes, List<DirectorySnapshot> snapshots) {
+        batches.remove(batch);
+        executed++;
+        for (int i = 0; i < snapshots.size(); i++) {
+            FileNode node = nodes.get(i);
+            if (!node.isValid()) continue;
+            DirectorySnapshot snapshot = snapshots.get(i);
+            if (snapshot != null) {
+                model.applySnapshot(node, snapshot);
+            } else if (!model.isLoaded(node)) {
+                // 首次列出就失败：显示为空文件夹，不再一直显示加载中；已加载的保留现有子节点
+                model.setChildren(node, List.of());
+            }
+        }
+        for (FileNode dir : batch.requested) {
+            if (dir.isValid()) model.nodeChanged(dir);
+        }
+        for (Runnable callback : batch.callbacks) {
+            callback.run();
+        }
+        Main.getWorkController().removeWork(batch.work);
+        for (Batch deferred : List.copyOf(batches)) {
+            if (deferred.isDeferred() && batches.contains(deferred) && !deferred.overlapsRunning()) deferred.submit();
+        }
+    }
+
+    private final class Batch {
+        // 以下字段在后台线程开始列出前可以在EDT中继续添加，用 this 同步
+        private final LinkedHashMap<FileNode, File> targets = new LinkedHashMap<>();
+        private boolean started = false;
+        // 以下字段只在EDT中访问
+        private final Set<FileNode> requested = new LinkedHashSet<>();
+        private final List<Runnable> callbacks = new ArrayList<>();
+        private WorkControllableThreadTask work;
+
+        /**
+         * 文件夹在此刷新的范围内（是请求的文件夹或其下的子文件夹，或已在要列出的文件夹中）
+         */
+        private boolean covers(FileNode dir) {
+            if (targets.containsKey(dir)) return true;
+            for (FileNode root : requested) {
+                if (isAncestor(root, dir)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * 请求的文件夹都在 dir 下面
+         */
+        private boolean isWithin(FileNode dir) {
+            for (FileNode root : requested) {
+                if (!isAncestor(dir, root)) return false;
+            }
+            return true;
+        }
+
+        /**
+         * 并入请求，已开始列出时返回false
+         */
+        private boolean join(FileNode dir, List<FileNode> nodes, Runnable callback) {
+            synchronized (this) {
+                if (started) return false;
+                for (FileNode node : nodes) {
+                    if (node.isValid()) targets.putIfAbsent(node, node.getFile());
+                }
+            }
+            requested.add(dir);
+            if (callback != null) callbacks.add(callback);
+            return true;
+        }
+
+        /**
+         * 把未开始的刷新整个并入另一个，成功后此刷新即使已提交也不会再列出
+         */
+        private boolean absorbInto(Batch other) {
+            Map<FileNode, File> taken;
+            synchronized (this) {
+                if (started) return false;
+                started = true;
+                taken = new LinkedHashMap<>(targets);
+                targets.clear();
+            }
+            synchronized (other) {
+                taken.forEach(other.targets::putIfAbsent);
+            }
+            other.requested.addAll(requested);
+            other.callbacks.addAll(callbacks);
+            if (work != null) Main.getWorkController().removeWork(work);
+            return true;
+        }
+
+        private boolean isDeferred() {
+            return work == null;
+        }
+
+        private synchronized boolean isRunning() {
+            return started && work != null;
+        }
+
+        private boolean overlapsRunning() {
+            for (FileNode dir : requested) {
+                if (isBeingListed(dir)) return true;
+            }
+            return false;
+        }
+
+        private void submit() {
+            work = new WorkControllableThreadTask(
+                    FileUtil.getLang("miniWindow.fileManager.popMenu.workerName"),
+                    "",
+                    FileUtil.FILE_IO_EXECUTOR
+            );
+            Comparator<FileTreeModel.Entry> order = model.getOrder();
+            ControllableThreadTask<Void> task = new ControllableThreadTask<>() {
+                @Override
+                protected Void doWork() {
+                    List<FileNode> nodes;
+                    List<File> folders;
+                    synchronized (Batch.this) {
+                        // 已被并入其他刷新
+                        if (started) return null;
+                        started = true;
+                        nodes = new ArrayList<>(targets.keySet());
+                        folders = new ArrayList<>(targets.values());
+                    }
+                    List<DirectorySnapshot> snapshots = new ArrayList<>(folders.size());
+                    try {
+                        for (File folder : folders) {
+                            snapshots.add(DirectorySnapshot.list(folder, order));
+                        }
+                    } finally {
+                        // 取消时也要结束，否则之后的请求会一直等待它；被中断的列出结果不完整，不应用
+                        List<DirectorySnapshot> listed = !isTaskCancelled() && snapshots.size() == nodes.size()
+                                ? snapshots : List.of();
+                        EdtBatcher.getInstance().post(() -> finish(Batch.this, nodes, listed));
+                    }
+                    return null;
+                }
+            };
+            work.setTaskID(FileUtil.FILE_IO_EXECUTOR.submit(task));
+            Main.getWorkController().addWork(work);
+        }
+    }
+
+    /**
+     * a 是 b 本身或其祖先
+     */
+    private static boolean isAncestor(FileNode a, FileNode b) {
+        for (FileNode node = b; node != null; node = node.getParent()) {
+            if (node.equals(a)) return true;
+        }
+        return false;
+    }
+}
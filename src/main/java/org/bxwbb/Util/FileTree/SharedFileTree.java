@@ -0,0 +1,355 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.Util.FileSystem.DirectoryLister;
+import org.bxwbb.Util.FileSystem.DirectoryWatcher;
+import org.bxwbb.Util.FileSystem.IgnoreRules;
+import org.bxwbb.Util.FileUtil;
+import org.bxwbb.Util.JTreeExpandCollapseUtil;
+import org.bxwbb.Util.Task.ControllableThreadTask;
+import org.bxwbb.Util.Task.EdtBatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import javax.swing.tree.TreePath;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 同一根目录的文件树在全部文件管理器窗口间共用（按引用计数）
+ * 1. 共用一个 {@link FileTreeModel}（列出结果、属性）和一个 {@link DirectoryWatcher}，监听到的变化只刷新一次，所有窗口同时更新
+ * 2. 文件夹的监听按窗口计数，最后一个展开它的窗口折叠或关闭后才停止监听
+ * 3. 展开状态、选中状态由各窗口自己的 JTree 保存，互不影响
+ * 4. 过滤用的名称索引（{@link FileNameIndex}）各窗口共用：完整索引按需在后台建立，监听到变化后按间隔重建，
+ *    已加载部分的快照在模型结构变化前一直复用
+ * 5. 手动/展开触发的刷新经同一个 {@link RefreshQueue} 按文件夹合并
+ * 6. 创建时读取根目录的忽略规则（{@link IgnoreRules#load}），规则文件变化后重新读取
+ * 最后一个窗口释放后关闭监听并丢弃模型
+ * 只能在EDT中使用
+ */
+public final class SharedFileTree {
+
+    private static final Logger log = LoggerFactory.getLogger(SharedFileTree.class);
+    // 根目录 -> 共用的文件树
+    private static final Map<Path, SharedFileTree> TREES = new HashMap<>();
+    // 名称索引的有效期（毫秒），未展开的文件夹没有监听，过期后重新遍历
+    private static final long INDEX_MAX_AGE = 30_000;
+    // 监听到变化后重建名称索引的最小间隔（毫秒），持续变化的文件夹（日志、存档）不会让每次输入都重新遍历
+    private static final long INDEX_REBUILD_INTERVAL = 5_000;
+    // 建立名称索引的线程（守护线程）
+    private static final ExecutorService INDEX_POOL = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "FileNameIndex-Builder");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Path key;
+    private final FileTreeModel model;
+    private final DirectoryWatcher watcher;
+    private final RefreshQueue refreshQueue;
+    // 文件夹 -> 监听它的窗口数
+    private final Map<Path, Integer> watchCounts = new HashMap<>();
+    // 窗口 -> 它登记监听的文件夹
+    private final Map<JTree, Set<Path>> views = new LinkedHashMap<>();
+    private int references = 0;
+    private volatile boolean released = false;
+    // 最近一次开始建立的完整名称索引，以及最近一次建立完成的（重建期间先用它）
+    private Future<FileNameIndex> nameIndex;
+    private FileNameIndex lastNameIndex;
+    private long nameIndexCreated;
+    // 监听到变化，完整名称索引已过时（按 INDEX_REBUILD_INTERVAL 重建）
+    private boolean nameIndexStale = false;
+    // 忽略规则更换时递增，之前开始建立的索引作废
+    private int nameIndexEpoch = 0;
+    // 已加载条目的名称快照，模型插入/删除/结构变化时丢弃
+    private FileNameIndex.Loaded loadedNameIndex;
+
+    private SharedFileTree(Path key, File rootDir, Comparator<FileTreeModel.Entry> order) {
+        this.key = key;
+        this.model = new FileTreeModel(rootDir, order);
+        model.setIgnoreRules(IgnoreRules.load(rootDir));
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                // 只有属性变化，名称不变
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                loadedNameIndex = null;
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                loadedNameIndex = null;
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                loadedNameIndex = null;
+            }
+        });
+        this.refreshQueue = new RefreshQueue(model);
+        this.watcher = new DirectoryWatcher(dir -> EdtBatcher.getInstance().post(new EdtBatcher.Key(this, dir),
+                () -> onDirectoryChanged(dir)));
+    }
+
+    /**
+     * 取得根目录的共用文件树，没有时按给定的排序规则创建
+     * 已存在时沿用它当前的排序规则，调用方需以 {@link FileTreeModel#getOrder()} 为准
+     * 每次调用都需要对应一次 {@link #release(JTree)}
+     */
+    public static SharedFileTree acquire(File rootDir, Comparator<FileTreeModel.Entry> order) {
+        Path key = keyOf(rootDir);
+        SharedFileTree tree = TREES.get(key);
+        if (tree == null) {
+            tree = new SharedFileTree(key, rootDir, order);
+            TREES.put(key, tree);
+        } else {
+            log.info("复用已打开的文件树 - {}，共{}个窗口", key, tree.references + 1);
+        }
+        tree.references++;
+        return tree;
+    }
+
+    public FileTreeModel getModel() {
+        return model;
+    }
+
+    public RefreshQueue getRefreshQueue() {
+        return refreshQueue;
+    }
+
+    /**
+     * 文件树已加载条目的名称快照，模型结构没有变化时复用上一次的结果（连续输入时不会每次都遍历模型）
+     */
+    public FileNameIndex.Loaded loadedNameIndex() {
+        if (loadedNameIndex == null) loadedNameIndex = FileNameIndex.ofLoaded(model);
+        return loadedNameIndex;
+    }
+
+    /**
+     * 根目录的完整名称索引，没有时开始在后台建立
+     * 过期或监听到变化后重新建立（两次建立至少间隔 INDEX_REBUILD_INTERVAL），重建完成前返回上一次的结果
+     */
+    public Future<FileNameIndex> nameIndex() {
+        long now = System.currentTimeMillis();
+        long age = now - nameIndexCreated;
+        if (nameIndex == null || (nameIndexStale || age > INDEX_MAX_AGE) && age >= INDEX_REBUILD_INTERVAL) {
+            File rootDir = model.getRoot().getFile();
+            IgnoreRules rules = model.getIgnoreRules();
+            int epoch = nameIndexEpoch;
+            nameIndexCreated = now;
+            nameIndexStale = false;
+            nameIndex = INDEX_POOL.submit(() -> {
+                long start = System.nanoTime();
+                FileNameIndex index = FileNameIndex.scan(rootDir, rules, () -> released);
+                if (index != null) {
+                    log.info("文件名索引建立完成 - {}，共{}个条目，耗时{}ms{}", rootDir.getPath(), index.size(),
+                            (System.nanoTime() - start) / 1_000_000, index.isComplete() ? "" : "（超过上限，未完整收录）");
+                    EdtBatcher.getInstance().post(() -> {
+                        if (epoch == nameIndexEpoch) lastNameIndex = index;
+                    });
+                }
+                return index;
+            });
+        }
+        if (!nameIndex.isDone() && lastNameIndex != null) return CompletableFuture.completedFuture(lastNameIndex);
+        return nameIndex;
+    }
+
+    /**
+     * 登记使用此模型的窗口（排序规则变化时恢复它的展开状态）
+     */
+    public void attach(JTree view) {
+        views.putIfAbsent(view, new HashSet<>());
+    }
+
+    /**
+     * 窗口不再使用：撤销它登记的监听，最后一个引用释放后关闭监听
+     */
+    public void release(JTree view) {
+        Set<Path> watched = view == null ? null : views.remove(view);
+        if (watched != null) {
+            for (Path dir : watched) decrement(dir);
+        }
+        if (--references > 0) return;
+        TREES.remove(key, this);
+        released = true;
+        if (nameIndex != null) nameIndex.cancel(false);
+        lastNameIndex = null;
+        loadedNameIndex = null;
+        watcher.close();
+        watchCounts.clear();
+        views.clear();
+    }
+
+    /**
+     * 窗口展开了文件夹，开始监听（已被其他窗口监听时只增加计数）
+     */
+    public void watch(JTree view, Path dir) {
+        Set<Path> watched = views.get(view);
+        Path path = normalize(dir);
+        if (watched == null || !watched.add(path)) return;
+        if (watchCounts.merge(path, 1, Integer::sum) == 1) watcher.watch(path);
+    }
+
+    /**
+     * 窗口折叠了文件夹：撤销它对文件夹及全部子文件夹的监听，没有其他窗口监听的停止监听
+     */
+    public void unwatchTree(JTree view, Path dir) {
+        Set<Path> watched = views.get(view);
+        if (watched == null) return;
+        Path path = normalize(dir);
+        Iterator<Path> iterator = watched.iterator();
+        while (iterator.hasNext()) {
+            Path next = iterator.next();
+            if (next.startsWith(path)) {
+                iterator.remove();
+                decrement(next);
+            }
+        }
+    }
+
+    public boolean isWatching(Path dir) {
+        return watcher.isWatching(dir);
+    }
+
+    /**
+     * 更换排序规则：模型就地重排后，为每个窗口恢复重排前的展开状态
+     */
+    public void setOrder(Comparator<FileTreeModel.Entry> order) {
+        if (order.equals(model.getOrder())) return;
+        keepExpansion(() -> model.setOrder(order));
+    }
+
+    /**
+     * 更换忽略规则：重新标记已加载的条目后，为每个窗口恢复展开状态
+     */
+    public void setIgnoreRules(IgnoreRules rules) {
+        keepExpansion(() -> model.setIgnoreRules(rules));
+        invalidateNameIndex();
+    }
+
+    /**
+     * 丢弃完整名称索引（收录范围变化），下一次查询时重新建立并等待它完成
+     */
+    private void invalidateNameIndex() {
+        nameIndexEpoch++;
+        nameIndex = null;
+        lastNameIndex = null;
+    }
+
+    /**
+     * 执行会通知根节点结构变化的修改，之后恢复每个窗口修改前的展开状态
+     */
+    private void keepExpansion(Runnable change) {
+        TreePath rootPath = model.getRoot().getTreePath();
+        Map<JTree, List<TreePath>> expanded = new HashMap<>();
+        for (JTree view : views.keySet()) {
+            Enumeration<TreePath> paths = view.getExpandedDescendants(rootPath);
+            expanded.put(view, paths == null ? List.of() : Collections.list(paths));
+        }
+        change.run();
+        for (Map.Entry<JTree, List<TreePath>> entry : expanded.entrySet()) {
+            if (entry.getValue().isEmpty()) continue;
+            JTreeExpandCollapseUtil.expandPaths(entry.getKey(), rootPath, entry.getValue());
+        }
+    }
+
+    /**
+     * 根文件夹被重命名或移动后更新根路径，已登记的监听改到新路径下（旧路径的监听不再有效）
+     */
+    public void setRootFile(File rootDir) {
+        Path oldKey = key;
+        Path newKey = keyOf(rootDir);
+        TREES.remove(key, this);
+        key = newKey;
+        TREES.putIfAbsent(newKey, this);
+        model.setRootFile(rootDir);
+        if (!newKey.equals(oldKey)) rebaseWatches(oldKey, newKey);
+    }
+
+    /**
+     * 把根目录下的监听从旧根路径移到新根路径，保持各窗口的登记和计数
+     */
+    private void rebaseWatches(Path oldRoot, Path newRoot) {
+        Map<Path, Integer> counts = new HashMap<>();
+        for (Map.Entry<Path, Integer> entry : watchCounts.entrySet()) {
+            Path path = rebase(entry.getKey(), oldRoot, newRoot);
+            watcher.unwatch(entry.getKey());
+            counts.put(path, entry.getValue());
+        }
+        watchCounts.clear();
+        watchCounts.putAll(counts);
+        for (Path path : watchCounts.keySet()) watcher.watch(path);
+        for (Set<Path> watched : views.values()) {
+            List<Path> paths = new ArrayList<>(watched);
+            watched.clear();
+            for (Path path : paths) watched.add(rebase(path, oldRoot, newRoot));
+        }
+        log.info("根文件夹已移动 - {} -> {}，重新登记{}个文件夹的监听", oldRoot, newRoot, watchCounts.size());
+    }
+
+    private static Path rebase(Path path, Path oldRoot, Path newRoot) {
+        return path.startsWith(oldRoot) ? newRoot.resolve(oldRoot.relativize(path)) : path;
+    }
+
+    private void decrement(Path dir) {
+        Integer count = watchCounts.get(dir);
+        if (count == null) return;
+        if (count > 1) {
+            watchCounts.put(dir, count - 1);
+        } else {
+            watchCounts.remove(dir);
+            watcher.unwatch(dir);
+        }
+    }
+
+    /**
+     * 监听到文件夹变化：只重新比较这一个文件夹，按差异插入/删除节点
+     */
+    private void onDirectoryChanged(Path dir) {
+        if (references <= 0) return;
+        FileNode node = model.findNode(dir);
+        if (node == null || !model.isLoaded(node)) return;
+        File folder = node.getFile();
+        Comparator<FileTreeModel.Entry> order = model.getOrder();
+        // 根目录变化时检查规则文件（.gitignore 等）是否被修改
+        IgnoreRules rules = node.isRoot() ? model.getIgnoreRules() : null;
+        // 子文件内容的变化不会改变文件夹的版本戳，缓存的列出结果需要丢弃
+        DirectoryLister.getInstance().invalidate(dir);
+        nameIndexStale = true;
+        FileUtil.FILE_IO_EXECUTOR.submit(new ControllableThreadTask<Void>() {
+            @Override
+            protected Void doWork() {
+                DirectorySnapshot snapshot = DirectorySnapshot.list(folder, order);
+                IgnoreRules reloaded = rules != null && rules.isStale() ? IgnoreRules.load(folder) : null;
+                EdtBatcher.getInstance().post(() -> {
+                    if (reloaded != null && references > 0 && model.getIgnoreRules() == rules) {
+                        log.info("忽略规则已更新 - {}", folder.getPath());
+                        setIgnoreRules(reloaded);
+                    }
+                    // 列出失败时保留现有子节点（以及它们的展开状态和监听）
+                    if (snapshot != null && node.isValid()) model.applySnapshot(node, snapshot);
+                });
+                return null;
+            }
+        });
+    }
+
+    private static Path keyOf(File rootDir) {
+        return normalize(rootDir.toPath());
+    }
+
+    private static Path normalize(Path path) {
+        return path.toAbsolutePath().normalize();
+    }
+}
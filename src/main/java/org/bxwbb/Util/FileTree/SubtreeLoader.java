@@ -0,0 +1,234 @@
+package org.bxwbb.Util.FileTree;
+
+import org.bxwbb.Util.FileSystem.DirectoryLister;
+import org.bxwbb.Util.FileSystem.DirectoryListing;
+import org.bxwbb.Util.FileSystem.IgnoreRules;
+import org.bxwbb.Util.Task.EdtBatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+/**
+ * 全量加载文件夹：一次广度优先遍历，边列出边挂到文件树上
+ * 1. 多个后台线程并行列出文件夹，生成与文件树无关的快照；协调线程按提交顺序取结果，保证父文件夹先于子文件夹
+ * 2. 列出的结果交给 {@link EdtBatcher} 挂载，EDT每帧只处理预算内的部分，不阻塞输入和绘制；进度更新会合并
+ * 3. 不预先统计文件数，进度为已挂载/已发现的条目数
+ * 4. 不进入符号链接指向的文件夹，避免链接成环
+ * 5. 可按模型的忽略规则不进入被忽略的文件夹（文件夹本身仍会挂载）
+ * 结束后把加载过的全部文件夹交给调用方一次性展开
+ */
+public final class SubtreeLoader {
+
+    private static final Logger log = LoggerFactory.getLogger(SubtreeLoader.class);
+    // 暂停时的检查间隔（毫秒）
+    private static final long PAUSE_CHECK_INTERVAL = 50;
+    private static final AtomicInteger THREAD_ID = new AtomicInteger(0);
+    // 全部加载共用的列出线程（守护线程）
+    private static final ExecutorService POOL = Executors.newFixedThreadPool(
+            Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors())),
+            runnable -> {
+                Thread thread = new Thread(runnable, "SubtreeLoader-Worker-" + THREAD_ID.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+    );
+
+    private final FileTreeModel model;
+    private final FileNode target;
+    private final File targetFolder;
+    private final Comparator<FileTreeModel.Entry> order;
+    private final Listener listener;
+    private final BooleanSupplier paused;
+    // 不进入被忽略的文件夹时为模型的忽略规则，否则为 IgnoreRules.NONE
+    private final IgnoreRules ignoreRules;
+    private final String targetRelative;
+
+    private final EdtBatcher batcher = EdtBatcher.getInstance();
+    private final EdtBatcher.Key progressKey = new EdtBatcher.Key(this, "progress");
+    private volatile long listed = 0;
+    private volatile boolean cancelled = false;
+    // 以下字段只在EDT中访问
+    private long attached = 0;
+    private final List<FileNode> directories = new ArrayList<>();
+
+    /**
+     * 需在EDT中创建
+     *
+     * @param target   要全量加载的文件夹节点
+     * @param listener 进度与完成回调（在EDT中执行）
+     * @param paused   是否处于暂停状态（可为null）
+     */
+    public SubtreeLoader(FileNode target, Listener listener, BooleanSupplier paused) {
+        this(target, listener, paused, false);
+    }
+
+    /**
+     * 需在EDT中创建
+     *
+     * @param skipIgnored 是否不进入被忽略规则（{@link FileTreeModel#getIgnoreRules()}）排除的文件夹
+     */
+    public SubtreeLoader(FileNode target, Listener listener, BooleanSupplier paused, boolean skipIgnored) {
+        this.model = target.getModel();
+        this.target = target;
+        this.targetFolder = target.getFile();
+        this.order = model.getOrder();
+        this.listener = listener;
+        this.paused = paused == null ? () -> false : paused;
+        this.ignoreRules = skipIgnored ? model.getIgnoreRules() : IgnoreRules.NONE;
+        this.targetRelative = skipIgnored ? model.store().relativePath(target.id()) : null;
+    }
+
+    /**
+     * 执行加载（阻塞调用线程直到全部列出或被中断，挂载在EDT中继续进行）
+     */
+    public void run() {
+        Deque<Future<ListedFolder>> inFlight = new ArrayDeque<>();
+        inFlight.add(POOL.submit(() -> list(null, targetFolder, targetRelative)));
+        try {
+            while (!inFlight.isEmpty()) {
+                awaitResume();
+                ListedFolder folder = inFlight.poll().get();
+                listed += folder.entries.size();
+                // 批处理器按提交顺序执行，父文件夹总是先于子文件夹挂载
+                batcher.post(() -> attach(folder));
+                batcher.post(progressKey, () -> listener.onProgress(attached, listed));
+                List<FileTreeModel.Entry> entries = folder.entries;
+                for (FileTreeModel.Entry entry : entries) {
+                    if (!entry.directory()) continue;
+                    if (folder.links.contains(entry.name())) continue;
+                    if (ignoreRules.isIgnored(folder.relative, entry.name(), true)) continue;
+                    File child = new File(folder.folder, entry.name());
+                    String relative = IgnoreRules.child(folder.relative, entry.name());
+                    inFlight.add(POOL.submit(() -> list(folder, child, relative)));
+                }
+            }
+        } catch (InterruptedException e) {
+            cancelled = true;
+            inFlight.forEach(future -> future.cancel(false));
+            Thread.currentThread().interrupt();
+            log.info("全量加载已取消 - {}", targetFolder.getPath());
+        } catch (ExecutionException e) {
+            cancelled = true;
+            inFlight.forEach(future -> future.cancel(false));
+            log.error("全量加载失败 - {} -> ", targetFolder.getPath(), e.getCause());
+        } finally {
+            // 排在全部挂载之后执行
+            batcher.post(this::finish);
+        }
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * 不经过列出缓存（避免冲掉常用文件夹），符号链接在列出时已经识别，不需要再逐个检查
+     */
+    private ListedFolder list(ListedFolder parent, File folder, String relative) {
+        DirectoryListing listing;
+        try {
+            listing = DirectoryLister.getInstance().scan(folder.toPath());
+        } catch (IOException e) {
+            log.warn("列出文件夹失败 - {} -> {}", folder.getPath(), e.toString());
+            return new ListedFolder(parent, folder, relative, null, Set.of());
+        }
+        Set<String> links = new HashSet<>();
+        for (int i = 0; i < listing.size(); i++) {
+            if (listing.isDirectory(i) && listing.isSymbolicLink(i)) links.add(listing.name(i));
+        }
+        List<FileTreeModel.Entry> entries = DirectorySnapshot.of(folder, listing, order, null).entries();
+        return new ListedFolder(parent, folder, relative, entries, links);
+    }
+
+    private void awaitResume() throws InterruptedException {
+        while (paused.getAsBoolean()) {
+            Thread.sleep(PAUSE_CHECK_INTERVAL);
+        }
+        if (Thread.currentThread().isInterrupted()) throw new InterruptedException();
+    }
+
+    private void finish() {
+        listener.onProgress(attached, listed);
+        log.info("全量加载完成 - {}，共{}个条目，{}个文件夹", targetFolder.getPath(), attached, directories.size());
+        listener.onFinished(List.copyOf(directories), cancelled);
+    }
+
+    private void attach(ListedFolder folder) {
+        FileNode node;
+        if (folder.parent == null) {
+            node = target;
+        } else {
+            FileNode parentNode = folder.parent.node;
+            // 父文件夹在挂载期间被删除
+            if (parentNode == null || !parentNode.isValid()) return;
+            // 列出后父文件夹的子节点可能已经变化（刷新、删除、重新排序），按名称查找而不是按下标
+            int id = model.store().findChild(parentNode.id(), folder.folder.getName());
+            if (id == FileTreeStore.NONE) return;
+            node = model.entry(id);
+        }
+        if (!node.isValid() || !node.isDirectory()) return;
+        if (folder.failed) {
+            // 列出失败：已加载的保留现有子节点，未加载的显示为空文件夹
+            if (!model.isLoaded(node)) model.setChildren(node, List.of());
+        } else {
+            model.applySnapshot(node, new DirectorySnapshot(folder.folder, folder.entries, order));
+        }
+        folder.node = node;
+        directories.add(node);
+        attached += folder.entries.size();
+        folder.entries = null;
+    }
+
+    /**
+     * 后台列出的文件夹，node 在挂载后（EDT中）设置
+     */
+    private static final class ListedFolder {
+        private final ListedFolder parent;
+        private final File folder;
+        // 相对于根文件夹的路径（不跳过被忽略的文件夹时为null）
+        private final String relative;
+        // 指向文件夹的符号链接（不进入）
+        private final Set<String> links;
+        // 列出失败（条目为空，挂载时不能当作空文件夹应用）
+        private final boolean failed;
+        // 挂载后释放，子文件夹只需要 node
+        private List<FileTreeModel.Entry> entries;
+        private FileNode node;
+
+        /**
+         * @param entries 条目，列出失败时为null
+         */
+        private ListedFolder(ListedFolder parent, File folder, String relative,
+                             List<FileTreeModel.Entry> entries, Set<String> links) {
+            this.parent = parent;
+            this.folder = folder;
+            this.relative = relative;
+            this.failed = entries == null;
+            this.entries = entries == null ? List.of() : entries;
+            this.links = links;
+        }
+    }
+
+    /**
+     * 加载回调（均在EDT中执行）
+     */
+    public interface Listener {
+        /**
+         * @param attached 已挂载到文件树的条目数
+         * @param listed   已发现的条目数
+         */
+        void onProgress(long attached, long listed);
+
+        /**
+         * @param directories 按广度优先顺序排列的已加载文件夹（含目标文件夹本身）
+         * @param cancelled   是否被取消（已列出的部分仍会挂载）
+         */
+        void onFinished(List<FileNode> directories, boolean cancelled);
+    }
+}
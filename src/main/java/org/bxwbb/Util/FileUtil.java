@@ -1,41 +1,43 @@
 package org.bxwbb.Util;
 
-import com.alibaba.fastjson2.JSON;
-import com.alibaba.fastjson2.JSONArray;
-import com.alibaba.fastjson2.JSONObject;
-import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.bxwbb.Main;
+import org.bxwbb.Util.FileSystem.CopyEngine;
+import org.bxwbb.Util.FileSystem.DirectoryLister;
+import org.bxwbb.Util.FileSystem.DirectoryListing;
+import org.bxwbb.Util.FileSystem.DirectoryStats;
+import org.bxwbb.Util.FileSystem.DirectoryStatsWalker;
+import org.bxwbb.Util.FileSystem.FileMover;
+import org.bxwbb.Util.FileSystem.FreedesktopTrash;
+import org.bxwbb.Util.FileSystem.IgnoreRules;
+import org.bxwbb.Util.FileSystem.MoveResult;
+import org.bxwbb.Util.Resource.FileTypeRegistry;
+import org.bxwbb.Util.Resource.IconCache;
+import org.bxwbb.Util.Resource.LangTable;
+import org.bxwbb.Util.Resource.ResourceIndex;
+import org.bxwbb.Util.Resource.ResourceSnapshot;
 import org.bxwbb.Util.Task.ControllableThreadPool;
 import org.bxwbb.Util.Task.ControllableThreadTask;
+import org.bxwbb.Util.Task.EdtBatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
 import java.awt.*;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
-import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.DosFileAttributeView;
 import java.nio.file.attribute.PosixFilePermission;
 import java.util.*;
 import java.util.List;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
 public class FileUtil {
 
     public static final ControllableThreadPool FILE_IO_EXECUTOR;
-    // 语言缓存键值对
-    public final static Map<String, String> LANG_MAP = new java.util.HashMap<>();
     private static final Logger log = LoggerFactory.getLogger(FileUtil.class);
-    private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("(?<!\\\\)\\{(\\d+)}");
     // 项目核心保存目录
     public static String ROOT_PATH = "F:\\McServer\\Plugin\\SpigotCT\\src";
     // 项目核心读取目录列表
@@ -43,22 +45,12 @@ public class FileUtil {
             "F:\\McServer\\Plugin\\SpigotCT\\res",
             ".\\res"
     );
-    // 空文件夹图标
-    public static String EMPTY_FOLDER_ICON;
     // 使用的语言
     public static String LANG_NAME;
     public static File languageJsonFile;
     public static ObjectMapper objectMapper = new ObjectMapper();
-    // 文件图标缓存
-    public static Map<String, String> FILE_ICON_MAP;
-    // 文件夹图标缓存
-    public static Map<String, String> FOLDER_ICON_MAP;
-    // 默认文件图标
-    public static String DEFAULT_FILE_ICON;
-    // 默认文件夹图标
-    public static String[] DEFAULT_FOLDER_ICON = new String[2];
-    // 根文件夹图标
-    public static String ROOT_FOLDER_ICON;
+    // 已发布的资源快照（语言表+文件类型注册表，不可变，整体替换）
+    private static volatile ResourceSnapshot resources;
 
     static {
         FILE_IO_EXECUTOR = new ControllableThreadPool(
@@ -77,91 +69,79 @@ public class FileUtil {
     public static void setLang(String langName) {
         log.info("将语言设置为 - {}", langName);
         LANG_NAME = langName;
-        for (String s : READ_PATH_LIST) {
-            languageJsonFile = new File(s + "/language/" + langName + ".json");
-            if (languageJsonFile.isFile()) {
-                if (languageJsonFile.canRead()) {
-                    log.info("找到了可以读取的语言文件 - {}", languageJsonFile.getPath());
-                    break;
-                } else {
-                    log.warn("找到了语言文件，但是无法读取 - {}", languageJsonFile.getPath());
-                    log.info("继续寻找新的语言文件");
-                }
-            }
-            log.warn("没有找到语言文件 - {}", languageJsonFile.getPath());
-        }
-        if (languageJsonFile == null) log.error("查询结束，未找到语言文件");
+        reloadResources();
     }
 
-    /**
-     * 多语言获取核心方法：索引占位符+可变参数+转义花括号+索引匹配警告
-     *
-     * @param key    语言编码ID（如abc.hello）
-     * @param params 可变长参数，按索引匹配{0}{1}{2}，支持任意数量
-     * @return 解析替换后的文本，异常返回key本身
-     */
-    public static String getLang(String key, String... params) {
-        if (LANG_MAP.containsKey(key)) {
-            return parseTemplate(key, LANG_MAP.get(key), params);
-        }
-
-        if (languageJsonFile == null || !languageJsonFile.exists() || !languageJsonFile.isFile() || !languageJsonFile.canRead()) {
-            log.warn("语言文件损坏/不存在，未知的键 - {}", key);
-            return key;
+    private static File findLanguageFile(String langName) {
+        File file = ResourceIndex.getInstance().resolve("language/" + langName + ".json");
+        if (file == null || !file.isFile()) {
+            log.error("查询结束，未找到语言文件 - {}", langName);
+            return null;
         }
-
-        try {
-            JsonNode rootNode = objectMapper.readTree(languageJsonFile);
-            if (rootNode.has(key) && (rootNode.get(key).isTextual())) {
-                String template = rootNode.get(key).asText(key);
-                LANG_MAP.put(key, template);
-                return parseTemplate(key, template, params);
-            }
-        } catch (IOException e) {
-            log.warn("语言文件解析运行时异常，键 - {}，异常信息 -> ", key, e);
-            return key;
+        if (!file.canRead()) {
+            log.error("找到了语言文件，但是无法读取 - {}", file.getPath());
+            return null;
         }
-
-        log.warn("语言文件中未找到指定键 - {}", key);
-        return key;
+        log.info("找到了可以读取的语言文件 - {}", file.getPath());
+        return file;
     }
 
     /**
-     * 核心模板解析：1.替换占位符 2.校验索引匹配 3.转义花括号还原 4.索引缺失打WARN
-     *
-     * @param key      语言编码ID（用于日志定位）
-     * @param template 原始模板（如：你好{0}，再见{1}；我是\\{0}\\，你好{1}）
-     * @param params   可变参数数组
-     * @return 最终解析后的文本
+     * 重新读取语言文件与图标定义文件，全部构建完成后一次性替换当前快照
+     * 读取方不加锁，只会看到旧快照或新快照，资源热加载时在后台线程调用
      */
-    private static String parseTemplate(String key, String template, String... params) {
-        if (params == null || params.length == 0) {
-            return unescapeBrace(template);
-        }
-
-        String result = template;
-        Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
-
-        while (matcher.find()) {
-            String fullPlaceholder = matcher.group(0);
-            int index = Integer.parseInt(matcher.group(1));
+    public static synchronized ResourceSnapshot reloadResources() {
+        if (LANG_NAME != null) languageJsonFile = findLanguageFile(LANG_NAME);
+        ResourceSnapshot current = resources;
+        ResourceSnapshot snapshot = ResourceSnapshot.load(languageJsonFile, objectMapper.getFactory(),
+                current == null ? 1 : current.version() + 1, current == null ? LangTable.EMPTY : current.langTable());
+        resources = snapshot;
+        IconCache.invalidate();
+        log.info("资源快照已发布 - 版本{}", snapshot.version());
+        return snapshot;
+    }
 
-            if (index < params.length) {
-                String paramValue = params[index] == null ? "" : params[index];
-                result = result.replace(fullPlaceholder, paramValue);
-            } else {
-                log.warn("语言键 - {}，模板占位符索引{}无对应参数，保留原占位符", key, index);
+    /**
+     * 获取当前资源快照（首次调用时加载）
+     */
+    public static ResourceSnapshot getResources() {
+        ResourceSnapshot snapshot = resources;
+        if (snapshot == null) {
+            synchronized (FileUtil.class) {
+                snapshot = resources;
+                if (snapshot == null) snapshot = reloadResources();
             }
         }
+        return snapshot;
+    }
 
-        return unescapeBrace(result);
+    /**
+     * 获取当前语言表（不可变快照，可在任意线程读取）
+     */
+    public static LangTable getLangTable() {
+        return getResources().langTable();
     }
 
     /**
-     * 转义花括号还原：处理\\{ → {，\\} → }，不影响其他正常\转义（若有）
+     * 多语言获取核心方法：索引占位符+可变参数+转义花括号+索引匹配警告
+     * 模板在语言文件加载时已预编译，这里只做一次拼接
+     *
+     * @param key    语言编码ID（如abc.hello）
+     * @param params 可变长参数，按索引匹配{0}{1}{2}，支持任意数量
+     * @return 解析替换后的文本，异常返回key本身
      */
-    private static String unescapeBrace(String text) {
-        return text.replace("\\{", "{").replace("\\}", "}");
+    public static String getLang(String key, String... params) {
+        LangTable table = getLangTable();
+        LangTable.MessageTemplate template = table.get(key);
+        if (template != null) {
+            return template.format(key, params);
+        }
+        if (table == LangTable.EMPTY) {
+            log.warn("语言文件损坏/不存在，未知的键 - {}", key);
+        } else {
+            log.warn("语言文件中未找到指定键 - {}", key);
+        }
+        return key;
     }
 
     /**
@@ -205,25 +185,26 @@ public class FileUtil {
     }
 
     /**
-     * 单层遍历文件夹
+     * 单层遍历文件夹（文件夹在前，经过 {@link DirectoryLister} 的缓存）
      */
     public static List<File> listFilesOnce(File folder) {
-        if (!folder.exists() || !folder.isDirectory()) {
+        DirectoryListing listing;
+        try {
+            listing = DirectoryLister.getInstance().list(folder.toPath());
+        } catch (NoSuchFileException | NotDirectoryException e) {
             log.error("文件夹不存在 - {}", folder.getPath());
             return null;
-        }
-
-        File[] files = folder.listFiles();
-        if (files == null) {
-            log.warn("文件夹为空 - {}", folder.getPath());
+        } catch (IOException e) {
+            log.warn("文件夹无法读取 - {}", folder.getPath());
             return null;
         }
-        List<File> ret = new ArrayList<>();
+        List<File> ret = new ArrayList<>(listing.size());
         int index = 0;
-        for (File file : files) {
-            if (file.isDirectory()) {
+        for (int i = 0; i < listing.size(); i++) {
+            File file = new File(folder, listing.name(i));
+            if (listing.isDirectory(i)) {
                 ret.add(index++, file);
-            } else if (file.isFile()) {
+            } else {
                 ret.add(file);
             }
         }
@@ -231,156 +212,72 @@ public class FileUtil {
         return ret;
     }
 
-    public static void loadFileIcon() {
-        File file = FileUtil.loadFile("define\\file_icon.json");
-        FILE_ICON_MAP = new HashMap<>();
-        FOLDER_ICON_MAP = new HashMap<>();
-        if (file != null) {
-            try (InputStream is = new FileInputStream(file)) {
-                JSONObject jsonObject = JSON.parseObject(is, StandardCharsets.UTF_8, JSONObject.class);
-                if (jsonObject.containsKey("project_folder")) {
-                    ROOT_FOLDER_ICON = jsonObject.getString("project_folder");
-                }
-                if (jsonObject.containsKey("default_file")) {
-                    DEFAULT_FILE_ICON = jsonObject.getString("default_file");
-                }
-                if (jsonObject.containsKey("default_folder")) {
-                    JSONArray jsonArray = jsonObject.getJSONArray("default_folder");
-                    DEFAULT_FOLDER_ICON[0] = jsonArray.getString(0);
-                    DEFAULT_FOLDER_ICON[1] = jsonArray.getString(1);
-                }
-                if (jsonObject.containsKey("define_files")) {
-                    JSONObject files = jsonObject.getJSONObject("define_files");
-                    for (String s : files.keySet()) {
-                        FILE_ICON_MAP.put(s, files.getString(s));
-                    }
-                }
-                if (jsonObject.containsKey("empty_folder")) {
-                    EMPTY_FOLDER_ICON = jsonObject.getString("empty_folder");
-                }
-            } catch (Exception e) {
-                log.error("输入流解析JSON失败 - {} ->", file.getPath(), e);
-            }
-        }
+    /**
+     * 获取文件类型注册表
+     */
+    public static FileTypeRegistry getFileTypeRegistry() {
+        return getResources().fileTypes();
     }
 
     public static List<FileTypeInfo> getFileTypeInfoList() {
-        List<FileTypeInfo> ret = new ArrayList<>();
-        File file = FileUtil.loadFile("define\\file_icon.json");
-        try (InputStream fn = new FileInputStream(languageJsonFile)) {
-            JSONObject fileNameObject = JSON.parseObject(fn, StandardCharsets.UTF_8, JSONObject.class);
-            if (file != null) {
-                try (InputStream is = new FileInputStream(file)) {
-                    JSONObject jsonObject = JSON.parseObject(is, StandardCharsets.UTF_8, JSONObject.class);
-                    if (jsonObject.containsKey("define_files")) {
-                        JSONObject files = jsonObject.getJSONObject("define_files");
-                        JSONObject names = fileNameObject.getJSONObject("popWindow.createrFile.file_names");
-                        for (String s : files.keySet()) {
-                            ret.add(new FileTypeInfo(names.getString(s), files.getString(s), s));
-                        }
-                    }
-                } catch (Exception e) {
-                    log.error("输入流解析JSON失败 - {} ->", file.getPath(), e);
-                }
-            }
-        } catch (IOException e) {
-            log.error("输入流解析JSON失败 - {} ->", languageJsonFile.getPath(), e);
-        }
-        return ret;
+        return getFileTypeRegistry().getFileTypeInfoList();
     }
 
     public record FileTypeInfo(String name, String icon, String matches) {
     }
 
-    public static Image getFileIcon(File file, int width, int height, boolean isRoot, boolean open) {
-        if (FILE_ICON_MAP == null || FOLDER_ICON_MAP == null) loadFileIcon();
-        String key;
-        if (file.isFile()) {
-            key = file.getName();
-            if (FILE_ICON_MAP != null) {
-                for (String s : FILE_ICON_MAP.keySet()) {
-                    if (Pattern.matches(s, key)) {
-                        Image icon = new ImageIcon(Objects.requireNonNull(loadFile(FILE_ICON_MAP.get(s))).getPath()).getImage();
-                        icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                        return icon;
-                    }
-                }
-                Image icon = new ImageIcon(Objects.requireNonNull(loadFile(DEFAULT_FILE_ICON)).getPath()).getImage();
-                icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return icon;
-            } else {
-                log.error("文件图标索引加载失败");
-                Image icon = new ImageIcon(Objects.requireNonNull(Main.class.getResource("/SpigotCT/icon/FailLoad.png"))).getImage();
-                icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return icon;
-            }
+    /**
+     * 获取文件/文件夹在文件树中显示的图标（会读取文件属性，EDT中应使用属性快照版本）
+     */
+    public static Icon getFileIcon(File file, int width, int height, boolean isRoot, boolean open) {
+        boolean directory = !file.isFile();
+        return getFileIcon(file.getName(), directory, directory && isEmptyFolder(file), width, height, isRoot, open);
+    }
+
+    /**
+     * 按属性快照获取文件/文件夹在文件树中显示的图标（不访问文件系统，经过图标缓存，命中时不做任何图片处理）
+     */
+    public static Icon getFileIcon(String name, boolean directory, boolean empty, int width, int height, boolean isRoot, boolean open) {
+        FileTypeRegistry registry = getFileTypeRegistry();
+        if (!directory) {
+            return IconCache.getResourceIcon(registry.getFileIcon(name), width, height);
+        } else if (isRoot) {
+            return IconCache.getResourceIcon(registry.getRootFolderIcon(), width, height);
+        } else if (empty) {
+            return IconCache.getResourceIcon(registry.getEmptyFolderIcon(), width, height);
         } else {
-            key = file.getName();
-            if (FOLDER_ICON_MAP != null) {
-                if (isRoot) {
-                    Image icon = new ImageIcon(Objects.requireNonNull(loadFile(ROOT_FOLDER_ICON)).getPath()).getImage();
-                    icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                    return icon;
-                } else if (FOLDER_ICON_MAP.containsKey(key)) {
-                    Image icon = new ImageIcon(Objects.requireNonNull(loadFile(FOLDER_ICON_MAP.get(key))).getPath()).getImage();
-                    icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                    return icon;
-                } else if (isEmptyFolder(file)) {
-                    Image icon = new ImageIcon(Objects.requireNonNull(loadFile(EMPTY_FOLDER_ICON)).getPath()).getImage();
-                    icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                    return icon;
-                } else {
-                    Image icon;
-                    if (open) {
-                        icon = new ImageIcon(Objects.requireNonNull(loadFile(DEFAULT_FOLDER_ICON[0])).getPath()).getImage();
-                    } else {
-                        icon = new ImageIcon(Objects.requireNonNull(loadFile(DEFAULT_FOLDER_ICON[1])).getPath()).getImage();
-                    }
-                    icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                    return icon;
-                }
-            } else {
-                log.error("文件夹图标索引加载失败");
-                Image icon = new ImageIcon(Objects.requireNonNull(Main.class.getResource("/SpigotCT/icon/FailLoad.png"))).getImage();
-                icon = icon.getScaledInstance(width, height, Image.SCALE_SMOOTH);
-                return icon;
-            }
+            return IconCache.getResourceIcon(registry.getDefaultFolderIcon(open), width, height);
         }
     }
 
     /**
-     * 加载指定的文件
+     * 加载指定的文件（在资源索引中查找，不产生文件系统调用）
      */
     public static File loadFile(String path) {
-        if (!path.startsWith("\\")) path = "\\" + path;
-        for (String s : READ_PATH_LIST) {
-            File file = new File(s + path);
-            if (file.exists() && file.isFile()) {
-                return file;
-            } else if (file.exists() && file.isDirectory()) {
-                return file;
-            }
-        }
-        log.error("加载文件失败 - {}", path);
-        return null;
+        File file = ResourceIndex.getInstance().resolve(path);
+        if (file == null) log.error("加载文件失败 - {}", path);
+        return file;
     }
 
     /**
      * 获取加载中的图标
      */
     public static ImageIcon getLoadingIcon() {
-        Image icon = new ImageIcon(Objects.requireNonNull(Main.class.getResource("/SpigotCT/icon/Loading.png"))).getImage();
-        icon = icon.getScaledInstance(18, 18, Image.SCALE_SMOOTH);
-        return new ImageIcon(icon);
+        return IconCache.getClasspathIcon("/SpigotCT/icon/Loading.png", 18, 18);
     }
 
+    /**
+     * 文件夹是否为空（不存在或不是文件夹视为空，无法读取不视为空），只读取第一个条目
+     */
     public static boolean isEmptyFolder(File folder) {
-        if (folder == null || !folder.exists() || !folder.isDirectory()) return true;
-        File[] files = folder.listFiles();
-        if (files == null) {
+        if (folder == null) return true;
+        try {
+            return DirectoryLister.getInstance().isEmpty(folder.toPath());
+        } catch (NoSuchFileException | NotDirectoryException e) {
+            return true;
+        } catch (IOException e) {
             return false;
         }
-        return files.length == 0;
     }
 
     public static void openFile(File file) throws IOException {
@@ -396,17 +293,60 @@ public class FileUtil {
      * @param callback 统计完成后的回调（结果通过回调返回）
      */
     public static String countAllFilesAsync(File file, CountFileCallback callback) {
+        return countAllFilesAsync(file, null, callback);
+    }
+
+    /**
+     * 异步递归统计文件夹内未被忽略的文件数量，被忽略的文件夹不进入
+     *
+     * @param rules 忽略规则（可为null）
+     */
+    public static String countAllFilesAsync(File file, IgnoreRules rules, CountFileCallback callback) {
         // 空回调防护
         CountFileCallback safeCallback = callback == null ? (count) -> {
         } : callback;
+        return statDirectoryAsync(file, rules, null, stats -> safeCallback.onCountCompleted(
+                stats == null ? -1 : (int) Math.min(Integer.MAX_VALUE, stats.files())));
+    }
+
+    /**
+     * 异步并行统计文件夹：一次遍历得到文件数、文件夹数、总大小和最深路径
+     * 操作在FILE_IO_EXECUTOR线程池中执行，遍历本身由 {@link DirectoryStatsWalker} 拆分到多个线程
+     *
+     * @param file     要统计的文件夹
+     * @param progress 进度回调，统计过程中定时在统计线程中执行（可为null）
+     * @param callback 统计完成后的回调，文件夹无效时结果为null；任务被取消时不回调
+     * @return 任务ID（可通过FILE_IO_EXECUTOR暂停/恢复/取消）
+     */
+    public static String statDirectoryAsync(File file, DirectoryStatsWalker.ProgressListener progress,
+                                            DirectoryStatsCallback callback) {
+        return statDirectoryAsync(file, null, progress, callback);
+    }
 
-        ControllableThreadTask<Void> task = new ControllableThreadTask<>() {
+    /**
+     * 异步并行统计文件夹，跳过被忽略的条目（被忽略的文件夹不进入）
+     *
+     * @param rules 忽略规则（可为null）
+     */
+    public static String statDirectoryAsync(File file, IgnoreRules rules, DirectoryStatsWalker.ProgressListener progress,
+                                            DirectoryStatsCallback callback) {
+        ControllableThreadTask<DirectoryStats> task = new ControllableThreadTask<>() {
             @Override
-            protected Void doWork() {
-                int result = countAllFilesSync(file);
+            protected DirectoryStats doWork() {
+                if (!isCountableFolder(file)) {
+                    if (callback != null) callback.onCompleted(null);
+                    return null;
+                }
+                DirectoryStats stats = DirectoryStatsWalker.walk(file.toPath(), progress, this::isTaskPaused, rules);
+                if (stats.cancelled()) {
+                    log.info("统计文件数量已取消 - {}", file.getPath());
+                    return stats;
+                }
+                log.info("统计文件夹完成 - {}，文件{}个，文件夹{}个，共{}，最深路径 - {}", file.getPath(),
+                        stats.files(), stats.directories(), formatFileSize(stats.bytes()), stats.deepestPath());
                 // 执行回调（如需在Swing UI线程执行回调，可添加SwingUtilities.invokeLater）
-                safeCallback.onCountCompleted(result);
-                return null;
+                if (callback != null) callback.onCompleted(stats);
+                return stats;
             }
         };
 
@@ -424,67 +364,47 @@ public class FileUtil {
      * - -1：file不是文件夹/不存在/无法访问/权限不足等异常情况
      */
     public static int countAllFilesSync(File file) {
-        // 1. 基础校验：文件不存在/不是文件夹 → 返回-1
+        return countAllFilesSync(file, null);
+    }
+
+    /**
+     * 同步统计文件夹内未被忽略的文件数量，被忽略的文件夹不进入
+     *
+     * @param rules 忽略规则（可为null）
+     * @return 同 {@link #countAllFilesSync(File)}
+     */
+    public static int countAllFilesSync(File file, IgnoreRules rules) {
+        if (!isCountableFolder(file)) return -1;
+        DirectoryStats stats = DirectoryStatsWalker.walk(file.toPath(), null, null, rules);
+        return (int) Math.min(Integer.MAX_VALUE, stats.files());
+    }
+
+    private static boolean isCountableFolder(File file) {
+        // 1. 基础校验：文件不存在/不是文件夹
         if (file == null || !file.exists() || !file.isDirectory()) {
             log.warn("统计文件数量失败：文件不存在或不是文件夹 - {}", file == null ? "null" : file.getPath());
-            return -1;
+            return false;
         }
 
-        // 2. 权限校验：无法读取文件夹 → 返回-1
+        // 2. 权限校验：无法读取文件夹
         if (!file.canRead()) {
             log.warn("统计文件数量失败：无读取权限 - {}", file.getPath());
-            return -1;
+            return false;
         }
-
-        // 3. 递归统计核心逻辑
-        return countFilesRecursively(file);
+        return true;
     }
 
     /**
-     * 递归统计指定文件夹下的所有文件数量（修复漏统计、异常处理问题）
-     *
-     * @param folder 目标文件夹
-     * @return 文件夹下所有文件的总数（仅统计文件，不含目录）
+     * 文件夹统计的回调接口（用于异步返回结果）
      */
-    private static int countFilesRecursively(File folder) {
-        // 前置校验：文件夹不存在/不是目录，直接返回0
-        if (folder == null || !folder.exists() || !folder.isDirectory()) {
-            return 0;
-        }
-
-        int totalCount = 0;
-        // 替换listFiles()为更鲁棒的遍历方式，添加文件过滤器
-        File[] files = folder.listFiles(pathname -> {
-            // 跳过符号链接（可选，根据需求调整）
-            return !Files.isSymbolicLink(pathname.toPath());
-        });
-
-        // 处理listFiles返回null的情况（权限不足、文件被占用等）
-        if (files == null) {
-            log.warn("警告：无法访问目录 {}（权限不足/文件被占用）", folder.getAbsolutePath());
-            return 0;
-        }
-
-        for (File f : files) {
-            try {
-                // 确保文件/目录存在（避免遍历过程中文件被删除）
-                if (!f.exists()) {
-                    continue;
-                }
-
-                if (f.isFile()) {
-                    totalCount++;
-                } else if (f.isDirectory()) {
-                    // 递归统计子目录中的文件
-                    totalCount += countFilesRecursively(f);
-                }
-            } catch (SecurityException e) {
-                // 捕获权限异常，避免程序中断，仅打印日志
-                log.warn("警告：无权限访问 {} - {}", f.getAbsolutePath(), e.getMessage());
-            }
-        }
-
-        return totalCount;
+    @FunctionalInterface
+    public interface DirectoryStatsCallback {
+        /**
+         * 统计完成回调
+         *
+         * @param stats 统计结果，文件夹无效时为null
+         */
+        void onCompleted(DirectoryStats stats);
     }
 
     /**
@@ -524,7 +444,7 @@ public class FileUtil {
      * @return 图片Icon
      */
     public static ImageIcon getImageIconToPath(String path, int width, int height) {
-        return new ImageIcon(new ImageIcon(path).getImage().getScaledInstance(width, height, Image.SCALE_SMOOTH));
+        return IconCache.getFileIcon(path, width, height);
     }
 
     /**
@@ -761,13 +681,58 @@ public class FileUtil {
                 log.error("系统不支持此功能，根据设置不执行强制删除");
                 return false;
             }
-        } else if (os.contains("mac") || os.contains("linux")) {
-            return !target.exists();
+        } else if (os.contains("linux")) {
+            try {
+                FreedesktopTrash.getInstance().trash(target.toPath());
+                return true;
+            } catch (IOException e) {
+                log.error("移动到回收站失败 - {} -> ", absolutePath, e);
+                return false;
+            }
+        } else if (os.contains("mac")) {
+            if (Desktop.isDesktopSupported() && Desktop.getDesktop().isSupported(Desktop.Action.MOVE_TO_TRASH)) {
+                return Desktop.getDesktop().moveToTrash(target);
+            }
+            log.error("系统不支持此功能，根据设置不执行强制删除");
+            return false;
         } else {
             throw new IOException("不支持的操作系统：" + os);
         }
     }
 
+    /**
+     * 批量移至回收站（在FILE_IO_EXECUTOR中执行，Linux下每个文件只是一次重命名）
+     *
+     * @param paths      目标文件/文件夹
+     * @param onFinished 完成回调（EDT中执行），参数为失败的路径
+     * @return 任务ID
+     */
+    public static String moveToRecycleBinAsync(Collection<Path> paths, Consumer<List<Path>> onFinished) {
+        List<Path> targets = List.copyOf(paths);
+        ControllableThreadTask<List<Path>> task = new ControllableThreadTask<>() {
+            @Override
+            protected List<Path> doWork() {
+                List<Path> failed;
+                if (System.getProperty("os.name").toLowerCase(Locale.ROOT).contains("linux")) {
+                    failed = FreedesktopTrash.getInstance().trashAll(targets);
+                } else {
+                    failed = new ArrayList<>();
+                    for (Path target : targets) {
+                        try {
+                            if (!moveToRecycleBin(target.toString())) failed.add(target);
+                        } catch (IOException e) {
+                            log.error("移动到回收站失败 - {} -> ", target, e);
+                            failed.add(target);
+                        }
+                    }
+                }
+                if (onFinished != null) EdtBatcher.getInstance().post(() -> onFinished.accept(failed));
+                return failed;
+            }
+        };
+        return FILE_IO_EXECUTOR.submit(task);
+    }
+
     /**
      * 弹出确认框后，将文件/文件夹移至系统回收站
      *
@@ -787,7 +752,18 @@ public class FileUtil {
             throw new IllegalArgumentException("目标文件/文件夹不存在：" + path);
         }
 
-        // 2. 弹出系统风格的确认对话框
+        // 2. 弹出确认对话框，确认后移至回收站
+        return confirmDelete(target, parent) && moveToRecycleBin(path);
+    }
+
+    /**
+     * 弹出删除确认对话框
+     *
+     * @param target 要删除的文件/文件夹
+     * @param parent 对话框的父组件（可为null）
+     * @return 用户是否确认删除
+     */
+    public static boolean confirmDelete(File target, Component parent) {
         String title = FileUtil.getLang("tip.question");
         String message = FileUtil.getLang("tip.delete", target.getName());
         // 弹窗选项：YES=确认，NO=取消，图标为警告型
@@ -798,19 +774,12 @@ public class FileUtil {
                 JOptionPane.YES_NO_OPTION, // 按钮类型：确认/取消
                 JOptionPane.WARNING_MESSAGE // 图标类型：警告
         );
-
-        // 3. 根据用户选择执行操作
-        if (confirmResult == JOptionPane.YES_OPTION) {
-            // 用户点击「确认」→ 调用回收站删除方法
-            return moveToRecycleBin(path);
-        } else {
-            // 用户点击「取消」/ 关闭弹窗 → 返回false，不执行操作
-            return false;
-        }
+        return confirmResult == JOptionPane.YES_OPTION;
     }
 
+
     /**
-     * 复制文件/文件夹（含子内容）到目标路径
+     * 复制文件/文件夹（含子内容）到目标路径，阻塞调用线程（需要进度时使用 CopyWork 异步复制）
      * 复制文件夹时：先创建源文件夹本身，再复制内部内容（如A→B → B/A/内容）
      *
      * @param sourcePath 源路径A（文件/文件夹）
@@ -820,6 +789,15 @@ public class FileUtil {
      * @throws IOException              复制失败/权限不足/文件被占用时抛出
      */
     public static boolean copyFileOrDir(String sourcePath, String destPath) throws IllegalArgumentException, IOException {
+        return copyFileOrDir(sourcePath, destPath, null);
+    }
+
+    /**
+     * 复制文件/文件夹，源文件夹中被忽略的条目不复制（源本身总是复制）
+     *
+     * @param rules 忽略规则（可为null）
+     */
+    public static boolean copyFileOrDir(String sourcePath, String destPath, IgnoreRules rules) throws IllegalArgumentException, IOException {
         // 1. 基础参数校验
         if (sourcePath == null || sourcePath.trim().isEmpty()) {
             throw new IllegalArgumentException("源路径不能为空！");
@@ -835,117 +813,35 @@ public class FileUtil {
             throw new IllegalArgumentException("源文件/文件夹不存在：" + sourcePath);
         }
 
-        // ========== 防无限递归检测 ==========
-        if (Files.isDirectory(source) && Files.isDirectory(dest) && dest.startsWith(source)) {
-            throw new IllegalArgumentException("禁止将文件夹复制到自身的子目录中（会导致无限递归）：" +
-                    "源=" + source + "，目标=" + dest);
-        }
-
-        // 2. 区分文件/文件夹执行复制
-        if (Files.isRegularFile(source)) {
-            // 复制文件（逻辑不变）
-            copySingleFile(source, dest);
-        } else if (Files.isDirectory(source)) {
-            // ========== 关键修复：先拼接源文件夹名称到目标路径 ==========
-            // 最终目标文件夹 = 传入的目标路径 + 源文件夹名称（如 B + A → B/A）
-            Path finalDestDir = dest.resolve(source.getFileName());
-            // 复制文件夹（先创建A文件夹，再复制内部内容）
-            copyDirectory(source, finalDestDir);
-            // 更新dest为最终目标文件夹（用于结果校验）
-            dest = finalDestDir;
+        // 2. 文件夹A复制到B时结果为B/A，文件复制到已存在的文件夹时放入该文件夹
+        Path result;
+        if (Files.isDirectory(source) || Files.isDirectory(dest)) {
+            result = dest.resolve(source.getFileName());
         } else {
-            throw new IOException("不支持的文件类型：" + sourcePath);
+            result = dest;
         }
+        CopyEngine engine = new CopyEngine(source, dest);
+        if (rules != null) engine.setIgnoreRules(rules);
+        engine.run();
 
         // 3. 校验复制结果
-        return Files.exists(dest);
-    }
-
-    /**
-     * 辅助方法：复制单个文件（逻辑不变）
-     */
-    private static void copySingleFile(Path source, Path dest) throws IOException {
-        if (Files.isDirectory(dest)) {
-            dest = dest.resolve(source.getFileName());
-        }
-
-        Path parentDir = dest.getParent();
-        if (parentDir != null && !Files.exists(parentDir)) {
-            Files.createDirectories(parentDir);
-        }
-
-        Files.copy(
-                source,
-                dest,
-                StandardCopyOption.REPLACE_EXISTING,
-                StandardCopyOption.COPY_ATTRIBUTES
-        );
+        return Files.exists(result);
     }
 
     /**
-     * 辅助方法：复制文件夹（先创建文件夹本身，再复制内部内容）
+     * 重命名/移动文件（夹）：同一磁盘内直接重命名，跨磁盘时复制校验后删除原文件
+     *
+     * @param newFile 新路径
+     * @param oldFile 原路径
+     * @return 移动结果（包含实际采用的方式），失败时返回null
      */
-    private static void copyDirectory(Path sourceDir, Path destDir) throws IOException {
-        // 1. 先创建源文件夹本身（核心：确保目标路径下有同名文件夹）
-        if (!Files.exists(destDir)) {
-            Files.createDirectories(destDir);
-        }
-
-        // 2. 遍历源文件夹内部内容，复制到目标文件夹
-        Files.walkFileTree(sourceDir, new SimpleFileVisitor<>() {
-            @Override
-            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
-                // 跳过源文件夹本身（只处理子目录）
-                if (Objects.equals(dir.normalize(), sourceDir.normalize())) {
-                    return FileVisitResult.CONTINUE;
-                }
-
-                // 跳过目标文件夹（防循环）
-                if (Objects.equals(dir.normalize(), destDir.normalize())) {
-                    return FileVisitResult.SKIP_SUBTREE;
-                }
-
-                // 构建子目录路径（如 sourceDir/sub → destDir/sub）
-                Path targetSubDir = destDir.resolve(sourceDir.relativize(dir));
-                if (!Files.exists(targetSubDir)) {
-                    Files.createDirectories(targetSubDir);
-                }
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
-                // 复制文件到目标文件夹对应位置（如 sourceDir/file.txt → destDir/file.txt）
-                Path targetFile = destDir.resolve(sourceDir.relativize(file));
-                if (!Files.exists(targetFile.getParent())) {
-                    Files.createDirectories(targetFile.getParent());
-                }
-                Files.copy(
-                        file,
-                        targetFile,
-                        StandardCopyOption.REPLACE_EXISTING,
-                        StandardCopyOption.COPY_ATTRIBUTES
-                );
-                return FileVisitResult.CONTINUE;
-            }
-
-            @Override
-            public FileVisitResult visitFileFailed(Path file, IOException exc) {
-                System.err.println("跳过无法访问的文件：" + file + "，原因：" + exc.getMessage());
-                return FileVisitResult.CONTINUE;
-            }
-        });
-    }
-
-    public static boolean renameFile(Path newFile, Path oldFile) {
+    public static MoveResult renameFile(Path newFile, Path oldFile) {
         try {
-            boolean ret = FileUtil.copyFileOrDir(oldFile.toString(), newFile.toString());
-            Files.move(oldFile, newFile, StandardCopyOption.REPLACE_EXISTING);
-            return ret && newFile.toFile().exists();
-        } catch (IOException e) {
+            return FileMover.move(oldFile, newFile);
+        } catch (IOException | IllegalArgumentException e) {
             log.error("重命名文件时发生错误 - {} >> {} -> ", oldFile, newFile, e);
         }
-        return false;
+        return null;
     }
 
 }
\ No newline at end of file
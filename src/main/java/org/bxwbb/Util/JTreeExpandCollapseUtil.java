@@ -1,140 +1,151 @@
 package org.bxwbb.Util;
 
+import org.bxwbb.Util.FileTree.FileTreeView;
+
 import javax.swing.*;
-import javax.swing.tree.DefaultMutableTreeNode;
+import javax.swing.tree.TreeNode;
 import javax.swing.tree.TreePath;
-import java.util.concurrent.ExecutionException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
 
 /**
- * JTree 节点展开/折叠工具类（异步版本，适配大文件树）
+ * JTree 节点展开/折叠工具类（配合 {@link FileTreeView} 批量执行，适配大文件树）
  */
 public class JTreeExpandCollapseUtil {
 
     /**
-     * 【异步】递归展开指定节点的所有子节点（适合大文件树，避免UI卡顿）
+     * 【异步】展开指定节点的所有子节点（排到EDT中批量执行，适合大文件树）
      *
      * @param tree       目标JTree
      * @param targetNode 要展开的根节点
      * @param callback   展开完成后的回调（可选，比如提示用户）
      */
-    public static void expandAllChildNodesAsync(JTree tree, DefaultMutableTreeNode targetNode, Runnable callback) {
+    public static void expandAllChildNodesAsync(JTree tree, TreeNode targetNode, Runnable callback) {
         if (tree == null || targetNode == null) {
             if (callback != null) callback.run();
             return;
         }
-
-        SwingWorker<Void, Void> expandWorker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() {
-                expandAllChildNodes(tree, targetNode);
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    get();
-                    if (callback != null) {
-                        callback.run();
-                    }
-                } catch (InterruptedException | ExecutionException e) {
-                    JOptionPane.showMessageDialog(tree.getTopLevelAncestor(),
-                            "展开节点失败：" + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        };
-
-        expandWorker.execute();
+        SwingUtilities.invokeLater(() -> {
+            expandAllChildNodes(tree, targetNode);
+            if (callback != null) callback.run();
+        });
     }
 
     /**
-     * 【异步】递归折叠指定节点的所有子节点（适合大文件树）
+     * 【异步】折叠指定节点的所有子节点（排到EDT中批量执行，适合大文件树）
      *
      * @param tree         目标JTree
      * @param targetNode   要折叠的根节点
      * @param collapseSelf 是否折叠节点本身
      * @param callback     折叠完成后的回调（可选）
      */
-    public static void collapseAllChildNodesAsync(JTree tree, DefaultMutableTreeNode targetNode,
+    public static void collapseAllChildNodesAsync(JTree tree, TreeNode targetNode,
                                                   boolean collapseSelf, Runnable callback) {
         if (tree == null || targetNode == null) {
             if (callback != null) callback.run();
             return;
         }
-
-        SwingWorker<Void, Void> collapseWorker = new SwingWorker<>() {
-            @Override
-            protected Void doInBackground() {
-                collapseAllChildNodes(tree, targetNode, collapseSelf);
-                return null;
-            }
-
-            @Override
-            protected void done() {
-                try {
-                    get();
-                    if (callback != null) {
-                        callback.run();
-                    }
-                } catch (InterruptedException | ExecutionException e) {
-                    JOptionPane.showMessageDialog(tree.getTopLevelAncestor(),
-                            "折叠节点失败：" + e.getMessage(), "错误", JOptionPane.ERROR_MESSAGE);
-                }
-            }
-        };
-
-        collapseWorker.execute();
+        SwingUtilities.invokeLater(() -> {
+            collapseAllChildNodes(tree, targetNode, collapseSelf);
+            if (callback != null) callback.run();
+        });
     }
 
-    public static void collapseAllChildNodesAsync(JTree tree, DefaultMutableTreeNode targetNode) {
+    public static void collapseAllChildNodesAsync(JTree tree, TreeNode targetNode) {
         collapseAllChildNodesAsync(tree, targetNode, true, null);
     }
 
-    public static void expandAllChildNodesAsync(JTree tree, DefaultMutableTreeNode targetNode) {
+    public static void expandAllChildNodesAsync(JTree tree, TreeNode targetNode) {
         expandAllChildNodesAsync(tree, targetNode, null);
     }
 
     /**
-     * 同步递归展开（供后台线程调用，不要直接在UI线程调用大节点）
+     * 展开节点下的全部非叶子节点（EDT中调用，文件树只展开已加载的文件夹）
+     * {@link FileTreeView} 一次完成，普通 JTree 按显示顺序逐个展开
+     */
+    public static void expandAllChildNodes(JTree tree, TreeNode targetNode) {
+        if (tree instanceof FileTreeView fileTree) {
+            fileTree.expandSubtree(pathOf(targetNode));
+            return;
+        }
+        Deque<TreeNode> stack = new ArrayDeque<>();
+        stack.push(targetNode);
+        while (!stack.isEmpty()) {
+            TreeNode node = stack.pop();
+            tree.expandPath(pathOf(node));
+            for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                TreeNode child = node.getChildAt(i);
+                if (!child.isLeaf()) stack.push(child);
+            }
+        }
+    }
+
+    /**
+     * 折叠节点下的全部子节点（EDT中调用）
+     * {@link FileTreeView} 一次完成，普通 JTree 从最深处开始逐个折叠
      */
-    private static void expandAllChildNodes(JTree tree, DefaultMutableTreeNode targetNode) {
-        SwingUtilities.invokeLater(() -> tree.expandPath(new TreePath(targetNode.getPath())));
+    public static void collapseAllChildNodes(JTree tree, TreeNode targetNode, boolean collapseSelf) {
+        if (tree instanceof FileTreeView fileTree) {
+            fileTree.collapseSubtree(pathOf(targetNode), collapseSelf);
+            return;
+        }
+        collapseRecursive(tree, targetNode, collapseSelf);
+    }
 
+    private static void collapseRecursive(JTree tree, TreeNode targetNode, boolean collapseSelf) {
         for (int i = 0; i < targetNode.getChildCount(); i++) {
-            DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) targetNode.getChildAt(i);
-            expandAllChildNodes(tree, childNode);
+            collapseRecursive(tree, targetNode.getChildAt(i), true);
+        }
+        if (collapseSelf) {
+            tree.collapsePath(pathOf(targetNode));
         }
     }
 
     /**
-     * 同步递归折叠（供后台线程调用）
+     * 一次展开起始节点和一组后代路径（EDT中调用）
+     * {@link FileTreeView} 只发一次展开事件，普通 JTree 逐个展开（父路径需排在子路径之前）
+     *
+     * @param anchor 起始节点
+     * @param paths  要展开的后代路径
      */
-    private static void collapseAllChildNodes(JTree tree, DefaultMutableTreeNode targetNode, boolean collapseSelf) {
-        for (int i = 0; i < targetNode.getChildCount(); i++) {
-            DefaultMutableTreeNode childNode = (DefaultMutableTreeNode) targetNode.getChildAt(i);
-            collapseAllChildNodes(tree, childNode, true);
+    public static void expandPaths(JTree tree, TreePath anchor, List<TreePath> paths) {
+        if (tree instanceof FileTreeView fileTree) {
+            fileTree.expandPaths(anchor, paths);
+            return;
+        }
+        tree.expandPath(anchor);
+        for (TreePath path : paths) {
+            tree.expandPath(path);
         }
+    }
 
-        if (collapseSelf) {
-            SwingUtilities.invokeLater(() -> tree.collapsePath(new TreePath(targetNode.getPath())));
+    /**
+     * 从根节点到指定节点的路径（TreeNode 没有 getPath，沿父节点向上拼接）
+     */
+    public static TreePath pathOf(TreeNode node) {
+        Deque<TreeNode> nodes = new ArrayDeque<>();
+        for (TreeNode current = node; current != null; current = current.getParent()) {
+            nodes.addFirst(current);
         }
+        return new TreePath(nodes.toArray());
     }
 
-    public static DefaultMutableTreeNode findNodeByName(JTree tree, String nodeName) {
+    public static TreeNode findNodeByName(JTree tree, String nodeName) {
         if (tree == null || nodeName == null || nodeName.isEmpty()) {
             return null;
         }
-        DefaultMutableTreeNode root = (DefaultMutableTreeNode) tree.getModel().getRoot();
+        TreeNode root = (TreeNode) tree.getModel().getRoot();
         return findNodeRecursive(root, nodeName);
     }
 
-    private static DefaultMutableTreeNode findNodeRecursive(DefaultMutableTreeNode parent, String nodeName) {
+    private static TreeNode findNodeRecursive(TreeNode parent, String nodeName) {
         if (parent.toString().equals(nodeName)) {
             return parent;
         }
         for (int i = 0; i < parent.getChildCount(); i++) {
-            DefaultMutableTreeNode child = (DefaultMutableTreeNode) parent.getChildAt(i);
-            DefaultMutableTreeNode found = findNodeRecursive(child, nodeName);
+            TreeNode child = parent.getChildAt(i);
+            TreeNode found = findNodeRecursive(child, nodeName);
             if (found != null) {
                 return found;
             }
@@ -0,0 +1,223 @@
+package org.bxwbb.Util.Resource;
+
+import com.alibaba.fastjson2.JSON;
+import com.alibaba.fastjson2.JSONArray;
+import com.alibaba.fastjson2.JSONObject;
+import org.bxwbb.Util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * 文件类型注册表：一次性读取 file_icon.json 与语言表中的类型名称，生成不可变快照
+ * 1. 形如 .*\.ext 的简单规则放入后缀哈希表，O(1) 查找
+ * 2. 只有真正复杂的正则才预编译为 Pattern 逐个匹配
+ * 3. 匹配结果与原先按定义顺序逐个 Pattern.matches 的结果一致（先定义的规则优先）
+ * 文件树渲染、新建/重命名弹窗、FileSuffixAdaptiveTool 共用同一份快照（由 {@link ResourceSnapshot} 持有）
+ */
+public final class FileTypeRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(FileTypeRegistry.class);
+    // 图标定义文件
+    public static final String DEFINE_FILE = "define\\file_icon.json";
+    // 语言文件中文件类型名称所在的键
+    public static final String FILE_NAMES_KEY = "popWindow.createrFile.file_names";
+    // 简单后缀规则：.*\.ext
+    private static final Pattern SIMPLE_SUFFIX_RULE = Pattern.compile("^\\.\\*\\\\\\.([\\w-]+)$");
+
+    private final String rootFolderIcon;
+    private final String defaultFileIcon;
+    private final String[] defaultFolderIcon;
+    private final String emptyFolderIcon;
+    // 全部文件类型（按定义顺序）
+    private final List<FileType> fileTypes;
+    // 后缀 -> 文件类型（同一后缀只保留最先定义的规则）
+    private final Map<String, FileType> extensionMap;
+    // 复杂规则（按定义顺序）
+    private final List<FileType> complexTypes;
+    // 规则字符串 -> 文件类型
+    private final Map<String, FileType> ruleMap;
+    // 供弹窗使用的类型信息列表
+    private final List<FileUtil.FileTypeInfo> fileTypeInfoList;
+
+    private FileTypeRegistry(String rootFolderIcon, String defaultFileIcon, String[] defaultFolderIcon,
+                             String emptyFolderIcon, List<FileType> fileTypes) {
+        this.rootFolderIcon = rootFolderIcon;
+        this.defaultFileIcon = defaultFileIcon;
+        this.defaultFolderIcon = defaultFolderIcon;
+        this.emptyFolderIcon = emptyFolderIcon;
+        this.fileTypes = List.copyOf(fileTypes);
+
+        Map<String, FileType> extensions = new HashMap<>();
+        Map<String, FileType> rules = new HashMap<>();
+        List<FileType> complex = new ArrayList<>();
+        List<FileUtil.FileTypeInfo> infoList = new ArrayList<>();
+        for (FileType type : this.fileTypes) {
+            if (type.extension() != null) {
+                extensions.putIfAbsent(type.extension(), type);
+            } else if (type.pattern() != null) {
+                complex.add(type);
+            }
+            rules.putIfAbsent(type.matches(), type);
+            infoList.add(new FileUtil.FileTypeInfo(type.name(), type.icon(), type.matches()));
+        }
+        this.extensionMap = Map.copyOf(extensions);
+        this.ruleMap = Map.copyOf(rules);
+        this.complexTypes = List.copyOf(complex);
+        this.fileTypeInfoList = List.copyOf(infoList);
+    }
+
+    /**
+     * 读取定义文件并生成新的注册表
+     *
+     * @param langTable 提供文件类型名称的语言表
+     */
+    public static FileTypeRegistry load(LangTable langTable) {
+        String rootFolderIcon = null;
+        String defaultFileIcon = null;
+        String[] defaultFolderIcon = new String[2];
+        String emptyFolderIcon = null;
+        List<FileType> types = new ArrayList<>();
+
+        Map<String, String> names = readFileNames(langTable);
+        File file = FileUtil.loadFile(DEFINE_FILE);
+        if (file != null) {
+            try (InputStream is = new FileInputStream(file)) {
+                JSONObject jsonObject = JSON.parseObject(is, StandardCharsets.UTF_8, JSONObject.class);
+                rootFolderIcon = jsonObject.getString("project_folder");
+                defaultFileIcon = jsonObject.getString("default_file");
+                emptyFolderIcon = jsonObject.getString("empty_folder");
+                JSONArray folders = jsonObject.getJSONArray("default_folder");
+                if (folders != null && folders.size() >= 2) {
+                    defaultFolderIcon[0] = folders.getString(0);
+                    defaultFolderIcon[1] = folders.getString(1);
+                }
+                JSONObject files = jsonObject.getJSONObject("define_files");
+                if (files != null) {
+                    for (String rule : files.keySet()) {
+                        FileType type = compile(types.size(), rule, files.getString(rule),
+                                names == null ? null : names.get(rule));
+                        if (type != null) types.add(type);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("输入流解析JSON失败 - {} ->", file.getPath(), e);
+            }
+        }
+
+        FileTypeRegistry registry = new FileTypeRegistry(rootFolderIcon, defaultFileIcon, defaultFolderIcon, emptyFolderIcon, types);
+        log.info("文件类型注册表加载完成，共{}条规则（后缀规则{}条，复杂规则{}条）",
+                registry.fileTypes.size(), registry.extensionMap.size(), registry.complexTypes.size());
+        return registry;
+    }
+
+    private static Map<String, String> readFileNames(LangTable langTable) {
+        Map<String, String> names = langTable.getSection(FILE_NAMES_KEY);
+        if (names == null) {
+            log.warn("语言文件中没有文件类型名称，将使用后缀代替");
+        }
+        return names;
+    }
+
+    private static FileType compile(int index, String rule, String icon, String name) {
+        Matcher matcher = SIMPLE_SUFFIX_RULE.matcher(rule);
+        if (matcher.matches()) {
+            String extension = matcher.group(1);
+            return new FileType(index, rule, icon, name == null ? "." + extension : name, extension, "." + extension, null);
+        }
+        try {
+            return new FileType(index, rule, icon, name == null ? rule : name, null, null, Pattern.compile(rule));
+        } catch (PatternSyntaxException e) {
+            log.error("文件类型规则不是合法的正则，已忽略 - {} -> ", rule, e);
+            return null;
+        }
+    }
+
+    /**
+     * 根据文件名匹配文件类型
+     *
+     * @return 匹配到的文件类型，未匹配返回null
+     */
+    public FileType match(String fileName) {
+        if (fileName == null) return null;
+        FileType candidate = null;
+        int dot = fileName.lastIndexOf('.');
+        if (dot >= 0) {
+            candidate = extensionMap.get(fileName.substring(dot + 1));
+        }
+        // 只需检查定义顺序在候选规则之前的复杂规则
+        for (FileType type : complexTypes) {
+            if (candidate != null && type.index() > candidate.index()) break;
+            if (type.pattern().matcher(fileName).matches()) return type;
+        }
+        return candidate;
+    }
+
+    /**
+     * 获取文件对应的图标资源（未匹配时返回默认文件图标）
+     */
+    public String getFileIcon(String fileName) {
+        FileType type = match(fileName);
+        return type == null ? defaultFileIcon : type.icon();
+    }
+
+    /**
+     * 获取规则对应的目标后缀（仅简单后缀规则有值，如 .*\.java → .java）
+     */
+    public String getSuffix(String rule) {
+        FileType type = ruleMap.get(rule);
+        return type == null ? null : type.suffix();
+    }
+
+    public List<FileType> getFileTypes() {
+        return fileTypes;
+    }
+
+    public List<FileUtil.FileTypeInfo> getFileTypeInfoList() {
+        return fileTypeInfoList;
+    }
+
+    public String getRootFolderIcon() {
+        return rootFolderIcon;
+    }
+
+    public String getDefaultFileIcon() {
+        return defaultFileIcon;
+    }
+
+    /**
+     * 默认文件夹图标
+     *
+     * @param open true=展开状态图标，false=折叠状态图标
+     */
+    public String getDefaultFolderIcon(boolean open) {
+        return defaultFolderIcon[open ? 0 : 1];
+    }
+
+    public String getEmptyFolderIcon() {
+        return emptyFolderIcon;
+    }
+
+    /**
+     * 文件类型定义
+     *
+     * @param index     定义顺序
+     * @param matches   原始规则
+     * @param icon      图标资源
+     * @param name      显示名称
+     * @param extension 简单后缀规则的后缀（不含点），复杂规则为null
+     * @param suffix    简单后缀规则的目标后缀（含点），复杂规则为null
+     * @param pattern   复杂规则预编译的正则，简单后缀规则为null
+     */
+    public record FileType(int index, String matches, String icon, String name, String extension, String suffix,
+                           Pattern pattern) {
+    }
+}
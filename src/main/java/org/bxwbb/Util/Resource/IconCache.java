@@ -0,0 +1,189 @@
+package org.bxwbb.Util.Resource;
+
+import org.bxwbb.Main;
+import org.bxwbb.Util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 图标缓存：按 (图标资源, 宽, 高, 屏幕缩放倍率) 缓存已经栅格化好的共享图标
+ * 1. 命中缓存时不做任何路径探测、解码和缩放
+ * 2. 有界LRU淘汰，避免长时间运行后无限增长
+ * 3. file_icon.json 重新加载时调用 {@link #invalidate()} 整体失效
+ */
+public final class IconCache {
+
+    private static final Logger log = LoggerFactory.getLogger(IconCache.class);
+    // 最大缓存条目数
+    private static final int MAX_ENTRIES = 256;
+    // 加载失败时使用的图标
+    private static final String FAIL_LOAD_ICON = "/SpigotCT/icon/FailLoad.png";
+
+    // 资源来源前缀（区分读取目录/类路径/绝对路径）
+    private static final String SOURCE_RESOURCE = "res:";
+    private static final String SOURCE_CLASSPATH = "cp:";
+    private static final String SOURCE_FILE = "file:";
+
+    // 屏幕缩放倍率（首次使用时获取，缓存失效时重新获取）
+    private static volatile double screenScale = -1;
+
+    private static final Map<Key, ImageIcon> CACHE = new LinkedHashMap<>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, ImageIcon> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    private IconCache() {
+        throw new AssertionError("工具类禁止实例化");
+    }
+
+    /**
+     * 获取读取目录（READ_PATH_LIST）中的图标，如 icon\files\png.png
+     */
+    public static ImageIcon getResourceIcon(String resource, int width, int height) {
+        return get(SOURCE_RESOURCE + resource, width, height);
+    }
+
+    /**
+     * 获取类路径中的图标，如 /SpigotCT/icon/Loading.png（读取目录中的同名文件优先）
+     */
+    public static ImageIcon getClasspathIcon(String resource, int width, int height) {
+        return get(SOURCE_CLASSPATH + resource, width, height);
+    }
+
+    /**
+     * 获取绝对路径对应的图标
+     */
+    public static ImageIcon getFileIcon(String path, int width, int height) {
+        return get(SOURCE_FILE + path, width, height);
+    }
+
+    /**
+     * 清空全部缓存（图标定义重新加载后调用）
+     */
+    public static void invalidate() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+        screenScale = -1;
+        log.info("图标缓存已清空");
+    }
+
+    public static int size() {
+        synchronized (CACHE) {
+            return CACHE.size();
+        }
+    }
+
+    private static ImageIcon get(String source, int width, int height) {
+        Key key = new Key(source, width, height, currentScale());
+        synchronized (CACHE) {
+            ImageIcon icon = CACHE.get(key);
+            if (icon != null) return icon;
+        }
+        // 解码放在锁外，避免阻塞其他线程的缓存命中
+        ImageIcon icon = load(key);
+        synchronized (CACHE) {
+            ImageIcon exist = CACHE.putIfAbsent(key, icon);
+            return exist == null ? icon : exist;
+        }
+    }
+
+    private static ImageIcon load(Key key) {
+        BufferedImage source = null;
+        try {
+            source = read(key.source());
+        } catch (IOException e) {
+            log.error("读取图标失败 - {} -> ", key.source(), e);
+        }
+        if (source == null) {
+            log.error("加载图标失败，使用默认图标代替 - {}", key.source());
+            try {
+                source = ImageIO.read(Main.class.getResource(FAIL_LOAD_ICON));
+            } catch (IOException | IllegalArgumentException e) {
+                log.error("加载默认图标失败 -> ", e);
+            }
+            if (source == null) {
+                source = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+            }
+        }
+        return new ImageIcon(rasterize(source, key.width(), key.height(), key.scale()));
+    }
+
+    private static BufferedImage read(String source) throws IOException {
+        if (source.startsWith(SOURCE_RESOURCE)) {
+            File file = FileUtil.loadFile(source.substring(SOURCE_RESOURCE.length()));
+            return file == null ? null : ImageIO.read(file);
+        } else if (source.startsWith(SOURCE_CLASSPATH)) {
+            URL url = ResourceIndex.getInstance().resolveUrl(source.substring(SOURCE_CLASSPATH.length()));
+            return url == null ? null : ImageIO.read(url);
+        } else if (source.startsWith(SOURCE_FILE)) {
+            File file = new File(source.substring(SOURCE_FILE.length()));
+            return file.isFile() ? ImageIO.read(file) : null;
+        }
+        return null;
+    }
+
+    /**
+     * 预先缩放并绘制到独立的位图中，高分屏下额外生成对应倍率的版本
+     */
+    private static Image rasterize(BufferedImage source, int width, int height, double scale) {
+        BufferedImage base = scale(source, width, height);
+        if (scale <= 1.0) {
+            return base;
+        }
+        BufferedImage hiDpi = scale(source, (int) Math.ceil(width * scale), (int) Math.ceil(height * scale));
+        return new BaseMultiResolutionImage(base, hiDpi);
+    }
+
+    private static BufferedImage scale(BufferedImage source, int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        // ImageIcon 内部通过MediaTracker等待缩放完成，保证绘制时图像已经就绪
+        Image scaled = new ImageIcon(source.getScaledInstance(width, height, Image.SCALE_SMOOTH)).getImage();
+        BufferedImage result = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = result.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
+        g2d.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        g2d.drawImage(scaled, 0, 0, width, height, null);
+        g2d.dispose();
+        return result;
+    }
+
+    /**
+     * 获取主屏幕的缩放倍率（无图形环境时为1）
+     */
+    static double currentScale() {
+        double current = screenScale;
+        if (current > 0) return current;
+        current = 1.0;
+        if (!GraphicsEnvironment.isHeadless()) {
+            try {
+                current = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                        .getDefaultScreenDevice()
+                        .getDefaultConfiguration()
+                        .getDefaultTransform()
+                        .getScaleX();
+            } catch (Exception e) {
+                log.warn("获取屏幕缩放倍率失败，按1倍处理 -> ", e);
+            }
+        }
+        screenScale = current;
+        return current;
+    }
+
+    private record Key(String source, int width, int height, double scale) {
+    }
+}
@@ -0,0 +1,206 @@
+package org.bxwbb.Util.Resource;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 不可变语言表：启动时以流式方式一次性读取语言文件
+ * 每条文本预先编译为「字面量 + 占位符」片段，格式化时只需一次StringBuilder拼接，不使用正则
+ * 实例创建后不再修改，可在任意线程中并发读取
+ */
+public final class LangTable {
+
+    private static final Logger log = LoggerFactory.getLogger(LangTable.class);
+    public static final LangTable EMPTY = new LangTable(null, Map.of(), Map.of());
+
+    // 语言文件（可能为null）
+    private final File file;
+    // 键 -> 预编译模板
+    private final Map<String, MessageTemplate> messages;
+    // 键 -> 嵌套对象（如文件类型名称表）
+    private final Map<String, Map<String, String>> sections;
+
+    private LangTable(File file, Map<String, MessageTemplate> messages, Map<String, Map<String, String>> sections) {
+        this.file = file;
+        this.messages = messages;
+        this.sections = sections;
+    }
+
+    /**
+     * 流式读取语言文件并编译全部文本
+     *
+     * @param file    语言文件
+     * @param factory Jackson的JsonFactory
+     * @return 语言表
+     * @throws IOException 读取/解析失败时抛出
+     */
+    public static LangTable load(File file, JsonFactory factory) throws IOException {
+        Map<String, MessageTemplate> messages = new HashMap<>();
+        Map<String, Map<String, String>> sections = new HashMap<>();
+        try (JsonParser parser = factory.createParser(file)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("语言文件的根节点不是对象 - " + file.getPath());
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String key = parser.currentName();
+                JsonToken token = parser.nextToken();
+                if (token == JsonToken.VALUE_STRING) {
+                    messages.put(key, MessageTemplate.compile(parser.getText()));
+                } else if (token == JsonToken.START_OBJECT) {
+                    sections.put(key, readSection(parser));
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        // 注释用的空键不需要保留
+        messages.remove("");
+        log.info("语言文件加载完成 - {}，共{}条文本", file.getPath(), messages.size());
+        return new LangTable(file, Map.copyOf(messages), Map.copyOf(sections));
+    }
+
+    private static Map<String, String> readSection(JsonParser parser) throws IOException {
+        Map<String, String> section = new LinkedHashMap<>();
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String key = parser.currentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                section.put(key, parser.getText());
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return Collections.unmodifiableMap(section);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 获取预编译模板
+     *
+     * @return 模板，键不存在时返回null
+     */
+    public MessageTemplate get(String key) {
+        return messages.get(key);
+    }
+
+    /**
+     * 获取嵌套对象（保持文件中的定义顺序）
+     *
+     * @return 嵌套对象，键不存在时返回null
+     */
+    public Map<String, String> getSection(String key) {
+        return sections.get(key);
+    }
+
+    public int size() {
+        return messages.size();
+    }
+
+    /**
+     * 预编译的文本模板
+     * 字面量与占位符交替排列：literals[0] {indexes[0]} literals[1] {indexes[1]} ... literals[n]
+     * 转义的花括号（\{ \}）在编译时已经还原
+     */
+    public static final class MessageTemplate {
+
+        private final String[] literals;
+        private final int[] indexes;
+        private final int literalLength;
+
+        private MessageTemplate(String[] literals, int[] indexes) {
+            this.literals = literals;
+            this.indexes = indexes;
+            int length = 0;
+            for (String literal : literals) {
+                length += literal.length();
+            }
+            this.literalLength = length;
+        }
+
+        /**
+         * 编译模板：{数字} 为占位符，\{ 与 \} 为转义的花括号
+         */
+        public static MessageTemplate compile(String template) {
+            List<String> literals = new ArrayList<>();
+            List<Integer> indexes = new ArrayList<>();
+            StringBuilder literal = new StringBuilder(template.length());
+            int length = template.length();
+            int i = 0;
+            while (i < length) {
+                char c = template.charAt(i);
+                if (c == '\\' && i + 1 < length && (template.charAt(i + 1) == '{' || template.charAt(i + 1) == '}')) {
+                    literal.append(template.charAt(i + 1));
+                    i += 2;
+                    continue;
+                }
+                if (c == '{') {
+                    int end = i + 1;
+                    while (end < length && Character.isDigit(template.charAt(end))) end++;
+                    if (end > i + 1 && end < length && template.charAt(end) == '}') {
+                        literals.add(literal.toString());
+                        literal.setLength(0);
+                        indexes.add(Integer.parseInt(template, i + 1, end, 10));
+                        i = end + 1;
+                        continue;
+                    }
+                }
+                literal.append(c);
+                i++;
+            }
+            literals.add(literal.toString());
+            int[] indexArray = new int[indexes.size()];
+            for (int j = 0; j < indexArray.length; j++) {
+                indexArray[j] = indexes.get(j);
+            }
+            return new MessageTemplate(literals.toArray(new String[0]), indexArray);
+        }
+
+        /**
+         * 格式化文本
+         *
+         * @param key    语言编码ID（用于日志定位）
+         * @param params 参数，按索引替换{0}{1}{2}；缺少的参数保留原占位符
+         * @return 格式化后的文本
+         */
+        public String format(String key, String... params) {
+            if (indexes.length == 0) {
+                return literals[0];
+            }
+            int paramCount = params == null ? 0 : params.length;
+            StringBuilder sb = new StringBuilder(literalLength + indexes.length * 8);
+            sb.append(literals[0]);
+            for (int i = 0; i < indexes.length; i++) {
+                int index = indexes[i];
+                if (index < paramCount) {
+                    String param = params[index];
+                    if (param != null) sb.append(param);
+                } else {
+                    if (paramCount > 0) {
+                        log.warn("语言键 - {}，模板占位符索引{}无对应参数，保留原占位符", key, index);
+                    }
+                    sb.append('{').append(index).append('}');
+                }
+                sb.append(literals[i + 1]);
+            }
+            return sb.toString();
+        }
+
+        public int getPlaceholderCount() {
+            return indexes.length;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package org.bxwbb.Util.Resource;
+
+import org.bxwbb.Main;
+import org.bxwbb.Util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.CodeSource;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * 资源索引：把 READ_PATH_LIST 中的全部读取目录与类路径（或打包后的jar）叠加成一个虚拟文件系统
+ * 1. 启动时遍历一次，之后的查找只是一次哈希表读取，不产生任何文件系统调用
+ * 2. 同一路径在多个来源中存在时，按 READ_PATH_LIST 的顺序先到先得，类路径优先级最低
+ * 3. 索引是完整的，查不到即表示不存在（天然的否定缓存）
+ * 4. 目录变化时由 {@link ResourceReloadService} 调用 {@link #refresh(Path)} 增量更新
+ * 路径分隔符统一为 /，Windows下不区分大小写
+ */
+public final class ResourceIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceIndex.class);
+    private static final boolean IGNORE_CASE = File.separatorChar == '\\';
+
+    private static volatile ResourceIndex INSTANCE;
+
+    // 构建索引时使用的读取目录列表（READ_PATH_LIST被替换时重新构建）
+    private final List<String> source;
+    // 读取目录（按优先级排列）
+    private final List<Path> roots;
+    // 路径 -> 读取目录中的文件/文件夹
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    // 类路径中的资源（无法遍历类路径时为null，此时退回Class.getResource）
+    private final Set<String> classpathEntries;
+
+    private ResourceIndex(List<String> source) {
+        this.source = source;
+        List<Path> rootList = new ArrayList<>();
+        for (String s : source) {
+            Path root = Paths.get(s.replace('\\', '/')).toAbsolutePath().normalize();
+            if (Files.isDirectory(root)) {
+                rootList.add(root);
+            } else {
+                log.warn("读取目录不存在，已跳过 - {}", s);
+            }
+        }
+        this.roots = List.copyOf(rootList);
+        for (Path root : roots) {
+            scan(root);
+        }
+        this.classpathEntries = scanClasspath();
+        log.info("资源索引构建完成，读取目录{}个，文件（夹）{}个，类路径资源{}个", roots.size(), entries.size(),
+                classpathEntries == null ? "未知" : classpathEntries.size());
+    }
+
+    /**
+     * 获取当前索引（首次调用或 READ_PATH_LIST 被替换后重新构建）
+     */
+    public static ResourceIndex getInstance() {
+        ResourceIndex index = INSTANCE;
+        List<String> source = FileUtil.READ_PATH_LIST;
+        if (index == null || index.source != source) {
+            synchronized (ResourceIndex.class) {
+                index = INSTANCE;
+                if (index == null || index.source != source) {
+                    index = new ResourceIndex(source);
+                    INSTANCE = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * 丢弃当前索引并重新遍历全部来源
+     */
+    public static ResourceIndex rebuild() {
+        synchronized (ResourceIndex.class) {
+            INSTANCE = new ResourceIndex(FileUtil.READ_PATH_LIST);
+            return INSTANCE;
+        }
+    }
+
+    /**
+     * 查找读取目录中的文件/文件夹
+     *
+     * @param path 相对路径，如 define\file_icon.json 或 icon/files/png.png
+     * @return 优先级最高的文件（夹），不存在返回null
+     */
+    public File resolve(String path) {
+        Entry entry = entries.get(key(normalize(path)));
+        return entry == null ? null : entry.file();
+    }
+
+    /**
+     * 在读取目录与类路径中查找资源，读取目录优先
+     *
+     * @param path 相对路径，如 /SpigotCT/icon/Loading.png
+     * @return 资源地址，不存在返回null
+     */
+    public URL resolveUrl(String path) {
+        String relative = normalize(path);
+        Entry entry = entries.get(key(relative));
+        if (entry != null && !entry.directory()) {
+            try {
+                return entry.file().toURI().toURL();
+            } catch (MalformedURLException e) {
+                log.warn("资源路径无法转换为URL - {} -> ", entry.file().getPath(), e);
+            }
+        }
+        if (classpathEntries != null && !classpathEntries.contains(relative)) {
+            return null;
+        }
+        return Main.class.getResource("/" + relative);
+    }
+
+    public List<Path> getRoots() {
+        return roots;
+    }
+
+    /**
+     * 增量更新：读取目录中的某个路径被创建/修改/删除后调用
+     *
+     * @param path 发生变化的绝对路径
+     */
+    public void refresh(Path path) {
+        path = path.toAbsolutePath().normalize();
+        int rootIndex = rootIndexOf(path);
+        if (rootIndex < 0) return;
+        String relative = relativize(roots.get(rootIndex), path);
+        if (Files.isDirectory(path)) {
+            // 新建（或移入）的文件夹，整个子树重新计算
+            try {
+                Files.walkFileTree(path, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                        recompute(relativize(roots.get(rootIndex), dir));
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        recompute(relativize(roots.get(rootIndex), file));
+                        return FileVisitResult.CONTINUE;
+                    }
+
+                    @Override
+                    public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("增量更新资源索引失败 - {} -> ", path, e);
+            }
+            return;
+        }
+        recompute(relative);
+        // 被删除的可能是文件夹，原先来自该目录的子路径全部重新计算
+        String prefix = key(relative) + "/";
+        List<String> children = new ArrayList<>();
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            if (e.getKey().startsWith(prefix)) children.add(e.getValue().relative());
+        }
+        for (String child : children) {
+            recompute(child);
+        }
+    }
+
+    /**
+     * 按优先级重新确定某个路径的来源（只在目录变化时调用）
+     */
+    private void recompute(String relative) {
+        String key = key(relative);
+        for (int i = 0; i < roots.size(); i++) {
+            Path candidate = relative.isEmpty() ? roots.get(i) : roots.get(i).resolve(relative);
+            if (Files.exists(candidate)) {
+                entries.put(key, new Entry(candidate.toFile(), relative, Files.isDirectory(candidate)));
+                return;
+            }
+        }
+        entries.remove(key);
+    }
+
+    private void scan(Path root) {
+        try {
+            Files.walkFileTree(root, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    add(relativize(root, dir), dir, true);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    add(relativize(root, file), file, false);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    log.warn("无法读取资源 - {}", file);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.error("遍历读取目录失败 - {} -> ", root, e);
+        }
+    }
+
+    private void add(String relative, Path path, boolean directory) {
+        // 先遍历的目录优先级更高，已存在的不覆盖
+        entries.putIfAbsent(key(relative), new Entry(path.toFile(), relative, directory));
+    }
+
+    private static Set<String> scanClasspath() {
+        try {
+            CodeSource codeSource = Main.class.getProtectionDomain().getCodeSource();
+            if (codeSource == null || codeSource.getLocation() == null) return null;
+            Path location = Paths.get(codeSource.getLocation().toURI());
+            Set<String> result = new HashSet<>();
+            if (Files.isDirectory(location)) {
+                Files.walkFileTree(location, new SimpleFileVisitor<>() {
+                    @Override
+                    public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                        String relative = relativize(location, file);
+                        if (!relative.endsWith(".class")) result.add(relative);
+                        return FileVisitResult.CONTINUE;
+                    }
+                });
+            } else if (Files.isRegularFile(location)) {
+                try (JarFile jarFile = new JarFile(location.toFile())) {
+                    Enumeration<JarEntry> jarEntries = jarFile.entries();
+                    while (jarEntries.hasMoreElements()) {
+                        JarEntry entry = jarEntries.nextElement();
+                        if (!entry.isDirectory() && !entry.getName().endsWith(".class")) result.add(entry.getName());
+                    }
+                }
+            } else {
+                return null;
+            }
+            return Collections.unmodifiableSet(result);
+        } catch (IOException | URISyntaxException | SecurityException | IllegalArgumentException e) {
+            log.warn("无法遍历类路径，类路径资源将逐次查找 -> ", e);
+            return null;
+        }
+    }
+
+    private int rootIndexOf(Path path) {
+        for (int i = 0; i < roots.size(); i++) {
+            if (path.startsWith(roots.get(i))) return i;
+        }
+        return -1;
+    }
+
+    private static String relativize(Path root, Path path) {
+        return normalize(root.relativize(path).toString());
+    }
+
+    /**
+     * 统一路径格式：分隔符统一为 /，去掉开头的分隔符和 . 片段
+     */
+    static String normalize(String path) {
+        StringBuilder sb = new StringBuilder(path.length());
+        int start = 0;
+        int length = path.length();
+        for (int i = 0; i <= length; i++) {
+            if (i == length || path.charAt(i) == '/' || path.charAt(i) == '\\') {
+                if (i > start && !(i - start == 1 && path.charAt(start) == '.')) {
+                    if (!sb.isEmpty()) sb.append('/');
+                    sb.append(path, start, i);
+                }
+                start = i + 1;
+            }
+        }
+        return sb.toString();
+    }
+
+    private static String key(String relative) {
+        return IGNORE_CASE ? relative.toLowerCase(Locale.ROOT) : relative;
+    }
+
+    /**
+     * @param file      实际的文件（夹）
+     * @param relative  相对路径（保留原始大小写）
+     * @param directory 是否为文件夹
+     */
+    private record Entry(File file, String relative, boolean directory) {
+    }
+}
@@ -0,0 +1,219 @@
+package org.bxwbb.Util.Resource;
+
+import org.bxwbb.MiniWindow.MiniWindow;
+import org.bxwbb.Util.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 资源热加载服务：监听 READ_PATH_LIST 中的全部读取目录
+ * 1. 任何文件（夹）变化都增量更新 {@link ResourceIndex}
+ * 2. language、define 目录中的 json 文件变化后等待一段静默时间（合并编辑器连续写入产生的多次事件）
+ * 3. 在后台线程中构建新的资源快照，通过一次volatile赋值发布（见 {@link FileUtil#reloadResources()}）
+ * 4. 发布后在EDT中通知所有打开的 MiniWindow 重绘
+ */
+public class ResourceReloadService {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceReloadService.class);
+    private static volatile ResourceReloadService INSTANCE;
+    // 变化后需要重新构建资源快照的子目录
+    private static final Set<String> RELOAD_DIRS = Set.of("language", "define");
+    // 静默时间（毫秒），期间没有新事件才重新加载
+    private static final long DEBOUNCE_MILLIS = 300;
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    private ResourceReloadService() {
+    }
+
+    /**
+     * 获取单例实例（双重检查锁，线程安全）
+     */
+    public static ResourceReloadService getInstance() {
+        if (INSTANCE == null) {
+            synchronized (ResourceReloadService.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ResourceReloadService();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 开始监听（重复调用无效果）
+     */
+    public synchronized void start() {
+        if (watchThread != null) return;
+        try {
+            watchService = FileSystems.getDefault().newWatchService();
+        } catch (IOException e) {
+            log.error("创建资源目录监听失败，资源热加载不可用 -> ", e);
+            return;
+        }
+        int count = 0;
+        for (Path root : ResourceIndex.getInstance().getRoots()) {
+            count += registerAll(root);
+            log.info("开始监听资源目录 - {}", root);
+        }
+        if (count == 0) {
+            log.warn("没有可监听的资源目录，资源热加载不可用");
+            closeWatchService();
+            return;
+        }
+        watchThread = new Thread(this::watchLoop, "ResourceReload-Thread");
+        watchThread.setDaemon(true);
+        watchThread.setUncaughtExceptionHandler((t, e) -> log.error("资源热加载线程异常", e));
+        watchThread.start();
+    }
+
+    /**
+     * 停止监听
+     */
+    public synchronized void stop() {
+        if (watchThread == null) return;
+        watchThread.interrupt();
+        watchThread = null;
+        closeWatchService();
+    }
+
+    private void closeWatchService() {
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            log.warn("关闭资源目录监听失败 -> ", e);
+        }
+        watchService = null;
+    }
+
+    private void watchLoop() {
+        WatchService service = watchService;
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                WatchKey key = service.take();
+                boolean changed = drain(key);
+                // 等待静默期结束，期间的事件一并合并
+                while ((key = service.poll(DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null) {
+                    changed |= drain(key);
+                }
+                if (changed) reload();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException ignored) {
+        }
+        log.info("资源热加载线程已退出");
+    }
+
+    /**
+     * 注册文件夹及其全部子文件夹
+     *
+     * @return 注册成功的文件夹数量
+     */
+    private int registerAll(Path start) {
+        int[] count = {0};
+        try {
+            Files.walkFileTree(start, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    try {
+                        dir.register(watchService,
+                                StandardWatchEventKinds.ENTRY_CREATE,
+                                StandardWatchEventKinds.ENTRY_MODIFY,
+                                StandardWatchEventKinds.ENTRY_DELETE);
+                        count[0]++;
+                    } catch (IOException e) {
+                        log.warn("监听资源目录失败 - {} -> ", dir, e);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("监听资源目录失败 - {} -> ", start, e);
+        }
+        return count[0];
+    }
+
+    /**
+     * 处理一个目录的全部事件：更新资源索引，新建的文件夹加入监听
+     *
+     * @return 是否需要重新构建资源快照
+     */
+    private boolean drain(WatchKey key) {
+        boolean changed = false;
+        Path dir = (Path) key.watchable();
+        ResourceIndex index = ResourceIndex.getInstance();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // 事件丢失，整体重建索引
+                index = ResourceIndex.rebuild();
+                changed = true;
+                continue;
+            }
+            if (!(event.context() instanceof Path name)) continue;
+            Path path = dir.resolve(name);
+            index.refresh(path);
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                registerAll(path);
+            }
+            if (isReloadTarget(index, path)) changed = true;
+        }
+        key.reset();
+        return changed;
+    }
+
+    private static boolean isReloadTarget(ResourceIndex index, Path path) {
+        Path absolute = path.toAbsolutePath().normalize();
+        for (Path root : index.getRoots()) {
+            if (absolute.startsWith(root) && !absolute.equals(root)) {
+                Path relative = root.relativize(absolute);
+                return relative.getNameCount() > 1
+                        && RELOAD_DIRS.contains(relative.getName(0).toString())
+                        && absolute.getFileName().toString().endsWith(".json");
+            }
+        }
+        return false;
+    }
+
+    private void reload() {
+        log.info("检测到资源文件变化，重新加载");
+        try {
+            FileUtil.reloadResources();
+        } catch (RuntimeException e) {
+            log.error("重新加载资源失败，继续使用旧的资源快照 -> ", e);
+            return;
+        }
+        SwingUtilities.invokeLater(ResourceReloadService::repaintMiniWindows);
+    }
+
+    private static void repaintMiniWindows() {
+        for (Window window : Window.getWindows()) {
+            if (window.isDisplayable()) repaintMiniWindows(window);
+        }
+    }
+
+    private static void repaintMiniWindows(Container container) {
+        for (Component component : container.getComponents()) {
+            if (component instanceof MiniWindow miniWindow) {
+                miniWindow.onResourcesReloaded();
+            }
+            if (component instanceof Container child) {
+                repaintMiniWindows(child);
+            }
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package org.bxwbb.Util.Resource;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * 资源快照：语言表与文件类型注册表的不可变组合
+ * 整体构建完成后才通过一次volatile赋值发布，读取方永远看不到构建到一半的数据
+ *
+ * @param langTable 语言表
+ * @param fileTypes 文件类型注册表（名称来自同一份语言表）
+ * @param version   快照版本号，每次重新加载递增
+ */
+public record ResourceSnapshot(LangTable langTable, FileTypeRegistry fileTypes, long version) {
+
+    private static final Logger log = LoggerFactory.getLogger(ResourceSnapshot.class);
+
+    /**
+     * 读取语言文件与图标定义文件，构建新的快照
+     *
+     * @param languageFile 语言文件（为null或无法读取时使用空语言表）
+     * @param factory      Jackson的JsonFactory
+     * @param version      快照版本号
+     * @param fallback     语言文件解析失败时沿用的语言表（如编辑器只写入了一半）
+     */
+    public static ResourceSnapshot load(File languageFile, JsonFactory factory, long version, LangTable fallback) {
+        LangTable langTable = LangTable.EMPTY;
+        if (languageFile != null && languageFile.isFile() && languageFile.canRead()) {
+            try {
+                langTable = LangTable.load(languageFile, factory);
+            } catch (IOException e) {
+                log.error("语言文件解析失败，沿用上一份语言表 - {} -> ", languageFile.getPath(), e);
+                langTable = fallback;
+            }
+        } else {
+            log.error("语言文件不存在或无法读取，使用空语言表");
+        }
+        return new ResourceSnapshot(langTable, FileTypeRegistry.load(langTable), version);
+    }
+}
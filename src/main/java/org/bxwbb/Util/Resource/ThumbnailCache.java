@@ -0,0 +1,382 @@
+package org.bxwbb.Util.Resource;
+
+import org.bxwbb.Util.Task.EdtBatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BaseMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 图片文件的缩略图（全局共用，线程安全）
+ * 1. 在固定数量的后台线程中解码，按目标尺寸设置 ImageIO 的子采样，只读取需要的像素，不解码完整图片
+ * 2. 内存中按占用字节数限制的LRU缓存；解码结果同时写入磁盘缓存（用户目录下 .SpigotCT/thumbnails），
+ * 按 路径+大小+修改时间+尺寸 的哈希命名，文件变化后自然失效，重启后直接读取，
+ * 磁盘缓存的大小在启动时统计、之后按写入量累加，超出上限时删除最久未用的
+ * 3. 等待解码的请求有上限，最新的请求最先处理（滚动时优先解码当前可见的行），被丢弃的请求下次绘制时重新提交
+ * 4. 小图（如 16x16 的材质）放大时使用最近邻插值，保持像素风格
+ * 解码完成后通过 {@link EdtBatcher} 在EDT中回调，同一个回调对象的多次通知会合并
+ */
+public final class ThumbnailCache {
+
+    private static final Logger log = LoggerFactory.getLogger(ThumbnailCache.class);
+    private static volatile ThumbnailCache INSTANCE;
+
+    // 内存缓存上限（字节）
+    private static final long MEMORY_BUDGET = 24L << 20;
+    // 磁盘缓存上限（字节）
+    private static final long DISK_BUDGET = 128L << 20;
+    // 等待解码的请求上限
+    private static final int MAX_PENDING = 128;
+    // 解码失败的记录上限（不再重试）
+    private static final int MAX_FAILED = 1024;
+    // 超过此大小的文件不生成缩略图
+    private static final long MAX_FILE_BYTES = 64L << 20;
+    private static final int WORKERS = Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+    private static final AtomicInteger THREAD_ID = new AtomicInteger(0);
+    // ImageIO 能读取的扩展名（小写）
+    private static final Set<String> SUFFIXES = new HashSet<>();
+
+    static {
+        for (String suffix : ImageIO.getReaderFileSuffixes()) {
+            SUFFIXES.add(suffix.toLowerCase(Locale.ROOT));
+        }
+    }
+
+    private final Path directory = Path.of(System.getProperty("user.home"), ".SpigotCT", "thumbnails");
+    // 内存缓存（按访问顺序），用自身同步
+    private final Map<Key, ImageIcon> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cacheBytes = 0;
+    private final Map<Key, Boolean> failed = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+            return size() > MAX_FAILED;
+        }
+    };
+    // 等待解码的请求（队首最新）和正在解码的键，用 pending 同步
+    private final Deque<Request> pending = new ArrayDeque<>();
+    private final Map<Key, Request> queued = new HashMap<>();
+    private final AtomicBoolean pruned = new AtomicBoolean(false);
+    // 磁盘缓存的总大小（字节，清理时重新统计，写入时累加）
+    private final AtomicLong diskBytes = new AtomicLong(0);
+    // 同时只有一个线程清理磁盘缓存
+    private final AtomicBoolean pruning = new AtomicBoolean(false);
+
+    // 统计
+    private final AtomicLong decoded = new AtomicLong(0);
+    private final AtomicLong diskHits = new AtomicLong(0);
+
+    private ThumbnailCache() {
+        for (int i = 0; i < WORKERS; i++) {
+            Thread worker = new Thread(this::work, "Thumbnail-Worker-" + THREAD_ID.incrementAndGet());
+            worker.setDaemon(true);
+            worker.setPriority(Thread.NORM_PRIORITY - 1);
+            worker.start();
+        }
+    }
+
+    /**
+     * 获取单例实例（双重检查锁，线程安全）
+     */
+    public static ThumbnailCache getInstance() {
+        if (INSTANCE == null) {
+            synchronized (ThumbnailCache.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new ThumbnailCache();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 文件名的扩展名是否为可生成缩略图的图片格式
+     */
+    public static boolean isSupported(String name) {
+        int dot = name.lastIndexOf('.');
+        return dot >= 0 && dot < name.length() - 1 && SUFFIXES.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 取得缩略图，没有时提交后台解码并返回null（调用方先显示类型图标）
+     *
+     * @param size         文件大小（与修改时间一起判断文件是否变化，取自列出时的属性）
+     * @param modifiedTime 文件修改时间（毫秒）
+     * @param px           缩略图边长（逻辑像素，图片按比例缩放后居中）
+     * @param onReady      解码完成后在EDT中执行（可为null），同一个对象的通知会合并，调用方应复用
+     * @return 缩略图，正在解码或无法解码时返回null
+     */
+    public ImageIcon get(File file, long size, long modifiedTime, int px, Runnable onReady) {
+        Key key = new Key(file.getAbsolutePath(), size, modifiedTime, px, IconCache.currentScale());
+        synchronized (cache) {
+            ImageIcon icon = cache.get(key);
+            if (icon != null) return icon;
+            if (failed.containsKey(key)) return null;
+        }
+        if (size > MAX_FILE_BYTES) return null;
+        synchronized (pending) {
+            Request request = queued.get(key);
+            if (request == null) {
+                request = new Request(key);
+                queued.put(key, request);
+            } else if (pending.remove(request)) {
+                // 再次请求的排到队首
+            } else {
+                // 正在解码
+                if (onReady != null) request.callbacks.add(onReady);
+                return null;
+            }
+            if (onReady != null) request.callbacks.add(onReady);
+            pending.addFirst(request);
+            while (pending.size() > MAX_PENDING) {
+                queued.remove(pending.removeLast().key);
+            }
+            pending.notify();
+        }
+        return null;
+    }
+
+    /**
+     * 内存缓存中的缩略图数与占用的字节数
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public long getMemoryBytes() {
+        synchronized (cache) {
+            return cacheBytes;
+        }
+    }
+
+    /**
+     * 实际解码的次数与从磁盘缓存读取的次数
+     */
+    public long getDecodedCount() {
+        return decoded.get();
+    }
+
+    public long getDiskHitCount() {
+        return diskHits.get();
+    }
+
+    private void work() {
+        if (pruned.compareAndSet(false, true)) pruneDisk();
+        while (true) {
+            Request request;
+            try {
+                synchronized (pending) {
+                    while (pending.isEmpty()) pending.wait();
+                    request = pending.pollFirst();
+                }
+            } catch (InterruptedException e) {
+                return;
+            }
+            ImageIcon icon = null;
+            try {
+                icon = load(request.key);
+            } catch (Exception | OutOfMemoryError e) {
+                log.debug("生成缩略图失败 - {} -> {}", request.key.path(), e.toString());
+            }
+            List<Runnable> callbacks;
+            synchronized (cache) {
+                if (icon != null) {
+                    if (cache.put(request.key, icon) == null) cacheBytes += bytesOf(icon);
+                    Iterator<Map.Entry<Key, ImageIcon>> eldest = cache.entrySet().iterator();
+                    while (cacheBytes > MEMORY_BUDGET && eldest.hasNext()) {
+                        cacheBytes -= bytesOf(eldest.next().getValue());
+                        eldest.remove();
+                    }
+                } else {
+                    failed.put(request.key, Boolean.TRUE);
+                }
+            }
+            synchronized (pending) {
+                queued.remove(request.key);
+                callbacks = List.copyOf(request.callbacks);
+            }
+            for (Runnable callback : callbacks) {
+                EdtBatcher.getInstance().post(new EdtBatcher.Key(this, callback), callback);
+            }
+        }
+    }
+
+    /**
+     * 先读取磁盘缓存，没有时解码原图并写入磁盘缓存
+     */
+    private ImageIcon load(Key key) throws IOException {
+        int target = (int) Math.ceil(key.px() * key.scale());
+        Path cached = directory.resolve(hash(key) + ".png");
+        BufferedImage thumbnail = null;
+        if (Files.isRegularFile(cached)) {
+            thumbnail = ImageIO.read(cached.toFile());
+            if (thumbnail != null) {
+                diskHits.incrementAndGet();
+                // 修改时间作为磁盘缓存的使用时间
+                cached.toFile().setLastModified(System.currentTimeMillis());
+            }
+        }
+        if (thumbnail == null) {
+            BufferedImage source = decode(new File(key.path()), target);
+            if (source == null) return null;
+            thumbnail = fit(source, target);
+            decoded.incrementAndGet();
+            store(cached, thumbnail);
+        }
+        if (target == key.px()) return new ImageIcon(thumbnail);
+        return new ImageIcon(new BaseMultiResolutionImage(fit(thumbnail, key.px()), thumbnail));
+    }
+
+    /**
+     * 子采样读取：只读取每 step 行/列中的一个像素，结果的长边不小于目标尺寸
+     */
+    private static BufferedImage decode(File file, int target) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(file)) {
+            if (input == null) return null;
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) return null;
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                int step = Math.max(1, Math.max(width, height) / Math.max(1, target));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    /**
+     * 按比例缩放到 size x size 以内并居中（透明背景），放大时使用最近邻插值
+     */
+    private static BufferedImage fit(BufferedImage source, int size) {
+        double ratio = Math.min((double) size / source.getWidth(), (double) size / source.getHeight());
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+        BufferedImage result = new BufferedImage(size, size, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2d = result.createGraphics();
+        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, ratio >= 1
+                ? RenderingHints.VALUE_INTERPOLATION_NEAREST_NEIGHBOR
+                : RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g2d.drawImage(source, (size - width) / 2, (size - height) / 2, width, height, null);
+        g2d.dispose();
+        return result;
+    }
+
+    /**
+     * 写入磁盘缓存：先写临时文件再替换，失败时只记录日志
+     */
+    private void store(Path file, BufferedImage thumbnail) {
+        try {
+            Files.createDirectories(directory);
+            Path temp = file.resolveSibling(file.getFileName() + "." + Thread.currentThread().threadId() + ".tmp");
+            if (!ImageIO.write(thumbnail, "png", temp.toFile())) return;
+            long length = Files.size(temp);
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            if (diskBytes.addAndGet(length) > DISK_BUDGET) pruneDisk();
+        } catch (IOException e) {
+            log.warn("缩略图缓存写入失败 - {} -> {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * 重新统计磁盘缓存，超出上限时按使用时间删除最旧的，直到低于上限的3/4
+     * 启动后执行一次，之后在写入使总大小超出上限时执行（已有线程在清理时直接返回）
+     */
+    private void pruneDisk() {
+        if (!pruning.compareAndSet(false, true)) return;
+        try {
+            prune();
+        } finally {
+            pruning.set(false);
+        }
+    }
+
+    private void prune() {
+        File[] files = directory.toFile().listFiles();
+        if (files == null) return;
+        long total = 0;
+        for (File file : files) total += file.length();
+        diskBytes.set(total);
+        if (total <= DISK_BUDGET) return;
+        long[] modified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            modified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> modified[i]));
+        int removed = 0;
+        for (int i = 0; i < order.length && total > DISK_BUDGET * 3 / 4; i++) {
+            File file = files[order[i]];
+            long length = file.length();
+            if (file.delete()) {
+                total -= length;
+                removed++;
+            }
+        }
+        diskBytes.set(total);
+        log.info("缩略图磁盘缓存已清理 - 删除{}个文件", removed);
+    }
+
+    private static long bytesOf(ImageIcon icon) {
+        if (icon.getImage() instanceof BaseMultiResolutionImage image) {
+            long bytes = 0;
+            for (Image variant : image.getResolutionVariants()) {
+                bytes += (long) variant.getWidth(null) * variant.getHeight(null) * 4;
+            }
+            return bytes;
+        }
+        return (long) icon.getIconWidth() * icon.getIconHeight() * 4;
+    }
+
+    private static String hash(Key key) {
+        String text = key.path() + '|' + key.size() + '|' + key.modifiedTime() + '|' + (int) Math.ceil(key.px() * key.scale());
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(hash, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            return Integer.toHexString(text.hashCode());
+        }
+    }
+
+    private record Key(String path, long size, long modifiedTime, int px, double scale) {
+    }
+
+    /**
+     * 解码请求，callbacks 用 pending 同步
+     */
+    private static final class Request {
+        private final Key key;
+        private final Set<Runnable> callbacks = new LinkedHashSet<>();
+
+        private Request(Key key) {
+            this.key = key;
+        }
+    }
+}
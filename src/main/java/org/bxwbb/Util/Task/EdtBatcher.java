@@ -0,0 +1,184 @@
+package org.bxwbb.Util.Task;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.swing.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EDT更新批处理器（全局共用）
+ * 1. 任意线程把界面更新放入无锁队列，只有一个泵在EDT中批量执行，不再为每个更新单独 invokeLater
+ * 2. 每帧执行时间不超过预算，剩余的更新留到下一帧，期间EDT可以处理输入和绘制
+ * 3. 带键的更新会合并：同一个键在执行前多次提交时只执行最后一次（如任务进度）
+ * 4. 提供队列深度和延迟统计
+ * 同一个键的更新与无键更新之间按首次提交的顺序执行
+ */
+public class EdtBatcher {
+    private static volatile EdtBatcher INSTANCE;
+
+    private static final Logger log = LoggerFactory.getLogger(EdtBatcher.class);
+    // 默认每帧预算（毫秒）
+    private static final long DEFAULT_FRAME_BUDGET = 8;
+    // 帧间隔（毫秒），超出预算后等到下一帧再继续
+    private static final int FRAME_INTERVAL = 16;
+
+    private final ConcurrentLinkedQueue<Update> queue = new ConcurrentLinkedQueue<>();
+    // 带键更新的最新内容，队列中只保留键
+    private final Map<Object, Runnable> latest = new ConcurrentHashMap<>();
+    private final AtomicBoolean pumpScheduled = new AtomicBoolean(false);
+    private final AtomicInteger depth = new AtomicInteger(0);
+    private volatile long frameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(DEFAULT_FRAME_BUDGET);
+
+    // 统计
+    private final AtomicLong submitted = new AtomicLong(0);
+    private final AtomicLong coalesced = new AtomicLong(0);
+    private final AtomicLong executed = new AtomicLong(0);
+    private final AtomicLong frames = new AtomicLong(0);
+    private volatile long lastLagNanos = 0;
+    private volatile long maxLagNanos = 0;
+
+    private EdtBatcher() {
+    }
+
+    /**
+     * 获取单例实例（双重检查锁，线程安全）
+     */
+    public static EdtBatcher getInstance() {
+        if (INSTANCE == null) {
+            synchronized (EdtBatcher.class) {
+                if (INSTANCE == null) {
+                    INSTANCE = new EdtBatcher();
+                }
+            }
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * 提交更新，按提交顺序在EDT中执行
+     */
+    public void post(Runnable update) {
+        submitted.incrementAndGet();
+        depth.incrementAndGet();
+        queue.add(new Update(null, update, System.nanoTime()));
+        schedulePump();
+    }
+
+    /**
+     * 提交带键的更新：该键已有未执行的更新时替换其内容，位置不变
+     *
+     * @param key 合并用的键（需正确实现 equals/hashCode，可使用 {@link Key}）
+     */
+    public void post(Object key, Runnable update) {
+        submitted.incrementAndGet();
+        if (latest.put(key, update) != null) {
+            coalesced.incrementAndGet();
+            return;
+        }
+        depth.incrementAndGet();
+        queue.add(new Update(key, null, System.nanoTime()));
+        schedulePump();
+    }
+
+    /**
+     * 设置每帧预算（毫秒）
+     */
+    public void setFrameBudget(long millis) {
+        frameBudgetNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, millis));
+    }
+
+    public long getFrameBudget() {
+        return TimeUnit.NANOSECONDS.toMillis(frameBudgetNanos);
+    }
+
+    /**
+     * 当前统计数据
+     */
+    public Metrics getMetrics() {
+        return new Metrics(depth.get(), submitted.get(), coalesced.get(), executed.get(), frames.get(),
+                TimeUnit.NANOSECONDS.toMillis(lastLagNanos), TimeUnit.NANOSECONDS.toMillis(maxLagNanos));
+    }
+
+    /**
+     * 未执行的更新数量
+     */
+    public int getQueueDepth() {
+        return depth.get();
+    }
+
+    private void schedulePump() {
+        if (pumpScheduled.compareAndSet(false, true)) {
+            SwingUtilities.invokeLater(this::pump);
+        }
+    }
+
+    /**
+     * 在EDT中执行更新，超出预算后等到下一帧
+     */
+    private void pump() {
+        long start = System.nanoTime();
+        long deadline = start + frameBudgetNanos;
+        frames.incrementAndGet();
+        Update update;
+        while ((update = queue.poll()) != null) {
+            depth.decrementAndGet();
+            Runnable action = update.key() == null ? update.action() : latest.remove(update.key());
+            long lag = System.nanoTime() - update.submittedAt();
+            lastLagNanos = lag;
+            if (lag > maxLagNanos) maxLagNanos = lag;
+            if (action != null) {
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    log.error("EDT批量更新执行异常", e);
+                }
+                executed.incrementAndGet();
+            }
+            if (System.nanoTime() > deadline) break;
+        }
+        if (queue.isEmpty()) {
+            pumpScheduled.set(false);
+            // 放开标记前刚好提交的更新
+            if (!queue.isEmpty()) schedulePump();
+            return;
+        }
+        int delay = (int) Math.max(0, FRAME_INTERVAL - TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        Timer timer = new Timer(delay, e -> pump());
+        timer.setRepeats(false);
+        timer.start();
+    }
+
+    /**
+     * 队列中的更新，带键的更新内容保存在 latest 中
+     */
+    private record Update(Object key, Runnable action, long submittedAt) {
+    }
+
+    /**
+     * 常用的合并键：所属对象 + 更新内容（均按 equals 比较）
+     */
+    public record Key(Object owner, Object slot) {
+    }
+
+    /**
+     * 统计数据
+     *
+     * @param queueDepth 未执行的更新数量
+     * @param submitted  提交总数
+     * @param coalesced  被合并（未单独执行）的更新数
+     * @param executed   执行总数
+     * @param frames     泵执行的帧数
+     * @param lastLag    最近一次更新从提交到执行的延迟（毫秒）
+     * @param maxLag     最大延迟（毫秒）
+     */
+    public record Metrics(int queueDepth, long submitted, long coalesced, long executed, long frames,
+                          long lastLag, long maxLag) {
+    }
+}
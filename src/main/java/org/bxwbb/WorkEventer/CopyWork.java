@@ -0,0 +1,98 @@
+package org.bxwbb.WorkEventer;
+
+import org.bxwbb.Main;
+import org.bxwbb.UI.MissionTip;
+import org.bxwbb.Util.FileSystem.CopyEngine;
+import org.bxwbb.Util.FileSystem.CopyMetrics;
+import org.bxwbb.Util.FileUtil;
+import org.bxwbb.Util.Task.ControllableThreadTask;
+import org.bxwbb.Util.Task.EdtBatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.function.Consumer;
+
+/**
+ * 复制/移动任务：把CopyEngine的进度和吞吐量显示在任务列表中，暂停/恢复/取消按钮直接控制复制引擎
+ */
+public final class CopyWork extends Work {
+
+    private static final Logger log = LoggerFactory.getLogger(CopyWork.class);
+    // 进度条精度（千分比）
+    private static final int PROGRESS_MAX = 1000;
+
+    private final CopyEngine engine;
+
+    public CopyWork(CopyEngine engine) {
+        super(FileUtil.getLang(engine.isMove() ? "worker.move.name" : "worker.copy.name", "0", "0", "0 B", "0 B", "0 B", "0"));
+        this.engine = engine;
+        setMaxValue(PROGRESS_MAX);
+        Work self = this;
+        this.setOperationCallback(new MissionTip.OperationCallback() {
+            @Override
+            public boolean onPause() {
+                engine.pause();
+                return true;
+            }
+
+            @Override
+            public boolean onResume() {
+                engine.resume();
+                return true;
+            }
+
+            @Override
+            public boolean onStop() {
+                engine.cancel();
+                Main.getWorkController().removeWork(self);
+                return true;
+            }
+        });
+        setWorkUpdateCallBack(() -> EdtBatcher.getInstance().post(new EdtBatcher.Key(this, "update"), this::updateProgress));
+    }
+
+    /**
+     * 在FILE_IO_EXECUTOR中执行复制，结束后在EDT中移除任务并回调
+     *
+     * @param onFinished 结束回调（EDT中执行），参数为失败原因，成功或取消时为null
+     * @return 任务ID
+     */
+    public String start(Consumer<Exception> onFinished) {
+        ControllableThreadTask<CopyMetrics> task = new ControllableThreadTask<>() {
+            @Override
+            protected CopyMetrics doWork() {
+                Exception error = null;
+                CopyMetrics metrics = null;
+                try {
+                    metrics = engine.run();
+                } catch (Exception e) {
+                    log.error("复制文件时发生错误 -> ", e);
+                    error = e;
+                }
+                Exception finalError = error;
+                EdtBatcher.getInstance().post(() -> {
+                    Main.getWorkController().removeWork(CopyWork.this);
+                    if (onFinished != null) onFinished.accept(finalError);
+                });
+                return metrics;
+            }
+        };
+        return FileUtil.FILE_IO_EXECUTOR.submit(task);
+    }
+
+    public CopyEngine getEngine() {
+        return engine;
+    }
+
+    private void updateProgress() {
+        CopyMetrics metrics = engine.getMetrics();
+        setValue((int) (metrics.progress() * PROGRESS_MAX));
+        setName(FileUtil.getLang(engine.isMove() ? "worker.move.name" : "worker.copy.name",
+                String.valueOf(metrics.filesDone()),
+                metrics.scanning() ? metrics.filesTotal() + "+" : String.valueOf(metrics.filesTotal()),
+                FileUtil.formatFileSize(metrics.bytesDone()),
+                FileUtil.formatFileSize(metrics.bytesTotal()),
+                FileUtil.formatFileSize((long) metrics.bytesPerSecond()),
+                String.format("%.1f", metrics.filesPerSecond())));
+    }
+}
@@ -2,14 +2,16 @@ package org.bxwbb.WorkEventer;
 
 import org.bxwbb.UI.IndicatorStatus;
 import org.bxwbb.UI.MissionTip;
+import org.bxwbb.Util.Task.EdtBatcher;
 import org.bxwbb.Util.Task.ScheduledTaskManager;
 
 public class Work {
 
-    private String name;
-    private int value = 0;
-    private int maxValue = 100;
-    private IndicatorStatus status = IndicatorStatus.RUNNING;
+    // 可在任意线程中修改，界面通过 EdtBatcher 更新（同一项只显示最新的值）
+    private volatile String name;
+    private volatile int value = 0;
+    private volatile int maxValue = 100;
+    private volatile IndicatorStatus status = IndicatorStatus.RUNNING;
     protected MissionTip missionTip;
     private WorkUpdateCallBack workUpdateCallBack;
     private final String updateTaskID;
@@ -28,9 +30,7 @@ public class Work {
 
     public void setValue(int newValue) {
         value = newValue;
-        if (missionTip != null) {
-            missionTip.setProgressValue((int) (value / (float) maxValue * 100));
-        }
+        updateProgress();
     }
 
     public int getMaxValue() {
@@ -39,9 +39,7 @@ public class Work {
 
     public void setMaxValue(int maxValue) {
         this.maxValue = maxValue;
-        if (missionTip != null) {
-            missionTip.setProgressValue((int) (value / (float) maxValue * 100));
-        }
+        updateProgress();
     }
 
     public WorkUpdateCallBack getWorkUpdateCallBack() {
@@ -63,7 +61,7 @@ public class Work {
     public void setStatus(IndicatorStatus status) {
         this.status = status;
         if (missionTip != null) {
-            missionTip.setIndicatorStatus(status);
+            EdtBatcher.getInstance().post(new EdtBatcher.Key(this, "status"), () -> missionTip.setIndicatorStatus(this.status));
         }
     }
 
@@ -74,7 +72,14 @@ public class Work {
     public void setName(String name) {
         this.name = name;
         if (missionTip != null) {
-            missionTip.setMissionName(name);
+            EdtBatcher.getInstance().post(new EdtBatcher.Key(this, "name"), () -> missionTip.setMissionName(this.name));
+        }
+    }
+
+    private void updateProgress() {
+        if (missionTip != null) {
+            EdtBatcher.getInstance().post(new EdtBatcher.Key(this, "progress"),
+                    () -> missionTip.setProgressValue((int) (value / (float) maxValue * 100)));
         }
     }
 
@@ -16,17 +16,17 @@ public class WorkControllableThreadTask extends Work {
         this.setOperationCallback(new MissionTip.OperationCallback() {
             @Override
             public boolean onPause() {
-                return controllableThreadPool.pauseTask(taskID);
+                return controllableThreadPool.pauseTask(getTaskID());
             }
 
             @Override
             public boolean onResume() {
-                return controllableThreadPool.resumeTask(taskID);
+                return controllableThreadPool.resumeTask(getTaskID());
             }
 
             @Override
             public boolean onStop() {
-                boolean result = controllableThreadPool.cancelTask(taskID);
+                boolean result = controllableThreadPool.cancelTask(getTaskID());
                 if (result) Main.getWorkController().removeWork(self);
                 return result;
             }
@@ -0,0 +1,165 @@
+package org.bxwbb.Util.FileSystem;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * 复制引擎的性能测试（手动运行，不在 mvn test 中执行）
+ * 在临时文件夹中生成两种合成目录树，分别用三种方式复制：
+ * 1. sequential：改造前的实现（单线程 walkFileTree + Files.copy(COPY_ATTRIBUTES)）
+ * 2. engine-1：{@link CopyEngine}，1个工作线程
+ * 3. engine-N：{@link CopyEngine}，默认工作线程数（{@link CopyEngine#DEFAULT_WORKERS}）
+ * 源文件生成后位于页缓存中，结果反映的是复制路径本身的开销，冷缓存下的磁盘读取不在其中
+ * 运行：mvn test-compile 后
+ * java -cp target/classes:target/test-classes:&lt;依赖&gt; org.bxwbb.Util.FileSystem.CopyEngineBenchmark
+ * [临时文件夹] [小文件数] [小文件字节数] [大文件数] [大文件MB数]
+ */
+public final class CopyEngineBenchmark {
+
+    // 每个子文件夹中的小文件数
+    private static final int FILES_PER_DIR = 100;
+    private static final int ROUNDS = 5;
+
+    private CopyEngineBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Path base = args.length > 0 ? Path.of(args[0]) : Path.of(System.getProperty("java.io.tmpdir"));
+        int smallCount = args.length > 1 ? Integer.parseInt(args[1]) : 20_000;
+        int smallBytes = args.length > 2 ? Integer.parseInt(args[2]) : 4096;
+        int hugeCount = args.length > 3 ? Integer.parseInt(args[3]) : 4;
+        int hugeMegabytes = args.length > 4 ? Integer.parseInt(args[4]) : 256;
+
+        Path work = Files.createTempDirectory(base, "copy-bench");
+        try {
+            Path small = work.resolve("small");
+            Path huge = work.resolve("huge");
+            generate(small, smallCount, smallBytes);
+            generate(huge, hugeCount, (long) hugeMegabytes << 20);
+            System.out.printf("工作线程数 %d，%d 轮%n", CopyEngine.DEFAULT_WORKERS, ROUNDS);
+            System.out.printf("小文件：%d 个 x %d 字节%n", smallCount, smallBytes);
+            runAll(small, work.resolve("out"));
+            System.out.printf("大文件：%d 个 x %d MB%n", hugeCount, hugeMegabytes);
+            runAll(huge, work.resolve("out"));
+        } finally {
+            deleteTree(work);
+        }
+    }
+
+    /**
+     * 三种方式轮流执行（磁盘状态的波动对各方式的影响相同），每种方式取最快和中位数
+     */
+    private static void runAll(Path source, Path out) throws IOException {
+        long[] expected = count(source);
+        String[] names = {"sequential", "engine-1", "engine-" + CopyEngine.DEFAULT_WORKERS};
+        Copy[] copies = {
+                () -> sequentialCopy(source, out.resolve(source.getFileName())),
+                () -> new CopyEngine(List.of(source), out, 1).run(),
+                () -> new CopyEngine(List.of(source), out, CopyEngine.DEFAULT_WORKERS).run()
+        };
+        long[][] nanos = new long[copies.length][ROUNDS];
+        for (int round = 0; round < ROUNDS; round++) {
+            for (int i = 0; i < copies.length; i++) {
+                nanos[i][round] = run(names[i], source, out, expected, copies[i]);
+            }
+        }
+        for (int i = 0; i < copies.length; i++) {
+            Arrays.sort(nanos[i]);
+            long best = nanos[i][0];
+            long median = nanos[i][ROUNDS / 2];
+            System.out.printf("  %-10s 最快 %8.1f ms（%8.1f MB/s，%7.0f 个文件/s），中位数 %8.1f ms%n", names[i], best / 1e6,
+                    expected[1] / 1048576.0 / (best / 1e9), expected[0] / (best / 1e9), median / 1e6);
+        }
+    }
+
+    /**
+     * 复制一次并检查结果，返回耗时（纳秒）
+     */
+    private static long run(String name, Path source, Path out, long[] expected, Copy copy) throws IOException {
+        deleteTree(out);
+        Files.createDirectories(out);
+        long start = System.nanoTime();
+        copy.run();
+        long elapsed = System.nanoTime() - start;
+        long[] copied = count(out.resolve(source.getFileName()));
+        if (copied[0] != expected[0] || copied[1] != expected[1]) {
+            throw new IllegalStateException(name + " 复制结果不完整：" + copied[0] + "/" + expected[0] + " 个文件，"
+                    + copied[1] + "/" + expected[1] + " 字节");
+        }
+        deleteTree(out);
+        return elapsed;
+    }
+
+    /**
+     * 改造前 FileUtil.copyFileOrDir 复制文件夹的方式
+     */
+    private static void sequentialCopy(Path sourceDir, Path destDir) throws IOException {
+        Files.walkFileTree(sourceDir, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(destDir.resolve(sourceDir.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.copy(file, destDir.resolve(sourceDir.relativize(file).toString()),
+                        StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.COPY_ATTRIBUTES);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * 生成 count 个随机内容的文件，每 FILES_PER_DIR 个放在一个子文件夹中
+     */
+    private static void generate(Path root, int count, long bytes) throws IOException {
+        Random random = new Random(count);
+        byte[] buffer = new byte[(int) Math.min(bytes, 1 << 20)];
+        for (int i = 0; i < count; i++) {
+            Path dir = root.resolve("d" + (i / FILES_PER_DIR));
+            Files.createDirectories(dir);
+            try (OutputStream out = Files.newOutputStream(dir.resolve("f" + i + ".bin"))) {
+                for (long written = 0; written < bytes; written += buffer.length) {
+                    random.nextBytes(buffer);
+                    out.write(buffer, 0, (int) Math.min(buffer.length, bytes - written));
+                }
+            }
+        }
+    }
+
+    /**
+     * 文件数与总字节数
+     */
+    private static long[] count(Path root) throws IOException {
+        long[] result = new long[2];
+        try (Stream<Path> stream = Files.walk(root)) {
+            stream.filter(Files::isRegularFile).forEach(file -> {
+                result[0]++;
+                result[1] += file.toFile().length();
+            });
+        }
+        return result;
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) return;
+        try (Stream<Path> stream = Files.walk(root)) {
+            for (Path path : stream.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Copy {
+        void run() throws IOException;
+    }
+}
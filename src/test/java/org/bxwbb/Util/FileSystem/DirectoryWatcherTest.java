@@ -0,0 +1,37 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 文件夹监听测试：已有文件被追加写入（服务器写日志）时也要通知
+ */
+class DirectoryWatcherTest {
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void appendingToExistingFileIsReported() throws IOException, InterruptedException {
+        Path log = Files.writeString(temp.resolve("latest.log"), "start\n");
+        BlockingQueue<Path> changes = new LinkedBlockingQueue<>();
+        try (DirectoryWatcher watcher = new DirectoryWatcher(changes::add)) {
+            watcher.watch(temp);
+            assertTrue(watcher.isWatching(temp));
+
+            Files.writeString(log, "more\n", StandardOpenOption.APPEND);
+
+            assertEquals(temp.toAbsolutePath().normalize(), changes.poll(10, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package org.bxwbb.Util.FileSystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 回收站测试：$XDG_DATA_HOME 指向临时文件夹，被删除的文件与回收站位于同一磁盘，使用家目录回收站
+ */
+class FreedesktopTrashTest {
+
+    @TempDir
+    Path temp;
+
+    private Path dataHome;
+    private Path work;
+    private FreedesktopTrash trash;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dataHome = Files.createDirectories(temp.resolve("data"));
+        work = Files.createDirectories(temp.resolve("work"));
+        trash = new FreedesktopTrash(FreedesktopTrash.dataHome(Map.of("XDG_DATA_HOME", dataHome.toString()), "/nonexistent"), "1000");
+    }
+
+    @Test
+    void dataHomeFollowsXdgDataHome() {
+        assertEquals(dataHome, FreedesktopTrash.dataHome(Map.of("XDG_DATA_HOME", dataHome.toString()), "/home/user"));
+        assertEquals(dataHome.resolve("Trash"), trash.getHomeTrash());
+        // 未设置、为空或不是绝对路径时使用 ~/.local/share
+        Path fallback = Paths.get("/home/user", ".local", "share");
+        assertEquals(fallback, FreedesktopTrash.dataHome(Map.of(), "/home/user"));
+        assertEquals(fallback, FreedesktopTrash.dataHome(Map.of("XDG_DATA_HOME", " "), "/home/user"));
+        assertEquals(fallback, FreedesktopTrash.dataHome(Map.of("XDG_DATA_HOME", "relative/share"), "/home/user"));
+    }
+
+    @Test
+    void fileIsRenamedIntoTrash() throws IOException {
+        Path file = Files.writeString(work.resolve("note.txt"), "hello");
+        Object fileKey = fileKey(file);
+
+        Path trashed = trash.trash(file);
+
+        assertEquals(dataHome.resolve("Trash").resolve("files").resolve("note.txt"), trashed);
+        assertFalse(Files.exists(file, LinkOption.NOFOLLOW_LINKS));
+        assertEquals("hello", Files.readString(trashed));
+        // 重命名而不是复制：仍是同一个文件
+        if (fileKey != null) assertEquals(fileKey, fileKey(trashed));
+    }
+
+    @Test
+    void directoryIsRenamedIntoTrash() throws IOException {
+        Path dir = Files.createDirectories(work.resolve("folder"));
+        Files.writeString(Files.createDirectories(dir.resolve("sub")).resolve("inner.txt"), "inner");
+        Object fileKey = fileKey(dir);
+
+        Path trashed = trash.trash(dir);
+
+        assertEquals(dataHome.resolve("Trash").resolve("files").resolve("folder"), trashed);
+        assertFalse(Files.exists(dir, LinkOption.NOFOLLOW_LINKS));
+        assertEquals("inner", Files.readString(trashed.resolve("sub").resolve("inner.txt")));
+        if (fileKey != null) assertEquals(fileKey, fileKey(trashed));
+    }
+
+    @Test
+    void trashInfoHasEncodedPathAndDeletionDate() throws IOException {
+        Path dir = Files.createDirectories(work.resolve("with space"));
+        Path file = Files.writeString(dir.resolve("file #1%.txt"), "x");
+        LocalDateTime before = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        trash.trash(file);
+
+        LocalDateTime after = LocalDateTime.now();
+        Path info = dataHome.resolve("Trash").resolve("info").resolve("file #1%.txt.trashinfo");
+        List<String> lines = Files.readAllLines(info, StandardCharsets.UTF_8);
+        assertEquals(3, lines.size());
+        assertEquals("[Trash Info]", lines.get(0));
+
+        assertEquals("Path=" + FreedesktopTrash.encodePath(file.toAbsolutePath().normalize().toString()), lines.get(1));
+        assertTrue(lines.get(1).endsWith("/with%20space/file%20%231%25.txt"));
+        assertEquals(file.toAbsolutePath().normalize().toString(),
+                URLDecoder.decode(lines.get(1).substring("Path=".length()).replace("+", "%2B"), StandardCharsets.UTF_8));
+
+        assertTrue(lines.get(2).startsWith("DeletionDate="));
+        LocalDateTime deletionDate = LocalDateTime.parse(lines.get(2).substring("DeletionDate=".length()),
+                DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss"));
+        assertFalse(deletionDate.isBefore(before));
+        assertFalse(deletionDate.isAfter(after));
+    }
+
+    @Test
+    void encodePathKeepsSlashesAndEscapesTheRest() {
+        assertEquals("/tmp/a%20b/%E6%96%87%E4%BB%B6%23%25%2B.txt", FreedesktopTrash.encodePath("/tmp/a b/文件#%+.txt"));
+        assertEquals("/plain-name_1.~txt", FreedesktopTrash.encodePath("/plain-name_1.~txt"));
+    }
+
+    @Test
+    void collidingNamesGetUniqueNames() throws IOException {
+        Path first = Files.writeString(Files.createDirectories(work.resolve("a")).resolve("same.txt"), "first");
+        Path second = Files.writeString(Files.createDirectories(work.resolve("b")).resolve("same.txt"), "second");
+        Path third = Files.writeString(Files.createDirectories(work.resolve("c")).resolve("same.txt"), "third");
+        Path files = dataHome.resolve("Trash").resolve("files");
+        Path info = dataHome.resolve("Trash").resolve("info");
+
+        Path trashedFirst = trash.trash(first);
+        // files 中残留一个没有信息文件的同名条目，这个名称也不能使用
+        Files.writeString(files.resolve("same.txt.2"), "leftover");
+        Path trashedSecond = trash.trash(second);
+        Path trashedThird = trash.trash(third);
+
+        assertEquals(files.resolve("same.txt"), trashedFirst);
+        assertEquals(files.resolve("same.txt.3"), trashedSecond);
+        assertEquals(files.resolve("same.txt.4"), trashedThird);
+        assertEquals("first", Files.readString(trashedFirst));
+        assertEquals("second", Files.readString(trashedSecond));
+        assertEquals("third", Files.readString(trashedThird));
+        assertEquals("leftover", Files.readString(files.resolve("same.txt.2")));
+
+        assertTrue(Files.isRegularFile(info.resolve("same.txt.trashinfo")));
+        assertFalse(Files.exists(info.resolve("same.txt.2.trashinfo")));
+        assertTrue(Files.readString(info.resolve("same.txt.3.trashinfo")).contains("/b/same.txt\n"));
+        assertTrue(Files.readString(info.resolve("same.txt.4.trashinfo")).contains("/c/same.txt\n"));
+    }
+
+    @Test
+    void topDirTrashPrefersStickyAdminTrash() throws IOException {
+        // 没有 .Trash 时使用 .Trash-$uid
+        Path plain = Files.createDirectories(temp.resolve("mount1"));
+        assertEquals(plain.resolve(".Trash-1000"), trash.findTopDirTrash(plain));
+        assertTrue(Files.isDirectory(plain.resolve(".Trash-1000").resolve("files")));
+        assertTrue(Files.isDirectory(plain.resolve(".Trash-1000").resolve("info")));
+
+        // .Trash 没有粘滞位时不可信，仍使用 .Trash-$uid
+        Path unsafe = Files.createDirectories(temp.resolve("mount2"));
+        Files.createDirectories(unsafe.resolve(".Trash"));
+        assertEquals(unsafe.resolve(".Trash-1000"), trash.findTopDirTrash(unsafe));
+
+        // 设置了粘滞位的 .Trash 使用其中的 $uid 文件夹
+        Path admin = Files.createDirectories(temp.resolve("mount3"));
+        Path adminTrash = Files.createDirectories(admin.resolve(".Trash"));
+        try {
+            Files.setAttribute(adminTrash, "unix:mode", 01777);
+        } catch (UnsupportedOperationException | IllegalArgumentException e) {
+            return;
+        }
+        assertEquals(adminTrash.resolve("1000"), trash.findTopDirTrash(admin));
+        assertTrue(Files.isDirectory(adminTrash.resolve("1000").resolve("files")));
+        assertFalse(Files.exists(admin.resolve(".Trash-1000")));
+    }
+
+    @Test
+    void unknownUidRefusesTopDirTrash() throws IOException {
+        FreedesktopTrash noUid = new FreedesktopTrash(dataHome, null);
+        Path mount = Files.createDirectories(temp.resolve("mount"));
+
+        assertThrows(IOException.class, () -> noUid.findTopDirTrash(mount));
+        try (var entries = Files.list(mount)) {
+            assertEquals(0, entries.count());
+        }
+        // 家目录回收站不需要uid
+        Path file = Files.writeString(work.resolve("home.txt"), "x");
+        assertEquals(dataHome.resolve("Trash").resolve("files").resolve("home.txt"), noUid.trash(file));
+    }
+
+    @Test
+    void missingFileLeavesTrashUntouched() throws IOException {
+        assertThrows(IOException.class, () -> trash.trash(work.resolve("missing.txt")));
+        Path info = dataHome.resolve("Trash").resolve("info");
+        if (Files.isDirectory(info)) {
+            try (var entries = Files.list(info)) {
+                assertEquals(0, entries.count());
+            }
+        }
+    }
+
+    private static Object fileKey(Path path) throws IOException {
+        return Files.readAttributes(path, BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS).fileKey();
+    }
+}
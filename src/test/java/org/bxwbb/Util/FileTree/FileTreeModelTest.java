@@ -0,0 +1,163 @@
+package org.bxwbb.Util.FileTree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.event.TreeModelEvent;
+import javax.swing.event.TreeModelListener;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 快照比较测试：只使用模型本身，不访问文件系统
+ */
+class FileTreeModelTest {
+
+    private static final Comparator<FileTreeModel.Entry> BY_NAME = Comparator.comparing(FileTreeModel.Entry::name);
+    private static final Comparator<FileTreeModel.Entry> BY_NAME_REVERSED = BY_NAME.reversed();
+
+    @TempDir
+    Path temp;
+
+    private FileTreeModel model;
+    private FileNode root;
+    private final List<String> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        model = new FileTreeModel(temp.toFile(), BY_NAME);
+        root = model.getRoot();
+        model.applySnapshot(root, snapshot(BY_NAME, file("a", 1), file("b", 1), file("d", 1)));
+        model.addTreeModelListener(new TreeModelListener() {
+            @Override
+            public void treeNodesChanged(TreeModelEvent e) {
+                events.add("changed" + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesInserted(TreeModelEvent e) {
+                events.add("inserted" + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeNodesRemoved(TreeModelEvent e) {
+                events.add("removed" + Arrays.toString(e.getChildIndices()));
+            }
+
+            @Override
+            public void treeStructureChanged(TreeModelEvent e) {
+                events.add("structure");
+            }
+        });
+    }
+
+    @Test
+    void attributeChangesAreReportedAlongsideInsertsAndRemoves() {
+        FileNode keptB = root.getChildAt(1);
+
+        // a 被删除，b 大小变化，新增 c，d 时间变化
+        model.applySnapshot(root, snapshot(BY_NAME, file("b", 2), file("c", 1), new FileTreeModel.Entry("d", false, 1, 99)));
+
+        assertEquals(List.of("b", "c", "d"), childNames());
+        assertEquals(List.of("removed[0]", "inserted[1]", "changed[0, 2]"), events);
+        // 保留的节点不变，属性已更新
+        assertEquals(keptB, root.getChildAt(0));
+        assertEquals(2, root.getChildAt(0).getAttributes().size());
+        assertEquals(99, root.getChildAt(2).getAttributes().modifiedTime());
+    }
+
+    @Test
+    void attributeOnlyChangesAreReported() {
+        model.applySnapshot(root, snapshot(BY_NAME, file("a", 1), file("b", 5), file("d", 1)));
+
+        assertEquals(List.of("changed[1]"), events);
+    }
+
+    @Test
+    void snapshotSortedWithStaleOrderIsResorted() {
+        // 快照在排序规则更换前列出（按相反顺序排序）
+        DirectorySnapshot stale = snapshot(BY_NAME_REVERSED, file("d", 1), file("c", 1), file("b", 1), file("a", 1));
+
+        model.applySnapshot(root, stale);
+
+        assertEquals(List.of("a", "b", "c", "d"), childNames());
+        assertEquals(List.of("inserted[2]"), events);
+    }
+
+    @Test
+    void modelOrderChangeAfterListingIsRespected() {
+        DirectorySnapshot listed = snapshot(BY_NAME, file("a", 1), file("b", 1), file("c", 1), file("d", 1));
+        model.setOrder(BY_NAME_REVERSED);
+        events.clear();
+
+        model.applySnapshot(root, listed);
+
+        assertEquals(List.of("d", "c", "b", "a"), childNames());
+        assertEquals(List.of("inserted[1]"), events);
+    }
+
+    @Test
+    void folderMovedByAttributeChangeKeepsItsSubtree() {
+        Comparator<FileTreeModel.Entry> byTime = Comparator.comparingLong(FileTreeModel.Entry::modifiedTime);
+        model.setOrder(byTime);
+        model.applySnapshot(root, snapshot(byTime, dir("x", -1, 7), file("a", 1), file("z", 1)));
+        FileNode x = root.getChildAt(0);
+        model.applySnapshot(x, snapshot(byTime, file("inner", 1)));
+        events.clear();
+
+        // 文件夹中新建了文件：修改时间变化后排到最后
+        model.applySnapshot(root, snapshot(byTime, file("a", 1), file("z", 1), dir("x", 20, 7)));
+
+        assertEquals(List.of("a", "z", "x"), childNames());
+        assertEquals(List.of("structure"), events);
+        assertEquals(x, root.getChildAt(2));
+        assertTrue(x.isValid());
+        assertTrue(model.isLoaded(x));
+        assertEquals("inner", model.getChild(x, 0).getName());
+        assertEquals(20, x.getAttributes().modifiedTime());
+    }
+
+    @Test
+    void sameNameWithDifferentFileKeyIsReplaced() {
+        model.applySnapshot(root, snapshot(BY_NAME, file("a", 1), dir("x", 0, 7)));
+        FileNode x = root.getChildAt(1);
+        model.applySnapshot(x, snapshot(BY_NAME, file("inner", 1)));
+        events.clear();
+
+        // 同名文件夹被删除后重新创建
+        model.applySnapshot(root, snapshot(BY_NAME, file("a", 1), dir("x", 0, 8)));
+
+        assertEquals(List.of("removed[1]", "inserted[1]"), events);
+        assertFalse(x.isValid());
+        assertFalse(model.isLoaded(root.getChildAt(1)));
+    }
+
+    private List<String> childNames() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < model.getChildCount(root); i++) {
+            names.add(model.getChild(root, i).getName());
+        }
+        return names;
+    }
+
+    private DirectorySnapshot snapshot(Comparator<FileTreeModel.Entry> order, FileTreeModel.Entry... entries) {
+        List<FileTreeModel.Entry> list = new ArrayList<>(List.of(entries));
+        list.sort(order);
+        return new DirectorySnapshot(new File(temp.toFile(), "."), list, order);
+    }
+
+    private static FileTreeModel.Entry dir(String name, long modifiedTime, int fileKey) {
+        return new FileTreeModel.Entry(name, true, 0, modifiedTime, false, false, fileKey);
+    }
+
+    private static FileTreeModel.Entry file(String name, long size) {
+        return new FileTreeModel.Entry(name, false, size, 0);
+    }
+}
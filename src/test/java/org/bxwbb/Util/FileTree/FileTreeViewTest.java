@@ -0,0 +1,141 @@
+package org.bxwbb.Util.FileTree;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeExpansionListener;
+import javax.swing.tree.TreePath;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 过滤展开的事件测试：文件树结构 a/b/c.txt、d/e.txt，只使用模型本身，不访问文件系统
+ */
+class FileTreeViewTest {
+
+    private static final Comparator<FileTreeModel.Entry> BY_NAME = Comparator.comparing(FileTreeModel.Entry::name);
+
+    @TempDir
+    Path temp;
+
+    private FileTreeModel model;
+    private FileTreeView view;
+    private TreePath rootPath;
+    private final List<String> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        model = new FileTreeModel(temp.toFile(), BY_NAME);
+        FileNode root = model.getRoot();
+        model.applySnapshot(root, snapshot(temp.toFile(), dir("a"), dir("d")));
+        FileNode a = root.getChildAt(0);
+        model.applySnapshot(a, snapshot(a.getFile(), dir("b")));
+        FileNode b = a.getChildAt(0);
+        model.applySnapshot(b, snapshot(b.getFile(), file("c.txt")));
+        FileNode d = root.getChildAt(1);
+        model.applySnapshot(d, snapshot(d.getFile(), file("e.txt")));
+        rootPath = root.getTreePath();
+        SwingUtilities.invokeAndWait(() -> {
+            view = new FileTreeView(model);
+            view.expandPath(rootPath.pathByAddingChild(d));
+            view.addTreeExpansionListener(new TreeExpansionListener() {
+                @Override
+                public void treeExpanded(TreeExpansionEvent event) {
+                    events.add("expanded " + names(event.getPath()));
+                }
+
+                @Override
+                public void treeCollapsed(TreeExpansionEvent event) {
+                    events.add("collapsed " + names(event.getPath()));
+                }
+            });
+        });
+    }
+
+    @Test
+    void filterExpansionIsNotReportedToOtherListeners() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            FileNode c = model.getRoot().getChildAt(0).getChildAt(0).getChildAt(0);
+            view.setFilter(FileTreeFilter.of(model, List.of(c)));
+
+            assertTrue(view.isExpanded(c.getParent().getTreePath()));
+            assertEquals(List.of(), events);
+
+            view.setFilter(null);
+
+            // 过滤时展开的 a 被折叠，d 仍然展开
+            assertFalse(view.isExpanded(rootPath.pathByAddingChild(model.getRoot().getChildAt(0))));
+            assertTrue(view.isExpanded(rootPath.pathByAddingChild(model.getRoot().getChildAt(1))));
+            assertEquals(List.of("collapsed /a"), events);
+        });
+    }
+
+    @Test
+    void manualChangesDuringFilterAreUndoneForOtherListeners() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            FileNode c = model.getRoot().getChildAt(0).getChildAt(0).getChildAt(0);
+            TreePath d = rootPath.pathByAddingChild(model.getRoot().getChildAt(1));
+            view.setFilter(FileTreeFilter.of(model, List.of(c)));
+            view.collapsePath(d);
+            events.clear();
+
+            view.setFilter(null);
+
+            assertTrue(view.isExpanded(d));
+            assertEquals(List.of("collapsed /a", "expanded /d"), events);
+        });
+    }
+
+    @Test
+    void movedFolderStaysExpanded() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            Comparator<FileTreeModel.Entry> byTime = Comparator.comparingLong(FileTreeModel.Entry::modifiedTime);
+            FileNode root = model.getRoot();
+            model.applySnapshot(root, snapshot(temp.toFile(), dir("a"), dir("d")));
+            TreePath b = rootPath.pathByAddingChild(root.getChildAt(0)).pathByAddingChild(root.getChildAt(0).getChildAt(0));
+            view.expandPath(b);
+            model.setOrder(byTime);
+            events.clear();
+            TreePath a = b.getParentPath();
+            TreePath d = rootPath.pathByAddingChild(root.getChildAt(1));
+
+            // d 的修改时间变化后排到 a 前面
+            model.applySnapshot(root, new DirectorySnapshot(temp.toFile(),
+                    List.of(new FileTreeModel.Entry("d", true, 0, -1), dir("a")), byTime));
+
+            assertEquals("d", root.getChildAt(0).getName());
+            assertTrue(view.isExpanded(a));
+            assertTrue(view.isExpanded(b));
+            assertTrue(view.isExpanded(d));
+            assertEquals(List.of(), events);
+        });
+    }
+
+    private static String names(TreePath path) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i < path.getPathCount(); i++) {
+            builder.append('/').append(((FileNode) path.getPathComponent(i)).getName());
+        }
+        return builder.toString();
+    }
+
+    private static DirectorySnapshot snapshot(File folder, FileTreeModel.Entry... entries) {
+        return new DirectorySnapshot(folder, List.of(entries), BY_NAME);
+    }
+
+    private static FileTreeModel.Entry dir(String name) {
+        return new FileTreeModel.Entry(name, true, 0, 0);
+    }
+
+    private static FileTreeModel.Entry file(String name) {
+        return new FileTreeModel.Entry(name, false, 1, 0);
+    }
+}
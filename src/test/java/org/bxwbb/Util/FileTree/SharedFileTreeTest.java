@@ -0,0 +1,132 @@
+package org.bxwbb.Util.FileTree;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.*;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 共用文件树测试：已加载条目名称索引的缓存、根文件夹移动后的监听
+ */
+class SharedFileTreeTest {
+
+    private static final Comparator<FileTreeModel.Entry> BY_NAME = Comparator.comparing(FileTreeModel.Entry::name);
+    private static final BooleanSupplier NEVER = () -> false;
+
+    @TempDir
+    Path temp;
+
+    private SharedFileTree shared;
+    private FileTreeModel model;
+
+    @BeforeEach
+    void setUp() {
+        shared = SharedFileTree.acquire(temp.toFile(), BY_NAME);
+        model = shared.getModel();
+        model.applySnapshot(model.getRoot(), snapshot(file("a"), file("b")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        shared.release(null);
+    }
+
+    @Test
+    void loadedIndexIsReusedUntilStructureChanges() {
+        FileNameIndex.Loaded first = shared.loadedNameIndex();
+        assertSame(first, shared.loadedNameIndex());
+
+        // 只有属性变化时继续复用
+        model.applySnapshot(model.getRoot(), snapshot(file("a"), new FileTreeModel.Entry("b", false, 5, 0)));
+        assertSame(first, shared.loadedNameIndex());
+
+        model.applySnapshot(model.getRoot(), snapshot(file("a"), file("b"), file("c")));
+        FileNameIndex.Loaded second = shared.loadedNameIndex();
+        assertNotSame(first, second);
+        assertEquals(1, second.index().match("c", 10, NEVER).size());
+
+        model.applySnapshot(model.getRoot(), snapshot(file("a"), file("c")));
+        FileNameIndex.Loaded third = shared.loadedNameIndex();
+        assertNotSame(second, third);
+        assertEquals(List.of(), third.index().match("b", 10, NEVER));
+    }
+
+    @Test
+    void loadedSnapshotIsDecodedOffTheEdtAfterLaterChanges() throws Exception {
+        FileNameIndex.Loaded loaded = shared.loadedNameIndex();
+        // 之后加入大量名称，名称池扩容
+        List<FileTreeModel.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < 5000; i++) entries.add(file("added-" + i));
+        entries.sort(BY_NAME);
+        model.applySnapshot(model.getRoot(), new DirectorySnapshot(temp.toFile(), entries, BY_NAME));
+
+        List<String[]> matches = CompletableFuture.supplyAsync(() -> loaded.index().match("", 10, NEVER)).get();
+
+        assertEquals(List.of("a", "b"), matches.stream().map(path -> String.join("/", path)).toList());
+        assertEquals(5000, shared.loadedNameIndex().index().size());
+    }
+
+    @Test
+    void watchesFollowRenamedRoot() throws Exception {
+        Path oldRoot = Files.createDirectories(temp.resolve("old"));
+        Files.createDirectories(oldRoot.resolve("sub"));
+        SharedFileTree moved = SharedFileTree.acquire(oldRoot.toFile(), BY_NAME);
+        JTree view = new JTree();
+        try {
+            FileTreeModel movedModel = moved.getModel();
+            SwingUtilities.invokeAndWait(() -> {
+                FileNode root = movedModel.getRoot();
+                movedModel.applySnapshot(root, DirectorySnapshot.list(root.getFile(), BY_NAME));
+                FileNode sub = root.getChildAt(0);
+                movedModel.applySnapshot(sub, DirectorySnapshot.list(sub.getFile(), BY_NAME));
+                moved.attach(view);
+                moved.watch(view, oldRoot.resolve("sub"));
+            });
+
+            Path newRoot = Files.move(oldRoot, temp.resolve("new"));
+            SwingUtilities.invokeAndWait(() -> moved.setRootFile(newRoot.toFile()));
+
+            assertTrue(moved.isWatching(newRoot.resolve("sub")));
+            assertFalse(moved.isWatching(oldRoot.resolve("sub")));
+            // 移动后的变化仍然同步到模型
+            Files.writeString(newRoot.resolve("sub").resolve("created.txt"), "x");
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            AtomicBoolean found = new AtomicBoolean();
+            while (!found.get() && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+                SwingUtilities.invokeAndWait(() -> {
+                    FileNode sub = movedModel.getRoot().getChildAt(0);
+                    found.set(movedModel.getLoadedChildCount(sub) == 1);
+                });
+            }
+            assertTrue(found.get(), "根文件夹移动后没有收到变化");
+
+            SwingUtilities.invokeAndWait(() -> moved.unwatchTree(view, newRoot));
+            assertFalse(moved.isWatching(newRoot.resolve("sub")));
+        } finally {
+            SwingUtilities.invokeAndWait(() -> moved.release(view));
+        }
+    }
+
+    private DirectorySnapshot snapshot(FileTreeModel.Entry... entries) {
+        return new DirectorySnapshot(new File(temp.toFile(), "."), List.of(entries), BY_NAME);
+    }
+
+    private static FileTreeModel.Entry file(String name) {
+        return new FileTreeModel.Entry(name, false, 1, 0);
+    }
+}
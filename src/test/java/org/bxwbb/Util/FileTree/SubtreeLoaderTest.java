@@ -0,0 +1,78 @@
+package org.bxwbb.Util.FileTree;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.swing.*;
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 全量加载测试：文件夹结构 p/b/in-b.txt、p/c/in-c.txt
+ */
+class SubtreeLoaderTest {
+
+    private static final Comparator<FileTreeModel.Entry> BY_NAME = Comparator.comparing(FileTreeModel.Entry::name);
+
+    @TempDir
+    Path temp;
+
+    @Test
+    void listingIsAttachedToTheFolderWithTheSameName() throws Exception {
+        Path p = Files.createDirectories(temp.resolve("p"));
+        Files.writeString(Files.createDirectories(p.resolve("b")).resolve("in-b.txt"), "b");
+        Files.writeString(Files.createDirectories(p.resolve("c")).resolve("in-c.txt"), "c");
+        FileTreeModel model = new FileTreeModel(temp.toFile(), BY_NAME);
+        CompletableFuture<Boolean> finished = new CompletableFuture<>();
+
+        SwingUtilities.invokeAndWait(() -> {
+            FileNode root = model.getRoot();
+            model.applySnapshot(root, DirectorySnapshot.list(root.getFile(), BY_NAME));
+            SubtreeLoader loader = new SubtreeLoader(root, new SubtreeLoader.Listener() {
+                @Override
+                public void onProgress(long attached, long listed) {
+                }
+
+                @Override
+                public void onFinished(List<FileNode> directories, boolean cancelled) {
+                    finished.complete(cancelled);
+                }
+            }, null);
+            // 在EDT被占用时列出全部文件夹，挂载排在这之后
+            Thread thread = new Thread(loader::run);
+            thread.start();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            // 列出后、挂载前子节点的顺序变化：p 的子节点变为 c、b
+            model.setOrder(BY_NAME.reversed());
+        });
+
+        assertFalse(finished.get(10, TimeUnit.SECONDS));
+        SwingUtilities.invokeAndWait(() -> {
+            FileNode folder = model.getRoot().getChildAt(0);
+            assertEquals(List.of("c", "b"), names(model, folder));
+            assertEquals(List.of("in-c.txt"), names(model, folder.getChildAt(0)));
+            assertEquals(List.of("in-b.txt"), names(model, folder.getChildAt(1)));
+        });
+    }
+
+    private static List<String> names(FileTreeModel model, FileNode dir) {
+        assertTrue(model.isLoaded(dir), dir.getName() + " 未加载");
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < model.getLoadedChildCount(dir); i++) {
+            names.add(model.getChild(dir, i).getName());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,130 @@
+package org.bxwbb.Util.Resource;
+
+import org.bxwbb.Util.FileUtil;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 语言表热点键的性能测试（手动运行，不在 mvn test 中执行）
+ * 对比三种取值方式：
+ * 1. legacy：改造前的实现（缓存原始模板，每次用正则查找占位符并逐个 String.replace，再还原转义花括号）
+ * 2. template：{@link LangTable} 中预编译的模板直接拼接
+ * 3. getLang：{@link FileUtil#getLang} 完整调用（读取当前资源快照 + 预编译模板）
+ * 运行：mvn test-compile 后
+ * java -cp target/classes:target/test-classes:&lt;依赖&gt; org.bxwbb.Util.Resource.LangTableBenchmark [语言文件] [每轮次数]
+ */
+public final class LangTableBenchmark {
+
+    private static final String HOT_KEY = "miniWindow.fileManager.loadAll.workerName";
+    private static final String PLAIN_KEY = "miniWindow.fileManager.loading";
+    private static final int WARMUP_ROUNDS = 5;
+    private static final int ROUNDS = 10;
+
+    // 防止结果被优化掉
+    private static long sink;
+
+    private LangTableBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        File file = new File(args.length > 0 ? args[0] : "res/language/zh_cn.json");
+        int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        if (!file.isFile()) {
+            System.err.println("找不到语言文件 - " + file.getAbsolutePath());
+            System.exit(1);
+        }
+
+        LangTable table = LangTable.load(file, FileUtil.objectMapper.getFactory());
+        FileUtil.languageJsonFile = file;
+        FileUtil.reloadResources();
+        LegacyLang legacy = new LegacyLang(table);
+
+        System.out.printf("语言文件 %s，%d 个键，每轮 %d 次%n", file.getPath(), table.size(), iterations);
+        for (String key : new String[]{HOT_KEY, PLAIN_KEY}) {
+            LangTable.MessageTemplate template = table.get(key);
+            if (template == null) {
+                System.err.println("语言文件中没有测试用的键 - " + key);
+                System.exit(1);
+            }
+            System.out.println("键 " + key + "（" + template.getPlaceholderCount() + " 个占位符）");
+            run("legacy", iterations, i -> legacy.get(key, String.valueOf(i), "42"));
+            run("template", iterations, i -> table.get(key).format(key, String.valueOf(i), "42"));
+            run("getLang", iterations, i -> FileUtil.getLang(key, String.valueOf(i), "42"));
+        }
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static void run(String name, int iterations, Op op) {
+        for (int round = 0; round < WARMUP_ROUNDS; round++) {
+            measure(iterations, op);
+        }
+        double best = Double.MAX_VALUE;
+        double total = 0;
+        for (int round = 0; round < ROUNDS; round++) {
+            double nanos = measure(iterations, op);
+            best = Math.min(best, nanos);
+            total += nanos;
+        }
+        System.out.printf("  %-9s 平均 %7.1f ns/op，最快 %7.1f ns/op%n", name, total / ROUNDS, best);
+    }
+
+    private static double measure(int iterations, Op op) {
+        long start = System.nanoTime();
+        long length = 0;
+        for (int i = 0; i < iterations; i++) {
+            length += op.apply(i).length();
+        }
+        long elapsed = System.nanoTime() - start;
+        sink += length;
+        return (double) elapsed / iterations;
+    }
+
+    @FunctionalInterface
+    private interface Op {
+        String apply(int i);
+    }
+
+    /**
+     * 改造前 FileUtil.getLang 的命中路径（只保留缓存命中的部分）
+     */
+    private static final class LegacyLang {
+        private static final Pattern PLACEHOLDER_PATTERN = Pattern.compile("(?<!\\\\)\\{(\\d+)}");
+        private final Map<String, String> map = new HashMap<>();
+
+        private LegacyLang(LangTable table) {
+            // 模板的原文：把预编译结果按占位符还原
+            for (String key : new String[]{HOT_KEY, PLAIN_KEY}) {
+                int count = table.get(key).getPlaceholderCount();
+                String[] placeholders = new String[count];
+                for (int i = 0; i < count; i++) placeholders[i] = "{" + i + "}";
+                map.put(key, table.get(key).format(key, placeholders));
+            }
+        }
+
+        private String get(String key, String... params) {
+            String template = map.get(key);
+            if (params == null || params.length == 0) {
+                return unescapeBrace(template);
+            }
+            String result = template;
+            Matcher matcher = PLACEHOLDER_PATTERN.matcher(template);
+            while (matcher.find()) {
+                String fullPlaceholder = matcher.group(0);
+                int index = Integer.parseInt(matcher.group(1));
+                if (index < params.length) {
+                    String paramValue = params[index] == null ? "" : params[index];
+                    result = result.replace(fullPlaceholder, paramValue);
+                }
+            }
+            return unescapeBrace(result);
+        }
+
+        private static String unescapeBrace(String text) {
+            return text.replace("\\{", "{").replace("\\}", "}");
+        }
+    }
+}